@@ -81,6 +81,17 @@ public class BundleTask extends Task {
 	 */
 	private String servletAPIversion = DEFAULT_SERVLET_API_VERSION;
 	
+	/**
+	 * The number of threads used to create the bundle files. Default value : 1.  
+	 */
+	private int threadCount = 1;
+	
+	/**
+	 * The flag indicating if the bundle files which are up to date must not be generated again.
+	 * In this mode, the temporary and the destination directories are not cleaned.  
+	 */
+	private boolean incremental = false;
+	
 	/**
 	 * Sets the root directory path
 	 * @param rootPath the path to set
@@ -146,6 +157,22 @@ public class BundleTask extends Task {
 		this.servletAPIversion = servletAPIversion;
 	}
 
+	/**
+	 * Sets the number of threads used to create the bundle files
+	 * @param threadCount the threadCount to set
+	 */
+	public void setThreadCount(int threadCount) {
+		this.threadCount = threadCount;
+	}
+
+	/**
+	 * Sets the flag indicating if the bundle files which are up to date must not be generated again
+	 * @param incremental the incremental to set
+	 */
+	public void setIncremental(boolean incremental) {
+		this.incremental = incremental;
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -175,13 +202,13 @@ public class BundleTask extends Task {
 		File tempDir = new File(tempDirPath);
 		if(!tempDir.exists()){
 			tempDir.mkdirs();
-		}else{
+		}else if(!incremental){
 			cleanDirectory(tempDir);
 		}
 		File destDir = new File(destDirPath);
 		if(!destDir.exists()){
 			destDir.mkdirs();
-		}else{
+		}else if(!incremental){
 			cleanDirectory(destDir);
 		}
 		
@@ -195,6 +222,8 @@ public class BundleTask extends Task {
 		}
 		
 		BundleProcessor bundleProcessor = new BundleProcessor();
+		bundleProcessor.setThreadCount(threadCount);
+		bundleProcessor.setIncremental(incremental);
 		bundleProcessor.process(rootPath, tempDirPath, destDirPath, springConfigFiles, servlets, generateCDNFiles, keepUrlMapping, servletAPIversion);
 	}
 
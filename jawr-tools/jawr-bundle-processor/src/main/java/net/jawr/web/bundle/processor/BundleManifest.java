@@ -0,0 +1,159 @@
+/**
+ * Copyright 2017 Ibrahim Chaehoi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package net.jawr.web.bundle.processor;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import net.jawr.web.resource.bundle.IOUtils;
+
+/**
+ * The bundle manifest stores, for each file generated by the bundle
+ * processor, the fingerprint of the inputs used to generate it. The
+ * fingerprint of a bundle is made of the hashcode of the Jawr configuration
+ * and of the hashcode of the bundle content, which changes when a member file
+ * or the post processor chain changes. The fingerprint of a binary resource is
+ * its cache busted URL.
+ *
+ * In incremental mode, the files whose fingerprint has not changed since the
+ * last run are not generated again, and the files which are not generated
+ * anymore are deleted.
+ *
+ * @author Ibrahim Chaehoi
+ */
+public class BundleManifest {
+
+	/** The name of the manifest file */
+	public static final String MANIFEST_FILE_NAME = "jawr-bundle-manifest.properties";
+
+	/** The manifest file */
+	private final File manifestFile;
+
+	/** The fingerprints stored at the last run */
+	private final Properties previousFingerprints = new Properties();
+
+	/** The fingerprints of the current run */
+	private final Properties fingerprints = new Properties();
+
+	/**
+	 * Constructor
+	 *
+	 * @param destDir
+	 *            the destination directory
+	 * @param incremental
+	 *            the flag indicating if the fingerprints of the last run must
+	 *            be loaded
+	 * @throws IOException
+	 *             if an IO exception occurs
+	 */
+	public BundleManifest(File destDir, boolean incremental) throws IOException {
+
+		this.manifestFile = new File(destDir, MANIFEST_FILE_NAME);
+		if (incremental && manifestFile.isFile()) {
+			InputStream is = null;
+			try {
+				is = new FileInputStream(manifestFile);
+				previousFingerprints.load(is);
+			} finally {
+				IOUtils.close(is);
+			}
+		}
+	}
+
+	/**
+	 * Checks if the file given in parameter has already been generated with
+	 * the same inputs
+	 *
+	 * @param path
+	 *            the path of the file in the destination directory
+	 * @param destFile
+	 *            the file
+	 * @param fingerprint
+	 *            the fingerprint of the inputs
+	 * @return true if the file is up to date
+	 */
+	public boolean isUpToDate(String path, File destFile, String fingerprint) {
+
+		return fingerprint != null && destFile.isFile()
+				&& fingerprint.equals(previousFingerprints.getProperty(path));
+	}
+
+	/**
+	 * Stores the fingerprint of a generated file
+	 *
+	 * @param path
+	 *            the path of the file in the destination directory
+	 * @param fingerprint
+	 *            the fingerprint of the inputs
+	 */
+	public synchronized void addFingerprint(String path, String fingerprint) {
+
+		if (fingerprint != null) {
+			fingerprints.setProperty(path, fingerprint);
+		}
+	}
+
+	/**
+	 * Deletes the files generated at the last run which have not been
+	 * generated by the current run, like the ones of the bundles removed from
+	 * the configuration. This only applies to the incremental mode, where
+	 * the destination directory is not cleared.
+	 *
+	 * @return the paths of the deleted files
+	 */
+	public synchronized List<String> deleteRemovedFiles() {
+
+		List<String> deletedPaths = new ArrayList<String>();
+		for (String path : previousFingerprints.stringPropertyNames()) {
+			if (!fingerprints.containsKey(path)) {
+				File file = new File(manifestFile.getParentFile(), path);
+				if (file.isFile() && file.delete()) {
+					deletedPaths.add(path);
+				}
+			}
+		}
+		return deletedPaths;
+	}
+
+	/**
+	 * Saves the manifest
+	 *
+	 * @throws IOException
+	 *             if an IO exception occurs
+	 */
+	public synchronized void save() throws IOException {
+
+		if (!manifestFile.getParentFile().mkdirs()
+				&& !manifestFile.getParentFile().isDirectory()) {
+			throw new IOException("The directory '"
+					+ manifestFile.getParentFile().getCanonicalPath()
+					+ "' can't be created.");
+		}
+
+		OutputStream os = null;
+		try {
+			os = new FileOutputStream(manifestFile);
+			fingerprints.store(os, "Jawr bundle manifest");
+		} finally {
+			IOUtils.close(os);
+		}
+	}
+}
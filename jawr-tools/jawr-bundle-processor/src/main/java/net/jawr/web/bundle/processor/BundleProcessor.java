@@ -30,8 +30,14 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import javax.servlet.ServletConfig;
 import javax.servlet.ServletContext;
@@ -49,6 +55,7 @@ import net.jawr.web.bundle.processor.spring.SpringControllerBundleProcessor;
 import net.jawr.web.config.JawrConfig;
 import net.jawr.web.context.ThreadLocalJawrContext;
 import net.jawr.web.resource.BinaryResourcesHandler;
+import net.jawr.web.resource.bundle.CheckSumUtils;
 import net.jawr.web.resource.bundle.IOUtils;
 import net.jawr.web.resource.bundle.JoinableResourceBundle;
 import net.jawr.web.resource.bundle.factory.util.PathNormalizer;
@@ -170,6 +177,58 @@ public class BundleProcessor {
 	/** The default web application URL */
 	private static final String DEFAULT_WEBAPP_URL = "{WEBAPP_URL}";
 
+	/** The number of threads used to create the bundle files */
+	private int threadCount = 1;
+
+	/**
+	 * The flag indicating if the files which are up to date must not be
+	 * generated again
+	 */
+	private boolean incremental = false;
+
+	/** The manifest of the generated files */
+	private BundleManifest manifest;
+
+	/**
+	 * Returns the number of threads used to create the bundle files
+	 *
+	 * @return the number of threads used to create the bundle files
+	 */
+	public int getThreadCount() {
+		return threadCount;
+	}
+
+	/**
+	 * Sets the number of threads used to create the bundle files
+	 *
+	 * @param threadCount
+	 *            the number of threads to set
+	 */
+	public void setThreadCount(int threadCount) {
+		this.threadCount = threadCount;
+	}
+
+	/**
+	 * Returns the flag indicating if the files which are up to date must not
+	 * be generated again
+	 *
+	 * @return the flag indicating if the bundle processing is incremental
+	 */
+	public boolean isIncremental() {
+		return incremental;
+	}
+
+	/**
+	 * Sets the flag indicating if the files which are up to date must not be
+	 * generated again
+	 *
+	 * @param incremental
+	 *            the flag to set
+	 */
+	public void setIncremental(boolean incremental) {
+		this.incremental = incremental;
+	}
+
 
 	/**
 	 * Launch the bundle processing
@@ -575,6 +634,8 @@ public class BundleProcessor {
 		String cssServletMapping = "";
 		String binaryServletMapping = "";
 
+		manifest = new BundleManifest(new File(destDirPath), incremental);
+
 		for (Iterator<ServletDefinition> iterator = jawrServletDefinitions
 				.iterator(); iterator.hasNext();) {
 
@@ -646,6 +707,14 @@ public class BundleProcessor {
 			}
 		}
 
+		// The files of the removed bundles are deleted in incremental mode
+		List<String> deletedPaths = manifest.deleteRemovedFiles();
+		if (logger.isDebugEnabled() && !deletedPaths.isEmpty()) {
+			logger.debug("The files " + deletedPaths
+					+ " are not generated anymore and have been deleted");
+		}
+		manifest.save();
+
 		// Create the apache rewrite config file.
 		createApacheRewriteConfigFile(destDirPath, appRootDir,
 				jsServletMapping, cssServletMapping, binaryServletMapping);
@@ -754,12 +823,6 @@ public class BundleProcessor {
 				.getContextBundles();
 
 		Iterator<JoinableResourceBundle> bundleIterator = bundles.iterator();
-		MockServletResponse response = new MockServletResponse();
-		MockServletRequest request = new MockServletRequest(
-				JAWR_BUNDLE_PROCESSOR_CONTEXT_PATH);
-		MockServletSession session = new MockServletSession(
-				servlet.getServletContext());
-		request.setSession(session);
 
 		String resourceType = servlet.getServletConfig().getInitParameter(
 				TYPE_INIT_PARAMETER);
@@ -767,6 +830,15 @@ public class BundleProcessor {
 			resourceType = JawrConstant.JS_TYPE;
 		}
 
+		JawrConfig config = bundleHandler.getConfig();
+		String configHashcode = CheckSumUtils.getMD5Checksum(config
+				.getConfigProperties().toString());
+
+		// The files are grouped by mode, because the debug mode of the config
+		// must match the one used in the generated links
+		List<BundleFile> productionBundleFiles = new ArrayList<BundleFile>();
+		List<BundleFile> debugBundleFiles = new ArrayList<BundleFile>();
+
 		// For the list of bundle defines, create the file associated
 		while (bundleIterator.hasNext()) {
 			JoinableResourceBundle bundle = (JoinableResourceBundle) bundleIterator
@@ -799,6 +871,15 @@ public class BundleProcessor {
 				Map<String, String> variantMap = (Map<String, String>) it
 						.next();
 
+				// The bundle data hashcode changes when the content of the
+				// bundle changes
+				String fingerprint = null;
+				String bundleHashcode = bundle.getBundleDataHashCode(VariantUtils
+						.getVariantKey(variantMap));
+				if (bundleHashcode != null) {
+					fingerprint = configHashcode + "_" + bundleHashcode;
+				}
+
 				List<RenderedLink> linksToBundle = createLinkToBundle(
 						bundleHandler, bundle.getId(), resourceType, variantMap);
 				for (Iterator<RenderedLink> iteratorLinks = linksToBundle
@@ -808,7 +889,6 @@ public class BundleProcessor {
 
 					// Force the debug mode of the config to match what was used
 					// in the generated link
-					JawrConfig config = bundleHandler.getConfig();
 					config.setDebugModeOn(renderedLink.isDebugMode());
 
 					String finalBundlePath = null;
@@ -819,19 +899,30 @@ public class BundleProcessor {
 								variantMap);
 					}
 
-					// Sets the request URL
-					setRequestUrl(request, variantMap, path, config);
-
 					// We can't use path for generated resources because it's
 					// not a valid file path ( /jawr_generator.js?xxx.... )
 					if (!(path.indexOf("?") != -1) || !keepUrlMapping) {
-						File bundleFile = new File(destDirPath, finalBundlePath);
-						createBundleFile(servlet, response, request, path,
-								bundleFile, servletMapping);
+						BundleFile bundleFile = new BundleFile(path, path,
+								finalBundlePath, new File(destDirPath,
+										finalBundlePath), variantMap,
+								fingerprint);
+						if (renderedLink.isDebugMode()) {
+							debugBundleFiles.add(bundleFile);
+						} else {
+							productionBundleFiles.add(bundleFile);
+						}
 					}
 				}
 			}
 		}
+
+		config.setDebugModeOn(false);
+		createBundleFiles(servlet, productionBundleFiles, servletMapping,
+				config, true);
+
+		config.setDebugModeOn(true);
+		createBundleFiles(servlet, debugBundleFiles, servletMapping, config,
+				true);
 	}
 
 	/**
@@ -1017,9 +1108,6 @@ public class BundleProcessor {
 		Map<String, String> bundleImgMap = binaryRsHandler.getBinaryPathMap();
 
 		Iterator<String> bundleIterator = bundleImgMap.values().iterator();
-		MockServletResponse response = new MockServletResponse();
-		MockServletRequest request = new MockServletRequest(
-				JAWR_BUNDLE_PROCESSOR_CONTEXT_PATH);
 
 		String jawrServletMapping = servletConfig
 				.getInitParameter(JawrConstant.SERVLET_MAPPING_PROPERTY_NAME);
@@ -1033,6 +1121,8 @@ public class BundleProcessor {
 			servletMapping = jawrServletMapping;
 		}
 
+		List<BundleFile> binaryFiles = new ArrayList<BundleFile>();
+
 		// For the list of bundle defines, create the file associated
 		while (bundleIterator.hasNext()) {
 			String path = (String) bundleIterator.next();
@@ -1047,16 +1137,154 @@ public class BundleProcessor {
 			}
 
 			File destFile = new File(destDirPath, binaryFinalPath);
-						
-			Map<String, String> variantMap = new HashMap<String, String>();
-			setRequestUrl(request, variantMap , path, binaryRsHandler.getConfig());
 
 			// Update the bundle mapping
-			path = PathNormalizer.concatWebPath(
+			String requestPath = PathNormalizer.concatWebPath(
 					PathNormalizer.asDirPath(jawrServletMapping), path);
-			createBundleFile(servlet, response, request, path, destFile,
-					servletMapping);
+
+			// The cache busted path contains the checksum of the resource
+			binaryFiles.add(new BundleFile(path, requestPath, binaryFinalPath,
+					destFile, new HashMap<String, String>(), path));
 		}
+
+		createBundleFiles(servlet, binaryFiles, servletMapping,
+				binaryRsHandler.getConfig(), false);
+	}
+
+	/**
+	 * Create the bundle files, using the number of threads defined for the
+	 * bundle processor. The files which are up to date are skipped in
+	 * incremental mode.
+	 * 
+	 * @param servlet
+	 *            the servlet
+	 * @param bundleFiles
+	 *            the bundle files to create
+	 * @param mapping
+	 *            the mapping
+	 * @param config
+	 *            the Jawr config
+	 * @param useSession
+	 *            the flag indicating if the requests must have a session
+	 * @throws IOException
+	 *             if an IO exception occurs
+	 * @throws ServletException
+	 *             if an exception occurs
+	 */
+	protected void createBundleFiles(final HttpServlet servlet,
+			List<BundleFile> bundleFiles, final String mapping,
+			final JawrConfig config, final boolean useSession)
+			throws IOException, ServletException {
+
+		// The members shared by several bundles are written once in debug
+		// mode, as they have the same destination file
+		Map<String, BundleFile> bundleFilesByDestPath = new LinkedHashMap<String, BundleFile>();
+		for (BundleFile bundleFile : bundleFiles) {
+			String destPath = bundleFile.getDestFile().getAbsolutePath();
+			if (!bundleFilesByDestPath.containsKey(destPath)) {
+				bundleFilesByDestPath.put(destPath, bundleFile);
+			}
+		}
+
+		List<BundleFile> filesToCreate = new ArrayList<BundleFile>();
+		for (BundleFile bundleFile : bundleFilesByDestPath.values()) {
+			if (manifest.isUpToDate(bundleFile.getFinalPath(),
+					bundleFile.getDestFile(), bundleFile.getFingerprint())) {
+				if (logger.isDebugEnabled()) {
+					logger.debug("The file '" + bundleFile.getFinalPath()
+							+ "' is up to date");
+				}
+				manifest.addFingerprint(bundleFile.getFinalPath(),
+						bundleFile.getFingerprint());
+			} else {
+				filesToCreate.add(bundleFile);
+			}
+		}
+
+		if (threadCount <= 1 || filesToCreate.size() <= 1) {
+			for (BundleFile bundleFile : filesToCreate) {
+				createBundleFile(servlet, bundleFile, mapping, config,
+						useSession);
+			}
+			return;
+		}
+
+		ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+		try {
+			List<Future<Void>> results = new ArrayList<Future<Void>>();
+			for (final BundleFile bundleFile : filesToCreate) {
+				results.add(executor.submit(new Callable<Void>() {
+
+					public Void call() throws Exception {
+						createBundleFile(servlet, bundleFile, mapping, config,
+								useSession);
+						return null;
+					}
+				}));
+			}
+
+			for (Future<Void> result : results) {
+				try {
+					result.get();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new IOException(
+							"The creation of the bundle files has been interrupted");
+				} catch (ExecutionException e) {
+					Throwable cause = e.getCause();
+					if (cause instanceof IOException) {
+						throw (IOException) cause;
+					} else if (cause instanceof ServletException) {
+						throw (ServletException) cause;
+					} else if (cause instanceof RuntimeException) {
+						throw (RuntimeException) cause;
+					}
+					throw new ServletException(cause);
+				}
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Create a bundle file with its own request and response, and stores its
+	 * fingerprint in the manifest
+	 * 
+	 * @param servlet
+	 *            the servlet
+	 * @param bundleFile
+	 *            the bundle file
+	 * @param mapping
+	 *            the mapping
+	 * @param config
+	 *            the Jawr config
+	 * @param useSession
+	 *            the flag indicating if the request must have a session
+	 * @throws IOException
+	 *             if an IO exception occurs
+	 * @throws ServletException
+	 *             if an exception occurs
+	 */
+	protected void createBundleFile(HttpServlet servlet, BundleFile bundleFile,
+			String mapping, JawrConfig config, boolean useSession)
+			throws IOException, ServletException {
+
+		MockServletResponse response = new MockServletResponse();
+		MockServletRequest request = new MockServletRequest(
+				JAWR_BUNDLE_PROCESSOR_CONTEXT_PATH);
+		if (useSession) {
+			request.setSession(new MockServletSession(servlet
+					.getServletContext()));
+		}
+
+		// Sets the request URL
+		setRequestUrl(request, bundleFile.getVariantMap(),
+				bundleFile.getPath(), config);
+		createBundleFile(servlet, response, request,
+				bundleFile.getRequestPath(), bundleFile.getDestFile(), mapping);
+		manifest.addFingerprint(bundleFile.getFinalPath(),
+				bundleFile.getFingerprint());
 	}
 
 	/**
@@ -1086,14 +1314,12 @@ public class BundleProcessor {
 
 		request.setRequestPath(mapping, path);
 
-		// Create the parent directory of the destination file
-		if (!destFile.getParentFile().exists()) {
-			boolean dirsCreated = destFile.getParentFile().mkdirs();
-			if (!dirsCreated) {
-				throw new IOException("The directory '"
-						+ destFile.getParentFile().getCanonicalPath()
-						+ "' can't be created.");
-			}
+		// Create the parent directory of the destination file. The directory
+		// may be created at the same time by another worker.
+		File parentDir = destFile.getParentFile();
+		if (!parentDir.mkdirs() && !parentDir.isDirectory()) {
+			throw new IOException("The directory '"
+					+ parentDir.getCanonicalPath() + "' can't be created.");
 		}
 
 		// Set the response mock to write in the destination file
@@ -1178,6 +1404,101 @@ public class BundleProcessor {
 		return linksToBundle;
 	}
 
+	/**
+	 * This class defines a file to create from a bundle or a binary resource
+	 * 
+	 * @author Ibrahim Chaehoi
+	 */
+	protected static class BundleFile {
+
+		/** The path of the resource */
+		private final String path;
+
+		/** The request path */
+		private final String requestPath;
+
+		/** The path of the file in the destination directory */
+		private final String finalPath;
+
+		/** The destination file */
+		private final File destFile;
+
+		/** The variant map */
+		private final Map<String, String> variantMap;
+
+		/** The fingerprint of the inputs of the file */
+		private final String fingerprint;
+
+		/**
+		 * Constructor
+		 * 
+		 * @param path
+		 *            the path of the resource
+		 * @param requestPath
+		 *            the request path
+		 * @param finalPath
+		 *            the path of the file in the destination directory
+		 * @param destFile
+		 *            the destination file
+		 * @param variantMap
+		 *            the variant map
+		 * @param fingerprint
+		 *            the fingerprint of the inputs of the file
+		 */
+		public BundleFile(String path, String requestPath, String finalPath,
+				File destFile, Map<String, String> variantMap,
+				String fingerprint) {
+			this.path = path;
+			this.requestPath = requestPath;
+			this.finalPath = PathNormalizer.asPath(finalPath);
+			this.destFile = destFile;
+			this.variantMap = variantMap;
+			this.fingerprint = fingerprint;
+		}
+
+		/**
+		 * @return the path of the resource
+		 */
+		public String getPath() {
+			return path;
+		}
+
+		/**
+		 * @return the request path
+		 */
+		public String getRequestPath() {
+			return requestPath;
+		}
+
+		/**
+		 * @return the path of the file in the destination directory
+		 */
+		public String getFinalPath() {
+			return finalPath;
+		}
+
+		/**
+		 * @return the destination file
+		 */
+		public File getDestFile() {
+			return destFile;
+		}
+
+		/**
+		 * @return the variant map
+		 */
+		public Map<String, String> getVariantMap() {
+			return variantMap;
+		}
+
+		/**
+		 * @return the fingerprint of the inputs of the file
+		 */
+		public String getFingerprint() {
+			return fingerprint;
+		}
+	}
+
 	/**
 	 * This is the custom class loader for Jawr Bundle processor
 	 * 
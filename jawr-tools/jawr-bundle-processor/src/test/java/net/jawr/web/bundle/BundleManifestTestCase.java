@@ -0,0 +1,93 @@
+package net.jawr.web.bundle;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+import net.jawr.web.bundle.processor.BundleManifest;
+
+import org.junit.Test;
+
+/**
+ * Bundle manifest test case
+ *
+ * @author Ibrahim Chaehoi
+ */
+public class BundleManifestTestCase extends TestCase {
+
+	private File destDir = new File("target/manifest");
+
+	private File bundleFile = new File(destDir, "js/bundle/msg.js");
+
+	protected void setUp() throws Exception {
+		FileUtils.clearDirectory(destDir.getAbsolutePath());
+		bundleFile.getParentFile().mkdirs();
+		FileWriter writer = new FileWriter(bundleFile);
+		writer.write("var msg;");
+		writer.close();
+	}
+
+	@Test
+	public void testUpToDateFileAfterIncrementalRun() throws IOException {
+
+		BundleManifest manifest = new BundleManifest(destDir, true);
+		assertFalse(manifest.isUpToDate("/js/bundle/msg.js", bundleFile,
+				"123_456"));
+		manifest.addFingerprint("/js/bundle/msg.js", "123_456");
+		manifest.save();
+
+		manifest = new BundleManifest(destDir, true);
+		assertTrue(manifest.isUpToDate("/js/bundle/msg.js", bundleFile,
+				"123_456"));
+		assertFalse(manifest.isUpToDate("/js/bundle/msg.js", bundleFile,
+				"123_789"));
+		assertFalse(manifest.isUpToDate("/js/bundle/msg.js", bundleFile, null));
+
+		bundleFile.delete();
+		assertFalse(manifest.isUpToDate("/js/bundle/msg.js", bundleFile,
+				"123_456"));
+	}
+
+	@Test
+	public void testRemovedFilesDeletedAfterIncrementalRun()
+			throws IOException {
+
+		BundleManifest manifest = new BundleManifest(destDir, true);
+		manifest.addFingerprint("/js/bundle/msg.js", "123_456");
+		manifest.save();
+
+		// The bundle has been removed from the configuration
+		manifest = new BundleManifest(destDir, true);
+		assertEquals(Arrays.asList("/js/bundle/msg.js"),
+				manifest.deleteRemovedFiles());
+		assertFalse(bundleFile.exists());
+	}
+
+	@Test
+	public void testGeneratedFilesKeptAfterIncrementalRun()
+			throws IOException {
+
+		BundleManifest manifest = new BundleManifest(destDir, true);
+		manifest.addFingerprint("/js/bundle/msg.js", "123_456");
+		manifest.save();
+
+		manifest = new BundleManifest(destDir, true);
+		manifest.addFingerprint("/js/bundle/msg.js", "123_456");
+		assertTrue(manifest.deleteRemovedFiles().isEmpty());
+		assertTrue(bundleFile.exists());
+	}
+
+	@Test
+	public void testManifestIgnoredInFullRun() throws IOException {
+
+		BundleManifest manifest = new BundleManifest(destDir, false);
+		manifest.addFingerprint("/js/bundle/msg.js", "123_456");
+		manifest.save();
+
+		manifest = new BundleManifest(destDir, false);
+		assertFalse(manifest.isUpToDate("/js/bundle/msg.js", bundleFile,
+				"123_456"));
+	}
+}
@@ -99,6 +99,21 @@ public class JawrMojo extends AbstractMojo {
 	 */
 	private String servletAPIversion = "2.3";
 	
+	/**
+	 * The number of threads used to create the bundle files.
+	 * 
+	 * @parameter default-value="1"
+	 */
+	private int threadCount = 1;
+	
+	/**
+	 * The flag indicating if the bundle files which are up to date must not be generated again.
+	 * In this mode, the temporary and the destination directories are not cleaned.
+	 * 
+	 * @parameter default-value="false"
+	 */
+	private boolean incremental;
+	
 	
 	/**
 	 * Sets the servlet API version
@@ -139,6 +154,22 @@ public class JawrMojo extends AbstractMojo {
 		this.keepUrlMapping = keepUrlMapping;
 	}
 
+	/**
+	 * Sets the number of threads used to create the bundle files
+	 * @param threadCount the threadCount to set
+	 */
+	public void setThreadCount(int threadCount) {
+		this.threadCount = threadCount;
+	}
+
+	/**
+	 * Sets the flag indicating if the bundle files which are up to date must not be generated again
+	 * @param incremental the incremental to set
+	 */
+	public void setIncremental(boolean incremental) {
+		this.incremental = incremental;
+	}
+
 	/**
 	 * @return the rootPath
 	 */
@@ -210,13 +241,13 @@ public class JawrMojo extends AbstractMojo {
 		File tempDir = new File(tempDirPath);
 		if(!tempDir.exists()){
 			tempDir.mkdirs();
-		}else{
+		}else if(!incremental){
 			FileUtils.cleanDirectory(tempDir);
 		}
 		File destDir = new File(destDirPath);
 		if(!destDir.exists()){
 			destDir.mkdirs();
-		}else{
+		}else if(!incremental){
 			FileUtils.cleanDirectory(destDir);
 		}
 		
@@ -230,6 +261,8 @@ public class JawrMojo extends AbstractMojo {
 		}
 		
 		BundleProcessor bundleProcessor = new BundleProcessor();
+		bundleProcessor.setThreadCount(threadCount);
+		bundleProcessor.setIncremental(incremental);
 		bundleProcessor.process(rootPath, tempDirPath, destDirPath, springConfigFiles, servlets, generateCDNFiles, keepUrlMapping, servletAPIversion);
 	}
 
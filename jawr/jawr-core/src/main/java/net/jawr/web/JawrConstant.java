@@ -148,6 +148,9 @@ public class JawrConstant {
 	/** The generator cache directory name */
 	public static final String GENERATOR_CACHE_DIR = "generatorCache";
 
+	/** The post processing cache directory name */
+	public static final String POSTPROCESSING_CACHE_DIR = "postProcessingCache";
+
 	/** The directory for CSS created by sprite generators */
 	public static final String SPRITE_GENERATED_CSS_DIR = "/generatedCss/";
 
@@ -328,6 +331,9 @@ public class JawrConstant {
 	/** The default Javascript engine */
 	public static final String DEFAULT_JS_ENGINE = "mozilla.rhino";
 
+	/** The property name of the maximum number of Javascript engines used by a processor */
+	public static final String JS_ENGINE_POOL_SIZE_PROPERTY = "jawr.js.engine.pool.size";
+
 	/** The performance processing logger */
 	public static final String PERF_PROCESSING_LOGGER = "net.jawr.perf.processing";
 
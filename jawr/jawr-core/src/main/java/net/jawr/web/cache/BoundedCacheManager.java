@@ -0,0 +1,408 @@
+/**
+ * Copyright 2017 Ibrahim Chaehoi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package net.jawr.web.cache;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.jawr.web.config.JawrConfig;
+
+/**
+ * This class defines a cache manager whose content is bounded by a size in
+ * bytes. The size of an element is estimated from its content (the length of
+ * a byte array or twice the length of a string). When the cache exceeds its
+ * size, the least recently used elements are evicted.
+ *
+ * The elements are read without lock, each read only updates the access time
+ * of the element. The updates of the cache are serialized.
+ *
+ * When several threads request the same missing element, only one of them
+ * loads it, the others wait for the result. An element whose loading started
+ * before it was removed, or before the cache was cleared, is not stored.
+ *
+ * @author Ibrahim Chaehoi
+ */
+public class BoundedCacheManager extends JawrCacheManager {
+
+	/** The logger */
+	private static final Logger LOGGER = LoggerFactory.getLogger(BoundedCacheManager.class);
+
+	/** The property name of the maximum size of the cache in bytes */
+	public static final String JAWR_CACHE_MAX_SIZE = "jawr.cache.max.size";
+
+	/** The default maximum size of the cache : 32 MB */
+	private static final long DEFAULT_MAX_SIZE = 32L * 1024 * 1024;
+
+	/** The size of an element which is neither a string nor a byte array */
+	private static final long DEFAULT_ELEMENT_SIZE = 64;
+
+	/** The comparator of the cache entries by access time */
+	private static final Comparator<Map.Entry<String, CacheEntry>> ACCESS_TIME_COMPARATOR = new Comparator<Map.Entry<String, CacheEntry>>() {
+
+		@Override
+		public int compare(Map.Entry<String, CacheEntry> entry1, Map.Entry<String, CacheEntry> entry2) {
+			long accessTime1 = entry1.getValue().accessTime;
+			long accessTime2 = entry2.getValue().accessTime;
+			return accessTime1 < accessTime2 ? -1 : (accessTime1 == accessTime2 ? 0 : 1);
+		}
+	};
+
+	/** The cache. Its updates are guarded by the update lock. */
+	private final ConcurrentMap<String, CacheEntry> cache = new ConcurrentHashMap<>();
+
+	/**
+	 * The elements being loaded. A loaded element is only stored if its task
+	 * is still registered, so the removals and the clears unregister the
+	 * tasks. The updates are guarded by the update lock.
+	 */
+	private final ConcurrentMap<String, FutureTask<Object>> loadingTasks = new ConcurrentHashMap<>();
+
+	/** The lock of the cache updates */
+	private final Object updateLock = new Object();
+
+	/** The current size of the cache, updated with the update lock held */
+	private volatile long size;
+
+	/** The maximum size of the cache in bytes */
+	private final long maxSize;
+
+	/**
+	 * Constructor
+	 *
+	 * @param config
+	 *            the jawr configuration
+	 */
+	public BoundedCacheManager(JawrConfig config) {
+		this(Long.parseLong(config.getProperty(JAWR_CACHE_MAX_SIZE, Long.toString(DEFAULT_MAX_SIZE)).trim()));
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param maxSize
+	 *            the maximum size of the cache in bytes
+	 */
+	public BoundedCacheManager(long maxSize) {
+		super(null);
+		this.maxSize = maxSize;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see net.jawr.web.cache.JawrCacheManager#put(java.lang.String,
+	 * java.lang.Object)
+	 */
+	@Override
+	public void put(String key, Object value) {
+
+		synchronized (updateLock) {
+			// The element being loaded is older than this one
+			loadingTasks.remove(key);
+			putEntry(key, value);
+		}
+	}
+
+	/**
+	 * Puts an element in cache. This method must be called with the update
+	 * lock held.
+	 *
+	 * @param key
+	 *            the element key
+	 * @param value
+	 *            the element
+	 */
+	private void putEntry(String key, Object value) {
+
+		long weight = weigh(key, value);
+		if (weight > maxSize) {
+			if (LOGGER.isDebugEnabled()) {
+				LOGGER.debug("The element '" + key + "' is too large to be cached (" + weight + " bytes)");
+			}
+			removeEntry(key);
+			return;
+		}
+
+		CacheEntry previous = cache.put(key, new CacheEntry(value, weight));
+		size += previous == null ? weight : weight - previous.weight;
+		evict();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see net.jawr.web.cache.JawrCacheManager#get(java.lang.String)
+	 */
+	@Override
+	public Object get(String key) {
+
+		CacheEntry entry = cache.get(key);
+		if (entry == null) {
+			return null;
+		}
+		entry.accessTime = System.nanoTime();
+		return entry.value;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see net.jawr.web.cache.JawrCacheManager#get(java.lang.String,
+	 * java.util.concurrent.Callable)
+	 */
+	@Override
+	public Object get(final String key, final Callable<?> loader) throws Exception {
+
+		Object value = get(key);
+		if (value != null) {
+			recordHit();
+			return value;
+		}
+		recordMiss();
+
+		FutureTask<Object> task = new FutureTask<>(new Callable<Object>() {
+
+			@Override
+			public Object call() throws Exception {
+				long start = System.nanoTime();
+				Object value = loader.call();
+				recordLoadTime(System.nanoTime() - start);
+				return value;
+			}
+		});
+
+		FutureTask<Object> currentTask = loadingTasks.putIfAbsent(key, task);
+		if (currentTask == null) {
+			currentTask = task;
+			try {
+				task.run();
+			} finally {
+				store(key, task);
+			}
+		}
+
+		try {
+			return currentTask.get();
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof Exception) {
+				throw (Exception) cause;
+			}
+			throw (Error) cause;
+		}
+	}
+
+	/**
+	 * Stores the element loaded by a task, if the task has not been
+	 * unregistered by a removal or a clear of the cache during the loading
+	 *
+	 * @param key
+	 *            the element key
+	 * @param task
+	 *            the task which has loaded the element
+	 */
+	private void store(String key, FutureTask<Object> task) {
+
+		synchronized (updateLock) {
+			if (!loadingTasks.remove(key, task)) {
+				if (LOGGER.isDebugEnabled()) {
+					LOGGER.debug("The element '" + key + "' has been removed from the cache during its loading");
+				}
+				return;
+			}
+			Object value = getLoadedValue(task);
+			if (value != null) {
+				putEntry(key, value);
+			}
+		}
+	}
+
+	/**
+	 * Returns the element loaded by a task which has been run
+	 *
+	 * @param task
+	 *            the task
+	 * @return the element, or null if the loading has failed
+	 */
+	private Object getLoadedValue(FutureTask<Object> task) {
+
+		try {
+			return task.get();
+		} catch (ExecutionException | InterruptedException e) {
+			return null;
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see net.jawr.web.cache.JawrCacheManager#remove(java.lang.String)
+	 */
+	@Override
+	public Object remove(String key) {
+
+		synchronized (updateLock) {
+			// The element being loaded may come from the removed content
+			loadingTasks.remove(key);
+			return removeEntry(key);
+		}
+	}
+
+	/**
+	 * Removes an element from the cache. This method must be called with the
+	 * update lock held.
+	 *
+	 * @param key
+	 *            the element key
+	 * @return the removed element or null
+	 */
+	private Object removeEntry(String key) {
+
+		CacheEntry entry = cache.remove(key);
+		if (entry == null) {
+			return null;
+		}
+		size -= entry.weight;
+		return entry.value;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see net.jawr.web.cache.JawrCacheManager#clear()
+	 */
+	@Override
+	public void clear() {
+
+		synchronized (updateLock) {
+			// The elements being loaded will not be stored, so the next
+			// requests must not wait for them
+			loadingTasks.clear();
+			cache.clear();
+			size = 0;
+		}
+	}
+
+	/**
+	 * Returns the current size of the cache in bytes
+	 *
+	 * @return the current size of the cache in bytes
+	 */
+	public long getSize() {
+		return size;
+	}
+
+	/**
+	 * Returns the maximum size of the cache in bytes
+	 *
+	 * @return the maximum size of the cache in bytes
+	 */
+	public long getMaxSize() {
+		return maxSize;
+	}
+
+	/**
+	 * Returns the number of elements in cache
+	 *
+	 * @return the number of elements in cache
+	 */
+	public int getElementCount() {
+		return cache.size();
+	}
+
+	/**
+	 * Returns the estimated size in bytes of an element
+	 *
+	 * @param key
+	 *            the element key
+	 * @param value
+	 *            the element
+	 * @return the estimated size of the element
+	 */
+	protected long weigh(String key, Object value) {
+
+		long weight = 2L * key.length();
+		if (value instanceof byte[]) {
+			weight += ((byte[]) value).length;
+		} else if (value instanceof CharSequence) {
+			weight += 2L * ((CharSequence) value).length();
+		} else {
+			weight += DEFAULT_ELEMENT_SIZE;
+		}
+		return weight;
+	}
+
+	/**
+	 * Evicts the least recently used elements until the size of the cache is
+	 * below its maximum. This method must be called with the update lock
+	 * held.
+	 */
+	private void evict() {
+
+		if (size <= maxSize) {
+			return;
+		}
+		List<Map.Entry<String, CacheEntry>> entries = new ArrayList<>(cache.entrySet());
+		Collections.sort(entries, ACCESS_TIME_COMPARATOR);
+		for (int i = 0; size > maxSize && i < entries.size(); i++) {
+			Map.Entry<String, CacheEntry> entry = entries.get(i);
+			if (cache.remove(entry.getKey(), entry.getValue())) {
+				size -= entry.getValue().weight;
+				recordEviction();
+				if (LOGGER.isDebugEnabled()) {
+					LOGGER.debug("Evicted the element '" + entry.getKey() + "' from the cache");
+				}
+			}
+		}
+	}
+
+	/**
+	 * The cache entry
+	 */
+	private static class CacheEntry {
+
+		/** The cached element */
+		private final Object value;
+
+		/** The estimated size of the element */
+		private final long weight;
+
+		/** The time of the last access to the element */
+		private volatile long accessTime = System.nanoTime();
+
+		/**
+		 * Constructor
+		 *
+		 * @param value
+		 *            the element
+		 * @param weight
+		 *            the estimated size of the element
+		 */
+		private CacheEntry(Object value, long weight) {
+			this.value = value;
+			this.weight = weight;
+		}
+	}
+}
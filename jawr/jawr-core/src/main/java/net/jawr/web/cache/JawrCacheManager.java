@@ -13,15 +13,33 @@
  */
 package net.jawr.web.cache;
 
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
 import net.jawr.web.config.JawrConfig;
+import net.jawr.web.util.metrics.StripedCounter;
 
 /**
- * This class defines the Abstract cache manager
+ * This class defines the Abstract cache manager. It keeps the statistics of
+ * the cache, which are exposed through JMX. The statistics are kept in
+ * striped counters, as they are updated on each request.
  * 
  * @author Ibrahim Chaehoi
  */
 public abstract class JawrCacheManager {
 
+	/** The number of hits */
+	private final StripedCounter hitCount = new StripedCounter();
+
+	/** The number of misses */
+	private final StripedCounter missCount = new StripedCounter();
+
+	/** The number of evictions */
+	private final StripedCounter evictionCount = new StripedCounter();
+
+	/** The total time spent loading the missing elements in nanoseconds */
+	private final StripedCounter totalLoadTime = new StripedCounter();
+
 	/**
 	 * Constructor
 	 * 
@@ -51,6 +69,52 @@ public abstract class JawrCacheManager {
 	 */
 	public abstract Object get(String key);
 
+	/**
+	 * Retrieve an element from the cache using its key. If the element is not
+	 * in cache, it is created by the loader and put in cache.
+	 * 
+	 * @param key
+	 *            the element key
+	 * @param loader
+	 *            the loader which creates the element if it is not in cache
+	 * @return the element
+	 * @throws Exception
+	 *             if the loader throws an exception
+	 */
+	public Object get(String key, Callable<?> loader) throws Exception {
+
+		Object value = get(key);
+		if (value != null) {
+			recordHit();
+		} else {
+			recordMiss();
+			value = load(key, loader);
+		}
+		return value;
+	}
+
+	/**
+	 * Creates an element using the loader and put it in cache
+	 * 
+	 * @param key
+	 *            the element key
+	 * @param loader
+	 *            the loader
+	 * @return the element
+	 * @throws Exception
+	 *             if the loader throws an exception
+	 */
+	protected Object load(String key, Callable<?> loader) throws Exception {
+
+		long start = System.nanoTime();
+		Object value = loader.call();
+		recordLoadTime(System.nanoTime() - start);
+		if (value != null) {
+			put(key, value);
+		}
+		return value;
+	}
+
 	/**
 	 * Remove an element from the cache using its key
 	 * 
@@ -65,4 +129,72 @@ public abstract class JawrCacheManager {
 	 */
 	public abstract void clear();
 
+	/**
+	 * Records a cache hit
+	 */
+	protected void recordHit() {
+		hitCount.increment();
+	}
+
+	/**
+	 * Records a cache miss
+	 */
+	protected void recordMiss() {
+		missCount.increment();
+	}
+
+	/**
+	 * Records the eviction of an element
+	 */
+	protected void recordEviction() {
+		evictionCount.increment();
+	}
+
+	/**
+	 * Records the time spent loading a missing element
+	 * 
+	 * @param nanos
+	 *            the load time in nanoseconds
+	 */
+	protected void recordLoadTime(long nanos) {
+		totalLoadTime.add(nanos);
+	}
+
+	/**
+	 * Returns the number of cache hits
+	 * 
+	 * @return the number of cache hits
+	 */
+	public long getHitCount() {
+		return hitCount.sum();
+	}
+
+	/**
+	 * Returns the number of cache misses
+	 * 
+	 * @return the number of cache misses
+	 */
+	public long getMissCount() {
+		return missCount.sum();
+	}
+
+	/**
+	 * Returns the number of elements evicted from the cache
+	 * 
+	 * @return the number of elements evicted from the cache
+	 */
+	public long getEvictionCount() {
+		return evictionCount.sum();
+	}
+
+	/**
+	 * Returns the total time spent loading the missing elements in
+	 * milliseconds
+	 * 
+	 * @return the total load time in milliseconds
+	 */
+	public long getTotalLoadTime() {
+		return TimeUnit.NANOSECONDS.toMillis(totalLoadTime.sum());
+	}
+
 }
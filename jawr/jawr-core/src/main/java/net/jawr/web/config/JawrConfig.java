@@ -28,6 +28,9 @@ import javax.servlet.ServletContext;
 import net.jawr.web.JawrConstant;
 import net.jawr.web.context.ThreadLocalJawrContext;
 import net.jawr.web.exception.BundlingProcessException;
+import net.jawr.web.resource.bundle.encoding.BrotliBundleEncoder;
+import net.jawr.web.resource.bundle.encoding.BundleEncoder;
+import net.jawr.web.resource.bundle.encoding.ZstdBundleEncoder;
 import net.jawr.web.resource.bundle.factory.util.ClassLoaderResourceUtils;
 import net.jawr.web.resource.bundle.factory.util.PathNormalizer;
 import net.jawr.web.resource.bundle.factory.util.RegexUtil;
@@ -45,6 +48,7 @@ import net.jawr.web.resource.bundle.variant.resolver.BrowserResolver;
 import net.jawr.web.resource.bundle.variant.resolver.ConnectionTypeResolver;
 import net.jawr.web.servlet.util.MIMETypesSupport;
 import net.jawr.web.util.StringUtils;
+import net.jawr.web.util.metrics.JawrMetrics;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -102,6 +106,12 @@ public class JawrConfig implements Serializable {
 	 */
 	public static final String JAWR_BUNDLE_HASHCODE_GENERATOR = "jawr.bundle.hashcode.generator";
 
+	/**
+	 * The property name for the encoders which create the precompressed
+	 * versions of the bundles, in addition to the gzipped version
+	 */
+	public static final String JAWR_BUNDLE_ENCODERS = "jawr.bundle.encoders";
+
 	/**
 	 * The property name for the dwr mapping
 	 */
@@ -128,6 +138,38 @@ public class JawrConfig implements Serializable {
 	 */
 	public static final String JAWR_GZIP_IE6_ON = "jawr.gzip.ie6.on";
 
+	/**
+	 * The property name for the flag indicating if the gzipped bundles stored
+	 * in a file system temporary directory are served using NIO file channels
+	 */
+	public static final String JAWR_GZIP_NIO_SERVING = "jawr.gzip.nio.serving";
+
+	/**
+	 * The property name for the flag indicating if the bundles are processed
+	 * in parallel
+	 */
+	public static final String JAWR_BUNDLE_PROCESSING_PARALLEL = "jawr.bundle.processing.parallel";
+
+	/**
+	 * The property name for the number of threads used to process the bundles
+	 * in parallel
+	 */
+	public static final String JAWR_BUNDLE_PROCESSING_THREADS = "jawr.bundle.processing.threads";
+
+	/**
+	 * The property name for the flag indicating if the bundles are processed
+	 * on demand, when they are requested for the first time, instead of being
+	 * processed at startup
+	 */
+	public static final String JAWR_BUNDLE_PROCESSING_LAZY = "jawr.bundle.processing.lazy";
+
+	/**
+	 * The property name for the flag indicating if the bundles which have not
+	 * been requested yet are processed in background, when the lazy bundle
+	 * processing is enabled
+	 */
+	public static final String JAWR_BUNDLE_PROCESSING_WARMUP = "jawr.bundle.processing.warmup";
+
 	/**
 	 * The property name to force the CSS bundle in debug mode
 	 */
@@ -182,12 +224,42 @@ public class JawrConfig implements Serializable {
 	 */
 	public static final String JAWR_USE_SMART_BUNDLING = "jawr.use.smart.bundling";
 
+	/**
+	 * The property name for the quiet window, in milliseconds, during which
+	 * the watch events are coalesced before being processed.
+	 */
+	public static final String JAWR_SMART_BUNDLING_EVENT_QUIET_WINDOW = "jawr.smart.bundling.event.quiet.window";
+
+	/**
+	 * The property name for the flag indicating if the modified bundles must
+	 * be rebuilt once a batch of watch events has been processed.
+	 */
+	public static final String JAWR_SMART_BUNDLING_REBUILD_ON_CHANGE = "jawr.smart.bundling.rebuild.on.change";
+
 	/**
 	 * The property name for the flag indicating if we should use "generator
 	 * cache".
 	 */
 	public static final String JAWR_USE_GENERATOR_CACHE = "jawr.use.generator.cache";
 
+	/**
+	 * The property name for the maximum size in bytes of the in-memory layer
+	 * of the cache of each generator.
+	 */
+	public static final String JAWR_GENERATOR_CACHE_MEMORY_MAX_SIZE = "jawr.generator.cache.memory.max.size";
+
+	/**
+	 * The property name for the flag indicating if the results of the post
+	 * processing of the bundle members are cached.
+	 */
+	public static final String JAWR_USE_POSTPROCESSING_CACHE = "jawr.use.postprocessing.cache";
+
+	/**
+	 * The property name for the flag indicating if the results of the post
+	 * processing of the bundle members are stored in the working directory.
+	 */
+	public static final String JAWR_POSTPROCESSING_CACHE_PERSISTENT = "jawr.postprocessing.cache.persistent";
+
 	/**
 	 * The property name for the debug mode system flag
 	 */
@@ -234,6 +306,43 @@ public class JawrConfig implements Serializable {
 	 */
 	public static final String JAWR_BINARY_RESOURCES = "jawr.binary.resources";
 
+	/**
+	 * The property name for the number of threads used to compute the
+	 * checksums of the binary resources at startup
+	 */
+	public static final String JAWR_BINARY_CHECKSUM_THREADS = "jawr.binary.checksum.threads";
+
+	/**
+	 * The property name for the flag indicating if the checksums of the binary
+	 * resources are computed in background at startup
+	 */
+	public static final String JAWR_BINARY_CHECKSUM_BACKGROUND = "jawr.binary.checksum.background";
+
+	/**
+	 * The property name for the flag indicating if the metrics of the
+	 * requests and of the bundling processes are collected
+	 */
+	public static final String JAWR_METRICS_ENABLED = "jawr.metrics.enabled";
+
+	/**
+	 * The property name for the flag indicating if the checksums of the binary
+	 * resources are stored in the working directory to be reused after a
+	 * restart
+	 */
+	public static final String JAWR_BINARY_CHECKSUM_CACHE_PERSISTENT = "jawr.binary.checksum.cache.persistent";
+
+	/**
+	 * The property name for the maximum size in bytes of the cache of the
+	 * image URLs and base64 encoded images rendered by the image tags
+	 */
+	public static final String JAWR_BINARY_IMAGE_TAG_CACHE_MAX_SIZE = "jawr.binary.image.tag.cache.max.size";
+
+	/**
+	 * The property name for the flag indicating if the base64 encoded images
+	 * of the binary resources are computed at startup
+	 */
+	public static final String JAWR_BINARY_IMAGE_TAG_CACHE_PRECOMPUTE = "jawr.binary.image.tag.cache.precompute";
+
 	/**
 	 * The property name for the Jawr strict mode.
 	 */
@@ -249,6 +358,11 @@ public class JawrConfig implements Serializable {
 	 */
 	private GeneratorRegistry generatorRegistry;
 
+	/**
+	 * The metrics of the resource type
+	 */
+	private JawrMetrics metrics = new JawrMetrics();
+
 	/**
 	 * The local resolver
 	 */
@@ -259,6 +373,12 @@ public class JawrConfig implements Serializable {
 	 */
 	private BundleHashcodeGenerator bundleHashcodeGenerator;
 
+	/**
+	 * The encoders which create the precompressed versions of the bundles, in
+	 * addition to the gzipped version
+	 */
+	private List<BundleEncoder> bundleEncoders = new ArrayList<>();
+
 	/**
 	 * The servlet context
 	 */
@@ -267,7 +387,7 @@ public class JawrConfig implements Serializable {
 	/**
 	 * The root configuration properties
 	 */
-	private Properties configProperties;
+	private volatile Properties configProperties;
 
 	/**
 	 * Name of the charset to use to interpret and send resources. Defaults to
@@ -318,6 +438,36 @@ public class JawrConfig implements Serializable {
 	 */
 	private boolean gzipResourcesForIESixOn = true;
 
+	/**
+	 * Flag to serve the gzipped bundles directly from the files of the
+	 * temporary directory, without keeping them in memory. defaults to false.
+	 */
+	private boolean gzipNioServing = false;
+
+	/**
+	 * Flag to process the independent bundles and variants in parallel.
+	 * defaults to false.
+	 */
+	private boolean parallelBundleProcessing = false;
+
+	/**
+	 * The number of threads used to process the bundles in parallel. defaults
+	 * to the number of available processors.
+	 */
+	private int bundleProcessingThreads = Runtime.getRuntime().availableProcessors();
+
+	/**
+	 * Flag to process the bundles on demand instead of processing them at
+	 * startup. defaults to false.
+	 */
+	private boolean lazyBundleProcessing = false;
+
+	/**
+	 * Flag to process in background the bundles which have not been requested
+	 * yet, when the lazy bundle processing is enabled. defaults to true.
+	 */
+	private boolean bundleProcessingWarmUp = true;
+
 	/**
 	 * Flag to switch on css resources bundle in debug mode. defaults to false.
 	 */
@@ -342,12 +492,42 @@ public class JawrConfig implements Serializable {
 	 */
 	private boolean useGeneratorCache = true;
 
+	/**
+	 * The maximum size in bytes of the in-memory layer of the cache of each
+	 * generator. defaults to 4 MB.
+	 */
+	private long generatorCacheMemoryMaxSize = 4L * 1024 * 1024;
+
+	/**
+	 * Flag which defines if the results of the post processing of the bundle
+	 * members are cached. defaults to true.
+	 */
+	private boolean usePostProcessingCache = true;
+
+	/**
+	 * Flag which defines if the results of the post processing of the bundle
+	 * members are stored in the working directory. defaults to false.
+	 */
+	private boolean persistentPostProcessingCache = false;
+
 	/**
 	 * The delay after last event, this is used to to ensure that a batch
 	 * modification is ended before starting the build
 	 */
 	private int delayAfterLastEvent = JawrConstant.DEFAULT_DELAY_AFTER_LAST_EVENT;
 
+	/**
+	 * The quiet window in milliseconds, during which the watch events are
+	 * coalesced before being processed. defaults to 100.
+	 */
+	private int smartBundlingEventQuietWindow = 100;
+
+	/**
+	 * Flag which defines if the modified bundles are rebuilt once a batch of
+	 * watch events has been processed. defaults to false.
+	 */
+	private boolean smartBundlingRebuildOnChange = false;
+
 	/**
 	 * The jawr working directory path
 	 */
@@ -408,6 +588,42 @@ public class JawrConfig implements Serializable {
 	 */
 	private String binaryHashAlgorithm = "CRC32";
 
+	/**
+	 * The number of threads used to compute the checksums of the binary
+	 * resources at startup. defaults to the number of available processors.
+	 */
+	private int binaryChecksumThreads = Runtime.getRuntime().availableProcessors();
+
+	/**
+	 * Flag to compute the checksums of the binary resources in background at
+	 * startup. defaults to false.
+	 */
+	private boolean binaryChecksumInBackground = false;
+
+	/**
+	 * Flag to collect the metrics of the requests and of the bundling
+	 * processes. defaults to false.
+	 */
+	private boolean metricsEnabled = false;
+
+	/**
+	 * Flag to store the checksums of the binary resources in the working
+	 * directory. defaults to false.
+	 */
+	private boolean persistentBinaryChecksumCache = false;
+
+	/**
+	 * The maximum size in bytes of the cache of the image URLs and base64
+	 * encoded images rendered by the image tags. defaults to 8 MB.
+	 */
+	private long imageTagCacheMaxSize = 8L * 1024 * 1024;
+
+	/**
+	 * Flag to compute the base64 encoded images of the binary resources at
+	 * startup. defaults to false.
+	 */
+	private boolean imageTagCachePrecompute = false;
+
 	/**
 	 * Used to check if a configuration has not been outdated by a new one.
 	 */
@@ -544,11 +760,27 @@ public class JawrConfig implements Serializable {
 		
 		this.useGeneratorCache = getBooleanProperty(JAWR_USE_GENERATOR_CACHE, true);
 
+		this.usePostProcessingCache = getBooleanProperty(JAWR_USE_POSTPROCESSING_CACHE, true);
+
+		this.persistentPostProcessingCache = getBooleanProperty(JAWR_POSTPROCESSING_CACHE_PERSISTENT, false);
+
 		String value = getProperty(JawrConstant.JAWR_SMART_BUNDLING_DELAY_AFTER_LAST_EVENT);
 		if (StringUtils.isNotEmpty(value)) {
 			delayAfterLastEvent = Integer.parseInt(value) * 1000;
 		}
 
+		value = getProperty(JAWR_SMART_BUNDLING_EVENT_QUIET_WINDOW);
+		if (StringUtils.isNotEmpty(value)) {
+			smartBundlingEventQuietWindow = Math.max(1, Integer.parseInt(value.trim()));
+		}
+
+		this.smartBundlingRebuildOnChange = getBooleanProperty(JAWR_SMART_BUNDLING_REBUILD_ON_CHANGE, false);
+
+		value = getProperty(JAWR_GENERATOR_CACHE_MEMORY_MAX_SIZE);
+		if (StringUtils.isNotEmpty(value)) {
+			generatorCacheMemoryMaxSize = Math.max(0, Long.parseLong(value.trim()));
+		}
+
 		this.jawrWorkingDirectory = getProperty(JAWR_WORKING_DIRECTORY);
 
 		this.gzipResourcesModeOn = getBooleanProperty(JAWR_GZIP_ON, true);
@@ -557,6 +789,19 @@ public class JawrConfig implements Serializable {
 
 		this.gzipResourcesForIESixOn = getBooleanProperty(JAWR_GZIP_IE6_ON, true);
 
+		this.gzipNioServing = getBooleanProperty(JAWR_GZIP_NIO_SERVING, false);
+
+		this.parallelBundleProcessing = getBooleanProperty(JAWR_BUNDLE_PROCESSING_PARALLEL, false);
+
+		value = getProperty(JAWR_BUNDLE_PROCESSING_THREADS);
+		if (StringUtils.isNotEmpty(value)) {
+			bundleProcessingThreads = Math.max(1, Integer.parseInt(value.trim()));
+		}
+
+		this.lazyBundleProcessing = getBooleanProperty(JAWR_BUNDLE_PROCESSING_LAZY, false);
+
+		this.bundleProcessingWarmUp = getBooleanProperty(JAWR_BUNDLE_PROCESSING_WARMUP, true);
+
 		this.forceCssBundleInDebugForIEOn = getBooleanProperty(JAWR_DEBUG_IE_FORCE_CSS_BUNDLE, false);
 
 		this.contextPathOverride = getProperty(JAWR_URL_CONTEXTPATH_OVERRIDE);
@@ -583,6 +828,20 @@ public class JawrConfig implements Serializable {
 					.buildObjectInstance(bundleHashCodeGenerator);
 		}
 
+		String bundleEncoderNames = getProperty(JAWR_BUNDLE_ENCODERS, "").trim();
+		if (bundleEncoderNames.length() > 0) {
+			for (String encoderName : bundleEncoderNames.split(",")) {
+				encoderName = encoderName.trim();
+				if (BrotliBundleEncoder.BROTLI_ENCODING.equalsIgnoreCase(encoderName)) {
+					bundleEncoders.add(new BrotliBundleEncoder());
+				} else if (ZstdBundleEncoder.ZSTD_ENCODING.equalsIgnoreCase(encoderName)) {
+					bundleEncoders.add(new ZstdBundleEncoder());
+				} else if (encoderName.length() > 0) {
+					bundleEncoders.add((BundleEncoder) ClassLoaderResourceUtils.buildObjectInstance(encoderName));
+				}
+			}
+		}
+
 		this.clientSideHandlerGeneratorClass = getProperty(JAWR_JS_CLIENTSIDE_HANDLER,
 				JawrConstant.DEFAULT_JS_CLIENTSIDE_HANDLER_CLASS);
 
@@ -610,6 +869,24 @@ public class JawrConfig implements Serializable {
 
 		this.binaryResourcesDefinition = getProperty(JAWR_BINARY_RESOURCES);
 
+		value = getProperty(JAWR_BINARY_CHECKSUM_THREADS);
+		if (StringUtils.isNotEmpty(value)) {
+			binaryChecksumThreads = Math.max(1, Integer.parseInt(value));
+		}
+
+		this.binaryChecksumInBackground = getBooleanProperty(JAWR_BINARY_CHECKSUM_BACKGROUND, false);
+
+		this.metricsEnabled = getBooleanProperty(JAWR_METRICS_ENABLED, false);
+
+		this.persistentBinaryChecksumCache = getBooleanProperty(JAWR_BINARY_CHECKSUM_CACHE_PERSISTENT, false);
+
+		value = getProperty(JAWR_BINARY_IMAGE_TAG_CACHE_MAX_SIZE);
+		if (StringUtils.isNotEmpty(value)) {
+			imageTagCacheMaxSize = Math.max(0, Long.parseLong(value.trim()));
+		}
+
+		this.imageTagCachePrecompute = getBooleanProperty(JAWR_BINARY_IMAGE_TAG_CACHE_PRECOMPUTE, false);
+
 		// TODO : remove the below section in the next major release
 		if (StringUtils.isNotEmpty(getProperty("jawr.css.image.classpath.use.servlet"))) {
 			throw new BundlingProcessException(
@@ -798,6 +1075,70 @@ public class JawrConfig implements Serializable {
 		this.useGeneratorCache = useGeneratorCache;
 	}
 
+	/**
+	 * Returns the maximum size in bytes of the in-memory layer of the cache of
+	 * each generator. The in-memory layer is disabled if the size is 0.
+	 * 
+	 * @return the maximum size in bytes of the in-memory generator cache
+	 */
+	public long getGeneratorCacheMemoryMaxSize() {
+		return generatorCacheMemoryMaxSize;
+	}
+
+	/**
+	 * Sets the maximum size in bytes of the in-memory layer of the cache of
+	 * each generator
+	 * 
+	 * @param generatorCacheMemoryMaxSize
+	 *            the size to set
+	 */
+	public void setGeneratorCacheMemoryMaxSize(long generatorCacheMemoryMaxSize) {
+		this.generatorCacheMemoryMaxSize = generatorCacheMemoryMaxSize;
+	}
+
+	/**
+	 * Returns the flag indicating if the results of the post processing of
+	 * the bundle members are cached.
+	 * 
+	 * @return the flag indicating if the post processing results are cached.
+	 */
+	public boolean isUsePostProcessingCache() {
+		return usePostProcessingCache;
+	}
+
+	/**
+	 * Sets the flag indicating if the results of the post processing of the
+	 * bundle members are cached.
+	 * 
+	 * @param usePostProcessingCache
+	 *            the flag to set.
+	 */
+	public void setUsePostProcessingCache(boolean usePostProcessingCache) {
+		this.usePostProcessingCache = usePostProcessingCache;
+	}
+
+	/**
+	 * Returns the flag indicating if the results of the post processing of
+	 * the bundle members are stored in the working directory.
+	 * 
+	 * @return the flag indicating if the post processing results are stored
+	 *         in the working directory.
+	 */
+	public boolean isPersistentPostProcessingCache() {
+		return persistentPostProcessingCache;
+	}
+
+	/**
+	 * Sets the flag indicating if the results of the post processing of the
+	 * bundle members are stored in the working directory.
+	 * 
+	 * @param persistentPostProcessingCache
+	 *            the flag to set.
+	 */
+	public void setPersistentPostProcessingCache(boolean persistentPostProcessingCache) {
+		this.persistentPostProcessingCache = persistentPostProcessingCache;
+	}
+
 	/**
 	 * Returns the flag indicating if we should use "smart bundling".
 	 * 
@@ -826,6 +1167,48 @@ public class JawrConfig implements Serializable {
 		return delayAfterLastEvent;
 	}
 
+	/**
+	 * Returns the quiet window in milliseconds, during which the watch events
+	 * are coalesced before being processed
+	 * 
+	 * @return the quiet window in milliseconds
+	 */
+	public int getSmartBundlingEventQuietWindow() {
+		return smartBundlingEventQuietWindow;
+	}
+
+	/**
+	 * Sets the quiet window in milliseconds, during which the watch events are
+	 * coalesced before being processed
+	 * 
+	 * @param smartBundlingEventQuietWindow
+	 *            the quiet window to set
+	 */
+	public void setSmartBundlingEventQuietWindow(int smartBundlingEventQuietWindow) {
+		this.smartBundlingEventQuietWindow = smartBundlingEventQuietWindow;
+	}
+
+	/**
+	 * Returns the flag indicating if the modified bundles are rebuilt once a
+	 * batch of watch events has been processed
+	 * 
+	 * @return the flag indicating if the modified bundles are rebuilt on change
+	 */
+	public boolean isSmartBundlingRebuildOnChange() {
+		return smartBundlingRebuildOnChange;
+	}
+
+	/**
+	 * Sets the flag indicating if the modified bundles are rebuilt once a
+	 * batch of watch events has been processed
+	 * 
+	 * @param smartBundlingRebuildOnChange
+	 *            the flag to set
+	 */
+	public void setSmartBundlingRebuildOnChange(boolean smartBundlingRebuildOnChange) {
+		this.smartBundlingRebuildOnChange = smartBundlingRebuildOnChange;
+	}
+
 	/**
 	 * Returns the flag indicating if we should use the bundle mapping
 	 * properties file.
@@ -882,6 +1265,27 @@ public class JawrConfig implements Serializable {
 		return bundleHashcodeGenerator;
 	}
 
+	/**
+	 * Returns the encoders which create the precompressed versions of the
+	 * bundles, in addition to the gzipped version
+	 * 
+	 * @return the bundle encoders
+	 */
+	public List<BundleEncoder> getBundleEncoders() {
+		return bundleEncoders;
+	}
+
+	/**
+	 * Sets the encoders which create the precompressed versions of the
+	 * bundles, in addition to the gzipped version
+	 * 
+	 * @param bundleEncoders
+	 *            the bundle encoders to set
+	 */
+	public void setBundleEncoders(List<BundleEncoder> bundleEncoders) {
+		this.bundleEncoders = bundleEncoders;
+	}
+
 	/**
 	 * Get the servlet mapping corresponding to this config.
 	 * 
@@ -940,6 +1344,108 @@ public class JawrConfig implements Serializable {
 		this.gzipResourcesForIESixOn = gzipResourcesForIESixOn;
 	}
 
+	/**
+	 * Get the flag indicating if the gzipped bundles are served using NIO file
+	 * channels
+	 * 
+	 * @return the flag indicating if the gzipped bundles are served using NIO
+	 *         file channels
+	 */
+	public boolean isGzipNioServing() {
+		return gzipNioServing;
+	}
+
+	/**
+	 * Sets the flag indicating if the gzipped bundles are served using NIO
+	 * file channels
+	 * 
+	 * @param gzipNioServing
+	 *            the flag to set.
+	 */
+	public void setGzipNioServing(boolean gzipNioServing) {
+		this.gzipNioServing = gzipNioServing;
+	}
+
+	/**
+	 * Get the flag indicating if the bundles are processed in parallel
+	 * 
+	 * @return the flag indicating if the bundles are processed in parallel
+	 */
+	public boolean isParallelBundleProcessing() {
+		return parallelBundleProcessing;
+	}
+
+	/**
+	 * Sets the flag indicating if the bundles are processed in parallel
+	 * 
+	 * @param parallelBundleProcessing
+	 *            the flag to set.
+	 */
+	public void setParallelBundleProcessing(boolean parallelBundleProcessing) {
+		this.parallelBundleProcessing = parallelBundleProcessing;
+	}
+
+	/**
+	 * Returns the number of threads used to process the bundles in parallel
+	 * 
+	 * @return the number of threads used to process the bundles in parallel
+	 */
+	public int getBundleProcessingThreads() {
+		return bundleProcessingThreads;
+	}
+
+	/**
+	 * Sets the number of threads used to process the bundles in parallel
+	 * 
+	 * @param bundleProcessingThreads
+	 *            the number of threads to set.
+	 */
+	public void setBundleProcessingThreads(int bundleProcessingThreads) {
+		this.bundleProcessingThreads = bundleProcessingThreads;
+	}
+
+	/**
+	 * Get the flag indicating if the bundles are processed on demand
+	 * 
+	 * @return the flag indicating if the bundles are processed on demand
+	 */
+	public boolean isLazyBundleProcessing() {
+		return lazyBundleProcessing;
+	}
+
+	/**
+	 * Sets the flag indicating if the bundles are processed on demand
+	 * 
+	 * @param lazyBundleProcessing
+	 *            the flag to set.
+	 */
+	public void setLazyBundleProcessing(boolean lazyBundleProcessing) {
+		this.lazyBundleProcessing = lazyBundleProcessing;
+	}
+
+	/**
+	 * Get the flag indicating if the bundles which have not been requested
+	 * yet are processed in background, when the lazy bundle processing is
+	 * enabled
+	 * 
+	 * @return the flag indicating if the bundles are warmed up in background
+	 */
+	public boolean isBundleProcessingWarmUp() {
+		return bundleProcessingWarmUp;
+	}
+
+	/**
+	 * Sets the flag indicating if the bundles which have not been requested
+	 * yet are processed in background, when the lazy bundle processing is
+	 * enabled
+	 * 
+	 * @param bundleProcessingWarmUp
+	 *            the flag to set.
+	 */
+	public void setBundleProcessingWarmUp(boolean bundleProcessingWarmUp) {
+		this.bundleProcessingWarmUp = bundleProcessingWarmUp;
+	}
+
 	/**
 	 * Returns the flag indicating if the CSS resources must be bundle for IE in
 	 * debug mode
@@ -1171,6 +1677,134 @@ public class JawrConfig implements Serializable {
 		this.binaryResourcesDefinition = binaryResourcesDefinition;
 	}
 
+	/**
+	 * Returns the number of threads used to compute the checksums of the
+	 * binary resources at startup
+	 * 
+	 * @return the number of threads used to compute the checksums
+	 */
+	public int getBinaryChecksumThreads() {
+		return binaryChecksumThreads;
+	}
+
+	/**
+	 * Sets the number of threads used to compute the checksums of the binary
+	 * resources at startup
+	 * 
+	 * @param binaryChecksumThreads
+	 *            the number of threads to set
+	 */
+	public void setBinaryChecksumThreads(int binaryChecksumThreads) {
+		this.binaryChecksumThreads = Math.max(1, binaryChecksumThreads);
+	}
+
+	/**
+	 * Returns the flag indicating if the checksums of the binary resources are
+	 * computed in background at startup
+	 * 
+	 * @return the flag indicating if the checksums are computed in background
+	 */
+	public boolean isBinaryChecksumInBackground() {
+		return binaryChecksumInBackground;
+	}
+
+	/**
+	 * Sets the flag indicating if the checksums of the binary resources are
+	 * computed in background at startup
+	 * 
+	 * @param binaryChecksumInBackground
+	 *            the flag to set
+	 */
+	public void setBinaryChecksumInBackground(boolean binaryChecksumInBackground) {
+		this.binaryChecksumInBackground = binaryChecksumInBackground;
+	}
+
+	/**
+	 * Returns the flag indicating if the metrics of the requests and of the
+	 * bundling processes are collected
+	 * 
+	 * @return the flag indicating if the metrics are collected
+	 */
+	public boolean isMetricsEnabled() {
+		return metricsEnabled;
+	}
+
+	/**
+	 * Sets the flag indicating if the metrics of the requests and of the
+	 * bundling processes are collected
+	 * 
+	 * @param metricsEnabled
+	 *            the flag to set
+	 */
+	public void setMetricsEnabled(boolean metricsEnabled) {
+		this.metricsEnabled = metricsEnabled;
+	}
+
+	/**
+	 * Returns the flag indicating if the checksums of the binary resources are
+	 * stored in the working directory
+	 * 
+	 * @return the flag indicating if the checksums are stored in the working
+	 *         directory
+	 */
+	public boolean isPersistentBinaryChecksumCache() {
+		return persistentBinaryChecksumCache;
+	}
+
+	/**
+	 * Sets the flag indicating if the checksums of the binary resources are
+	 * stored in the working directory
+	 * 
+	 * @param persistentBinaryChecksumCache
+	 *            the flag to set
+	 */
+	public void setPersistentBinaryChecksumCache(boolean persistentBinaryChecksumCache) {
+		this.persistentBinaryChecksumCache = persistentBinaryChecksumCache;
+	}
+
+	/**
+	 * Returns the maximum size in bytes of the cache of the image URLs and
+	 * base64 encoded images rendered by the image tags
+	 * 
+	 * @return the maximum size in bytes of the image tag cache
+	 */
+	public long getImageTagCacheMaxSize() {
+		return imageTagCacheMaxSize;
+	}
+
+	/**
+	 * Sets the maximum size in bytes of the cache of the image URLs and base64
+	 * encoded images rendered by the image tags
+	 * 
+	 * @param imageTagCacheMaxSize
+	 *            the size to set
+	 */
+	public void setImageTagCacheMaxSize(long imageTagCacheMaxSize) {
+		this.imageTagCacheMaxSize = imageTagCacheMaxSize;
+	}
+
+	/**
+	 * Returns the flag indicating if the base64 encoded images of the binary
+	 * resources are computed at startup
+	 * 
+	 * @return the flag indicating if the base64 encoded images are computed
+	 *         at startup
+	 */
+	public boolean isImageTagCachePrecompute() {
+		return imageTagCachePrecompute;
+	}
+
+	/**
+	 * Sets the flag indicating if the base64 encoded images of the binary
+	 * resources are computed at startup
+	 * 
+	 * @param imageTagCachePrecompute
+	 *            the flag to set
+	 */
+	public void setImageTagCachePrecompute(boolean imageTagCachePrecompute) {
+		this.imageTagCachePrecompute = imageTagCachePrecompute;
+	}
+
 	/**
 	 * Invalidate this configuration. Used to signal objects that have a hold on
 	 * this instance but cannot be explicitly notified when the configuration is
@@ -1198,6 +1832,26 @@ public class JawrConfig implements Serializable {
 		return generatorRegistry;
 	}
 
+	/**
+	 * Returns the metrics of the resource type
+	 * 
+	 * @return the metrics
+	 */
+	public JawrMetrics getMetrics() {
+		return metrics;
+	}
+
+	/**
+	 * Sets the metrics of the resource type. The metrics are kept by the
+	 * request handler, so they survive the reloads of the configuration.
+	 * 
+	 * @param metrics
+	 *            the metrics to set
+	 */
+	public void setMetrics(JawrMetrics metrics) {
+		this.metrics = metrics;
+	}
+
 	/**
 	 * Set the generator registry
 	 * 
@@ -1301,6 +1955,17 @@ public class JawrConfig implements Serializable {
 		return configProperties;
 	}
 
+	/**
+	 * Replaces the config properties. The properties are swapped and not
+	 * modified in place, so the readers never see a partial configuration.
+	 * 
+	 * @param configProperties
+	 *            the new config properties
+	 */
+	public void setConfigProperties(Properties configProperties) {
+		this.configProperties = configProperties;
+	}
+
 	/**
 	 * Sets the css link flavor
 	 * 
@@ -1430,4 +2095,21 @@ public class JawrConfig implements Serializable {
 		return jsEngineName;
 	}
 
+	/**
+	 * Returns the maximum number of Javascript engines used by a Javascript
+	 * based processor, like Uglify, Autoprefixer or CoffeeScript. By default,
+	 * there is one engine for each thread processing the bundles.
+	 * 
+	 * @return the maximum number of Javascript engines used by a processor
+	 */
+	public int getJavascriptEnginePoolSize() {
+
+		int poolSize = isParallelBundleProcessing() ? getBundleProcessingThreads() : 1;
+		String value = getProperty(JawrConstant.JS_ENGINE_POOL_SIZE_PROPERTY);
+		if (StringUtils.isNotEmpty(value)) {
+			poolSize = Math.max(1, Integer.parseInt(value.trim()));
+		}
+		return poolSize;
+	}
+
 }
@@ -437,6 +437,17 @@ public class JawrApplicationConfigManager implements JawrApplicationConfigManage
 		}
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see net.jawr.web.config.jmx.JawrApplicationConfigManagerMBean#isReady()
+	 */
+	@Override
+	public boolean isReady() {
+		return (jsMBean == null || jsMBean.isReady()) && (cssMBean == null || cssMBean.isReady())
+				&& (binaryMBean == null || binaryMBean.isReady());
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -185,6 +185,14 @@ public interface JawrApplicationConfigManagerMBean {
 	 */
 	public void rebuildDirtyBundles();
 
+	/**
+	 * Returns true if the resources of all the Jawr servlets are ready to be
+	 * served, which means that all the bundles have been processed
+	 * 
+	 * @return true if the resources are ready to be served
+	 */
+	public boolean isReady();
+
 	/**
 	 * Add a session ID, to the set of debug session ID. All request make by
 	 * sessions where their IDs is contained in the debug session Set, will be
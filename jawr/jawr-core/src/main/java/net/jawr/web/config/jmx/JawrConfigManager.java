@@ -16,6 +16,7 @@ package net.jawr.web.config.jmx;
 import java.util.List;
 import java.util.Properties;
 
+import net.jawr.web.cache.BoundedCacheManager;
 import net.jawr.web.config.JawrConfig;
 import net.jawr.web.servlet.JawrRequestHandler;
 
@@ -418,4 +419,128 @@ public class JawrConfigManager implements JawrConfigManagerMBean {
 		return requestHandler.getDirtyBundleNames();
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see net.jawr.web.config.jmx.JawrConfigManagerMBean#isReady()
+	 */
+	@Override
+	public boolean isReady() {
+		return requestHandler.isReady();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see net.jawr.web.config.jmx.JawrConfigManagerMBean#getCacheHitCount()
+	 */
+	@Override
+	public long getCacheHitCount() {
+		return requestHandler.getCacheManager().getHitCount();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see net.jawr.web.config.jmx.JawrConfigManagerMBean#getCacheMissCount()
+	 */
+	@Override
+	public long getCacheMissCount() {
+		return requestHandler.getCacheManager().getMissCount();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * net.jawr.web.config.jmx.JawrConfigManagerMBean#getCacheEvictionCount()
+	 */
+	@Override
+	public long getCacheEvictionCount() {
+		return requestHandler.getCacheManager().getEvictionCount();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see net.jawr.web.config.jmx.JawrConfigManagerMBean#getCacheLoadTime()
+	 */
+	@Override
+	public long getCacheLoadTime() {
+		return requestHandler.getCacheManager().getTotalLoadTime();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * net.jawr.web.config.jmx.JawrConfigManagerMBean#getWatchEventQueueSize()
+	 */
+	@Override
+	public int getWatchEventQueueSize() {
+		return requestHandler.getWatchEventQueueSize();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see net.jawr.web.config.jmx.JawrConfigManagerMBean#
+	 * getWatchEventCoalescingRatio()
+	 */
+	@Override
+	public double getWatchEventCoalescingRatio() {
+		return requestHandler.getWatchEventCoalescingRatio();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see net.jawr.web.config.jmx.JawrConfigManagerMBean#
+	 * getImageTagCacheElementCount()
+	 */
+	@Override
+	public int getImageTagCacheElementCount() {
+		BoundedCacheManager cache = requestHandler.getImageTagCache();
+		return cache == null ? 0 : cache.getElementCount();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * net.jawr.web.config.jmx.JawrConfigManagerMBean#getImageTagCacheSize()
+	 */
+	@Override
+	public long getImageTagCacheSize() {
+		BoundedCacheManager cache = requestHandler.getImageTagCache();
+		return cache == null ? 0 : cache.getSize();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see net.jawr.web.config.jmx.JawrConfigManagerMBean#
+	 * getImageTagCacheMissCount()
+	 */
+	@Override
+	public long getImageTagCacheMissCount() {
+		BoundedCacheManager cache = requestHandler.getImageTagCache();
+		return cache == null ? 0 : cache.getMissCount();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see net.jawr.web.config.jmx.JawrConfigManagerMBean#
+	 * getImageTagCacheMissLatency()
+	 */
+	@Override
+	public double getImageTagCacheMissLatency() {
+		BoundedCacheManager cache = requestHandler.getImageTagCache();
+		if (cache == null || cache.getMissCount() == 0) {
+			return 0;
+		}
+		return (double) cache.getTotalLoadTime() / cache.getMissCount();
+	}
+
 }
@@ -231,4 +231,87 @@ public interface JawrConfigManagerMBean {
 	 */
 	public List<String> getDirtyBundleNames();
 
+	/**
+	 * Returns true if the resources are ready to be served, which means that
+	 * all the bundles have been processed
+	 * 
+	 * @return true if the resources are ready to be served
+	 */
+	boolean isReady();
+
+	/**
+	 * Returns the number of hits of the bundle cache
+	 * 
+	 * @return the number of hits of the bundle cache
+	 */
+	public long getCacheHitCount();
+
+	/**
+	 * Returns the number of misses of the bundle cache
+	 * 
+	 * @return the number of misses of the bundle cache
+	 */
+	public long getCacheMissCount();
+
+	/**
+	 * Returns the number of elements evicted from the bundle cache
+	 * 
+	 * @return the number of elements evicted from the bundle cache
+	 */
+	public long getCacheEvictionCount();
+
+	/**
+	 * Returns the total time spent loading the bundles in the cache, in
+	 * milliseconds
+	 * 
+	 * @return the total time spent loading the bundles in the cache
+	 */
+	public long getCacheLoadTime();
+
+	/**
+	 * Returns the number of file system events waiting to be processed by the
+	 * smart bundling feature
+	 * 
+	 * @return the number of file system events waiting to be processed
+	 */
+	int getWatchEventQueueSize();
+
+	/**
+	 * Returns the ratio between the number of file system events received and
+	 * the number of events processed once coalesced by path
+	 * 
+	 * @return the coalescing ratio of the file system events
+	 */
+	double getWatchEventCoalescingRatio();
+
+	/**
+	 * Returns the number of entries in the cache of the image URLs and base64
+	 * encoded images rendered by the image tags
+	 * 
+	 * @return the number of entries in the image tag cache
+	 */
+	int getImageTagCacheElementCount();
+
+	/**
+	 * Returns the estimated size in bytes of the image tag cache
+	 * 
+	 * @return the estimated size in bytes of the image tag cache
+	 */
+	long getImageTagCacheSize();
+
+	/**
+	 * Returns the number of misses of the image tag cache
+	 * 
+	 * @return the number of misses of the image tag cache
+	 */
+	long getImageTagCacheMissCount();
+
+	/**
+	 * Returns the average time spent computing a missing entry of the image
+	 * tag cache, in milliseconds
+	 * 
+	 * @return the average miss latency of the image tag cache
+	 */
+	double getImageTagCacheMissLatency();
+
 }
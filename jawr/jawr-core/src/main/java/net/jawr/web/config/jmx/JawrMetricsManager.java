@@ -0,0 +1,377 @@
+/**
+ * Copyright 2017 Ibrahim Chaehoi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package net.jawr.web.config.jmx;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import net.jawr.web.cache.JawrCacheManager;
+import net.jawr.web.servlet.JawrRequestHandler;
+import net.jawr.web.util.metrics.JawrMetrics;
+import net.jawr.web.util.metrics.LatencyHistogram;
+
+/**
+ * This class defines the MBean which exposes the metrics of the requests and
+ * of the bundling processes of a servlet.
+ *
+ * @author Ibrahim Chaehoi
+ */
+public class JawrMetricsManager implements JawrMetricsManagerMBean {
+
+	/** The request handler */
+	private final JawrRequestHandler requestHandler;
+
+	/**
+	 * Constructor
+	 *
+	 * @param requestHandler
+	 *            the request handler
+	 */
+	public JawrMetricsManager(JawrRequestHandler requestHandler) {
+		this.requestHandler = requestHandler;
+	}
+
+	/**
+	 * Returns the metrics
+	 *
+	 * @return the metrics
+	 */
+	private JawrMetrics getMetrics() {
+		return requestHandler.getMetrics();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see net.jawr.web.config.jmx.JawrMetricsManagerMBean#getRequestCount()
+	 */
+	@Override
+	public long getRequestCount() {
+		return getMetrics().getRequestCount();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see net.jawr.web.config.jmx.JawrMetricsManagerMBean#
+	 * getNotModifiedCount()
+	 */
+	@Override
+	public long getNotModifiedCount() {
+		return getMetrics().getNotModifiedCount();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see net.jawr.web.config.jmx.JawrMetricsManagerMBean#
+	 * getEncodedResponseCount()
+	 */
+	@Override
+	public long getEncodedResponseCount() {
+		return getMetrics().getEncodedResponseCount();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see net.jawr.web.config.jmx.JawrMetricsManagerMBean#
+	 * getPlainResponseCount()
+	 */
+	@Override
+	public long getPlainResponseCount() {
+		return getMetrics().getPlainResponseCount();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see net.jawr.web.config.jmx.JawrMetricsManagerMBean#getBytesServed()
+	 */
+	@Override
+	public long getBytesServed() {
+		return getMetrics().getBytesServed();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see net.jawr.web.config.jmx.JawrMetricsManagerMBean#
+	 * getCharactersServed()
+	 */
+	@Override
+	public long getCharactersServed() {
+		return getMetrics().getCharactersServed();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see net.jawr.web.config.jmx.JawrMetricsManagerMBean#
+	 * getBundleNotFoundCount()
+	 */
+	@Override
+	public long getBundleNotFoundCount() {
+		return getMetrics().getBundleNotFoundCount();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see net.jawr.web.config.jmx.JawrMetricsManagerMBean#getCacheHitCount()
+	 */
+	@Override
+	public long getCacheHitCount() {
+		JawrCacheManager cacheMgr = requestHandler.getCacheManager();
+		return cacheMgr == null ? 0 : cacheMgr.getHitCount();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see net.jawr.web.config.jmx.JawrMetricsManagerMBean#getCacheMissCount()
+	 */
+	@Override
+	public long getCacheMissCount() {
+		JawrCacheManager cacheMgr = requestHandler.getCacheManager();
+		return cacheMgr == null ? 0 : cacheMgr.getMissCount();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see net.jawr.web.config.jmx.JawrMetricsManagerMBean#
+	 * getRequestLatencyMean()
+	 */
+	@Override
+	public double getRequestLatencyMean() {
+		return getMetrics().getRequestLatency().getMean();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see net.jawr.web.config.jmx.JawrMetricsManagerMBean#
+	 * getRequestLatency50thPercentile()
+	 */
+	@Override
+	public double getRequestLatency50thPercentile() {
+		return getMetrics().getRequestLatency().getPercentile(50);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see net.jawr.web.config.jmx.JawrMetricsManagerMBean#
+	 * getRequestLatency90thPercentile()
+	 */
+	@Override
+	public double getRequestLatency90thPercentile() {
+		return getMetrics().getRequestLatency().getPercentile(90);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see net.jawr.web.config.jmx.JawrMetricsManagerMBean#
+	 * getRequestLatency99thPercentile()
+	 */
+	@Override
+	public double getRequestLatency99thPercentile() {
+		return getMetrics().getRequestLatency().getPercentile(99);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see net.jawr.web.config.jmx.JawrMetricsManagerMBean#
+	 * getRequestLatencyMax()
+	 */
+	@Override
+	public double getRequestLatencyMax() {
+		return getMetrics().getRequestLatency().getMax();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see net.jawr.web.config.jmx.JawrMetricsManagerMBean#
+	 * getBundleRequestLatencies()
+	 */
+	@Override
+	public String[] getBundleRequestLatencies() {
+		List<String> result = new ArrayList<>();
+		for (String bundleId : getMetrics().getRequestedBundleIds()) {
+			LatencyHistogram histogram = getMetrics().getBundleRequestLatency(bundleId);
+			result.add(bundleId + " : count=" + histogram.getCount() + ", mean=" + histogram.getMean() + ", p50="
+					+ histogram.getPercentile(50) + ", p99=" + histogram.getPercentile(99) + ", max="
+					+ histogram.getMax());
+		}
+		return result.toArray(new String[result.size()]);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see net.jawr.web.config.jmx.JawrMetricsManagerMBean#
+	 * getBundleRequestLatencyPercentile(java.lang.String, double)
+	 */
+	@Override
+	public double getBundleRequestLatencyPercentile(String bundleId, double percentile) {
+		LatencyHistogram histogram = getMetrics().getBundleRequestLatency(bundleId);
+		return histogram == null ? 0 : histogram.getPercentile(percentile);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see net.jawr.web.config.jmx.JawrMetricsManagerMBean#
+	 * getGlobalPreprocessingCount()
+	 */
+	@Override
+	public long getGlobalPreprocessingCount() {
+		return getMetrics().getGlobalPreprocessingLatency().getCount();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see net.jawr.web.config.jmx.JawrMetricsManagerMBean#
+	 * getGlobalPreprocessingLatencyMean()
+	 */
+	@Override
+	public double getGlobalPreprocessingLatencyMean() {
+		return getMetrics().getGlobalPreprocessingLatency().getMean();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see net.jawr.web.config.jmx.JawrMetricsManagerMBean#
+	 * getGlobalPreprocessingLatencyMax()
+	 */
+	@Override
+	public double getGlobalPreprocessingLatencyMax() {
+		return getMetrics().getGlobalPreprocessingLatency().getMax();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see net.jawr.web.config.jmx.JawrMetricsManagerMBean#getBundleJoinCount()
+	 */
+	@Override
+	public long getBundleJoinCount() {
+		return getMetrics().getBundleJoinLatency().getCount();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see net.jawr.web.config.jmx.JawrMetricsManagerMBean#
+	 * getBundleJoinLatencyMean()
+	 */
+	@Override
+	public double getBundleJoinLatencyMean() {
+		return getMetrics().getBundleJoinLatency().getMean();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see net.jawr.web.config.jmx.JawrMetricsManagerMBean#
+	 * getBundleJoinLatencyMax()
+	 */
+	@Override
+	public double getBundleJoinLatencyMax() {
+		return getMetrics().getBundleJoinLatency().getMax();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see net.jawr.web.config.jmx.JawrMetricsManagerMBean#
+	 * getBundlePostprocessingCount()
+	 */
+	@Override
+	public long getBundlePostprocessingCount() {
+		return getMetrics().getBundlePostprocessingLatency().getCount();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see net.jawr.web.config.jmx.JawrMetricsManagerMBean#
+	 * getBundlePostprocessingLatencyMean()
+	 */
+	@Override
+	public double getBundlePostprocessingLatencyMean() {
+		return getMetrics().getBundlePostprocessingLatency().getMean();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see net.jawr.web.config.jmx.JawrMetricsManagerMBean#
+	 * getBundlePostprocessingLatencyMax()
+	 */
+	@Override
+	public double getBundlePostprocessingLatencyMax() {
+		return getMetrics().getBundlePostprocessingLatency().getMax();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see net.jawr.web.config.jmx.JawrMetricsManagerMBean#
+	 * getGlobalPostprocessingCount()
+	 */
+	@Override
+	public long getGlobalPostprocessingCount() {
+		return getMetrics().getGlobalPostprocessingLatency().getCount();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see net.jawr.web.config.jmx.JawrMetricsManagerMBean#
+	 * getGlobalPostprocessingLatencyMean()
+	 */
+	@Override
+	public double getGlobalPostprocessingLatencyMean() {
+		return getMetrics().getGlobalPostprocessingLatency().getMean();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see net.jawr.web.config.jmx.JawrMetricsManagerMBean#
+	 * getGlobalPostprocessingLatencyMax()
+	 */
+	@Override
+	public double getGlobalPostprocessingLatencyMax() {
+		return getMetrics().getGlobalPostprocessingLatency().getMax();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see net.jawr.web.config.jmx.JawrMetricsManagerMBean#reset()
+	 */
+	@Override
+	public void reset() {
+		getMetrics().reset();
+	}
+
+}
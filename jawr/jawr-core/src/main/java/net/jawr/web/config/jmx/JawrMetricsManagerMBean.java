@@ -0,0 +1,234 @@
+/**
+ * Copyright 2017 Ibrahim Chaehoi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package net.jawr.web.config.jmx;
+
+/**
+ * This interface defines the MBean which exposes the metrics of the requests
+ * and of the bundling processes of a servlet. The latencies are expressed in
+ * milliseconds.
+ *
+ * @author Ibrahim Chaehoi
+ */
+public interface JawrMetricsManagerMBean {
+
+	/**
+	 * Returns the number of requests
+	 *
+	 * @return the number of requests
+	 */
+	long getRequestCount();
+
+	/**
+	 * Returns the number of 'not modified' responses
+	 *
+	 * @return the number of 'not modified' responses
+	 */
+	long getNotModifiedCount();
+
+	/**
+	 * Returns the number of responses sent with a content coding, like gzip
+	 *
+	 * @return the number of responses sent with a content coding
+	 */
+	long getEncodedResponseCount();
+
+	/**
+	 * Returns the number of responses sent without content coding
+	 *
+	 * @return the number of responses sent without content coding
+	 */
+	long getPlainResponseCount();
+
+	/**
+	 * Returns the number of bytes served, for the encoded bundles and the
+	 * binary resources
+	 *
+	 * @return the number of bytes served
+	 */
+	long getBytesServed();
+
+	/**
+	 * Returns the number of characters served, for the bundles sent as text
+	 *
+	 * @return the number of characters served
+	 */
+	long getCharactersServed();
+
+	/**
+	 * Returns the number of requests for a bundle which doesn't exist
+	 *
+	 * @return the number of requests for a bundle which doesn't exist
+	 */
+	long getBundleNotFoundCount();
+
+	/**
+	 * Returns the number of hits of the bundle cache
+	 *
+	 * @return the number of hits of the bundle cache
+	 */
+	long getCacheHitCount();
+
+	/**
+	 * Returns the number of misses of the bundle cache
+	 *
+	 * @return the number of misses of the bundle cache
+	 */
+	long getCacheMissCount();
+
+	/**
+	 * Returns the mean latency of the requests
+	 *
+	 * @return the mean latency of the requests
+	 */
+	double getRequestLatencyMean();
+
+	/**
+	 * Returns the median latency of the requests
+	 *
+	 * @return the median latency of the requests
+	 */
+	double getRequestLatency50thPercentile();
+
+	/**
+	 * Returns the 90th percentile of the latency of the requests
+	 *
+	 * @return the 90th percentile of the latency of the requests
+	 */
+	double getRequestLatency90thPercentile();
+
+	/**
+	 * Returns the 99th percentile of the latency of the requests
+	 *
+	 * @return the 99th percentile of the latency of the requests
+	 */
+	double getRequestLatency99thPercentile();
+
+	/**
+	 * Returns the highest latency of the requests
+	 *
+	 * @return the highest latency of the requests
+	 */
+	double getRequestLatencyMax();
+
+	/**
+	 * Returns the latencies of the requests per bundle. Each entry contains
+	 * the bundle ID, the number of requests, the mean, the median, the 99th
+	 * percentile and the highest latency.
+	 *
+	 * @return the latencies of the requests per bundle
+	 */
+	String[] getBundleRequestLatencies();
+
+	/**
+	 * Returns a percentile of the latency of the requests of a bundle
+	 *
+	 * @param bundleId
+	 *            the bundle ID
+	 * @param percentile
+	 *            the percentile, between 0 and 100
+	 * @return the percentile of the latency, or 0 if the bundle has not been
+	 *         requested
+	 */
+	double getBundleRequestLatencyPercentile(String bundleId, double percentile);
+
+	/**
+	 * Returns the number of global preprocessings
+	 *
+	 * @return the number of global preprocessings
+	 */
+	long getGlobalPreprocessingCount();
+
+	/**
+	 * Returns the mean duration of the global preprocessing
+	 *
+	 * @return the mean duration of the global preprocessing
+	 */
+	double getGlobalPreprocessingLatencyMean();
+
+	/**
+	 * Returns the highest duration of the global preprocessing
+	 *
+	 * @return the highest duration of the global preprocessing
+	 */
+	double getGlobalPreprocessingLatencyMax();
+
+	/**
+	 * Returns the number of bundle joins
+	 *
+	 * @return the number of bundle joins
+	 */
+	long getBundleJoinCount();
+
+	/**
+	 * Returns the mean duration of the join of a bundle
+	 *
+	 * @return the mean duration of the join of a bundle
+	 */
+	double getBundleJoinLatencyMean();
+
+	/**
+	 * Returns the highest duration of the join of a bundle
+	 *
+	 * @return the highest duration of the join of a bundle
+	 */
+	double getBundleJoinLatencyMax();
+
+	/**
+	 * Returns the number of bundle postprocessings
+	 *
+	 * @return the number of bundle postprocessings
+	 */
+	long getBundlePostprocessingCount();
+
+	/**
+	 * Returns the mean duration of the postprocessing of a bundle
+	 *
+	 * @return the mean duration of the postprocessing of a bundle
+	 */
+	double getBundlePostprocessingLatencyMean();
+
+	/**
+	 * Returns the highest duration of the postprocessing of a bundle
+	 *
+	 * @return the highest duration of the postprocessing of a bundle
+	 */
+	double getBundlePostprocessingLatencyMax();
+
+	/**
+	 * Returns the number of global postprocessings
+	 *
+	 * @return the number of global postprocessings
+	 */
+	long getGlobalPostprocessingCount();
+
+	/**
+	 * Returns the mean duration of the global postprocessing
+	 *
+	 * @return the mean duration of the global postprocessing
+	 */
+	double getGlobalPostprocessingLatencyMean();
+
+	/**
+	 * Returns the highest duration of the global postprocessing
+	 *
+	 * @return the highest duration of the global postprocessing
+	 */
+	double getGlobalPostprocessingLatencyMax();
+
+	/**
+	 * Resets the metrics
+	 */
+	void reset();
+
+}
@@ -52,6 +52,9 @@ public final class JmxUtils {
 	/** The Jawr Config Manager type */
 	private static final String JAWR_CONFIG_MANAGER_TYPE = "JawrConfigManager";
 
+	/** The Jawr Metrics Manager type */
+	private static final String JAWR_METRICS_MANAGER_TYPE = "JawrMetrics";
+
 	/**
 	 * Constructor
 	 */
@@ -105,6 +108,45 @@ public final class JmxUtils {
 
 	}
 
+	/**
+	 * Initialize the JMX Bean which exposes the metrics of a resource type.
+	 * The MBean is registered next to the Jawr application config manager.
+	 * 
+	 * @param metricsMgr
+	 *            the metrics manager
+	 * @param servletContext
+	 *            the servlet context
+	 * @param resourceType
+	 *            the resource type
+	 * @param mBeanPrefix
+	 *            the MBean prefix
+	 */
+	public static void initMetricsJMXBean(JawrMetricsManagerMBean metricsMgr, ServletContext servletContext,
+			String resourceType, String mBeanPrefix) {
+
+		try {
+
+			MBeanServer mbs = ManagementFactory.getPlatformMBeanServer();
+
+			if (mbs != null) {
+
+				ObjectName metricsMgrObjName = JmxUtils.getMetricsMBeanObjectName(servletContext, resourceType,
+						mBeanPrefix);
+
+				// The MBean is registered again when the configuration is
+				// reloaded
+				if (mbs.isRegistered(metricsMgrObjName)) {
+					mbs.unregisterMBean(metricsMgrObjName);
+				}
+				mbs.registerMBean(metricsMgr, metricsMgrObjName);
+			}
+
+		} catch (InstanceAlreadyExistsException | MBeanRegistrationException | NotCompliantMBeanException
+				| InstanceNotFoundException e) {
+			LOGGER.error("Unable to instanciate the Jawr metrics MBean for resource type '" + resourceType + "'", e);
+		}
+	}
+
 	/**
 	 * Unregister the JMX Bean
 	 * 
@@ -136,6 +178,12 @@ public final class JmxUtils {
 				if (mbs.isRegistered(jawrConfigMgrObjName)) {
 					mbs.unregisterMBean(jawrConfigMgrObjName);
 				}
+
+				ObjectName metricsMgrObjName = JmxUtils.getMetricsMBeanObjectName(servletContext, resourceType,
+						mBeanPrefix);
+				if (mbs.isRegistered(metricsMgrObjName)) {
+					mbs.unregisterMBean(metricsMgrObjName);
+				}
 			}
 
 		} catch (InstanceNotFoundException | MBeanRegistrationException e) {
@@ -188,6 +236,24 @@ public final class JmxUtils {
 		return getMBeanObjectName(contextPath, JAWR_CONFIG_MANAGER_TYPE, mBeanPrefix, resourceType);
 	}
 
+	/**
+	 * Returns the object name for the Jawr metrics MBean
+	 * 
+	 * @param servletContext
+	 *            the servlet context
+	 * @param resourceType
+	 *            the resource type
+	 * @param mBeanPrefix
+	 *            the MBean prefix
+	 * @return the object name for the Jawr metrics MBean
+	 */
+	public static ObjectName getMetricsMBeanObjectName(ServletContext servletContext, String resourceType,
+			String mBeanPrefix) {
+
+		return getMBeanObjectName(getContextPath(servletContext), JAWR_METRICS_MANAGER_TYPE, mBeanPrefix,
+				resourceType);
+	}
+
 	/**
 	 * Returns the object name for the Jawr Application configuration Manager
 	 * MBean
@@ -16,6 +16,7 @@ package net.jawr.web.context;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.management.ObjectName;
+import javax.servlet.http.HttpServletRequest;
 
 import net.jawr.web.util.StopWatch;
 
@@ -40,22 +41,34 @@ public class JawrContext {
 	 */
 	private boolean bundleProcessingAtBuildTime;
 
+	/** The current request */
+	private HttpServletRequest request;
+
 	/** The current request URL */
 	private String requestURL;
 
+	/** The ID of the bundle targeted by the current request */
+	private String requestedBundleId;
+
 	/** The stop watch */
 	private StopWatch stopWatch;
 
 	/** The flag indicating if we shoudl stop the processing */
 	private final AtomicBoolean interruptProcessingBundle = new AtomicBoolean(false);
 
+	/**
+	 * The context from which this one has been copied, whose interruption is
+	 * also the interruption of this context
+	 */
+	private final JawrContext parent;
+
 	/**
 	 * Returns true if the processing bundle should be interrupted
 	 * 
 	 * @return true if the processing bundle should be interrupted
 	 */
 	public boolean isInterruptingProcessingBundle() {
-		return interruptProcessingBundle.get();
+		return interruptProcessingBundle.get() || (parent != null && parent.isInterruptingProcessingBundle());
 	}
 
 	/**
@@ -73,7 +86,25 @@ public class JawrContext {
 	 * Constructor.
 	 */
 	public JawrContext() {
+		this.parent = null;
+	}
 
+	/**
+	 * Constructor used to create a copy of a context for a thread working on
+	 * behalf of the thread owning the context. The stop watch is not copied,
+	 * and the copy is interrupted when the original context is interrupted.
+	 * 
+	 * @param context
+	 *            the context to copy
+	 */
+	public JawrContext(JawrContext context) {
+		this.parent = context;
+		this.jawrConfigMgrObjectName = context.jawrConfigMgrObjectName;
+		this.debugOverriden = context.debugOverriden;
+		this.bundleProcessingAtBuildTime = context.bundleProcessingAtBuildTime;
+		this.request = context.request;
+		this.requestURL = context.requestURL;
+		this.requestedBundleId = context.requestedBundleId;
 	}
 
 	/**
@@ -137,14 +168,30 @@ public class JawrContext {
 	}
 
 	/**
-	 * Returns the current request URL
+	 * Returns the current request URL. The URL of the current request is only
+	 * computed when it is needed, as it is built on each call by the servlet
+	 * container.
 	 * 
 	 * @return the current request URL
 	 */
 	public String getRequestURL() {
+		if (requestURL == null && request != null) {
+			requestURL = request.getRequestURL().toString();
+		}
 		return requestURL;
 	}
 
+	/**
+	 * Sets the current request
+	 * 
+	 * @param request
+	 *            the request to set
+	 */
+	public void setRequest(HttpServletRequest request) {
+		this.request = request;
+		this.requestURL = null;
+	}
+
 	/**
 	 * Sets the current request URL
 	 * 
@@ -155,6 +202,26 @@ public class JawrContext {
 		this.requestURL = requestURL;
 	}
 
+	/**
+	 * Returns the ID of the bundle targeted by the current request
+	 * 
+	 * @return the ID of the requested bundle, or null if the request doesn't
+	 *         target a known bundle
+	 */
+	public String getRequestedBundleId() {
+		return requestedBundleId;
+	}
+
+	/**
+	 * Sets the ID of the bundle targeted by the current request
+	 * 
+	 * @param requestedBundleId
+	 *            the ID of the requested bundle to set
+	 */
+	public void setRequestedBundleId(String requestedBundleId) {
+		this.requestedBundleId = requestedBundleId;
+	}
+
 	/**
 	 * Returns the stop watch used to monitor the processing
 	 * 
@@ -182,7 +249,9 @@ public class JawrContext {
 		this.jawrConfigMgrObjectName = null;
 		this.debugOverriden = false;
 		this.bundleProcessingAtBuildTime = false;
+		this.request = null;
 		this.requestURL = null;
+		this.requestedBundleId = null;
 		this.stopWatch = null;
 		this.interruptProcessingBundle.set(false);
 	}
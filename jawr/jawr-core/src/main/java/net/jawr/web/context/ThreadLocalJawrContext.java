@@ -14,6 +14,7 @@
 package net.jawr.web.context;
 
 import javax.management.ObjectName;
+import javax.servlet.http.HttpServletRequest;
 
 import net.jawr.web.util.StopWatch;
 
@@ -135,6 +136,35 @@ public final class ThreadLocalJawrContext {
 		JAWR_CONTEXT.get().setRequestURL(requestURL);
 	}
 
+	/**
+	 * Sets the current request. Its URL is only computed when it is needed.
+	 * 
+	 * @param request
+	 *            the request to set
+	 */
+	public static void setRequest(HttpServletRequest request) {
+		JAWR_CONTEXT.get().setRequest(request);
+	}
+
+	/**
+	 * Returns the ID of the bundle targeted by the current request
+	 * 
+	 * @return the ID of the requested bundle
+	 */
+	public static String getRequestedBundleId() {
+		return JAWR_CONTEXT.get().getRequestedBundleId();
+	}
+
+	/**
+	 * Sets the ID of the bundle targeted by the current request
+	 * 
+	 * @param requestedBundleId
+	 *            the ID of the requested bundle to set
+	 */
+	public static void setRequestedBundleId(String requestedBundleId) {
+		JAWR_CONTEXT.get().setRequestedBundleId(requestedBundleId);
+	}
+
 	/**
 	 * Returns the stop watch used to monitor the processing
 	 * 
@@ -174,6 +204,26 @@ public final class ThreadLocalJawrContext {
 		JAWR_CONTEXT.get().setInterruptProcessingBundle(interruptProcessingBundle);
 	}
 
+	/**
+	 * Returns the Jawr context of the current thread
+	 * 
+	 * @return the Jawr context of the current thread
+	 */
+	public static JawrContext getContext() {
+		return JAWR_CONTEXT.get();
+	}
+
+	/**
+	 * Sets the Jawr context of the current thread. This is used to give a
+	 * copy of the context of a thread to the threads working on its behalf.
+	 * 
+	 * @param context
+	 *            the context to set
+	 */
+	public static void setContext(JawrContext context) {
+		JAWR_CONTEXT.set(context);
+	}
+
 	/**
 	 * Resets the Jawr Context
 	 */
@@ -182,4 +232,20 @@ public final class ThreadLocalJawrContext {
 		JAWR_CONTEXT.remove();
 	}
 
+	/**
+	 * Resets the Jawr Context at the end of a request. The context is kept
+	 * and reused by the next request handled by the thread, except if the
+	 * bundling processes sharing it have been interrupted. In this case, the
+	 * context is left untouched for them.
+	 */
+	public static void recycle() {
+
+		JawrContext context = JAWR_CONTEXT.get();
+		if (context.isInterruptingProcessingBundle()) {
+			JAWR_CONTEXT.remove();
+		} else {
+			context.reset();
+		}
+	}
+
 }
@@ -124,6 +124,15 @@ public class CSSMinifier {
 		this.keepLicence = keepLicence;
 	}
 
+	/**
+	 * Returns the flag indicating if the licence info should be kept
+	 * 
+	 * @return the flag indicating if the licence info should be kept
+	 */
+	public boolean isKeepLicence() {
+		return keepLicence;
+	}
+
 	/**
 	 * @param data
 	 *            CSS to minify
@@ -0,0 +1,588 @@
+/**
+ * Copyright 2017 Ibrahim Chaehoi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package net.jawr.web.minification;
+
+/**
+ * Minifies CSS files by removing expendable whitespace and comments.
+ *
+ * This minifier produces the same result as the {@link CSSMinifier}, but
+ * instead of applying a sequence of regular expressions on the whole content,
+ * it reads the content only once with a tokenizer, which skips the comments
+ * and isolates the strings, and writes the minified content as it goes.
+ * Unlike the {@link CSSMinifier}, the '*' character which follows a licence
+ * comment is not taken as the start of a comment.
+ *
+ * @author Ibrahim Chaehoi
+ */
+public class CSSTokenizerMinifier extends CSSMinifier {
+
+	/** The token type for the end of the content */
+	private static final int EOF = 0;
+
+	/** The token type for a character */
+	private static final int CHAR = 1;
+
+	/** The token type for a whitespace */
+	private static final int SPACE = 2;
+
+	/** The token type for a quoted string */
+	private static final int STRING = 3;
+
+	/** The token type for a licence comment, which must be kept */
+	private static final int LICENCE = 4;
+
+	/**
+	 * The character stored in the history for the strings and the licences,
+	 * which are replaced by a placeholder in the {@link CSSMinifier}
+	 */
+	private static final char PLACEHOLDER_CHAR = '_';
+
+	/**
+	 * The character stored in the history for a whitespace which follows a
+	 * brace. This whitespace is removed if it starts the selector of a rule.
+	 */
+	private static final char BRACE_SPACE_CHAR = '\uFFFF';
+
+	/** The character stored in the history before the start of the content */
+	private static final char NO_CHAR = '\u0000';
+
+	/**
+	 * Constructor
+	 */
+	public CSSTokenizerMinifier() {
+		this(false);
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param keepLicence
+	 *            the flag indicating if we should kept the licence
+	 */
+	public CSSTokenizerMinifier(boolean keepLicence) {
+		super(keepLicence);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see
+	 * net.jawr.web.minification.CSSMinifier#minifyCSS(java.lang.StringBuffer)
+	 */
+	@Override
+	public StringBuffer minifyCSS(final StringBuffer data) {
+
+		char[] content = new char[data.length()];
+		data.getChars(0, content.length, content, 0);
+		return new Minification(new CSSTokenizer(content, isKeepLicence())).minify();
+	}
+
+	/**
+	 * This class holds the state of the minification of a content. It
+	 * reproduces the rules of the {@link CSSMinifier} on the flow of tokens.
+	 */
+	private static class Minification {
+
+		/** The tokenizer */
+		private final CSSTokenizer tokenizer;
+
+		/** The minified content */
+		private final StringBuilder result;
+
+		/**
+		 * The last four characters read, which are used to check if an opening
+		 * parenthesis follows the 'and' keyword
+		 */
+		private char h0 = NO_CHAR, h1 = NO_CHAR, h2 = NO_CHAR, h3 = NO_CHAR;
+
+		/**
+		 * Constructor
+		 *
+		 * @param tokenizer
+		 *            the tokenizer
+		 */
+		public Minification(CSSTokenizer tokenizer) {
+			this.tokenizer = tokenizer;
+			this.result = new StringBuilder(tokenizer.length);
+		}
+
+		/**
+		 * Minifies the content
+		 *
+		 * @return the minified content
+		 */
+		public StringBuffer minify() {
+
+			tokenizer.next();
+
+			// The leading whitespaces are removed if the content starts with
+			// the selector of a rule
+			if (tokenizer.type == SPACE && tokenizer.isRuleAhead()) {
+				while (tokenizer.type == SPACE) {
+					tokenizer.next();
+				}
+			}
+
+			while (tokenizer.type != EOF) {
+				if (tokenizer.type == SPACE) {
+					processSpaces();
+				} else {
+					processToken();
+				}
+			}
+
+			return new StringBuffer(result);
+		}
+
+		/**
+		 * Processes a sequence of whitespaces, and the token which follows it
+		 * if it is an operator.
+		 */
+		private void processSpaces() {
+
+			boolean precededByAnd = isPrecededByAnd();
+			while (tokenizer.type == SPACE) {
+				push(' ');
+				tokenizer.next();
+			}
+
+			if (tokenizer.type == CHAR) {
+				char c = tokenizer.ch;
+				switch (c) {
+				case '{':
+				case '}':
+				case ';':
+				case ':':
+				case ')':
+					// The whitespaces are removed
+					return;
+				case '(':
+					if (precededByAnd) {
+						result.append(' ');
+					}
+					return;
+				case '-':
+				case '+':
+				case '*':
+				case '/':
+					processOperator(c);
+					return;
+				default:
+					break;
+				}
+			}
+
+			result.append(' ');
+		}
+
+		/**
+		 * Processes an operator which follows whitespaces. The operator is
+		 * surrounded by a single space if it is followed by whitespaces, which
+		 * are not the end of a rule selector.
+		 *
+		 * @param operator
+		 *            the operator
+		 */
+		private void processOperator(char operator) {
+
+			push(operator);
+			tokenizer.next();
+			if (tokenizer.type == SPACE) {
+				while (tokenizer.type == SPACE) {
+					push(' ');
+					tokenizer.next();
+				}
+
+				if (tokenizer.type != CHAR || tokenizer.ch != '{' || !tokenizer.isBlockRule()) {
+					result.append(' ').append(operator).append(' ');
+					return;
+				}
+			}
+
+			result.append(' ').append(operator);
+		}
+
+		/**
+		 * Processes the current token, which is not a whitespace
+		 */
+		private void processToken() {
+
+			switch (tokenizer.type) {
+			case STRING:
+				tokenizer.appendString(result);
+				push(PLACEHOLDER_CHAR);
+				tokenizer.next();
+				return;
+			case LICENCE:
+				result.append(tokenizer.content, tokenizer.start, tokenizer.end - tokenizer.start);
+				push(PLACEHOLDER_CHAR);
+				tokenizer.next();
+				return;
+			default:
+				break;
+			}
+
+			char c = tokenizer.ch;
+			boolean skipSpaces;
+			switch (c) {
+			case '{':
+			case '}':
+				result.append(c);
+				push(c);
+				tokenizer.next();
+				while (tokenizer.type == SPACE) {
+					push(BRACE_SPACE_CHAR);
+					tokenizer.next();
+				}
+				return;
+			case '(':
+				skipSpaces = !isPrecededByAnd();
+				break;
+			case ';':
+			case ':':
+				skipSpaces = true;
+				break;
+			default:
+				skipSpaces = false;
+				break;
+			}
+
+			result.append(c);
+			push(c);
+			tokenizer.next();
+			if (skipSpaces) {
+				while (tokenizer.type == SPACE) {
+					push(' ');
+					tokenizer.next();
+				}
+			}
+		}
+
+		/**
+		 * Checks if the current position follows a whitespace and the 'and'
+		 * keyword
+		 *
+		 * @return true if the current position follows a whitespace and the
+		 *         'and' keyword
+		 */
+		private boolean isPrecededByAnd() {
+
+			boolean result = (h1 == 'a' || h1 == 'A') && (h2 == 'n' || h2 == 'N') && (h3 == 'd' || h3 == 'D');
+			if (result) {
+				if (h0 == BRACE_SPACE_CHAR) {
+					// The whitespaces which start a rule selector are removed
+					result = !tokenizer.isRuleAhead();
+				} else {
+					result = h0 == ' ';
+				}
+			}
+			return result;
+		}
+
+		/**
+		 * Adds a character to the history
+		 *
+		 * @param c
+		 *            the character
+		 */
+		private void push(char c) {
+			h0 = h1;
+			h1 = h2;
+			h2 = h3;
+			h3 = c;
+		}
+	}
+
+	/**
+	 * The tokenizer of the CSS content. The comments are skipped, the
+	 * whitespaces are returned one by one, and the strings and the licence
+	 * comments are returned as single tokens.
+	 *
+	 * As in the {@link CSSMinifier}, the comments are removed before the
+	 * strings are isolated, and the strings end at the next matching quote.
+	 */
+	private static class CSSTokenizer {
+
+		/** The content */
+		private final char[] content;
+
+		/** The length of the content */
+		private final int length;
+
+		/** The flag indicating if the licence comments should be kept */
+		private final boolean keepLicence;
+
+		/** The current position */
+		private int pos;
+
+		/** The type of the current token */
+		private int type;
+
+		/** The character of the current token */
+		private char ch;
+
+		/** The start position of the current token */
+		private int start;
+
+		/** The end position of the current token */
+		private int end;
+
+		/** The flag indicating if the current string contains comments */
+		private boolean stringWithComment;
+
+		/**
+		 * The flag indicating that there is no comment end after the current
+		 * position
+		 */
+		private boolean noCommentEnd;
+
+		/**
+		 * The flag indicating that there is no double quote after the current
+		 * position
+		 */
+		private boolean noDoubleQuote;
+
+		/**
+		 * The flag indicating that there is no single quote after the current
+		 * position
+		 */
+		private boolean noSingleQuote;
+
+		/**
+		 * Constructor
+		 *
+		 * @param content
+		 *            the content
+		 * @param keepLicence
+		 *            the flag indicating if the licence comments should be kept
+		 */
+		public CSSTokenizer(char[] content, boolean keepLicence) {
+			this.content = content;
+			this.length = content.length;
+			this.keepLicence = keepLicence;
+		}
+
+		/**
+		 * Constructor of a tokenizer starting at the position of the
+		 * tokenizer given in parameter
+		 *
+		 * @param tokenizer
+		 *            the tokenizer
+		 */
+		public CSSTokenizer(CSSTokenizer tokenizer) {
+			this.content = tokenizer.content;
+			this.length = tokenizer.length;
+			this.keepLicence = tokenizer.keepLicence;
+			this.pos = tokenizer.pos;
+			this.noCommentEnd = tokenizer.noCommentEnd;
+			this.noDoubleQuote = tokenizer.noDoubleQuote;
+			this.noSingleQuote = tokenizer.noSingleQuote;
+		}
+
+		/**
+		 * Reads the next token
+		 */
+		public void next() {
+
+			while (pos < length) {
+				char c = content[pos];
+				if (c == '/' && pos + 1 < length && content[pos + 1] == '*') {
+					int commentEnd = getCommentEnd(pos);
+					if (commentEnd != -1) {
+						if (keepLicence && isLicence(pos)) {
+							setToken(LICENCE, pos, commentEnd);
+							return;
+						}
+						pos = commentEnd;
+						continue;
+					}
+				} else if ((c == '"' || c == '\'') && readString(c)) {
+					return;
+				}
+
+				if (c == ' ' || c == '\n' || c == '\r' || c == '\t' || c == '\f' || c == '\u000B') {
+					setToken(SPACE, pos, pos + 1);
+					ch = ' ';
+				} else {
+					setToken(CHAR, pos, pos + 1);
+					ch = c;
+				}
+				return;
+			}
+
+			type = EOF;
+		}
+
+		/**
+		 * Checks if the next braces start and end a block. In this case, the
+		 * current position is in the selector of a rule.
+		 *
+		 * @return true if the next braces start and end a block
+		 */
+		public boolean isRuleAhead() {
+			CSSTokenizer tokenizer = new CSSTokenizer(this);
+			return tokenizer.nextBrace() == '{' && tokenizer.nextBrace() == '}';
+		}
+
+		/**
+		 * Checks if the next brace ends a block. In this case, the current
+		 * token is the opening brace of a rule, and not the one of a block of
+		 * rules like a media query.
+		 *
+		 * @return true if the next brace ends a block
+		 */
+		public boolean isBlockRule() {
+			return new CSSTokenizer(this).nextBrace() == '}';
+		}
+
+		/**
+		 * Appends the current string to the buffer
+		 *
+		 * @param buffer
+		 *            the buffer
+		 */
+		public void appendString(StringBuilder buffer) {
+
+			if (!stringWithComment) {
+				buffer.append(content, start, end - start);
+				return;
+			}
+
+			int i = start;
+			while (i < end) {
+				if (content[i] == '/' && i + 1 < end && content[i + 1] == '*') {
+					int commentEnd = getCommentEnd(i);
+					if (commentEnd != -1 && !(keepLicence && isLicence(i))) {
+						i = commentEnd;
+						continue;
+					}
+				}
+				buffer.append(content[i++]);
+			}
+		}
+
+		/**
+		 * Reads the tokens up to the next brace
+		 *
+		 * @return the brace, or 0 if there is no brace
+		 */
+		private char nextBrace() {
+			next();
+			while (type != EOF) {
+				if (type == CHAR && (ch == '{' || ch == '}')) {
+					return ch;
+				}
+				next();
+			}
+			return 0;
+		}
+
+		/**
+		 * Reads the string starting at the current position. If there is no
+		 * matching quote, the quote is a simple character.
+		 *
+		 * @param quote
+		 *            the quote
+		 * @return true if a string has been read
+		 */
+		private boolean readString(char quote) {
+
+			if (quote == '"' ? noDoubleQuote : noSingleQuote) {
+				return false;
+			}
+
+			boolean withComment = false;
+			int i = pos + 1;
+			while (i < length) {
+				char c = content[i];
+				if (c == quote) {
+					setToken(STRING, pos, i + 1);
+					stringWithComment = withComment;
+					return true;
+				}
+
+				if (c == '/' && i + 1 < length && content[i + 1] == '*') {
+					int commentEnd = getCommentEnd(i);
+					if (commentEnd != -1) {
+						withComment = withComment || !(keepLicence && isLicence(i));
+						i = commentEnd;
+						continue;
+					}
+				}
+				i++;
+			}
+
+			if (quote == '"') {
+				noDoubleQuote = true;
+			} else {
+				noSingleQuote = true;
+			}
+			return false;
+		}
+
+		/**
+		 * Returns the end of the comment starting at the position given in
+		 * parameter
+		 *
+		 * @param commentStart
+		 *            the start of the comment
+		 * @return the position after the end of the comment, or -1 if the
+		 *         comment is not closed
+		 */
+		private int getCommentEnd(int commentStart) {
+
+			if (noCommentEnd) {
+				return -1;
+			}
+
+			for (int i = commentStart + 2; i + 1 < length; i++) {
+				if (content[i] == '*' && content[i + 1] == '/') {
+					return i + 2;
+				}
+			}
+
+			noCommentEnd = true;
+			return -1;
+		}
+
+		/**
+		 * Checks if the comment starting at the position given in parameter is
+		 * a licence comment
+		 *
+		 * @param commentStart
+		 *            the start of the comment
+		 * @return true if the comment is a licence comment
+		 */
+		private boolean isLicence(int commentStart) {
+			return commentStart + 2 < length && content[commentStart + 2] == '!';
+		}
+
+		/**
+		 * Sets the current token, and moves the current position after it
+		 *
+		 * @param tokenType
+		 *            the type of the token
+		 * @param tokenStart
+		 *            the start of the token
+		 * @param tokenEnd
+		 *            the end of the token
+		 */
+		private void setToken(int tokenType, int tokenStart, int tokenEnd) {
+			this.type = tokenType;
+			this.start = tokenStart;
+			this.end = tokenEnd;
+			this.pos = tokenEnd;
+		}
+	}
+}
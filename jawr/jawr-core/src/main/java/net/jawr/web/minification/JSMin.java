@@ -58,12 +58,21 @@ import java.io.PushbackInputStream;
 public class JSMin {
 	private static final int EOF = -1;
 
-	/** The input stream */
+	/** The unicode byte order mark */
+	private static final int BOM = '\uFEFF';
+
+	/** The input stream, or null if the input is a character sequence */
 	private final PushbackInputStream in;
 
-	/** The output stream */
+	/** The output stream, or null if the output is a string builder */
 	private final OutputStream out;
 
+	/** The input characters, or null if the input is a stream */
+	private final char[] input;
+
+	/** The output string builder, or null if the output is a stream */
+	private final StringBuilder output;
+
 	private int theA;
 	private int theB;
 	private int theLookahead = EOF;
@@ -73,7 +82,10 @@ public class JSMin {
 	/** The flag indicating if the first character has been written */
 	private boolean firstCharacterWritten;
 
-	/** The current byte index */
+	/**
+	 * The current byte index, or the current character index if the input is
+	 * a character sequence
+	 */
 	private int currentByteIndex;
 
 	/** The current line number */
@@ -91,10 +103,55 @@ public class JSMin {
 	public JSMin(InputStream in, OutputStream out) {
 		this.in = new PushbackInputStream(in);
 		this.out = out;
+		this.input = null;
+		this.output = null;
 		line = 0;
 		column = 0;
 	}
 
+	/**
+	 * Constructor for a minification working on characters, which avoids the
+	 * encoding and the decoding of the content. The CRLF line endings of the
+	 * input are handled as LF line endings.
+	 * 
+	 * @param in
+	 *            the content to minify
+	 * @param out
+	 *            the string builder where the minified content is written
+	 */
+	public JSMin(CharSequence in, StringBuilder out) {
+		this.in = null;
+		this.out = null;
+		this.input = toCharArray(in);
+		this.output = out;
+		line = 0;
+		column = 0;
+	}
+
+	/**
+	 * Returns the characters of a character sequence
+	 * 
+	 * @param content
+	 *            the character sequence
+	 * @return the characters
+	 */
+	private static char[] toCharArray(CharSequence content) {
+
+		char[] chars = new char[content.length()];
+		if (content instanceof String) {
+			((String) content).getChars(0, chars.length, chars, 0);
+		} else if (content instanceof StringBuffer) {
+			((StringBuffer) content).getChars(0, chars.length, chars, 0);
+		} else if (content instanceof StringBuilder) {
+			((StringBuilder) content).getChars(0, chars.length, chars, 0);
+		} else {
+			for (int i = 0; i < chars.length; i++) {
+				chars[i] = content.charAt(i);
+			}
+		}
+		return chars;
+	}
+
 	/*
 	 * isAlphanum -- return true if the character is a letter, digit,
 	 * underscore, dollar sign, or non-ASCII character.
@@ -124,10 +181,7 @@ public class JSMin {
 		int c = theLookahead;
 		theLookahead = EOF;
 		if (c == EOF) {
-			c = in.read();
-			if (c != EOF) {
-				currentByteIndex++;
-			}
+			c = read();
 		}
 		if (c == '\n') {
 			line++;
@@ -153,6 +207,33 @@ public class JSMin {
 		return ' ';
 	}
 
+	/**
+	 * Reads the next byte or character of the input
+	 * 
+	 * @return the next byte or character of the input
+	 * @throws IOException
+	 *             if an IOException occurs
+	 */
+	private int read() throws IOException {
+
+		if (input == null) {
+			int c = in.read();
+			if (c != EOF) {
+				currentByteIndex++;
+			}
+			return c;
+		}
+
+		if (currentByteIndex == input.length) {
+			return EOF;
+		}
+		int c = input[currentByteIndex++];
+		if (c == '\r' && currentByteIndex < input.length && input[currentByteIndex] == '\n') {
+			c = input[currentByteIndex++];
+		}
+		return c;
+	}
+
 	/*
 	 * peek -- get the next character without getting it.
 	 */
@@ -307,10 +388,14 @@ public class JSMin {
 	 */
 	private void write(int c) throws IOException {
 		if (!firstCharacterWritten) {
-			if (c != '\n') {
-				out.write(c);
-				firstCharacterWritten = true;
+			if (c == '\n') {
+				return;
 			}
+			firstCharacterWritten = true;
+		}
+
+		if (output != null) {
+			output.append((char) c);
 		} else {
 			out.write(c);
 		}
@@ -323,7 +408,12 @@ public class JSMin {
 	 * Most spaces and linefeeds will be removed.
 	 */
 	public void jsmin() throws IOException, JSMinException {
-		if (peek() == 0xEF) { // Handle Unicode BOM
+		int firstChar = peek();
+		if (input != null) {
+			if (firstChar == BOM) { // Handle Unicode BOM
+				get();
+			}
+		} else if (firstChar == 0xEF) { // Handle Unicode BOM
 			get();
 			get();
 			get();
@@ -381,7 +471,9 @@ public class JSMin {
 			}
 		}
 
-		out.flush();
+		if (out != null) {
+			out.flush();
+		}
 	}
 
 	/**
@@ -394,7 +486,10 @@ public class JSMin {
 		/** The serial version UID */
 		private static final long serialVersionUID = -9047848972645299111L;
 
-		/** the byteIndex where the exception occured */
+		/**
+		 * the byteIndex where the exception occured, or the character index if
+		 * the input is a character sequence
+		 */
 		private final int byteIndex;
 
 		/** the line where the exception occured */
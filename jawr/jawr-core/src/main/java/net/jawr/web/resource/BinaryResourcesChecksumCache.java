@@ -0,0 +1,210 @@
+/**
+ * Copyright 2017 Ibrahim Chaehoi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package net.jawr.web.resource;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.jawr.web.config.JawrConfig;
+import net.jawr.web.exception.ResourceNotFoundException;
+import net.jawr.web.resource.bundle.CheckSumUtils;
+import net.jawr.web.resource.bundle.factory.util.PathNormalizer;
+import net.jawr.web.resource.handler.reader.ResourceReaderHandler;
+import net.jawr.web.util.StringUtils;
+
+/**
+ * This class stores the checksums of the binary resources in a file, with the
+ * size and the last modification date of the resource files, so the binary
+ * resources which have not changed are not read again at the next startup.
+ *
+ * The checksums of the generated binary resources, and of the resources which
+ * are not available on the file system, are always computed.
+ *
+ * @author Ibrahim Chaehoi
+ */
+public class BinaryResourcesChecksumCache {
+
+	/** The logger */
+	private static final Logger LOGGER = LoggerFactory.getLogger(BinaryResourcesChecksumCache.class);
+
+	/** The name of the file storing the checksums */
+	public static final String CACHE_FILE_NAME = "binaryResourcesChecksums.properties";
+
+	/** The property name of the hash algorithm */
+	private static final String HASH_ALGORITHM_PROPERTY = "hash.algorithm";
+
+	/** The prefix of the properties storing the checksum of a resource */
+	private static final String RESOURCE_KEY_PREFIX = "resource.";
+
+	/** The separator of the file information and the checksum */
+	private static final char SEPARATOR = ':';
+
+	/** The checksums read from the cache file, mapped by resource path */
+	private final Map<String, String> storedChecksums = new ConcurrentHashMap<>();
+
+	/** The checksums of the current resources, mapped by resource path */
+	private final Map<String, String> checksums = new ConcurrentHashMap<>();
+
+	/** The file storing the checksums */
+	private final File cacheFile;
+
+	/** The hash algorithm */
+	private final String hashAlgorithm;
+
+	/**
+	 * Constructor
+	 *
+	 * @param cacheFile
+	 *            the file storing the checksums
+	 * @param hashAlgorithm
+	 *            the hash algorithm. The stored checksums are discarded if
+	 *            they have been computed with another algorithm.
+	 */
+	public BinaryResourcesChecksumCache(File cacheFile, String hashAlgorithm) {
+		this.cacheFile = cacheFile;
+		this.hashAlgorithm = hashAlgorithm;
+		load();
+	}
+
+	/**
+	 * Returns the checksum of a binary resource. The resource is only read if
+	 * its size or its last modification date have changed since its checksum
+	 * has been stored.
+	 *
+	 * @param url
+	 *            the url path to the resource
+	 * @param rsReader
+	 *            the resource reader handler
+	 * @param jawrConfig
+	 *            the Jawr config
+	 * @return the checksum
+	 * @throws IOException
+	 *             if an IO exception occurs.
+	 * @throws ResourceNotFoundException
+	 *             if the resource is not found.
+	 */
+	public String getChecksum(String url, ResourceReaderHandler rsReader, JawrConfig jawrConfig)
+			throws IOException, ResourceNotFoundException {
+
+		String fileInfo = getFileInfo(url, rsReader, jawrConfig);
+		if (fileInfo != null) {
+			String entry = storedChecksums.get(url);
+			if (entry != null && entry.startsWith(fileInfo)) {
+				checksums.put(url, entry);
+				return entry.substring(fileInfo.length());
+			}
+		}
+
+		String checksum = CheckSumUtils.getChecksum(url, rsReader, jawrConfig);
+		if (fileInfo != null) {
+			checksums.put(url, fileInfo + checksum);
+		}
+		return checksum;
+	}
+
+	/**
+	 * Stores the checksums of the current resources in the cache file
+	 */
+	public synchronized void save() {
+
+		Properties props = new Properties();
+		props.put(HASH_ALGORITHM_PROPERTY, hashAlgorithm);
+		for (Map.Entry<String, String> entry : checksums.entrySet()) {
+			props.put(RESOURCE_KEY_PREFIX + entry.getKey(), entry.getValue());
+		}
+
+		File dir = cacheFile.getParentFile();
+		if (dir != null && !dir.exists() && !dir.mkdirs()) {
+			LOGGER.warn("Unable to create the directory of the binary resources checksum file " + cacheFile);
+			return;
+		}
+
+		try (OutputStream os = new FileOutputStream(cacheFile)) {
+			props.store(os, "Binary resources checksums");
+		} catch (IOException e) {
+			LOGGER.warn("Unable to store the binary resources checksums in " + cacheFile, e);
+		}
+	}
+
+	/**
+	 * Loads the checksums stored in the cache file
+	 */
+	private void load() {
+
+		if (!cacheFile.exists()) {
+			return;
+		}
+
+		Properties props = new Properties();
+		try (InputStream is = new FileInputStream(cacheFile)) {
+			props.load(is);
+		} catch (IOException e) {
+			LOGGER.warn("Unable to read the binary resources checksums from " + cacheFile, e);
+			return;
+		}
+
+		if (StringUtils.equals(props.getProperty(HASH_ALGORITHM_PROPERTY), hashAlgorithm)) {
+			for (String propName : props.stringPropertyNames()) {
+				if (propName.startsWith(RESOURCE_KEY_PREFIX)) {
+					storedChecksums.put(propName.substring(RESOURCE_KEY_PREFIX.length()),
+							props.getProperty(propName));
+				}
+			}
+		} else if (LOGGER.isDebugEnabled()) {
+			LOGGER.debug("The binary resources checksums have been computed with another algorithm. Reset cache...");
+		}
+	}
+
+	/**
+	 * Returns the size and the last modification date of the file of the
+	 * resource given in parameter
+	 *
+	 * @param url
+	 *            the url path to the resource
+	 * @param rsReader
+	 *            the resource reader handler
+	 * @param jawrConfig
+	 *            the Jawr config
+	 * @return the size and the last modification date of the file, or null if
+	 *         the resource is not available on the file system
+	 */
+	private String getFileInfo(String url, ResourceReaderHandler rsReader, JawrConfig jawrConfig) {
+
+		if (jawrConfig.getGeneratorRegistry().isGeneratedBinaryResource(url)) {
+			return null;
+		}
+
+		String filePath = rsReader.getFilePath(PathNormalizer.asPath(url));
+		if (filePath == null) {
+			return null;
+		}
+
+		File file = new File(filePath);
+		if (!file.isFile()) {
+			return null;
+		}
+
+		return Long.toString(file.length()) + SEPARATOR + file.lastModified() + SEPARATOR;
+	}
+}
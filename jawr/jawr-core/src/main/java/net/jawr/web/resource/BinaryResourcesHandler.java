@@ -13,17 +13,29 @@
  */
 package net.jawr.web.resource;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.jawr.web.cache.BoundedCacheManager;
 import net.jawr.web.config.JawrConfig;
+import net.jawr.web.exception.BundlingProcessException;
 import net.jawr.web.exception.ResourceNotFoundException;
 import net.jawr.web.resource.bundle.CheckSumUtils;
+import net.jawr.web.resource.bundle.IOUtils;
 import net.jawr.web.resource.bundle.factory.util.PathNormalizer;
 import net.jawr.web.resource.bundle.handler.BundleHashcodeType;
 import net.jawr.web.resource.handler.bundle.ResourceBundleHandler;
 import net.jawr.web.resource.handler.reader.ResourceReaderHandler;
+import net.jawr.web.servlet.util.MIMETypesSupport;
+import net.jawr.web.util.Base64Encoder;
 
 /**
  * This class defines the binary web resource handler.
@@ -33,6 +45,18 @@ import net.jawr.web.resource.handler.reader.ResourceReaderHandler;
  */
 public class BinaryResourcesHandler {
 
+	/** The logger */
+	private static final Logger LOGGER = LoggerFactory.getLogger(BinaryResourcesHandler.class);
+
+	/** The prefix of the keys of the image URLs in the image tag cache */
+	private static final String URL_KEY_PREFIX = "url#";
+
+	/** The prefix of the keys of the base64 encoded images in the image tag cache */
+	private static final String BASE64_KEY_PREFIX = "base64#";
+
+	/** The data prefix */
+	private static final String DATA_PREFIX = "data:";
+
 	/** The binary web resource map */
 	private final Map<String, String> binaryResourcePathMap = new ConcurrentHashMap<>();
 
@@ -45,6 +69,12 @@ public class BinaryResourcesHandler {
 	/** The resource bundle handler */
 	private final ResourceBundleHandler rsBundleHandler;
 
+	/** The time when the binary resources have been mapped */
+	private volatile long lastBuildTime = System.currentTimeMillis() / 1000 * 1000;
+
+	/** The cache of the image URLs and base64 encoded images of the image tags */
+	private final BoundedCacheManager imageTagCache;
+
 	/**
 	 * Constructor
 	 * 
@@ -60,6 +90,7 @@ public class BinaryResourcesHandler {
 		this.jawrConfig = config;
 		this.rsHandler = rsHandler;
 		this.rsBundleHandler = rsBundleHandler;
+		this.imageTagCache = new BoundedCacheManager(config.getImageTagCacheMaxSize());
 	}
 
 	/**
@@ -119,12 +150,160 @@ public class BinaryResourcesHandler {
 		return binaryResourcePathMap.get(binaryUrl);
 	}
 
+	/**
+	 * Returns the cache busted URL of a binary resource. If the binary
+	 * resource is not mapped yet, its checksum is computed and the mapping is
+	 * added. When several threads need the same URL, only one of them computes
+	 * it.
+	 * 
+	 * @param binaryUrl
+	 *            the binary resource url
+	 * @return the cache busted URL
+	 * @throws IOException
+	 *             if an IO exception occurs
+	 * @throws ResourceNotFoundException
+	 *             if the binary resource is not found
+	 */
+	public String getCacheBustedUrl(final String binaryUrl) throws IOException, ResourceNotFoundException {
+
+		String cacheUrl = getCacheUrl(binaryUrl);
+		if (cacheUrl == null) {
+			cacheUrl = getFromImageTagCache(URL_KEY_PREFIX + binaryUrl, new Callable<String>() {
+
+				@Override
+				public String call() throws Exception {
+					String url = CheckSumUtils.getCacheBustedUrl(binaryUrl, rsHandler, jawrConfig);
+					addMapping(binaryUrl, url);
+					return url;
+				}
+			});
+		}
+		return cacheUrl;
+	}
+
+	/**
+	 * Returns the base64 encoded image, as a data URI. The encoded images are
+	 * kept in the image tag cache, and when several threads need the same
+	 * image, only one of them encodes it.
+	 * 
+	 * @param imgSrc
+	 *            the image path
+	 * @return the base64 encoded image
+	 * @throws IOException
+	 *             if an IO exception occurs
+	 * @throws ResourceNotFoundException
+	 *             if the image is not found
+	 */
+	public String getBase64EncodedImage(final String imgSrc) throws IOException, ResourceNotFoundException {
+
+		return getFromImageTagCache(BASE64_KEY_PREFIX + imgSrc, new Callable<String>() {
+
+			@Override
+			public String call() throws Exception {
+				String fileExtension = FileNameUtils.getExtension(imgSrc);
+				String fileMimeType = (String) MIMETypesSupport.getSupportedProperties(BinaryResourcesHandler.this)
+						.get(fileExtension);
+
+				InputStream is = rsHandler.getResourceAsStream(imgSrc);
+				ByteArrayOutputStream out = new ByteArrayOutputStream();
+				IOUtils.copy(is, out, true);
+				return DATA_PREFIX + fileMimeType + ";base64," + new String(Base64Encoder.encode(out.toByteArray()));
+			}
+		});
+	}
+
+	/**
+	 * Puts the base64 encoded images of the binary resources in the image tag
+	 * cache
+	 * 
+	 * @param resourcePaths
+	 *            the binary resource paths
+	 */
+	public void precomputeImageTagCache(List<String> resourcePaths) {
+
+		for (String resourcePath : resourcePaths) {
+			if (Thread.currentThread().isInterrupted() || !jawrConfig.isValid()) {
+				return;
+			}
+			try {
+				getBase64EncodedImage(resourcePath);
+			} catch (IOException | ResourceNotFoundException e) {
+				LOGGER.warn("Unable to encode in base64 the binary resource '" + resourcePath + "'");
+			}
+		}
+	}
+
+	/**
+	 * Returns the cache of the image URLs and base64 encoded images of the
+	 * image tags
+	 * 
+	 * @return the image tag cache
+	 */
+	public BoundedCacheManager getImageTagCache() {
+		return imageTagCache;
+	}
+
+	/**
+	 * Returns an element of the image tag cache, loading it if needed
+	 * 
+	 * @param key
+	 *            the cache key
+	 * @param loader
+	 *            the loader of the element
+	 * @return the element
+	 * @throws IOException
+	 *             if an IO exception occurs
+	 * @throws ResourceNotFoundException
+	 *             if the resource is not found
+	 */
+	private String getFromImageTagCache(String key, Callable<String> loader)
+			throws IOException, ResourceNotFoundException {
+
+		try {
+			return (String) imageTagCache.get(key, loader);
+		} catch (IOException | ResourceNotFoundException | RuntimeException e) {
+			throw e;
+		} catch (Exception e) {
+			throw new BundlingProcessException(e);
+		}
+	}
+
 	/**
 	 * Clears the binary map
 	 */
 	public void clear() {
 
 		binaryResourcePathMap.clear();
+		imageTagCache.clear();
+		lastBuildTime = System.currentTimeMillis() / 1000 * 1000;
+	}
+
+	/**
+	 * Returns the time when the binary resources have been mapped. As it is
+	 * used as HTTP date, the time is truncated to the second.
+	 * 
+	 * @return the time when the binary resources have been mapped
+	 */
+	public long getLastBuildTime() {
+		return lastBuildTime;
+	}
+
+	/**
+	 * Returns the cache buster of the current content of the requested binary
+	 * resource
+	 * 
+	 * @param requestedPath
+	 *            the requested path
+	 * @return the cache buster, or null if the binary resource is not mapped
+	 */
+	public String getCacheBuster(String requestedPath) {
+
+		String[] resourceInfo = PathNormalizer.extractBinaryResourceInfo(requestedPath);
+		String cacheUrl = getCacheUrl(resourceInfo[0]);
+		if (cacheUrl == null) {
+			return null;
+		}
+		return PathNormalizer.extractBinaryResourceInfo(cacheUrl)[1];
 	}
 
 	/**
@@ -17,9 +17,11 @@ import java.io.ByteArrayInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.math.BigInteger;
 import java.nio.charset.Charset;
 import java.security.DigestInputStream;
+import java.security.DigestOutputStream;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.zip.CRC32;
@@ -106,6 +108,23 @@ public final class CheckSumUtils {
 			throws IOException, ResourceNotFoundException {
 
 		String checksum = getChecksum(url, rsReader, jawrConfig);
+		return getCacheBustedUrl(url, checksum, jawrConfig);
+	}
+
+	/**
+	 * Return the cache busted url associated to the url passed in parameter,
+	 * using the checksum of the resource content
+	 * 
+	 * @param url
+	 *            the url path to the resource file
+	 * @param checksum
+	 *            the checksum of the resource content
+	 * @param jawrConfig
+	 *            the jawrConfig
+	 * @return the cache busted url
+	 */
+	public static String getCacheBustedUrl(String url, String checksum, JawrConfig jawrConfig) {
+
 		String result = JawrConstant.CACHE_BUSTER_PREFIX;
 		boolean generatedBinaryResource = jawrConfig.getGeneratorRegistry().isGeneratedBinaryResource(url);
 
@@ -174,21 +193,43 @@ public final class CheckSumUtils {
 	}
 
 	/**
-	 * Returns the MD5 Checksum of the string passed in parameter
+	 * Returns the MD5 Checksum of the content passed in parameter. The
+	 * content is digested while it is encoded, so no byte array of the whole
+	 * content is created.
 	 * 
-	 * @param str
-	 *            the string content
+	 * @param content
+	 *            the content
 	 * @param charset
 	 *            the content charset
 	 * 
-	 * @return the Checksum of the input stream
+	 * @return the Checksum of the content
 	 * @throws IOException
 	 *             if an IO exception occurs
 	 */
-	public static String getMD5Checksum(String str, Charset charset) throws IOException {
+	public static String getMD5Checksum(CharSequence content, Charset charset) throws IOException {
 
-		InputStream is = new ByteArrayInputStream(str.getBytes(charset.name()));
-		return getMD5Checksum(is);
+		byte[] digest = null;
+		try {
+			MessageDigest md = MessageDigest.getInstance(JawrConstant.MD5_ALGORITHM);
+			OutputStream digestOs = new DigestOutputStream(new OutputStream() {
+
+				@Override
+				public void write(int b) {
+					// The bytes are only digested
+				}
+
+				@Override
+				public void write(byte[] b, int off, int len) {
+					// The bytes are only digested
+				}
+			}, md);
+			IOUtils.write(content, charset, digestOs);
+			digest = md.digest();
+		} catch (NoSuchAlgorithmException e) {
+			throw new BundlingProcessException("MD5 algorithm needs to be installed", e);
+		}
+
+		return new BigInteger(1, digest).toString(16);
 	}
 
 	/**
@@ -19,10 +19,15 @@ import java.io.Reader;
 import java.io.StringWriter;
 import java.io.Writer;
 import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
 import java.nio.channels.Channel;
 import java.nio.channels.FileChannel;
 import java.nio.channels.ReadableByteChannel;
 import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
 
 public class IOUtils {
 
@@ -145,6 +150,65 @@ public class IOUtils {
 		}
 	}
 
+	/**
+	 * Appends all the contents of a Reader to a StringBuffer, without the
+	 * intermediate copy made by a StringWriter.
+	 * 
+	 * @param reader
+	 *            the reader to read from
+	 * @param buffer
+	 *            the buffer to append to
+	 * @throws java.io.IOException
+	 *             if an IOExcption occurs
+	 */
+	public static void copy(Reader reader, StringBuffer buffer) throws IOException {
+		char[] buf = new char[BUFFER_SIZE];
+		int num = 0;
+
+		while ((num = reader.read(buf, 0, buf.length)) != -1) {
+			buffer.append(buf, 0, num);
+		}
+	}
+
+	/**
+	 * Encodes a character sequence and writes the bytes to an OutputStream.
+	 * The content is encoded chunk by chunk, so no byte array of the whole
+	 * content is created. As for {@link String#getBytes(Charset)}, the
+	 * malformed and unmappable characters are replaced.
+	 * 
+	 * @param content
+	 *            the content to write
+	 * @param charset
+	 *            the charset
+	 * @param out
+	 *            the output stream to write to
+	 * @throws java.io.IOException
+	 *             if an IOExcption occurs
+	 */
+	public static void write(CharSequence content, Charset charset, OutputStream out) throws IOException {
+
+		CharsetEncoder encoder = charset.newEncoder().onMalformedInput(CodingErrorAction.REPLACE)
+				.onUnmappableCharacter(CodingErrorAction.REPLACE);
+		CharBuffer in = CharBuffer.wrap(content);
+		ByteBuffer buf = ByteBuffer.allocate(BUFFER_SIZE);
+
+		boolean flushing = false;
+		while (true) {
+			CoderResult result = flushing ? encoder.flush(buf) : encoder.encode(in, buf, true);
+			if (result.isError()) {
+				result.throwException();
+			}
+			out.write(buf.array(), 0, buf.position());
+			buf.clear();
+			if (result.isUnderflow()) {
+				if (flushing) {
+					break;
+				}
+				flushing = true;
+			}
+		}
+	}
+
 	/**
 	 * Copy the readable byte channel to the writable byte channel
 	 * 
@@ -186,6 +250,41 @@ public class IOUtils {
 		}
 	}
 
+	/**
+	 * Transfers the content of the file channel to the writable byte channel.
+	 * If the target is a file channel, the bytes are transferred directly by
+	 * the operating system. Otherwise, as for the response channels, the
+	 * content is copied through a buffer. The file is never memory-mapped, so
+	 * no mapping outlives the request and the file can be deleted once the
+	 * channel is closed.
+	 * 
+	 * @param inChannel
+	 *            the file channel
+	 * @param outChannel
+	 *            the writable byte channel
+	 * @throws IOException
+	 *             if an IOException occurs.
+	 */
+	public static void transfer(FileChannel inChannel, WritableByteChannel outChannel) throws IOException {
+
+		if (outChannel instanceof FileChannel) {
+			long size = inChannel.size();
+			long position = 0;
+			while (position < size) {
+				position += inChannel.transferTo(position, size - position, outChannel);
+			}
+		} else {
+			ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+			while (inChannel.read(buffer) != -1) {
+				buffer.flip();
+				while (buffer.hasRemaining()) {
+					outChannel.write(buffer);
+				}
+				buffer.clear();
+			}
+		}
+	}
+
 	/**
 	 * Close the input stream
 	 * 
@@ -310,4 +310,35 @@ public interface JoinableResourceBundle {
 	 */
 	public boolean isDirty();
 
+	/**
+	 * Registers a file on which the content of some variants of the bundle
+	 * depends
+	 * 
+	 * @param filePath
+	 *            the file path
+	 * @param variants
+	 *            the variants which depend on the file. A variant of the
+	 *            bundle depends on the file if its variant map contains all
+	 *            these variants. An empty map means all the variants.
+	 */
+	public void addFileDependency(String filePath, Map<String, String> variants);
+
+	/**
+	 * Marks the resource bundle as dirty following the modification of a
+	 * file. If the variants depending on the file are known, only those are
+	 * marked as dirty, otherwise the whole bundle is.
+	 * 
+	 * @param filePath
+	 *            the path of the modified file
+	 */
+	public void notifyFileModification(String filePath);
+
+	/**
+	 * Returns the keys of the variants to rebuild
+	 * 
+	 * @return the keys of the variants to rebuild, or null if all the
+	 *         variants of the bundle must be rebuilt
+	 */
+	public Set<String> getDirtyVariantKeys();
+
 }
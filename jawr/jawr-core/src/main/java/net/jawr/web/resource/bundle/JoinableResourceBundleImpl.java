@@ -14,11 +14,15 @@
 package net.jawr.web.resource.bundle;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -69,6 +73,12 @@ public class JoinableResourceBundleImpl implements JoinableResourceBundle {
 	/** The flag indicating if the resource bundle is dirty */
 	private boolean dirty;
 
+	/** The keys of the dirty variants, or null if all the variants are dirty */
+	private Set<String> dirtyVariantKeys;
+
+	/** The variants which depend on each file linked to the bundle */
+	private final ConcurrentMap<String, Set<Map<String, String>>> fileDependencies = new ConcurrentHashMap<>();
+
 	/** The bundle prefix */
 	private String bundlePrefix;
 
@@ -708,8 +718,9 @@ public class JoinableResourceBundleImpl implements JoinableResourceBundle {
 	 * net.jawr.web.resource.bundle.JoinableResourceBundle#setDirty(boolean)
 	 */
 	@Override
-	public void setDirty(boolean dirty) {
+	public synchronized void setDirty(boolean dirty) {
 		this.dirty = dirty;
+		this.dirtyVariantKeys = null;
 	}
 
 	/*
@@ -718,10 +729,112 @@ public class JoinableResourceBundleImpl implements JoinableResourceBundle {
 	 * @see net.jawr.web.resource.bundle.JoinableResourceBundle#isDirty()
 	 */
 	@Override
-	public boolean isDirty() {
+	public synchronized boolean isDirty() {
 		return dirty;
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * net.jawr.web.resource.bundle.JoinableResourceBundle#addFileDependency(
+	 * java.lang.String, java.util.Map)
+	 */
+	@Override
+	public void addFileDependency(String filePath, Map<String, String> variants) {
+
+		Set<Map<String, String>> dependencies = fileDependencies.get(filePath);
+		if (dependencies == null) {
+			dependencies = Collections.newSetFromMap(new ConcurrentHashMap<Map<String, String>, Boolean>());
+			Set<Map<String, String>> existingDependencies = fileDependencies.putIfAbsent(filePath, dependencies);
+			if (existingDependencies != null) {
+				dependencies = existingDependencies;
+			}
+		}
+		dependencies.add(variants == null ? Collections.<String, String> emptyMap() : new HashMap<>(variants));
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see net.jawr.web.resource.bundle.JoinableResourceBundle#
+	 * notifyFileModification(java.lang.String)
+	 */
+	@Override
+	public synchronized void notifyFileModification(String filePath) {
+
+		Set<String> variantKeys = getVariantKeysDependingOn(filePath);
+		if (variantKeys == null) {
+			dirtyVariantKeys = null;
+		} else {
+			// The mappings of the modified file will be registered again
+			// when the variants which depend on it are rebuilt
+			List<FilePathMapping> modifiedMappings = new ArrayList<>();
+			for (FilePathMapping fMapping : getLinkedFilePathMappings()) {
+				if (fMapping.getPath().equals(filePath)) {
+					modifiedMappings.add(fMapping);
+				}
+			}
+			getLinkedFilePathMappings().removeAll(modifiedMappings);
+
+			if (!dirty) {
+				dirtyVariantKeys = variantKeys;
+			} else if (dirtyVariantKeys != null) {
+				dirtyVariantKeys.addAll(variantKeys);
+			}
+		}
+		dirty = true;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * net.jawr.web.resource.bundle.JoinableResourceBundle#getDirtyVariantKeys()
+	 */
+	@Override
+	public synchronized Set<String> getDirtyVariantKeys() {
+		return dirtyVariantKeys == null ? null : new HashSet<>(dirtyVariantKeys);
+	}
+
+	/**
+	 * Returns the keys of the variants which depend on the file given in
+	 * parameter
+	 * 
+	 * @param filePath
+	 *            the file path
+	 * @return the keys of the variants which depend on the file, or null if
+	 *         they are unknown or if the file is a member of the bundle
+	 */
+	protected Set<String> getVariantKeysDependingOn(String filePath) {
+
+		// The members of the bundle are used by all the variants
+		for (FilePathMapping fMapping : getFilePathMappings()) {
+			if (fMapping.getPath().equals(filePath)) {
+				return null;
+			}
+		}
+
+		Set<Map<String, String>> dependencies = fileDependencies.get(filePath);
+		if (dependencies == null) {
+			return null;
+		}
+
+		List<Map<String, String>> allVariants = VariantUtils.getAllVariants(getVariants());
+		Set<String> variantKeys = new HashSet<>();
+		for (Map<String, String> dependency : dependencies) {
+			if (dependency.isEmpty()) {
+				return null;
+			}
+			for (Map<String, String> variantMap : allVariants) {
+				if (variantMap.entrySet().containsAll(dependency.entrySet())) {
+					variantKeys.add(VariantUtils.getVariantKey(variantMap));
+				}
+			}
+		}
+		return variantKeys;
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
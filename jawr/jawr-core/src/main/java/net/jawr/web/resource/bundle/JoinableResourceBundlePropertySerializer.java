@@ -65,6 +65,25 @@ public class JoinableResourceBundlePropertySerializer {
 	 *            the properties to update
 	 */
 	public static void serializeInProperties(JoinableResourceBundle bundle, String type, Properties props) {
+		serializeInProperties(bundle, type, props, null);
+	}
+
+	/**
+	 * Serializes the bundle in the properties, using the hashcodes given in
+	 * parameter instead of the ones of the bundle when they are defined.
+	 * 
+	 * @param bundle
+	 *            the bundle to serialize
+	 * @param type
+	 *            the resource type
+	 * @param props
+	 *            the properties to update
+	 * @param hashcodes
+	 *            the bundle hashcodes mapped by variant key, the default
+	 *            bundle hashcode being mapped by an empty key. It can be null.
+	 */
+	public static void serializeInProperties(JoinableResourceBundle bundle, String type, Properties props,
+			Map<String, String> hashcodes) {
 
 		String bundleName = bundle.getName();
 		String prefix = PropertiesBundleConstant.PROPS_PREFIX + type + "."
@@ -132,12 +151,12 @@ public class JoinableResourceBundlePropertySerializer {
 			for (String variantKey : variantKeys) {
 				if (StringUtils.isNotEmpty(variantKey)) {
 					props.put(prefix + PropertiesBundleConstant.BUNDLE_FACTORY_CUSTOM_HASHCODE_VARIANT + variantKey,
-							bundle.getBundleDataHashCode(variantKey));
+							getBundleDataHashCode(bundle, variantKey, hashcodes));
 				}
 			}
 		}
 
-		String bundleHashcode = bundle.getBundleDataHashCode(null);
+		String bundleHashcode = getBundleDataHashCode(bundle, null, hashcodes);
 		if (bundleHashcode != null) {
 			props.put(prefix + PropertiesBundleConstant.BUNDLE_FACTORY_CUSTOM_HASHCODE, bundleHashcode);
 		}
@@ -188,6 +207,31 @@ public class JoinableResourceBundlePropertySerializer {
 		}
 	}
 
+	/**
+	 * Returns the hashcode of the bundle variant
+	 * 
+	 * @param bundle
+	 *            the bundle
+	 * @param variantKey
+	 *            the variant key
+	 * @param hashcodes
+	 *            the hashcodes which override the ones of the bundle, it can
+	 *            be null
+	 * @return the hashcode of the bundle variant
+	 */
+	private static String getBundleDataHashCode(JoinableResourceBundle bundle, String variantKey,
+			Map<String, String> hashcodes) {
+
+		String hashcode = null;
+		if (hashcodes != null) {
+			hashcode = hashcodes.get(variantKey == null ? "" : variantKey);
+		}
+		if (hashcode == null) {
+			hashcode = bundle.getBundleDataHashCode(variantKey);
+		}
+		return hashcode;
+	}
+
 	/**
 	 * Serialize the variant sets.
 	 * 
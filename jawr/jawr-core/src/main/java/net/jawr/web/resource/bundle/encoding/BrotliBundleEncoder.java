@@ -0,0 +1,69 @@
+/**
+ * Copyright 2017 Ibrahim Chaehoi
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ * 
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package net.jawr.web.resource.bundle.encoding;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import com.aayushatharva.brotli4j.Brotli4jLoader;
+import com.aayushatharva.brotli4j.encoder.BrotliOutputStream;
+import com.aayushatharva.brotli4j.encoder.Encoder;
+
+/**
+ * The bundle encoder which creates the Brotli version of the bundles. This
+ * encoder requires the brotli4j library and its native library for the
+ * platform. As the bundles are encoded once when they are stored, the highest
+ * compression quality is used.
+ * 
+ * @author Ibrahim Chaehoi
+ */
+public class BrotliBundleEncoder implements BundleEncoder {
+
+	/** The Brotli content coding */
+	public static final String BROTLI_ENCODING = "br";
+
+	/** The compression quality */
+	private static final int COMPRESSION_QUALITY = 11;
+
+	/**
+	 * Constructor
+	 */
+	public BrotliBundleEncoder() {
+		// Fails early if the native library can't be loaded
+		Brotli4jLoader.ensureAvailability();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see net.jawr.web.resource.bundle.encoding.BundleEncoder#getEncoding()
+	 */
+	@Override
+	public String getEncoding() {
+		return BROTLI_ENCODING;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * net.jawr.web.resource.bundle.encoding.BundleEncoder#encode(java.io.
+	 * OutputStream)
+	 */
+	@Override
+	public OutputStream encode(OutputStream out) throws IOException {
+		return new BrotliOutputStream(out, new Encoder.Parameters().setQuality(COMPRESSION_QUALITY));
+	}
+
+}
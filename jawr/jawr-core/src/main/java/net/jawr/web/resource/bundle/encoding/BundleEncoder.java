@@ -0,0 +1,50 @@
+/**
+ * Copyright 2017 Ibrahim Chaehoi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package net.jawr.web.resource.bundle.encoding;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * This interface defines the methods of the encoders which create the
+ * precompressed versions of the bundles when they are stored. Each encoder is
+ * identified by the HTTP content coding it produces, which is also the name of
+ * the directory where the encoded bundles are stored.
+ * 
+ * @author Ibrahim Chaehoi
+ */
+public interface BundleEncoder {
+
+	/**
+	 * Returns the HTTP content coding produced by the encoder (for example
+	 * "gzip" or "br")
+	 * 
+	 * @return the content coding
+	 */
+	String getEncoding();
+
+	/**
+	 * Returns an output stream which encodes the data written to it in the
+	 * output stream given in parameter. Closing the returned stream closes the
+	 * underlying stream.
+	 * 
+	 * @param out
+	 *            the output stream where the encoded data are written
+	 * @return the encoding output stream
+	 * @throws IOException
+	 *             if an IOException occurs
+	 */
+	OutputStream encode(OutputStream out) throws IOException;
+
+}
@@ -0,0 +1,52 @@
+/**
+ * Copyright 2017 Ibrahim Chaehoi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package net.jawr.web.resource.bundle.encoding;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The bundle encoder which creates the gzipped version of the bundles
+ * 
+ * @author Ibrahim Chaehoi
+ */
+public class GzipBundleEncoder implements BundleEncoder {
+
+	/** The gzip content coding */
+	public static final String GZIP_ENCODING = "gzip";
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see net.jawr.web.resource.bundle.encoding.BundleEncoder#getEncoding()
+	 */
+	@Override
+	public String getEncoding() {
+		return GZIP_ENCODING;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * net.jawr.web.resource.bundle.encoding.BundleEncoder#encode(java.io.
+	 * OutputStream)
+	 */
+	@Override
+	public OutputStream encode(OutputStream out) throws IOException {
+		return new GZIPOutputStream(out);
+	}
+
+}
@@ -0,0 +1,58 @@
+/**
+ * Copyright 2017 Ibrahim Chaehoi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package net.jawr.web.resource.bundle.encoding;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import com.github.luben.zstd.ZstdOutputStream;
+
+/**
+ * The bundle encoder which creates the Zstandard version of the bundles. This
+ * encoder requires the zstd-jni library. As the bundles are encoded once when
+ * they are stored, the highest standard compression level is used.
+ * 
+ * @author Ibrahim Chaehoi
+ */
+public class ZstdBundleEncoder implements BundleEncoder {
+
+	/** The Zstandard content coding */
+	public static final String ZSTD_ENCODING = "zstd";
+
+	/** The compression level */
+	private static final int COMPRESSION_LEVEL = 19;
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see net.jawr.web.resource.bundle.encoding.BundleEncoder#getEncoding()
+	 */
+	@Override
+	public String getEncoding() {
+		return ZSTD_ENCODING;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * net.jawr.web.resource.bundle.encoding.BundleEncoder#encode(java.io.
+	 * OutputStream)
+	 */
+	@Override
+	public OutputStream encode(OutputStream out) throws IOException {
+		return new ZstdOutputStream(out, COMPRESSION_LEVEL);
+	}
+
+}
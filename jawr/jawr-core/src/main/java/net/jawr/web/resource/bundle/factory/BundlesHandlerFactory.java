@@ -288,6 +288,32 @@ public class BundlesHandlerFactory {
 		return collector;
 	}
 
+	/**
+	 * Builds the resource bundles from their definitions, without processing
+	 * them. This is used to reload the bundle definitions in an existing
+	 * resource bundles handler.
+	 * 
+	 * @return the resource bundles
+	 * @throws DuplicateBundlePathException
+	 *             if two bundles are defined with the same path
+	 * @throws BundleDependencyException
+	 *             if an error exists in the dependency definition
+	 */
+	public List<JoinableResourceBundle> buildResourceBundles()
+			throws DuplicateBundlePathException, BundleDependencyException {
+
+		if (null == resourceReaderHandler) {
+			throw new IllegalStateException(
+					"Must set the resourceHandler for this factory before invoking buildResourceBundles(). ");
+		}
+
+		initCustomPostProcessors();
+
+		List<JoinableResourceBundle> resourceBundles = new ArrayList<>();
+		initResourceBundles(resourceBundles);
+		return resourceBundles;
+	}
+
 	/**
 	 * Returns true if the bundle should be processed using cache mapping
 	 * information
@@ -59,6 +59,7 @@ import net.jawr.web.JawrConstant;
 import net.jawr.web.config.JawrConfig;
 import net.jawr.web.exception.BundleDependencyException;
 import net.jawr.web.exception.DuplicateBundlePathException;
+import net.jawr.web.resource.bundle.JoinableResourceBundle;
 import net.jawr.web.resource.bundle.factory.util.PropertiesConfigHelper;
 import net.jawr.web.resource.bundle.factory.util.ResourceBundleDefinition;
 import net.jawr.web.resource.bundle.generator.GeneratorRegistry;
@@ -82,6 +83,9 @@ public class PropertiesBasedBundlesHandlerFactory {
 	/** The bundle handler factory */
 	private BundlesHandlerFactory factory;
 
+	/** The generator registry */
+	private GeneratorRegistry generatorRegistry;
+
 	/**
 	 * Constructor
 	 */
@@ -140,20 +144,7 @@ public class PropertiesBasedBundlesHandlerFactory {
 		factory.setUseDirMapperFactory(Boolean.parseBoolean(props.getProperty(FACTORY_USE_DIR_MAPPER, "false")));
 		factory.setExludedDirMapperDirs(props.getPropertyAsSet(FACTORY_DIR_MAPPER_EXCLUSION));
 
-		// Initialize custom generators
-		Iterator<String> generators = props.getCommonPropertyAsSet(CUSTOM_GENERATORS).iterator();
-		GeneratorRegistry generatorRegistry = jawrConfig.getGeneratorRegistry();
-		while (generators.hasNext()) {
-			String generatorClass = (String) generators.next();
-			generatorRegistry.registerGenerator(generatorClass);
-		}
-
-		// Initialize variant resolvers
-		Iterator<String> resolvers = props.getCommonPropertyAsSet(CUSTOM_RESOLVERS).iterator();
-		while (resolvers.hasNext()) {
-			String resolverClass = (String) resolvers.next();
-			generatorRegistry.registerVariantResolver(resolverClass);
-		}
+		this.generatorRegistry = jawrConfig.getGeneratorRegistry();
 
 		// Initialize custom bundles
 		Set<ResourceBundleDefinition> customBundles = new HashSet<>();
@@ -196,9 +187,40 @@ public class PropertiesBasedBundlesHandlerFactory {
 	 */
 	public ResourceBundlesHandler buildResourceBundlesHandler()
 			throws DuplicateBundlePathException, BundleDependencyException {
+
+		// Initialize custom generators
+		Iterator<String> generators = props.getCommonPropertyAsSet(CUSTOM_GENERATORS).iterator();
+		while (generators.hasNext()) {
+			String generatorClass = (String) generators.next();
+			generatorRegistry.registerGenerator(generatorClass);
+		}
+
+		// Initialize variant resolvers
+		Iterator<String> resolvers = props.getCommonPropertyAsSet(CUSTOM_RESOLVERS).iterator();
+		while (resolvers.hasNext()) {
+			String resolverClass = (String) resolvers.next();
+			generatorRegistry.registerVariantResolver(resolverClass);
+		}
+
 		return factory.buildResourceBundlesHandler();
 	}
 
+	/**
+	 * Builds the resource bundles from their definitions, without processing
+	 * them. The custom generators and variant resolvers are not registered, as
+	 * this is used to reload the bundle definitions of an existing handler.
+	 * 
+	 * @return the resource bundles
+	 * @throws DuplicateBundlePathException
+	 *             if a duplicateBundlePath exception occurs
+	 * @throws BundleDependencyException
+	 *             if an error exists in the dependency definition
+	 */
+	public List<JoinableResourceBundle> buildResourceBundles()
+			throws DuplicateBundlePathException, BundleDependencyException {
+		return factory.buildResourceBundles();
+	}
+
 	/**
 	 * Create a BundleDefinition based on the properties file.
 	 * 
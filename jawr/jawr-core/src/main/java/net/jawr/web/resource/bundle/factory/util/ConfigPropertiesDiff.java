@@ -0,0 +1,163 @@
+/**
+ * Copyright 2017 Ibrahim Chaehoi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package net.jawr.web.resource.bundle.factory.util;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+
+import net.jawr.web.JawrConstant;
+import net.jawr.web.resource.bundle.factory.PropertiesBundleConstant;
+
+/**
+ * This class computes the differences between two versions of the Jawr
+ * configuration, from the point of view of a resource type. A change is
+ * either a change of the definition of some bundles, or a change of a global
+ * setting, which may impact all the bundles.
+ *
+ * The properties of the other resource types are ignored, except the
+ * properties of the binary resources for the CSS, as they are used to rewrite
+ * the URLs of the images.
+ *
+ * @author Ibrahim Chaehoi
+ */
+public class ConfigPropertiesDiff {
+
+	/** The names of the bundles whose definition has changed */
+	private final Set<String> modifiedBundleNames = new HashSet<>();
+
+	/** The flag indicating if a global setting has changed */
+	private boolean globalChange;
+
+	/**
+	 * Constructor
+	 *
+	 * @param oldProps
+	 *            the previous configuration
+	 * @param newProps
+	 *            the new configuration
+	 * @param resourceType
+	 *            the resource type
+	 */
+	public ConfigPropertiesDiff(Properties oldProps, Properties newProps, String resourceType) {
+
+		String bundlePrefix = PropertiesBundleConstant.PROPS_PREFIX + resourceType + "."
+				+ PropertiesBundleConstant.BUNDLE_FACTORY_CUSTOM_PROPERTY;
+		List<String> ignoredPrefixes = getIgnoredPrefixes(resourceType);
+
+		Set<String> bundleNames = new HashSet<>();
+		bundleNames.addAll(new PropertiesConfigHelper(oldProps, resourceType).getPropertyBundleNameSet());
+		bundleNames.addAll(new PropertiesConfigHelper(newProps, resourceType).getPropertyBundleNameSet());
+
+		Set<String> keys = new HashSet<>(oldProps.stringPropertyNames());
+		keys.addAll(newProps.stringPropertyNames());
+		for (String key : keys) {
+
+			String oldValue = oldProps.getProperty(key);
+			String newValue = newProps.getProperty(key);
+			if (oldValue == null ? newValue == null : oldValue.equals(newValue)) {
+				continue;
+			}
+
+			if (isIgnored(key, ignoredPrefixes)) {
+				continue;
+			}
+
+			String bundleName = null;
+			if (key.startsWith(bundlePrefix)) {
+				String bundleKey = key.substring(bundlePrefix.length());
+				int idx = bundleKey.indexOf('.');
+				if (idx != -1 && bundleNames.contains(bundleKey.substring(0, idx))) {
+					bundleName = bundleKey.substring(0, idx);
+				}
+			}
+
+			if (bundleName != null) {
+				modifiedBundleNames.add(bundleName);
+			} else {
+				globalChange = true;
+			}
+		}
+	}
+
+	/**
+	 * Returns the prefixes of the properties which don't impact the resource
+	 * type
+	 *
+	 * @param resourceType
+	 *            the resource type
+	 * @return the prefixes of the properties
+	 */
+	private List<String> getIgnoredPrefixes(String resourceType) {
+
+		List<String> prefixes = new ArrayList<>();
+		for (String type : new String[] { JawrConstant.JS_TYPE, JawrConstant.CSS_TYPE, JawrConstant.BINARY_TYPE }) {
+			boolean usedByCss = JawrConstant.CSS_TYPE.equals(resourceType) && JawrConstant.BINARY_TYPE.equals(type);
+			if (!type.equals(resourceType) && !usedByCss) {
+				prefixes.add(PropertiesBundleConstant.PROPS_PREFIX + type + ".");
+			}
+		}
+		return prefixes;
+	}
+
+	/**
+	 * Checks if a property is ignored
+	 *
+	 * @param key
+	 *            the property key
+	 * @param ignoredPrefixes
+	 *            the prefixes of the ignored properties
+	 * @return true if the property is ignored
+	 */
+	private boolean isIgnored(String key, List<String> ignoredPrefixes) {
+
+		for (String prefix : ignoredPrefixes) {
+			if (key.startsWith(prefix)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Checks if the configuration has changed
+	 *
+	 * @return true if the configuration has changed
+	 */
+	public boolean hasChanges() {
+		return globalChange || !modifiedBundleNames.isEmpty();
+	}
+
+	/**
+	 * Checks if a global setting has changed. In this case, all the bundles
+	 * may be impacted.
+	 *
+	 * @return true if a global setting has changed
+	 */
+	public boolean isGlobalChange() {
+		return globalChange;
+	}
+
+	/**
+	 * Returns the names of the bundles whose definition has changed, or which
+	 * have been added or removed
+	 *
+	 * @return the names of the bundles
+	 */
+	public Set<String> getModifiedBundleNames() {
+		return modifiedBundleNames;
+	}
+}
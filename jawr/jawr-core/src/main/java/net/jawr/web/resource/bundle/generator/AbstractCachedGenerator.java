@@ -38,11 +38,14 @@ import java.util.Map;
 import java.util.Properties;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import net.jawr.web.JawrConstant;
+import net.jawr.web.cache.BoundedCacheManager;
 import net.jawr.web.config.JawrConfig;
 import net.jawr.web.exception.BundlingProcessException;
 import net.jawr.web.resource.bundle.IOUtils;
@@ -57,13 +60,20 @@ import net.jawr.web.util.StopWatch;
 import net.jawr.web.util.StringUtils;
 
 /**
- * This class defines JS generator which handles cache for generated resource
+ * This class defines JS generator which handles cache for generated resource.
+ * 
+ * The generated resources are cached in two layers : an in-memory layer
+ * bounded in size, and the temporary files of the working directory. When the
+ * smart bundling is used, the cached resources are invalidated by the
+ * resource watcher when their linked resources are modified, otherwise the
+ * last modification date of the linked resources is checked.
  * 
  * @author Ibrahim Chaehoi
  */
-public abstract class AbstractCachedGenerator
-		implements TextResourceGenerator, ConfigurationAwareResourceGenerator, PostInitializationAwareResourceGenerator,
-		WorkingDirectoryLocationAware, ResourceReaderHandlerAwareResourceGenerator, BundlingProcessLifeCycleListener {
+public abstract class AbstractCachedGenerator implements TextResourceGenerator, ConfigurationAwareResourceGenerator,
+		PostInitializationAwareResourceGenerator, WorkingDirectoryLocationAware,
+		ResourceReaderHandlerAwareResourceGenerator, BundlingProcessLifeCycleListener,
+		ResourceModificationAwareResourceGenerator {
 
 	/** The Perf Logger */
 	private static final Logger PERF_LOGGER = LoggerFactory.getLogger(JawrConstant.PERF_PROCESSING_LOGGER);
@@ -107,6 +117,21 @@ public abstract class AbstractCachedGenerator
 	/** The jawr configuration */
 	protected JawrConfig config;
 
+	/** The in-memory layer of the cache, or null if it is disabled */
+	protected BoundedCacheManager memoryCache;
+
+	/** The number of resources retrieved from the in-memory cache */
+	private final AtomicLong memoryCacheHitCount = new AtomicLong();
+
+	/** The number of resources retrieved from the temporary files */
+	private final AtomicLong diskCacheHitCount = new AtomicLong();
+
+	/** The number of resources generated */
+	private final AtomicLong cacheMissCount = new AtomicLong();
+
+	/** The total time spent generating the resources, in nanoseconds */
+	private final AtomicLong generationTime = new AtomicLong();
+
 	/**
 	 * Constructor
 	 */
@@ -176,6 +201,9 @@ public abstract class AbstractCachedGenerator
 					cacheDirectory = cacheDirectory + URL_SEPARATOR;
 				}
 				cacheMode = annotation.mode();
+				if (config.getGeneratorCacheMemoryMaxSize() > 0) {
+					memoryCache = new BoundedCacheManager(config.getGeneratorCacheMemoryMaxSize());
+				}
 
 				loadCacheMapping();
 
@@ -256,20 +284,22 @@ public abstract class AbstractCachedGenerator
 		Reader rd = null;
 		if (useCache) {
 			List<FilePathMapping> fMappings = linkedResourceMap.get(getResourceCacheKey(path, context));
-			if (fMappings != null && !checkResourcesModified(context, fMappings)) {
-				// Retrieve from cache
-				// Checks if temp resource is already created
-				if (context.isProcessingBundle()) {
-
-					if (cacheMode.equals(CacheMode.PROD) || cacheMode.equals(CacheMode.ALL)) {
-						rd = retrieveFromCache(path, context, CacheMode.PROD);
-					}
-				} else {
-					if (cacheMode.equals(CacheMode.DEBUG) || cacheMode.equals(CacheMode.ALL)) {
-						rd = retrieveFromCache(path, context, CacheMode.DEBUG);
+			if (fMappings != null && !isResourcesModified(context, fMappings)) {
+				CacheMode mode = context.isProcessingBundle() ? CacheMode.PROD : CacheMode.DEBUG;
+				if (cacheMode.equals(mode) || cacheMode.equals(CacheMode.ALL)) {
+
+					// Retrieve from the in-memory cache, then from the
+					// temporary resource if it is already created
+					rd = retrieveFromMemoryCache(path, context, mode);
+					if (rd == null) {
+						rd = retrieveFromCache(path, context, mode);
+						if (rd != null) {
+							diskCacheHitCount.incrementAndGet();
+							rd = storeInMemoryCache(context, mode, rd);
+						}
 					}
 				}
-				
+
 				// Update the file path mapping
 				addLinkedResources(path, context, fMappings);
 			}
@@ -277,7 +307,10 @@ public abstract class AbstractCachedGenerator
 
 		if (rd == null) {
 
+			cacheMissCount.incrementAndGet();
+			long start = System.nanoTime();
 			rd = generateResource(path, context);
+			generationTime.addAndGet(System.nanoTime() - start);
 			if (useCache) {
 
 				if (rd != null) {
@@ -383,6 +416,10 @@ public abstract class AbstractCachedGenerator
 				if (!bundleFMappings.contains(fm)) {
 					bundleFMappings.add(fm);
 				}
+
+				// Only the variants generated in this context depend on the
+				// linked resource
+				bundle.addFileDependency(fMapping.getPath(), context.getVariantMap());
 			}
 		}
 
@@ -423,6 +460,22 @@ public abstract class AbstractCachedGenerator
 		throw new BundlingProcessException("Please override the method if you're using the generator cache feature.");
 	}
 
+	/**
+	 * Checks if the resources linked to a cached resource have been modified.
+	 * When the smart bundling is used, the cached resources are invalidated by
+	 * the resource watcher, so the resources are not checked.
+	 * 
+	 * @param context
+	 *            the generator context
+	 * @param fMappings
+	 *            the list of resources to check
+	 * @return true if the resources have been modified
+	 */
+	protected boolean isResourcesModified(GeneratorContext context, List<FilePathMapping> fMappings) {
+
+		return !config.getUseSmartBundling() && checkResourcesModified(context, fMappings);
+	}
+
 	/**
 	 * Checks if the resources have been modified
 	 * 
@@ -477,6 +530,77 @@ public abstract class AbstractCachedGenerator
 		return rd;
 	}
 
+	/**
+	 * Retrieves the resource from the in-memory cache if it exists
+	 * 
+	 * @param path
+	 *            the resource path
+	 * @param context
+	 *            the generator context
+	 * @param cacheMode
+	 *            the cache mode
+	 * @return the reader to the resource
+	 */
+	protected Reader retrieveFromMemoryCache(String path, GeneratorContext context, CacheMode cacheMode) {
+
+		Reader rd = null;
+		if (memoryCache != null) {
+			String content = (String) memoryCache
+					.get(getMemoryCacheKey(getResourceCacheKey(context.getPath(), context), cacheMode));
+			if (content != null) {
+				rd = new StringReader(content);
+				memoryCacheHitCount.incrementAndGet();
+				context.setRetrievedFromCache(true);
+				if (LOGGER.isDebugEnabled()) {
+					LOGGER.debug(getName() + " resource '" + path + "' retrieved from memory cache");
+				}
+			}
+		}
+		return rd;
+	}
+
+	/**
+	 * Stores the resource in the in-memory cache
+	 * 
+	 * @param context
+	 *            the generator context
+	 * @param cacheMode
+	 *            the cache mode
+	 * @param rd
+	 *            the reader of the resource
+	 * @return the reader to the resource
+	 */
+	protected Reader storeInMemoryCache(GeneratorContext context, CacheMode cacheMode, Reader rd) {
+
+		if (memoryCache == null) {
+			return rd;
+		}
+
+		String content = null;
+		try {
+			content = IOUtils.toString(rd);
+		} catch (IOException e) {
+			throw new BundlingProcessException(e);
+		} finally {
+			IOUtils.close(rd);
+		}
+		memoryCache.put(getMemoryCacheKey(getResourceCacheKey(context.getPath(), context), cacheMode), content);
+		return new StringReader(content);
+	}
+
+	/**
+	 * Returns the key of a resource in the in-memory cache
+	 * 
+	 * @param cacheKey
+	 *            the cache key of the resource
+	 * @param cacheMode
+	 *            the cache mode
+	 * @return the key of the resource in the in-memory cache
+	 */
+	private String getMemoryCacheKey(String cacheKey, CacheMode cacheMode) {
+		return cacheMode + URL_SEPARATOR + cacheKey;
+	}
+
 	/**
 	 * Creates the temporary resource
 	 * 
@@ -502,6 +626,10 @@ public abstract class AbstractCachedGenerator
 			FileChannel channel = fos.getChannel();
 			wr = Channels.newWriter(channel, config.getResourceCharset().newEncoder(), -1);
 			wr.write(content);
+			if (memoryCache != null) {
+				memoryCache.put(getMemoryCacheKey(getResourceCacheKey(context.getPath(), context), cacheMode),
+						content);
+			}
 
 			rd = new StringReader(content);
 		} catch (IOException e) {
@@ -521,9 +649,94 @@ public abstract class AbstractCachedGenerator
 	protected void resetCache() {
 		cacheProperties.clear();
 		linkedResourceMap.clear();
+		if (memoryCache != null) {
+			memoryCache.clear();
+		}
 		cacheProperties.put(JawrConfig.JAWR_CHARSET_NAME, config.getResourceCharset().name());
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see net.jawr.web.resource.bundle.generator.
+	 * ResourceModificationAwareResourceGenerator#notifyResourceModification(
+	 * java.lang.String)
+	 */
+	@Override
+	public void notifyResourceModification(String filePath) {
+
+		if (!useCache) {
+			return;
+		}
+
+		String dirPath = filePath.endsWith(File.separator) ? filePath : filePath + File.separator;
+		for (Map.Entry<String, List<FilePathMapping>> entry : linkedResourceMap.entrySet()) {
+			for (FilePathMapping fMapping : entry.getValue()) {
+				String linkedPath = fMapping.getPath();
+				if (linkedPath.equals(filePath) || linkedPath.startsWith(dirPath)) {
+					invalidateCache(entry.getKey());
+					break;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Removes a resource from the cache
+	 * 
+	 * @param cacheKey
+	 *            the cache key of the resource
+	 */
+	protected void invalidateCache(String cacheKey) {
+
+		if (LOGGER.isDebugEnabled()) {
+			LOGGER.debug(getName() + " resource '" + cacheKey + "' removed from cache");
+		}
+
+		linkedResourceMap.remove(cacheKey);
+		cacheProperties.remove(JAWR_MAPPING_PREFIX + cacheKey);
+		if (memoryCache != null) {
+			memoryCache.remove(getMemoryCacheKey(cacheKey, CacheMode.PROD));
+			memoryCache.remove(getMemoryCacheKey(cacheKey, CacheMode.DEBUG));
+		}
+	}
+
+	/**
+	 * Returns the number of resources retrieved from the in-memory cache
+	 * 
+	 * @return the number of resources retrieved from the in-memory cache
+	 */
+	public long getMemoryCacheHitCount() {
+		return memoryCacheHitCount.get();
+	}
+
+	/**
+	 * Returns the number of resources retrieved from the temporary files
+	 * 
+	 * @return the number of resources retrieved from the temporary files
+	 */
+	public long getDiskCacheHitCount() {
+		return diskCacheHitCount.get();
+	}
+
+	/**
+	 * Returns the number of resources which have been generated
+	 * 
+	 * @return the number of resources which have been generated
+	 */
+	public long getCacheMissCount() {
+		return cacheMissCount.get();
+	}
+
+	/**
+	 * Returns the total time spent generating the resources, in milliseconds
+	 * 
+	 * @return the total time spent generating the resources
+	 */
+	public long getGenerationTime() {
+		return TimeUnit.NANOSECONDS.toMillis(generationTime.get());
+	}
+
 	/**
 	 * Returns true if the cache is valid
 	 * 
@@ -660,6 +873,12 @@ public abstract class AbstractCachedGenerator
 		if (useCache) {
 			// Update the cache
 			serializeCacheMapping();
+
+			if (PERF_LOGGER.isDebugEnabled()) {
+				PERF_LOGGER.debug(getName() + " generator cache : " + getMemoryCacheHitCount() + " memory hits, "
+						+ getDiskCacheHitCount() + " disk hits, " + getCacheMissCount() + " misses, "
+						+ getGenerationTime() + " ms spent generating");
+			}
 		}
 	}
 
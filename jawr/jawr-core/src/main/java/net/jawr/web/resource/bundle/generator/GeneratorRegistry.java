@@ -29,6 +29,7 @@ import java.util.Map.Entry;
 import java.util.Set;
 import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import javax.servlet.http.HttpServletRequest;
 
@@ -66,12 +67,14 @@ import net.jawr.web.resource.bundle.handler.ResourceBundlesHandler;
 import net.jawr.web.resource.bundle.lifecycle.BundlingProcessLifeCycleListener;
 import net.jawr.web.resource.bundle.locale.ResourceBundleMessagesGenerator;
 import net.jawr.web.resource.bundle.mappings.PathMapping;
+import net.jawr.web.resource.bundle.variant.CacheableVariantResolver;
 import net.jawr.web.resource.bundle.variant.VariantResolver;
 import net.jawr.web.resource.bundle.variant.VariantSet;
 import net.jawr.web.resource.handler.reader.ResourceReader;
 import net.jawr.web.resource.handler.reader.ResourceReaderHandler;
 import net.jawr.web.resource.handler.reader.WorkingDirectoryLocationAware;
 import net.jawr.web.servlet.JawrRequestHandler;
+import net.jawr.web.util.LRUCache;
 import net.jawr.web.util.StringUtils;
 
 /**
@@ -148,6 +151,9 @@ public class GeneratorRegistry implements Serializable {
 	/** The bundling process life cycle listeners */
 	private final List<BundlingProcessLifeCycleListener> bundlingProcesslifeCycleListeners = new ArrayList<>();
 
+	/** The generators which are informed of the resource modifications */
+	private final List<ResourceModificationAwareResourceGenerator> resourceModificationAwareGenerators = new CopyOnWriteArrayList<>();
+
 	/** The resource type */
 	private String resourceType;
 
@@ -160,6 +166,16 @@ public class GeneratorRegistry implements Serializable {
 	/** The map of variant resolvers */
 	private final Map<String, VariantResolver> variantResolvers = new ConcurrentHashMap<>();
 
+	/** The maximum number of request fingerprints whose variants are cached */
+	private static final int MAX_CACHED_VARIANTS = 1000;
+
+	/**
+	 * The variants resolved, mapped by request fingerprint. As the
+	 * fingerprints are made of the resolved variant inputs, equal variant
+	 * maps share the same instance.
+	 */
+	private final LRUCache<String, Map<String, String>> resolvedVariants = new LRUCache<>(MAX_CACHED_VARIANTS);
+
 	/** the webjar class path generator helper */
 	public static final String WEBJARS_GENERATOR_HELPER_PREFIX = "/META-INF/resources/webjars/";
 
@@ -347,6 +363,9 @@ public class GeneratorRegistry implements Serializable {
 		if (generator instanceof BundlingProcessLifeCycleListener) {
 			bundlingProcesslifeCycleListeners.add((BundlingProcessLifeCycleListener) generator);
 		}
+		if (generator instanceof ResourceModificationAwareResourceGenerator) {
+			resourceModificationAwareGenerators.add((ResourceModificationAwareResourceGenerator) generator);
+		}
 	}
 
 	/**
@@ -381,6 +400,7 @@ public class GeneratorRegistry implements Serializable {
 			}
 		}
 		variantResolvers.put(resolver.getVariantType(), resolver);
+		resolvedVariants.clear();
 	}
 
 	/**
@@ -688,14 +708,42 @@ public class GeneratorRegistry implements Serializable {
 	}
 
 	/**
-	 * Resolve the variants for the request passed in parameter
+	 * Resolve the variants for the request passed in parameter. If all the
+	 * variant resolvers are {@link CacheableVariantResolver}, the variants are
+	 * cached by request fingerprint, so the requests with the same
+	 * fingerprint share the same map of variants.
 	 * 
 	 * @param request
 	 *            the request
-	 * @return the map of variants defined in the request
+	 * @return the map of variants defined in the request. This map can't be
+	 *         modified.
 	 */
 	public Map<String, String> resolveVariants(HttpServletRequest request) {
 
+		String fingerprint = getRequestFingerprint(request);
+		if (fingerprint == null) {
+			return Collections.unmodifiableMap(doResolveVariants(request));
+		}
+
+		Map<String, String> variants = resolvedVariants.get(fingerprint);
+		if (variants == null) {
+			variants = Collections.unmodifiableMap(doResolveVariants(request));
+			resolvedVariants.put(fingerprint, variants);
+		}
+
+		return variants;
+	}
+
+	/**
+	 * Resolve the variants for the request passed in parameter, using the
+	 * variant resolvers
+	 * 
+	 * @param request
+	 *            the request
+	 * @return the map of variants defined in the request
+	 */
+	private Map<String, String> doResolveVariants(HttpServletRequest request) {
+
 		Map<String, String> variants = new TreeMap<>();
 		for (VariantResolver resolver : variantResolvers.values()) {
 			String value = resolver.resolveVariant(request);
@@ -707,6 +755,34 @@ public class GeneratorRegistry implements Serializable {
 		return variants;
 	}
 
+	/**
+	 * Returns the fingerprint of the request, which is made of the
+	 * fingerprints of all the variant resolvers
+	 * 
+	 * @param request
+	 *            the request
+	 * @return the fingerprint of the request, or null if the variants of the
+	 *         request can't be cached
+	 */
+	private String getRequestFingerprint(HttpServletRequest request) {
+
+		StringBuilder fingerprint = new StringBuilder();
+		for (VariantResolver resolver : variantResolvers.values()) {
+			if (!(resolver instanceof CacheableVariantResolver)) {
+				return null;
+			}
+
+			String resolverFingerprint = ((CacheableVariantResolver) resolver).getRequestFingerprint(request);
+			if (resolverFingerprint == null) {
+				return null;
+			}
+			fingerprint.append(resolver.getVariantType()).append(':').append(resolverFingerprint.length()).append(':')
+					.append(resolverFingerprint);
+		}
+
+		return fingerprint.toString();
+	}
+
 	/**
 	 * Returns the available variants.
 	 *
@@ -752,6 +828,20 @@ public class GeneratorRegistry implements Serializable {
 		return bundlingProcesslifeCycleListeners;
 	}
 
+	/**
+	 * Notifies the generators that a file or a directory has been modified,
+	 * created or deleted
+	 * 
+	 * @param filePath
+	 *            the absolute path of the file or of the directory
+	 */
+	public void notifyResourceModification(String filePath) {
+
+		for (ResourceModificationAwareResourceGenerator generator : resourceModificationAwareGenerators) {
+			generator.notifyResourceModification(filePath);
+		}
+	}
+
 	/**
 	 * Returns the PathMapping for the generated resource
 	 * 
@@ -0,0 +1,34 @@
+/**
+ * Copyright 2017 Ibrahim Chaehoi
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ * 
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package net.jawr.web.resource.bundle.generator;
+
+/**
+ * This interface is implemented by the resource generators which want to be
+ * informed of the modification of the files detected by the resource watcher,
+ * for example to invalidate the generated resources which depend on them.
+ * 
+ * @author Ibrahim Chaehoi
+ */
+public interface ResourceModificationAwareResourceGenerator extends ResourceGenerator {
+
+	/**
+	 * Notifies the generator that a file or a directory has been modified,
+	 * created or deleted
+	 * 
+	 * @param filePath
+	 *            the absolute path of the file or of the directory
+	 */
+	public void notifyResourceModification(String filePath);
+
+}
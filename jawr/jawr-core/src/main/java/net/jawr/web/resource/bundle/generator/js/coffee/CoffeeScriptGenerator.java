@@ -16,12 +16,16 @@ package net.jawr.web.resource.bundle.generator.js.coffee;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.io.Reader;
 import java.io.StringReader;
 import java.io.StringWriter;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
+import javax.script.Bindings;
 import javax.script.ScriptException;
 
 import org.slf4j.Logger;
@@ -44,6 +48,8 @@ import net.jawr.web.resource.bundle.mappings.FilePathMappingUtils;
 import net.jawr.web.util.StopWatch;
 import net.jawr.web.util.StringUtils;
 import net.jawr.web.util.js.JavascriptEngine;
+import net.jawr.web.util.js.JavascriptEngineInitializer;
+import net.jawr.web.util.js.JavascriptEnginePool;
 
 /**
  * This class defines the coffee script generator
@@ -77,14 +83,14 @@ public class CoffeeScriptGenerator extends AbstractJavascriptGenerator implement
 	/** The resolver */
 	private final ResourceGeneratorResolver resolver;
 
-	/** The coffeeScript object */
-	private Object coffeeScript;
+	/** The name of the engine variable holding the coffeeScript object */
+	private static final String COFFEE_SCRIPT_VARIABLE = "jawrCoffeeScript";
 
-	/** The coffee script options */
-	private Object options;
+	/** The name of the engine variable holding the coffee script options */
+	private static final String OPTIONS_VARIABLE = "jawrCoffeeScriptOptions";
 
-	/** The Rhino engine */
-	private JavascriptEngine jsEngine;
+	/** The pool of Rhino engines */
+	private JavascriptEnginePool jsEnginePool;
 
 	/**
 	 * Constructor
@@ -108,15 +114,27 @@ public class CoffeeScriptGenerator extends AbstractJavascriptGenerator implement
 
 		// Load JavaScript Script Engine
 		String script = config.getProperty(JAWR_JS_GENERATOR_COFFEE_SCRIPT_LOCATION, DEFAULT_COFFEE_SCRIPT_JS_LOCATION);
-		jsEngine = new JavascriptEngine(config.getJavascriptEngineName(JAWR_JS_GENERATOR_COFFEE_SCRIPT_JS_ENGINE));
-		try(InputStream inputStream = getResourceInputStream(script)){
-			jsEngine.evaluate("coffee-script.js", inputStream);
+		Map<String, String> scripts = new LinkedHashMap<>();
+		try (Reader rd = new InputStreamReader(getResourceInputStream(script))) {
+			scripts.put("coffee-script.js", IOUtils.toString(rd));
 		} catch (IOException e) {
 			throw new BundlingProcessException(e);
 		}
-		String strOptions = config.getProperty(JAWR_JS_GENERATOR_COFFEE_SCRIPT_OPTIONS, COFFEE_SCRIPT_DEFAULT_OPTIONS);
-		options = jsEngine.execEval(strOptions);
-		coffeeScript = jsEngine.execEval("CoffeeScript");
+		final String strOptions = config.getProperty(JAWR_JS_GENERATOR_COFFEE_SCRIPT_OPTIONS,
+				COFFEE_SCRIPT_DEFAULT_OPTIONS);
+		jsEnginePool = new JavascriptEnginePool(
+				config.getJavascriptEngineName(JAWR_JS_GENERATOR_COFFEE_SCRIPT_JS_ENGINE), false,
+				config.getJavascriptEnginePoolSize(), scripts, new JavascriptEngineInitializer() {
+
+					@Override
+					public void initialize(JavascriptEngine engine) {
+						engine.getBindings().put(OPTIONS_VARIABLE, engine.execEval(strOptions));
+						engine.getBindings().put(COFFEE_SCRIPT_VARIABLE, engine.execEval("CoffeeScript"));
+					}
+				});
+
+		// Initialize the first engine of the pool
+		jsEnginePool.returnEngine(jsEnginePool.borrowEngine());
 		stopWatch.stop();
 		if (PERF_LOGGER.isDebugEnabled()) {
 			PERF_LOGGER.debug(stopWatch.shortSummary());
@@ -237,10 +255,15 @@ public class CoffeeScriptGenerator extends AbstractJavascriptGenerator implement
 	public String compile(String resourcePath, String coffeeScriptSource) {
 
 		String result = null;
+		JavascriptEngine jsEngine = jsEnginePool.borrowEngine();
 		try {
-			result = (String) jsEngine.invokeMethod(coffeeScript, "compile", coffeeScriptSource, options);
+			Bindings bindings = jsEngine.getBindings();
+			result = (String) jsEngine.invokeMethod(bindings.get(COFFEE_SCRIPT_VARIABLE), "compile",
+					coffeeScriptSource, bindings.get(OPTIONS_VARIABLE));
 		} catch (NoSuchMethodException | ScriptException e) {
 			throw new BundlingProcessException(e);
+		} finally {
+			jsEnginePool.returnEngine(jsEngine);
 		}
 
 		return result;
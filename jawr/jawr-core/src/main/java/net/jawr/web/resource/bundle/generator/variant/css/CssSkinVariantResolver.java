@@ -19,6 +19,8 @@ import javax.servlet.http.HttpServletRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import net.jawr.web.resource.bundle.variant.CacheableVariantResolver;
+
 /**
  * The skin variant resolver is used to determine the current skin from the
  * cookie set in the request.
@@ -26,7 +28,7 @@ import org.slf4j.LoggerFactory;
  * @author Ibrahim Chaehoi
  * 
  */
-public class CssSkinVariantResolver extends AbstractCssSkinVariantResolver {
+public class CssSkinVariantResolver extends AbstractCssSkinVariantResolver implements CacheableVariantResolver {
 
 	/** The logger */
 	private static final Logger LOGGER = LoggerFactory.getLogger(CssSkinVariantResolver.class);
@@ -61,19 +63,49 @@ public class CssSkinVariantResolver extends AbstractCssSkinVariantResolver {
 	@Override
 	public String resolveVariant(HttpServletRequest request) {
 
-		Cookie[] cookies = request.getCookies();
+		Cookie cookie = getSkinCookie(request);
 		String skin = defaultSkin;
+		if (cookie != null) {
+			skin = cookie.getValue();
+		}
+		LOGGER.debug("Resolved skin " + skin);
+
+		return skin;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see net.jawr.web.resource.bundle.variant.CacheableVariantResolver#
+	 * getRequestFingerprint(javax.servlet.http.HttpServletRequest)
+	 */
+	@Override
+	public String getRequestFingerprint(HttpServletRequest request) {
+
+		Cookie cookie = getSkinCookie(request);
+		return cookie == null ? "" : "=" + cookie.getValue();
+	}
+
+	/**
+	 * Returns the skin cookie of the request
+	 * 
+	 * @param request
+	 *            the request
+	 * @return the skin cookie of the request, or null if there is none
+	 */
+	private Cookie getSkinCookie(HttpServletRequest request) {
+
+		Cookie[] cookies = request.getCookies();
+		Cookie skinCookie = null;
 		if (cookies != null) {
 			int nbCookies = cookies.length;
 			for (int i = 0; i < nbCookies; i++) {
 				Cookie cookie = cookies[i];
 				if (cookie.getName().equals(skinCookieName)) {
-					skin = cookie.getValue();
+					skinCookie = cookie;
 				}
 			}
 		}
-		LOGGER.debug("Resolved skin " + skin);
-
-		return skin;
+		return skinCookie;
 	}
 }
@@ -182,9 +182,11 @@ public class ClosureGlobalPostProcessor extends AbstractChainedGlobalProcessor<G
 		if (ctx.hasBundleToBeProcessed()) {
 			String workingDir = ctx.getRsReaderHandler().getWorkingDirectory();
 
-			if (srcDir == null || destDir == null || tempDir == null || srcZipDir == null || destZipDir == null) {
-				srcDir = ctx.getBundleHandler().getBundleTextDirPath();
-				srcZipDir = ctx.getBundleHandler().getBundleZipDirPath();
+			// The bundles are stored in a new directory at each bundling
+			// process
+			srcDir = ctx.getBundleHandler().getBundleTextDirPath();
+			srcZipDir = ctx.getBundleHandler().getBundleZipDirPath();
+			if (destDir == null || tempDir == null || destZipDir == null) {
 				destDir = workingDir + GOOGLE_CLOSURE_RESULT_TEXT_DIR;
 				destZipDir = workingDir + GOOGLE_CLOSURE_RESULT_ZIP_DIR;
 				tempDir = workingDir + GOOGLE_CLOSURE_TEMP_DIR;
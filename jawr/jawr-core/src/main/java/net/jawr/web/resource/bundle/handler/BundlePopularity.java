@@ -0,0 +1,193 @@
+/**
+ * Copyright 2017 Ibrahim Chaehoi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package net.jawr.web.resource.bundle.handler;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.jawr.web.resource.bundle.JoinableResourceBundle;
+
+/**
+ * This class counts the requests made for each bundle, and stores the counts
+ * in a file, so the bundles which are processed on demand can be warmed up in
+ * the order of their popularity at the next startup.
+ *
+ * @author Ibrahim Chaehoi
+ */
+public class BundlePopularity {
+
+	/** The logger */
+	private static final Logger LOGGER = LoggerFactory.getLogger(BundlePopularity.class);
+
+	/** The name of the file storing the request counts */
+	public static final String POPULARITY_FILE_NAME = "bundlesPopularity.properties";
+
+	/** The request counts of the previous runs, mapped by bundle ID */
+	private final Map<String, Long> previousCounts = new HashMap<>();
+
+	/** The request counts of the current run, mapped by bundle ID */
+	private final ConcurrentHashMap<String, AtomicLong> counts = new ConcurrentHashMap<>();
+
+	/** The file storing the request counts, or null */
+	private final File popularityFile;
+
+	/**
+	 * Constructor
+	 *
+	 * @param popularityFile
+	 *            the file storing the request counts, or null if the counts
+	 *            must not be stored
+	 */
+	public BundlePopularity(File popularityFile) {
+		this.popularityFile = popularityFile;
+		load();
+	}
+
+	/**
+	 * Records a request made for a bundle
+	 *
+	 * @param bundleId
+	 *            the bundle ID
+	 */
+	public void recordRequest(String bundleId) {
+
+		AtomicLong count = counts.get(bundleId);
+		if (count == null) {
+			count = new AtomicLong();
+			AtomicLong existingCount = counts.putIfAbsent(bundleId, count);
+			if (existingCount != null) {
+				count = existingCount;
+			}
+		}
+		count.incrementAndGet();
+	}
+
+	/**
+	 * Returns the number of requests made for a bundle, in the previous runs
+	 * and in the current one
+	 *
+	 * @param bundleId
+	 *            the bundle ID
+	 * @return the number of requests
+	 */
+	public long getRequestCount(String bundleId) {
+
+		long total = 0;
+		Long previousCount = previousCounts.get(bundleId);
+		if (previousCount != null) {
+			total += previousCount;
+		}
+		AtomicLong count = counts.get(bundleId);
+		if (count != null) {
+			total += count.get();
+		}
+		return total;
+	}
+
+	/**
+	 * Returns the bundles sorted from the most requested to the least
+	 * requested one. The bundles which have the same number of requests keep
+	 * their order.
+	 *
+	 * @param bundles
+	 *            the bundles
+	 * @return the sorted bundles
+	 */
+	public List<JoinableResourceBundle> sortByPopularity(List<JoinableResourceBundle> bundles) {
+
+		List<JoinableResourceBundle> sortedBundles = new ArrayList<>(bundles);
+		Collections.sort(sortedBundles, new Comparator<JoinableResourceBundle>() {
+
+			@Override
+			public int compare(JoinableResourceBundle b1, JoinableResourceBundle b2) {
+				long count1 = getRequestCount(b1.getId());
+				long count2 = getRequestCount(b2.getId());
+				return count1 < count2 ? 1 : (count1 == count2 ? 0 : -1);
+			}
+		});
+		return sortedBundles;
+	}
+
+	/**
+	 * Stores the request counts in the popularity file
+	 */
+	public synchronized void save() {
+
+		if (popularityFile == null) {
+			return;
+		}
+
+		Properties props = new Properties();
+		for (String bundleId : previousCounts.keySet()) {
+			props.setProperty(bundleId, Long.toString(getRequestCount(bundleId)));
+		}
+		for (String bundleId : counts.keySet()) {
+			props.setProperty(bundleId, Long.toString(getRequestCount(bundleId)));
+		}
+
+		File dir = popularityFile.getParentFile();
+		if (dir != null && !dir.exists() && !dir.mkdirs()) {
+			LOGGER.warn("Unable to create the directory of the bundles popularity file " + popularityFile);
+			return;
+		}
+
+		try (OutputStream os = new FileOutputStream(popularityFile)) {
+			props.store(os, "Bundles popularity");
+		} catch (IOException e) {
+			LOGGER.warn("Unable to store the bundles popularity in " + popularityFile, e);
+		}
+	}
+
+	/**
+	 * Loads the request counts stored in the popularity file
+	 */
+	private void load() {
+
+		if (popularityFile == null || !popularityFile.exists()) {
+			return;
+		}
+
+		Properties props = new Properties();
+		try (InputStream is = new FileInputStream(popularityFile)) {
+			props.load(is);
+		} catch (IOException e) {
+			LOGGER.warn("Unable to read the bundles popularity from " + popularityFile, e);
+			return;
+		}
+
+		for (String bundleId : props.stringPropertyNames()) {
+			try {
+				previousCounts.put(bundleId, Long.valueOf(props.getProperty(bundleId)));
+			} catch (NumberFormatException e) {
+				LOGGER.warn("Invalid request count for the bundle '" + bundleId + "' in " + popularityFile);
+			}
+		}
+	}
+}
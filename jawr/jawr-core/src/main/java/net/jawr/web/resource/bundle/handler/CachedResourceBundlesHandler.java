@@ -15,14 +15,20 @@ package net.jawr.web.resource.bundle.handler;
 
 import java.io.BufferedOutputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.Writer;
 import java.nio.channels.Channels;
 import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import net.jawr.web.DebugMode;
@@ -33,12 +39,15 @@ import net.jawr.web.exception.BundlingProcessException;
 import net.jawr.web.exception.ResourceNotFoundException;
 import net.jawr.web.resource.bundle.IOUtils;
 import net.jawr.web.resource.bundle.JoinableResourceBundle;
-import net.jawr.web.resource.bundle.iterator.BundlePath;
+import net.jawr.web.resource.bundle.encoding.BundleEncoder;
+import net.jawr.web.resource.bundle.encoding.GzipBundleEncoder;
+import net.jawr.web.resource.bundle.factory.util.PathNormalizer;
 import net.jawr.web.resource.bundle.iterator.ConditionalCommentCallbackHandler;
-import net.jawr.web.resource.bundle.iterator.NoCommentCallbackHandler;
 import net.jawr.web.resource.bundle.iterator.ResourceBundlePathsIterator;
 import net.jawr.web.resource.bundle.lifecycle.BundlingProcessLifeCycleListener;
+import net.jawr.web.resource.bundle.renderer.RenderedLinksCache;
 import net.jawr.web.resource.watcher.ResourceWatcher;
+import net.jawr.web.util.StringUtils;
 
 /**
  * ResourceBundlesHandler wrapper implementation that uses a ConcurrentHashMap
@@ -59,6 +68,12 @@ public class CachedResourceBundlesHandler implements ResourceBundlesHandler {
 	/** The prefix for zipped element in cache */
 	private static final String ZIP_CACHE_PREFIX = "ZIP.";
 
+	/**
+	 * The prefix for the elements encoded with another content coding than
+	 * gzip in cache
+	 */
+	private static final String ENCODED_CACHE_PREFIX = "ENCODED.";
+
 	/** The resource bundle handler */
 	private final ResourceBundlesHandler rsHandler;
 
@@ -179,26 +194,46 @@ public class CachedResourceBundlesHandler implements ResourceBundlesHandler {
 	@Override
 	public void streamBundleTo(String bundlePath, OutputStream out) throws ResourceNotFoundException {
 
+		streamBundleTo(bundlePath, out, GzipBundleEncoder.GZIP_ENCODING);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * net.jawr.web.resource.bundle.handler.ResourceBundlesHandler#streamBundleTo
+	 * (java.lang.String, java.io.OutputStream, java.lang.String)
+	 */
+	@Override
+	public void streamBundleTo(final String bundlePath, OutputStream out, final String encoding)
+			throws ResourceNotFoundException {
+
+		if (rsHandler.getConfig().isGzipNioServing()) {
+			// The encoded bundles are served from their files without being
+			// kept in memory
+			rsHandler.streamBundleTo(bundlePath, out, encoding);
+			return;
+		}
+
 		try {
-			// byte[] gzip = gzipCache.get(bundlePath);
-			byte[] gzip = (byte[]) cacheMgr.get(ZIP_CACHE_PREFIX + bundlePath);
-			// If it's not cached yet
-			if (null == gzip) {
-				// Stream the stored data
-				ByteArrayOutputStream baOs = new ByteArrayOutputStream();
-				BufferedOutputStream bfOs = new BufferedOutputStream(baOs);
-				rsHandler.streamBundleTo(bundlePath, bfOs);
-
-				// Copy the data into the ByteBuffer
-				bfOs.close();
-				gzip = baOs.toByteArray();
-
-				// Cache the byte array
-				cacheMgr.put(ZIP_CACHE_PREFIX + bundlePath, gzip);
-			}
+			byte[] data = (byte[]) getFromCache(getEncodedCacheKey(bundlePath, encoding), new Callable<byte[]>() {
+
+				@Override
+				public byte[] call() throws Exception {
+
+					// Stream the stored data
+					ByteArrayOutputStream baOs = new ByteArrayOutputStream();
+					BufferedOutputStream bfOs = new BufferedOutputStream(baOs);
+					rsHandler.streamBundleTo(bundlePath, bfOs, encoding);
+
+					// Copy the data into the ByteBuffer
+					bfOs.close();
+					return baOs.toByteArray();
+				}
+			});
 
 			// Write bytes to the outputstream
-			IOUtils.write(gzip, out);
+			IOUtils.write(data, out);
 
 		} catch (IOException e) {
 			throw new BundlingProcessException("Unexpected IOException writing bundle[" + bundlePath + "]", e);
@@ -206,6 +241,46 @@ public class CachedResourceBundlesHandler implements ResourceBundlesHandler {
 
 	}
 
+	/**
+	 * Returns the cache key of a bundle encoded with a content coding
+	 * 
+	 * @param bundlePath
+	 *            the bundle path
+	 * @param encoding
+	 *            the content coding
+	 * @return the cache key
+	 */
+	private String getEncodedCacheKey(String bundlePath, String encoding) {
+
+		if (GzipBundleEncoder.GZIP_ENCODING.equals(encoding)) {
+			return ZIP_CACHE_PREFIX + bundlePath;
+		}
+		return ENCODED_CACHE_PREFIX + encoding + "." + bundlePath;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see net.jawr.web.resource.bundle.handler.ResourceBundlesHandler#
+	 * resolveBundleEncoding(java.lang.String, java.util.List)
+	 */
+	@Override
+	public String resolveBundleEncoding(String bundlePath, List<String> acceptedEncodings) {
+		return rsHandler.resolveBundleEncoding(bundlePath, acceptedEncodings);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * net.jawr.web.resource.bundle.handler.ResourceBundlesHandler#getGzipBundleFile
+	 * (java.lang.String)
+	 */
+	@Override
+	public File getGzipBundleFile(String bundlePath) {
+		return rsHandler.getGzipBundleFile(bundlePath);
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -214,20 +289,22 @@ public class CachedResourceBundlesHandler implements ResourceBundlesHandler {
 	 * .lang.String, java.io.Writer)
 	 */
 	@Override
-	public void writeBundleTo(String bundlePath, Writer writer) throws ResourceNotFoundException {
-		
-		String text = (String) cacheMgr.get(TEXT_CACHE_PREFIX + bundlePath);
+	public void writeBundleTo(final String bundlePath, Writer writer) throws ResourceNotFoundException {
+
 		try {
-			// If it's not cached yet
-			if (null == text) {
-				String charsetName = rsHandler.getConfig().getResourceCharset().name();
-				ByteArrayOutputStream baOs = new ByteArrayOutputStream();
-				WritableByteChannel wrChannel = Channels.newChannel(baOs);
-				Writer tempWriter = Channels.newWriter(wrChannel, charsetName);
-				rsHandler.writeBundleTo(bundlePath, tempWriter);
-				text = baOs.toString(charsetName);
-				cacheMgr.put(TEXT_CACHE_PREFIX + bundlePath, text);
-			}
+			String text = (String) getFromCache(TEXT_CACHE_PREFIX + bundlePath, new Callable<String>() {
+
+				@Override
+				public String call() throws Exception {
+
+					String charsetName = rsHandler.getConfig().getResourceCharset().name();
+					ByteArrayOutputStream baOs = new ByteArrayOutputStream();
+					WritableByteChannel wrChannel = Channels.newChannel(baOs);
+					Writer tempWriter = Channels.newWriter(wrChannel, charsetName);
+					rsHandler.writeBundleTo(bundlePath, tempWriter);
+					return baOs.toString(charsetName);
+				}
+			});
 
 			// Write the text to the outputstream
 			writer.write(text);
@@ -240,6 +317,31 @@ public class CachedResourceBundlesHandler implements ResourceBundlesHandler {
 		}
 	}
 
+	/**
+	 * Retrieves an element from the cache, the loader being called only if
+	 * the element is not in cache.
+	 * 
+	 * @param key
+	 *            the cache key
+	 * @param loader
+	 *            the loader of the element
+	 * @return the element
+	 * @throws ResourceNotFoundException
+	 *             if the bundle is not found
+	 * @throws IOException
+	 *             if an IOException occurs
+	 */
+	private Object getFromCache(String key, Callable<?> loader) throws ResourceNotFoundException, IOException {
+
+		try {
+			return cacheMgr.get(key, loader);
+		} catch (ResourceNotFoundException | IOException | RuntimeException e) {
+			throw e;
+		} catch (Exception e) {
+			throw new BundlingProcessException("Unexpected exception while loading the element '" + key + "'", e);
+		}
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -317,6 +419,28 @@ public class CachedResourceBundlesHandler implements ResourceBundlesHandler {
 		return rsHandler.getBundleHashcodeType(requestedPath);
 	}
 
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see net.jawr.web.resource.bundle.handler.ResourceBundlesHandler#
+	 * getBundleDataHashCode(java.lang.String)
+	 */
+	@Override
+	public String getBundleDataHashCode(String requestedPath) {
+		return rsHandler.getBundleDataHashCode(requestedPath);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see
+	 * net.jawr.web.resource.bundle.handler.ResourceBundlesHandler#getLastBuildTime()
+	 */
+	@Override
+	public long getLastBuildTime() {
+		return rsHandler.getLastBuildTime();
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -350,6 +474,17 @@ public class CachedResourceBundlesHandler implements ResourceBundlesHandler {
 		rsHandler.notifyModification(bundles);
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see net.jawr.web.resource.bundle.handler.ResourceBundlesHandler#
+	 * notifyModification(java.util.List, java.lang.String)
+	 */
+	@Override
+	public void notifyModification(List<JoinableResourceBundle> bundles, String filePath) {
+		rsHandler.notifyModification(bundles, filePath);
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -359,16 +494,107 @@ public class CachedResourceBundlesHandler implements ResourceBundlesHandler {
 	@Override
 	public void rebuildModifiedBundles() {
 		List<JoinableResourceBundle> bundlesToRebuild = rsHandler.getBundlesToRebuild();
-		for (JoinableResourceBundle bundle : bundlesToRebuild) {
-			ResourceBundlePathsIterator bundlePaths = this.getBundlePaths(bundle.getId(), new NoCommentCallbackHandler(), Collections.EMPTY_MAP);
-			
-			while (bundlePaths.hasNext()){
-				BundlePath bundlePath = bundlePaths.next();
-				cacheMgr.remove(TEXT_CACHE_PREFIX + bundlePath.getPath());
-				cacheMgr.remove(ZIP_CACHE_PREFIX + bundlePath.getPath());
+		Set<String> bundlePaths = getBundlePaths(bundlesToRebuild);
+		rsHandler.rebuildModifiedBundles();
+
+		// The cached content is removed once the new bundles are stored,
+		// otherwise it could be cached again from the old bundles during the
+		// rebuild
+		bundlePaths.addAll(getBundlePaths(bundlesToRebuild));
+		removeFromCache(bundlePaths);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see net.jawr.web.resource.bundle.handler.ResourceBundlesHandler#
+	 * reloadBundles(java.util.List, java.util.Set)
+	 */
+	@Override
+	public boolean reloadBundles(List<JoinableResourceBundle> bundles, Set<String> modifiedBundleNames) {
+
+		// The paths of the previous bundles must be resolved before the
+		// reload, because the removed bundles can't be resolved anymore
+		Map<JoinableResourceBundle, Set<String>> previousBundlePaths = new IdentityHashMap<>();
+		for (JoinableResourceBundle bundle : getBundles()) {
+			previousBundlePaths.put(bundle, getBundlePaths(Collections.singletonList(bundle)));
+		}
+		boolean reloaded = rsHandler.reloadBundles(bundles, modifiedBundleNames);
+		if (reloaded) {
+
+			// Only the content of the bundles which have been replaced or
+			// removed is removed from the cache. The unchanged bundles are
+			// the same instances after the reload.
+			List<JoinableResourceBundle> newBundles = new ArrayList<>();
+			for (JoinableResourceBundle bundle : getBundles()) {
+				if (previousBundlePaths.remove(bundle) == null) {
+					newBundles.add(bundle);
+				}
+			}
+			Set<String> evictedPaths = new HashSet<>();
+			for (Set<String> replacedBundlePaths : previousBundlePaths.values()) {
+				evictedPaths.addAll(replacedBundlePaths);
 			}
+			evictedPaths.addAll(getBundlePaths(newBundles));
+			removeFromCache(evictedPaths);
 		}
-		rsHandler.rebuildModifiedBundles();
+		return reloaded;
+	}
+
+	/**
+	 * Returns the bundles of the handler
+	 * 
+	 * @return the bundles of the handler
+	 */
+	private List<JoinableResourceBundle> getBundles() {
+		List<JoinableResourceBundle> bundles = new ArrayList<>(rsHandler.getGlobalBundles());
+		bundles.addAll(rsHandler.getContextBundles());
+		return bundles;
+	}
+
+	/**
+	 * Removes the content of the bundles from the cache
+	 * 
+	 * @param bundlePaths
+	 *            the paths of the bundles
+	 */
+	private void removeFromCache(Set<String> bundlePaths) {
+		for (String bundlePath : bundlePaths) {
+			cacheMgr.remove(TEXT_CACHE_PREFIX + bundlePath);
+			cacheMgr.remove(ZIP_CACHE_PREFIX + bundlePath);
+			for (BundleEncoder encoder : rsHandler.getConfig().getBundleEncoders()) {
+				cacheMgr.remove(getEncodedCacheKey(bundlePath, encoder.getEncoding()));
+			}
+		}
+	}
+
+	/**
+	 * Returns the paths of the bundles given in parameter, for all their
+	 * variants. The global bundles are included, and the bundles which have
+	 * not been processed yet have no path.
+	 * 
+	 * @param bundles
+	 *            the bundles
+	 * @return the paths of the bundles
+	 */
+	private Set<String> getBundlePaths(List<JoinableResourceBundle> bundles) {
+		Set<String> paths = new HashSet<>();
+		for (JoinableResourceBundle bundle : bundles) {
+			String hashcode = bundle.getBundleDataHashCode(null);
+			if (hashcode != null) {
+				paths.add(PathNormalizer.joinPaths(hashcode + "/", bundle.getId()));
+			}
+			List<String> variantKeys = bundle.getVariantKeys();
+			if (variantKeys != null) {
+				for (String variantKey : variantKeys) {
+					hashcode = bundle.getBundleDataHashCode(variantKey);
+					if (StringUtils.isNotEmpty(variantKey) && hashcode != null) {
+						paths.add(PathNormalizer.joinPaths(hashcode + "." + variantKey + "/", bundle.getId()));
+					}
+				}
+			}
+		}
+		return paths;
 	}
 
 	/*
@@ -436,4 +662,49 @@ public class CachedResourceBundlesHandler implements ResourceBundlesHandler {
 	public void setBundlingProcessLifeCycleListeners(List<BundlingProcessLifeCycleListener> listeners) {
 		this.rsHandler.setBundlingProcessLifeCycleListeners(listeners);
 	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see net.jawr.web.resource.bundle.handler.ResourceBundlesHandler#
+	 * addBundlingProcessLifeCycleListener(net.jawr.web.resource.bundle.
+	 * lifecycle.BundlingProcessLifeCycleListener)
+	 */
+	@Override
+	public void addBundlingProcessLifeCycleListener(BundlingProcessLifeCycleListener listener) {
+		this.rsHandler.addBundlingProcessLifeCycleListener(listener);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see net.jawr.web.resource.bundle.handler.ResourceBundlesHandler#
+	 * getRenderedLinksCache()
+	 */
+	@Override
+	public RenderedLinksCache getRenderedLinksCache() {
+		return this.rsHandler.getRenderedLinksCache();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * net.jawr.web.resource.bundle.handler.ResourceBundlesHandler#isBundlingReady
+	 * ()
+	 */
+	@Override
+	public boolean isBundlingReady() {
+		return this.rsHandler.isBundlingReady();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see net.jawr.web.resource.bundle.handler.ResourceBundlesHandler#destroy()
+	 */
+	@Override
+	public void destroy() {
+		this.rsHandler.destroy();
+	}
 }
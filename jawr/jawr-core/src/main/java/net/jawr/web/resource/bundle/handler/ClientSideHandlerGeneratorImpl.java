@@ -20,6 +20,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
+import javax.servlet.ServletContext;
 import javax.servlet.http.HttpServletRequest;
 
 import net.jawr.web.JawrConstant;
@@ -128,7 +129,13 @@ public class ClientSideHandlerGeneratorImpl implements ClientSideHandlerGenerato
 		sb.append("]\n");
 
 		// Retrieve the resourcehandler for CSS if there is one.
-		ResourceBundlesHandler rsHandler = (ResourceBundlesHandler) request.getSession().getServletContext()
+		// The servlet context is retrieved from the config to avoid creating
+		// an HTTP session for this request
+		ServletContext context = this.config.getContext();
+		if (context == null) {
+			context = request.getSession().getServletContext();
+		}
+		ResourceBundlesHandler rsHandler = (ResourceBundlesHandler) context
 				.getAttribute(JawrConstant.CSS_CONTEXT_ATTRIBUTE);
 		boolean isCSSHandler = false;
 		if (null != rsHandler) {
@@ -166,7 +173,7 @@ public class ClientSideHandlerGeneratorImpl implements ClientSideHandlerGenerato
 		if (!this.config.isDebugModeOn()) {
 			JSMinPostProcessor p = new JSMinPostProcessor();
 			try {
-				sb = p.minifyStringBuffer(sb, config.getResourceCharset());
+				sb = p.minifyStringBuffer(sb);
 			} catch (IOException | JSMin.JSMinException e) {
 				throw new BundlingProcessException("Unexpected error creating client side resource handler", e);
 			}
@@ -13,37 +13,44 @@
  */
 package net.jawr.web.resource.bundle.handler;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.Serializable;
-import java.io.StringReader;
-import java.io.Writer;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.zip.GZIPOutputStream;
 
+import javax.servlet.ServletContext;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+import net.jawr.web.JawrConstant;
 import net.jawr.web.config.JawrConfig;
 import net.jawr.web.exception.BundlingProcessException;
-import net.jawr.web.resource.bundle.IOUtils;
+import net.jawr.web.resource.bundle.CheckSumUtils;
+import net.jawr.web.resource.bundle.lifecycle.BundlingProcessLifeCycleListener;
 import net.jawr.web.resource.bundle.variant.VariantUtils;
 import net.jawr.web.servlet.RendererRequestUtils;
 
 /**
  * Handles requests for the client side script used in non dynamic html pages.
  * 
+ * The generated script is cached, already minified and compressed, for each
+ * combination of variants, debug mode, gzip flag and path prefix. The cache
+ * is cleared at the end of each bundling process of the bundles handler, and
+ * of the CSS bundles handler whose bundles are referenced by the script.
+ * 
  * @author Jordi Hernández Sellés
  * @author Ibrahim Chaehoi
  */
-public class ClientSideHandlerScriptRequestHandler implements Serializable {
+public class ClientSideHandlerScriptRequestHandler implements BundlingProcessLifeCycleListener, Serializable {
 
 	/** The serial version UID */
 	private static final long serialVersionUID = 5891646272143678994L;
 
-	/** The start time */
-	private static final long START_TIME = System.currentTimeMillis();
-
 	/**
 	 * HTTP etag header
 	 */
@@ -72,6 +79,9 @@ public class ClientSideHandlerScriptRequestHandler implements Serializable {
 	 */
 	public static final String HEADER_USER_AGENT = "User-Agent";
 
+	/** The separator of the cache key parts */
+	private static final char KEY_SEPARATOR = '|';
+
 	/** The resource bundle handler */
 	private final ResourceBundlesHandler rsHandler;
 
@@ -82,8 +92,21 @@ public class ClientSideHandlerScriptRequestHandler implements Serializable {
 	private final Map<String, Handler> handlerCache;
 
 	/**
-	 * Placeholder for a script stringbuffer and its hashcode, meant to avoid
-	 * constant recalculation of the hash value.
+	 * The generation of the handler cache, which is incremented each time the
+	 * cache is cleared
+	 */
+	private final AtomicLong cacheGeneration = new AtomicLong();
+
+	/**
+	 * The CSS bundles handler for which this handler has been registered as
+	 * life cycle listener
+	 */
+	private transient volatile ResourceBundlesHandler cssHandler;
+
+	/**
+	 * Placeholder for the generated script content ready to be sent, with its
+	 * etag and its creation date, meant to avoid constant regeneration of the
+	 * script.
 	 * 
 	 * @author Jordi Hernández Sellés
 	 */
@@ -92,13 +115,16 @@ public class ClientSideHandlerScriptRequestHandler implements Serializable {
 		/** The serial version UID */
 		private static final long serialVersionUID = -8016918532036667397L;
 
-		String hash;
+		final String hash;
+
+		final byte[] data;
 
-		StringBuffer data;
+		final long lastModified;
 
-		Handler(StringBuffer data, String hash) {
+		Handler(byte[] data, String hash, long lastModified) {
 			this.data = data;
 			this.hash = hash;
+			this.lastModified = lastModified;
 		}
 	}
 
@@ -115,6 +141,38 @@ public class ClientSideHandlerScriptRequestHandler implements Serializable {
 		this.rsHandler = rsHandler;
 		this.config = config;
 		this.handlerCache = new ConcurrentHashMap<>();
+		rsHandler.addBundlingProcessLifeCycleListener(this);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see net.jawr.web.resource.bundle.lifecycle.
+	 * BundlingProcessLifeCycleListener#beforeBundlingProcess()
+	 */
+	@Override
+	public void beforeBundlingProcess() {
+		// Nothing to do
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see net.jawr.web.resource.bundle.lifecycle.
+	 * BundlingProcessLifeCycleListener#afterBundlingProcess()
+	 */
+	@Override
+	public void afterBundlingProcess() {
+		clearCache();
+	}
+
+	/**
+	 * Clears the handler cache. The generation is incremented first, so a
+	 * script created from the previous state is not stored after the clear.
+	 */
+	public void clearCache() {
+		cacheGeneration.incrementAndGet();
+		handlerCache.clear();
 	}
 
 	/**
@@ -129,72 +187,132 @@ public class ClientSideHandlerScriptRequestHandler implements Serializable {
 	 *            the response
 	 */
 	public void handleClientSideHandlerRequest(HttpServletRequest request, HttpServletResponse response) {
-		Handler handler;
 
-		Map<String, String> variants = config.getGeneratorRegistry().resolveVariants(request);
-		String variantKey = VariantUtils.getVariantKey(variants);
-
-		if (handlerCache.containsKey(variantKey)) {
-			handler = (Handler) handlerCache.get(variantKey);
-		} else {
-			StringBuffer sb = rsHandler.getClientSideHandler().getClientSideHandlerScript(request);
-			handler = new Handler(sb, Integer.toString(sb.hashCode()));
-			handlerCache.put(variantKey, handler);
+		boolean useGzip = RendererRequestUtils.isRequestGzippable(request, this.config);
+		String cacheKey = getCacheKey(request, useGzip);
+
+		Handler handler = handlerCache.get(cacheKey);
+		if (handler == null) {
+			long generation = cacheGeneration.get();
+			handler = createHandler(request, useGzip);
+			handlerCache.put(cacheKey, handler);
+			if (cacheGeneration.get() != generation) {
+				// The cache has been cleared while the script was created
+				handlerCache.remove(cacheKey, handler);
+			}
 		}
 
 		// Decide whether to set a 304 response
-		if (useNotModifiedHeader(request, handler.hash)) {
+		if (RendererRequestUtils.isNotModified(request, handler.hash, handler.lastModified)) {
 			response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
 			return;
 		}
 		response.setHeader(HEADER_ETAG, handler.hash);
-		response.setDateHeader(HEADER_LAST_MODIFIED, START_TIME);
-		response.setContentType(JAVASCRIPT_CONTENT_TYPE);
-
-		if (RendererRequestUtils.isRequestGzippable(request, this.config)) {
-			try {
-				response.setHeader("Content-Encoding", "gzip");
-				GZIPOutputStream gzOut = new GZIPOutputStream(response.getOutputStream());
-				byte[] data = handler.data.toString().getBytes(this.config.getResourceCharset().name());
-				gzOut.write(data, 0, data.length);
-				gzOut.close();
-			} catch (IOException e) {
-				throw new BundlingProcessException("Unexpected IOException writing ClientSideHandlerScript", e);
-			}
-		} else {
-			StringReader rd = new StringReader(handler.data.toString());
-			try {
-				Writer writer = response.getWriter();
-				IOUtils.copy(rd, writer, true);
-			} catch (IOException e) {
-				throw new BundlingProcessException("Unexpected IOException writing ClientSideHandlerScript", e);
+		response.setDateHeader(HEADER_LAST_MODIFIED, handler.lastModified);
+		response.setContentType(JAVASCRIPT_CONTENT_TYPE + "; charset=" + this.config.getResourceCharset().name());
+		if (useGzip) {
+			response.setHeader("Content-Encoding", "gzip");
+		}
+		response.setContentLength(handler.data.length);
+
+		try {
+			OutputStream out = response.getOutputStream();
+			out.write(handler.data);
+			out.flush();
+		} catch (IOException e) {
+			throw new BundlingProcessException("Unexpected IOException writing ClientSideHandlerScript", e);
+		}
+	}
+
+	/**
+	 * Returns the key of the cached script for the request. The script depends
+	 * on the resolved variants of the JS and CSS bundles, on the debug mode,
+	 * which can be overridden for the request, on the gzip flag and on the
+	 * context path and the scheme which define the path prefix.
+	 * 
+	 * @param request
+	 *            the request
+	 * @param useGzip
+	 *            the flag indicating if the response is gzipped
+	 * @return the cache key
+	 */
+	private String getCacheKey(HttpServletRequest request, boolean useGzip) {
+
+		Map<String, String> variants = config.getGeneratorRegistry().resolveVariants(request);
+		StringBuilder key = new StringBuilder(VariantUtils.getVariantKey(variants));
+
+		ResourceBundlesHandler cssRsHandler = getCssHandler();
+		if (cssRsHandler != null && cssRsHandler != rsHandler) {
+			Map<String, String> cssVariants = cssRsHandler.getConfig().getGeneratorRegistry()
+					.resolveVariants(request);
+			key.append(KEY_SEPARATOR).append(VariantUtils.getVariantKey(cssVariants));
+		}
+
+		key.append(KEY_SEPARATOR).append(config.isDebugModeOn()).append(KEY_SEPARATOR).append(useGzip)
+				.append(KEY_SEPARATOR).append(request.isSecure())
+				.append(KEY_SEPARATOR).append(request.getContextPath());
+		return key.toString();
+	}
+
+	/**
+	 * Returns the CSS bundles handler stored in the servlet context. When it
+	 * changes, this handler registers itself as life cycle listener of the new
+	 * one, and the cache is cleared.
+	 * 
+	 * @return the CSS bundles handler or null if there is none
+	 */
+	private ResourceBundlesHandler getCssHandler() {
+
+		ServletContext context = config.getContext();
+		ResourceBundlesHandler currentCssHandler = null;
+		if (context != null) {
+			currentCssHandler = (ResourceBundlesHandler) context.getAttribute(JawrConstant.CSS_CONTEXT_ATTRIBUTE);
+		}
+
+		if (currentCssHandler != cssHandler) {
+			synchronized (this) {
+				if (currentCssHandler != cssHandler) {
+					if (currentCssHandler != null && currentCssHandler != rsHandler) {
+						currentCssHandler.addBundlingProcessLifeCycleListener(this);
+					}
+					cssHandler = currentCssHandler;
+					clearCache();
+				}
 			}
 		}
+		return currentCssHandler;
 	}
 
 	/**
-	 * Determines whether a response should get a 304 response and empty body,
-	 * according to etags and if-modified-since headers.
+	 * Creates the cached content of the client side script for the request
 	 * 
 	 * @param request
-	 * @param scriptEtag
-	 * @return
+	 *            the request
+	 * @param useGzip
+	 *            the flag indicating if the content must be gzipped
+	 * @return the cached content
 	 */
-	private boolean useNotModifiedHeader(HttpServletRequest request, String scriptEtag) {
-		long modifiedHeader = -1;
+	private Handler createHandler(HttpServletRequest request, boolean useGzip) {
+
+		StringBuffer sb = rsHandler.getClientSideHandler().getClientSideHandlerScript(request);
 		try {
-			modifiedHeader = request.getDateHeader(HEADER_IF_MODIFIED);
-			if (modifiedHeader != -1)
-				modifiedHeader -= modifiedHeader % 1000;
-		} catch (RuntimeException ex) {
-		}
-		String eTag = request.getHeader(HEADER_IF_NONE);
-		if (modifiedHeader == -1) {
-			return scriptEtag.equals(eTag);
-		} else if (null == eTag) {
-			return modifiedHeader <= START_TIME;
-		} else {
-			return scriptEtag.equals(eTag) && modifiedHeader <= START_TIME;
+			byte[] data = sb.toString().getBytes(this.config.getResourceCharset().name());
+			String hash = CheckSumUtils.getMD5Checksum(new ByteArrayInputStream(data));
+			if (useGzip) {
+				ByteArrayOutputStream bOut = new ByteArrayOutputStream(data.length / 2);
+				GZIPOutputStream gzOut = new GZIPOutputStream(bOut);
+				gzOut.write(data, 0, data.length);
+				gzOut.close();
+				data = bOut.toByteArray();
+				hash = hash + "-gzip";
+			}
+
+			// The HTTP dates have a precision of one second
+			long lastModified = System.currentTimeMillis();
+			lastModified -= lastModified % 1000;
+			return new Handler(data, "\"" + hash + "\"", lastModified);
+		} catch (IOException e) {
+			throw new BundlingProcessException("Unexpected IOException creating ClientSideHandlerScript", e);
 		}
 	}
 }
@@ -0,0 +1,119 @@
+/**
+ * Copyright 2017 Ibrahim Chaehoi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package net.jawr.web.resource.bundle.handler;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import net.jawr.web.resource.bundle.JoinableResourceBundle;
+import net.jawr.web.resource.bundle.iterator.BundlePath;
+
+/**
+ * This class defines an immutable index which maps a bundle ID or the path of
+ * one of the bundle members to the bundle. The index is built once from the
+ * list of bundles, so resolving a bundle doesn't depend on the number of
+ * bundles and of their members.
+ *
+ * The resolution follows the same rule as the sequential search : if a path is
+ * shared between several bundles, the first bundle of the list which owns it
+ * is returned.
+ *
+ * @author Ibrahim Chaehoi
+ */
+public class ResourceBundlePathIndex {
+
+	/** The map of bundles by ID and member path */
+	private final Map<String, JoinableResourceBundle> bundlesByPath;
+
+	/**
+	 * Constructor
+	 *
+	 * @param bundles
+	 *            the bundles to index
+	 */
+	public ResourceBundlePathIndex(List<JoinableResourceBundle> bundles) {
+
+		Map<String, JoinableResourceBundle> index = new HashMap<>();
+		for (JoinableResourceBundle bundle : bundles) {
+			addPath(index, bundle.getId(), bundle);
+			addPaths(index, bundle.getItemPathList(), bundle);
+			addPaths(index, bundle.getItemDebugPathList(), bundle);
+		}
+		this.bundlesByPath = Collections.unmodifiableMap(index);
+	}
+
+	/**
+	 * Adds the bundle paths to the index
+	 *
+	 * @param index
+	 *            the index
+	 * @param paths
+	 *            the bundle paths
+	 * @param bundle
+	 *            the bundle
+	 */
+	private static void addPaths(Map<String, JoinableResourceBundle> index, List<BundlePath> paths,
+			JoinableResourceBundle bundle) {
+
+		if (paths != null) {
+			for (BundlePath path : paths) {
+				addPath(index, path.getPath(), bundle);
+			}
+		}
+	}
+
+	/**
+	 * Adds a path to the index if it is not already owned by another bundle
+	 *
+	 * @param index
+	 *            the index
+	 * @param path
+	 *            the path
+	 * @param bundle
+	 *            the bundle
+	 */
+	private static void addPath(Map<String, JoinableResourceBundle> index, String path,
+			JoinableResourceBundle bundle) {
+
+		if (path != null && !index.containsKey(path)) {
+			index.put(path, bundle);
+		}
+	}
+
+	/**
+	 * Returns the bundle whose ID is the path or which contains the path
+	 *
+	 * @param path
+	 *            the bundle ID or the path of a bundle member
+	 * @return the bundle or null if no bundle matches the path
+	 */
+	public JoinableResourceBundle getBundle(String path) {
+
+		if (path == null) {
+			return null;
+		}
+		return bundlesByPath.get(path);
+	}
+
+	/**
+	 * Returns the number of indexed paths
+	 *
+	 * @return the number of indexed paths
+	 */
+	public int size() {
+		return bundlesByPath.size();
+	}
+}
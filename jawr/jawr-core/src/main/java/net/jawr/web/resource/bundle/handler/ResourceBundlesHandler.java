@@ -13,10 +13,12 @@
  */
 package net.jawr.web.resource.bundle.handler;
 
+import java.io.File;
 import java.io.OutputStream;
 import java.io.Writer;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import net.jawr.web.DebugMode;
@@ -26,6 +28,7 @@ import net.jawr.web.resource.bundle.JoinableResourceBundle;
 import net.jawr.web.resource.bundle.iterator.ConditionalCommentCallbackHandler;
 import net.jawr.web.resource.bundle.iterator.ResourceBundlePathsIterator;
 import net.jawr.web.resource.bundle.lifecycle.BundlingProcessLifeCycleListener;
+import net.jawr.web.resource.bundle.renderer.RenderedLinksCache;
 import net.jawr.web.resource.watcher.ResourceWatcher;
 
 /**
@@ -169,6 +172,48 @@ public interface ResourceBundlesHandler {
 	 */
 	public void streamBundleTo(String bundlePath, OutputStream out) throws ResourceNotFoundException;
 
+	/**
+	 * Writes the bytes of a bundle stored with a content coding to the
+	 * specified OutputStream.
+	 * 
+	 * @param bundlePath
+	 *            the bundle path
+	 * @param out
+	 *            the output stream
+	 * @param encoding
+	 *            the content coding, as returned by
+	 *            {@link #resolveBundleEncoding(String, List)}
+	 * @throws net.jawr.web.exception.ResourceNotFoundException
+	 *             if the resource is not found
+	 */
+	public void streamBundleTo(String bundlePath, OutputStream out, String encoding)
+			throws ResourceNotFoundException;
+
+	/**
+	 * Returns the content coding with which a bundle should be sent. Among the
+	 * codings accepted by the client in which the bundle is stored, the one
+	 * of the smallest representation is chosen. The gzip content coding is
+	 * used when no other coding applies.
+	 * 
+	 * @param bundlePath
+	 *            the bundle path
+	 * @param acceptedEncodings
+	 *            the content codings accepted by the client
+	 * @return the content coding to use
+	 */
+	public String resolveBundleEncoding(String bundlePath, List<String> acceptedEncodings);
+
+	/**
+	 * Returns the file where the gzipped version of a bundle is stored. This
+	 * method is used to let the servlet container send the file by itself.
+	 * 
+	 * @param bundlePath
+	 *            the bundle path
+	 * @return the file of the gzipped bundle, or null if the bundle is not
+	 *         stored as a file or if its content is processed for each request
+	 */
+	public File getGzipBundleFile(String bundlePath);
+
 	/**
 	 * Returns the global bundles
 	 * 
@@ -212,6 +257,25 @@ public interface ResourceBundlesHandler {
 	 */
 	public BundleHashcodeType getBundleHashcodeType(String requestedPath);
 
+	/**
+	 * Returns the hashcode of the content of the bundle variant targeted by
+	 * the requested path
+	 *
+	 * @param requestedPath
+	 *            the requested path
+	 * @return the hashcode of the bundle content, or null if the requested
+	 *         path doesn't match any bundle
+	 */
+	public String getBundleDataHashCode(String requestedPath);
+
+	/**
+	 * Returns the time of the last bundling process. As it is used as HTTP
+	 * date, the time is truncated to the second.
+	 *
+	 * @return the time of the last bundling process in milliseconds
+	 */
+	public long getLastBuildTime();
+
 	/**
 	 * Returns the path of the directory containing the generated text bundles
 	 * 
@@ -234,6 +298,18 @@ public interface ResourceBundlesHandler {
 	 */
 	public void notifyModification(List<JoinableResourceBundle> bundles);
 
+	/**
+	 * Notify the modification of a file to the bundles which use it. Only the
+	 * variants of the bundles which depend on the file will be rebuilt, when
+	 * they are known.
+	 * 
+	 * @param bundles
+	 *            the bundles to notify
+	 * @param filePath
+	 *            the path of the modified file
+	 */
+	public void notifyModification(List<JoinableResourceBundle> bundles, String filePath);
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -254,6 +330,20 @@ public interface ResourceBundlesHandler {
 	 */
 	public void rebuildModifiedBundles();
 
+	/**
+	 * Reloads the bundle definitions. The bundles which are not modified are
+	 * kept as they are, and only the modified or new bundles are processed.
+	 *
+	 * @param bundles
+	 *            the bundles built from the new definitions
+	 * @param modifiedBundleNames
+	 *            the names of the bundles whose definition has changed
+	 * @return true if the bundles have been reloaded, false if the bundle
+	 *         definitions can't be reloaded separately, because the global
+	 *         processors need all the bundles.
+	 */
+	public boolean reloadBundles(List<JoinableResourceBundle> bundles, Set<String> modifiedBundleNames);
+
 	/**
 	 * Returns the names of dirty bundles
 	 * 
@@ -284,4 +374,35 @@ public interface ResourceBundlesHandler {
 	 */
 	public void setBundlingProcessLifeCycleListeners(List<BundlingProcessLifeCycleListener> listeners);
 
+	/**
+	 * Adds a bundling life cycle listener
+	 * 
+	 * @param listener
+	 *            the listener to add
+	 */
+	public void addBundlingProcessLifeCycleListener(BundlingProcessLifeCycleListener listener);
+
+	/**
+	 * Returns the cache of the links rendered for the bundles
+	 * 
+	 * @return the cache of the rendered links, or null if the links must not
+	 *         be cached
+	 */
+	public RenderedLinksCache getRenderedLinksCache();
+
+	/**
+	 * Returns true if all the bundles have been processed. This is false
+	 * while the bundles are processed on demand, and some of them have not
+	 * been requested or warmed up yet.
+	 * 
+	 * @return true if all the bundles have been processed
+	 */
+	public boolean isBundlingReady();
+
+	/**
+	 * Releases the resources used by the handler. This stops the warm up of
+	 * the bundles processed on demand.
+	 */
+	public void destroy();
+
 }
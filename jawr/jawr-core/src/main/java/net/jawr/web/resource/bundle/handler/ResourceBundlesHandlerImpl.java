@@ -13,9 +13,9 @@
  */
 package net.jawr.web.resource.bundle.handler;
 
-import java.io.BufferedWriter;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.Reader;
@@ -23,6 +23,7 @@ import java.io.StringReader;
 import java.io.StringWriter;
 import java.io.Writer;
 import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.channels.ReadableByteChannel;
 import java.nio.channels.WritableByteChannel;
 import java.util.ArrayList;
@@ -31,18 +32,32 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RecursiveAction;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.zip.GZIPOutputStream;
 
+import javax.management.ObjectName;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import net.jawr.web.DebugMode;
 import net.jawr.web.JawrConstant;
 import net.jawr.web.config.JawrConfig;
+import net.jawr.web.context.JawrContext;
 import net.jawr.web.context.ThreadLocalJawrContext;
 import net.jawr.web.exception.BundlingProcessException;
 import net.jawr.web.exception.ResourceNotFoundException;
@@ -54,11 +69,14 @@ import net.jawr.web.resource.bundle.IOUtils;
 import net.jawr.web.resource.bundle.JoinableResourceBundle;
 import net.jawr.web.resource.bundle.JoinableResourceBundleContent;
 import net.jawr.web.resource.bundle.JoinableResourceBundlePropertySerializer;
+import net.jawr.web.resource.bundle.encoding.GzipBundleEncoder;
 import net.jawr.web.resource.bundle.factory.global.postprocessor.GlobalPostProcessingContext;
 import net.jawr.web.resource.bundle.factory.global.preprocessor.GlobalPreprocessingContext;
 import net.jawr.web.resource.bundle.factory.util.ClassLoaderResourceUtils;
 import net.jawr.web.resource.bundle.factory.util.PathNormalizer;
+import net.jawr.web.resource.bundle.global.processor.EmptyGlobalProcessor;
 import net.jawr.web.resource.bundle.global.processor.GlobalProcessor;
+import net.jawr.web.resource.bundle.hashcode.BundleContentHashcodeGenerator;
 import net.jawr.web.resource.bundle.hashcode.BundleHashcodeGenerator;
 import net.jawr.web.resource.bundle.iterator.BundlePath;
 import net.jawr.web.resource.bundle.iterator.ConditionalCommentCallbackHandler;
@@ -67,8 +85,10 @@ import net.jawr.web.resource.bundle.iterator.IECssDebugPathsIteratorImpl;
 import net.jawr.web.resource.bundle.iterator.PathsIteratorImpl;
 import net.jawr.web.resource.bundle.iterator.ResourceBundlePathsIterator;
 import net.jawr.web.resource.bundle.lifecycle.BundlingProcessLifeCycleListener;
+import net.jawr.web.resource.bundle.renderer.RenderedLinksCache;
 import net.jawr.web.resource.bundle.postprocess.AbstractChainedResourceBundlePostProcessor;
 import net.jawr.web.resource.bundle.postprocess.BundleProcessingStatus;
+import net.jawr.web.resource.bundle.postprocess.PostProcessingCache;
 import net.jawr.web.resource.bundle.postprocess.ResourceBundlePostProcessor;
 import net.jawr.web.resource.bundle.sorting.GlobalResourceBundleComparator;
 import net.jawr.web.resource.bundle.variant.VariantSet;
@@ -94,29 +114,32 @@ public class ResourceBundlesHandlerImpl implements ResourceBundlesHandler {
 	/**
 	 * The bundles that this handler manages.
 	 */
-	private List<JoinableResourceBundle> bundles;
+	private volatile List<JoinableResourceBundle> bundles;
 
 	/**
 	 * Global bundles, to include in every page
 	 */
-	private List<JoinableResourceBundle> globalBundles;
+	private volatile List<JoinableResourceBundle> globalBundles;
 
 	/**
 	 * Bundles to include upon request
 	 */
-	private List<JoinableResourceBundle> contextBundles;
+	private volatile List<JoinableResourceBundle> contextBundles;
+
+	/** The index which maps a bundle ID or a bundle member path to its bundle */
+	private volatile ResourceBundlePathIndex bundlePathIndex;
 
 	/** The map which map a child bundle to a composite parent bundle */
-	private Map<String, List<JoinableResourceBundle>> compositeResourceBundleMap = new ConcurrentHashMap<>();
+	private volatile Map<String, List<JoinableResourceBundle>> compositeResourceBundleMap = new ConcurrentHashMap<>();
 
 	/** The list of bundle prefixes */
-	private List<String> bundlePrefixes;
+	private volatile List<String> bundlePrefixes;
 
 	/**
 	 * The bundles that will be processed once when the server will be up and
 	 * running.
 	 */
-	private List<String> liveProcessBundles = new ArrayList<>();
+	private List<String> liveProcessBundles = new CopyOnWriteArrayList<>();
 
 	/** The resource handler */
 	private ResourceReaderHandler resourceHandler;
@@ -154,18 +177,67 @@ public class ResourceBundlesHandlerImpl implements ResourceBundlesHandler {
 	/** The bundle mapping */
 	private Properties bundleMapping;
 
+	/**
+	 * The hashcodes of the bundles stored in the generation being built,
+	 * mapped by bundle and by variant key, or null if no generation is being
+	 * built. They are set in the bundles once the generation is committed, so
+	 * the links never refer to a content which is not served yet.
+	 */
+	private volatile ConcurrentMap<JoinableResourceBundle, Map<String, String>> stagedHashcodes;
+
+	/**
+	 * The bundle mapping of the generation being built, or null if no
+	 * generation is being built
+	 */
+	private volatile Properties stagedBundleMapping;
+
 	/** The flag indicating if we are processing bundles */
 	private final AtomicBoolean processingBundle = new AtomicBoolean(false);
 
+	/** The time of the last bundling process */
+	private volatile long lastBuildTime = System.currentTimeMillis() / 1000 * 1000;
+
 	/** The resource watcher */
 	private ResourceWatcher watcher;
 
 	/** The life cycle listeners */
 	private final List<BundlingProcessLifeCycleListener> lifeCycleListeners = new CopyOnWriteArrayList<>();
 
+	/** The cache of the rendered links, which is cleared at each build */
+	private final RenderedLinksCache renderedLinksCache = new RenderedLinksCache();
+
 	/** The flag indicating if we need to search for variant in post process */
 	private boolean needToSearchForVariantInPostProcess;
 
+	/** The pool used to process the bundles in parallel during a build */
+	private volatile ForkJoinPool bundleProcessingPool;
+
+	/** The cache of the post processing results of the bundle members */
+	private PostProcessingCache postProcessingCache;
+
+	/**
+	 * The bundles which will be processed on demand, mapped by bundle ID. The
+	 * task of a bundle is run by the first thread which needs it, while the
+	 * other threads wait for its end. A bundle stays pending until it has been
+	 * processed successfully.
+	 */
+	private final Map<String, FutureTask<Void>> pendingBundles = new ConcurrentHashMap<>();
+
+	/** The number of bundles which have not been processed yet */
+	private final AtomicInteger pendingBundleCount = new AtomicInteger();
+
+	/** The lock held while the modified bundles are rebuilt */
+	private final ReentrantLock rebuildLock = new ReentrantLock();
+
+	/** The bundles processed on demand in the current bundling process */
+	private volatile List<JoinableResourceBundle> lazyBundlesToBuild;
+
+	/** The popularity of the bundles, used to order the warm up */
+	private BundlePopularity bundlePopularity;
+
+	/** The thread processing in background the bundles not requested yet */
+	private volatile Thread warmUpThread;
+
 	/**
 	 * Build a ResourceBundlesHandler.
 	 * 
@@ -227,6 +299,7 @@ public class ResourceBundlesHandlerImpl implements ResourceBundlesHandler {
 		this.bundles = new CopyOnWriteArrayList<>();
 		this.bundles.addAll(bundles);
 		splitBundlesByType(bundles);
+		rebuildBundlePathIndex();
 
 		this.clientSideHandlerGenerator = (ClientSideHandlerGenerator) ClassLoaderResourceUtils
 				.buildObjectInstance(config.getClientSideHandlerGeneratorClass());
@@ -234,10 +307,30 @@ public class ResourceBundlesHandlerImpl implements ResourceBundlesHandler {
 
 		this.needToSearchForVariantInPostProcess = isSearchingForVariantInPostProcessNeeded();
 
+		if (config.isUsePostProcessingCache()) {
+			File cacheDirectory = null;
+			if (config.isPersistentPostProcessingCache() && resourceHandler.getWorkingDirectory() != null) {
+				cacheDirectory = new File(resourceHandler.getWorkingDirectory(),
+						JawrConstant.POSTPROCESSING_CACHE_DIR + JawrConstant.URL_SEPARATOR + getResourceType());
+			}
+			this.postProcessingCache = new PostProcessingCache(config.getResourceCharset(), cacheDirectory,
+					cacheDirectory == null ? null : getJawrConfigHashcode());
+		}
+
+		if (config.isLazyBundleProcessing()) {
+			File popularityFile = null;
+			if (resourceHandler != null && resourceHandler.getWorkingDirectory() != null) {
+				popularityFile = new File(resourceHandler.getWorkingDirectory(),
+						getResourceType() + JawrConstant.URL_SEPARATOR + BundlePopularity.POPULARITY_FILE_NAME);
+			}
+			this.bundlePopularity = new BundlePopularity(popularityFile);
+		}
+
 		// register bundle life cycle listeners
 		List<BundlingProcessLifeCycleListener> generatorLifeCycleListeners = config.getGeneratorRegistry()
 				.getBundlingProcessLifeCycleListeners();
 		lifeCycleListeners.addAll(generatorLifeCycleListeners);
+		lifeCycleListeners.add(renderedLinksCache);
 
 	}
 
@@ -357,6 +450,15 @@ public class ResourceBundlesHandlerImpl implements ResourceBundlesHandler {
 		}
 	}
 
+	/**
+	 * Rebuilds the index used to resolve the bundles from their ID or from the
+	 * path of their members. The new index is swapped in a single step, so the
+	 * request threads always see a complete index.
+	 */
+	protected void rebuildBundlePathIndex() {
+		this.bundlePathIndex = new ResourceBundlePathIndex(bundles);
+	}
+
 	/**
 	 * Initialize the composite bundle map
 	 * 
@@ -507,6 +609,14 @@ public class ResourceBundlesHandlerImpl implements ResourceBundlesHandler {
 	 */
 	private ResourceBundlePathsIterator getBundleIterator(DebugMode debugMode, List<JoinableResourceBundle> bundles,
 			ConditionalCommentCallbackHandler commentCallbackHandler, Map<String, String> variants) {
+
+		// The links to the bundles contain their hashcode in production mode
+		if (!debugMode.equals(DebugMode.DEBUG)) {
+			for (JoinableResourceBundle bundle : bundles) {
+				processPendingBundle(bundle);
+			}
+		}
+
 		ResourceBundlePathsIterator bundlesIterator;
 		if (debugMode.equals(DebugMode.DEBUG)) {
 			bundlesIterator = new DebugModePathsIteratorImpl(bundles, commentCallbackHandler, variants);
@@ -530,6 +640,9 @@ public class ResourceBundlesHandlerImpl implements ResourceBundlesHandler {
 	public void writeBundleTo(String bundlePath, Writer writer) throws ResourceNotFoundException {
 
 		Reader rd = null;
+		if (!config.isDebugModeOn()) {
+			processPendingBundle(bundlePath);
+		}
 
 		try {
 
@@ -596,6 +709,22 @@ public class ResourceBundlesHandlerImpl implements ResourceBundlesHandler {
 	@Override
 	public void streamBundleTo(String bundlePath, OutputStream out) throws ResourceNotFoundException {
 
+		streamBundleTo(bundlePath, out, GzipBundleEncoder.GZIP_ENCODING);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * net.jawr.web.resource.bundle.handler.ResourceBundlesHandler#streamBundleTo
+	 * (java.lang.String, java.io.OutputStream, java.lang.String)
+	 */
+	@Override
+	public void streamBundleTo(String bundlePath, OutputStream out, String encoding)
+			throws ResourceNotFoundException {
+
+		processPendingBundle(bundlePath);
+
 		// Remove prefix, which are used only in production mode
 		String path = PathNormalizer.removeVariantPrefixFromPath(bundlePath);
 		ReadableByteChannel data = null;
@@ -621,11 +750,15 @@ public class ResourceBundlesHandlerImpl implements ResourceBundlesHandler {
 				}
 
 			} else {
-				data = resourceBundleHandler.getResourceBundleChannel(path);
+				data = resourceBundleHandler.getResourceBundleChannel(path, encoding);
 			}
 
 			WritableByteChannel outChannel = Channels.newChannel(out);
-			IOUtils.copy(data, outChannel);
+			if (config.isGzipNioServing() && data instanceof FileChannel) {
+				IOUtils.transfer((FileChannel) data, outChannel);
+			} else {
+				IOUtils.copy(data, outChannel);
+			}
 
 		} catch (IOException e) {
 			throw new BundlingProcessException("Unexpected IOException writing bundle [" + path + "]", e);
@@ -634,6 +767,54 @@ public class ResourceBundlesHandlerImpl implements ResourceBundlesHandler {
 		}
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see net.jawr.web.resource.bundle.handler.ResourceBundlesHandler#
+	 * resolveBundleEncoding(java.lang.String, java.util.List)
+	 */
+	@Override
+	public String resolveBundleEncoding(String bundlePath, List<String> acceptedEncodings) {
+
+		String encoding = GzipBundleEncoder.GZIP_ENCODING;
+		List<String> storedEncodings = resourceBundleHandler.getStoredEncodings();
+		if (storedEncodings.size() > 1) {
+
+			// The bundles processed in live are only available in gzip
+			String path = PathNormalizer.removeVariantPrefixFromPath(bundlePath);
+			if (!liveProcessBundles.contains(path)) {
+				long smallestSize = resourceBundleHandler.getResourceBundleSize(path, encoding);
+				for (String storedEncoding : storedEncodings) {
+					if (!storedEncoding.equals(encoding) && acceptedEncodings.contains(storedEncoding)) {
+						long size = resourceBundleHandler.getResourceBundleSize(path, storedEncoding);
+						if (size != -1 && (smallestSize == -1 || size < smallestSize)) {
+							encoding = storedEncoding;
+							smallestSize = size;
+						}
+					}
+				}
+			}
+		}
+		return encoding;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * net.jawr.web.resource.bundle.handler.ResourceBundlesHandler#getGzipBundleFile
+	 * (java.lang.String)
+	 */
+	@Override
+	public File getGzipBundleFile(String bundlePath) {
+
+		String path = PathNormalizer.removeVariantPrefixFromPath(bundlePath);
+		if (liveProcessBundles.contains(path)) {
+			return null;
+		}
+		return resourceBundleHandler.getResourceBundleFile(path, true);
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -738,6 +919,7 @@ public class ResourceBundlesHandlerImpl implements ResourceBundlesHandler {
 			if (stopWatch != null) {
 				stopWatch.start("Global preprocessing");
 			}
+			long start = System.nanoTime();
 			GlobalPreprocessingContext ctx = new GlobalPreprocessingContext(config, resourceHandler, processBundleFlag);
 			resourceTypePreprocessor.processBundles(ctx, bundles);
 
@@ -749,6 +931,7 @@ public class ResourceBundlesHandlerImpl implements ResourceBundlesHandler {
 					bundlesToBuild.add(b);
 				}
 			}
+			config.getMetrics().recordGlobalPreprocessing(System.nanoTime() - start);
 			if (stopWatch != null) {
 				stopWatch.stop();
 			}
@@ -760,10 +943,29 @@ public class ResourceBundlesHandlerImpl implements ResourceBundlesHandler {
 	 * 
 	 */
 	@Override
-	public synchronized void rebuildModifiedBundles() {
+	public void rebuildModifiedBundles() {
+
+		// The rebuilds use their own lock, so the bundles can be served while
+		// the new generation is built
+		rebuildLock.lock();
+		try {
+			doRebuildModifiedBundles();
+		} finally {
+			rebuildLock.unlock();
+		}
+	}
+
+	/**
+	 * Rebuilds the modified bundles
+	 */
+	private void doRebuildModifiedBundles() {
 
 		stopProcessIfNeeded();
 
+		// The bundles processed on demand must be processed before rebuilding
+		// the modified ones
+		processPendingBundles();
+
 		StopWatch stopWatch = ThreadLocalJawrContext.getStopWatch();
 
 		if (config.getUseSmartBundling()) {
@@ -784,7 +986,11 @@ public class ResourceBundlesHandlerImpl implements ResourceBundlesHandler {
 
 			List<JoinableResourceBundle> bundlesToRebuild = getBundlesToRebuild();
 			for (JoinableResourceBundle bundle : bundlesToRebuild) {
-				bundle.resetBundleMapping();
+				// The variants of the bundle are kept when only some of them
+				// need to be rebuilt
+				if (bundle.getDirtyVariantKeys() == null) {
+					bundle.resetBundleMapping();
+				}
 			}
 			build(bundlesToRebuild, true, stopWatch);
 
@@ -793,6 +999,187 @@ public class ResourceBundlesHandlerImpl implements ResourceBundlesHandler {
 		}
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see net.jawr.web.resource.bundle.handler.ResourceBundlesHandler#
+	 * reloadBundles(java.util.List, java.util.Set)
+	 */
+	@Override
+	public boolean reloadBundles(List<JoinableResourceBundle> newBundles, Set<String> modifiedBundleNames) {
+
+		// The global processors work on all the bundles
+		if (!isEmptyGlobalProcessor(resourceTypePreprocessor) || !isEmptyGlobalProcessor(resourceTypePostprocessor)) {
+			return false;
+		}
+
+		rebuildLock.lock();
+		try {
+			doReloadBundles(newBundles, modifiedBundleNames);
+		} finally {
+			rebuildLock.unlock();
+		}
+		return true;
+	}
+
+	/**
+	 * Checks if the global processor given in parameter does nothing
+	 * 
+	 * @param processor
+	 *            the global processor
+	 * @return true if the global processor does nothing
+	 */
+	private boolean isEmptyGlobalProcessor(GlobalProcessor<?> processor) {
+		return processor == null || processor instanceof EmptyGlobalProcessor;
+	}
+
+	/**
+	 * Reloads the bundle definitions
+	 * 
+	 * @param newBundles
+	 *            the bundles built from the new definitions
+	 * @param modifiedBundleNames
+	 *            the names of the bundles whose definition has changed
+	 */
+	private void doReloadBundles(List<JoinableResourceBundle> newBundles, Set<String> modifiedBundleNames) {
+
+		stopProcessIfNeeded();
+		processPendingBundles();
+
+		Map<String, JoinableResourceBundle> currentBundles = new HashMap<>();
+		for (JoinableResourceBundle bundle : bundles) {
+			currentBundles.put(bundle.getId(), bundle);
+		}
+
+		// The bundles which have not changed are kept, with their hashcodes
+		// and their stored content
+		List<JoinableResourceBundle> reloadedBundles = new ArrayList<>();
+		List<JoinableResourceBundle> bundlesToBuild = new ArrayList<>();
+		Map<String, JoinableResourceBundle> reloadedBundlesById = new HashMap<>();
+		for (JoinableResourceBundle bundle : newBundles) {
+			JoinableResourceBundle currentBundle = currentBundles.get(bundle.getId());
+			if (currentBundle != null && !isModified(currentBundle, bundle, modifiedBundleNames)) {
+				reloadedBundles.add(currentBundle);
+			} else {
+				reloadedBundles.add(bundle);
+				bundlesToBuild.add(bundle);
+			}
+			reloadedBundlesById.put(bundle.getId(), reloadedBundles.get(reloadedBundles.size() - 1));
+		}
+
+		// The new bundles must reference the bundles which have been kept
+		for (JoinableResourceBundle bundle : bundlesToBuild) {
+			bundle.setDependencies(getReloadedBundles(bundle.getDependencies(), reloadedBundlesById));
+			if (bundle.isComposite()) {
+				List<JoinableResourceBundle> childBundles = ((CompositeResourceBundle) bundle).getChildBundles();
+				List<JoinableResourceBundle> reloadedChildBundles = getReloadedBundles(childBundles,
+						reloadedBundlesById);
+				for (int i = 0; i < childBundles.size(); i++) {
+					childBundles.set(i, reloadedChildBundles.get(i));
+				}
+			}
+		}
+
+		if (LOGGER.isInfoEnabled()) {
+			LOGGER.info("Reloading the bundle definitions : " + bundlesToBuild.size() + " of the "
+					+ reloadedBundles.size() + " bundles will be processed");
+		}
+
+		// The mapping of the removed bundles must not be stored. The previous
+		// mapping is kept if the new bundles can't be processed.
+		Properties previousBundleMapping = bundleMapping;
+		if (config.getUseBundleMapping() && previousBundleMapping != null) {
+			Properties reloadedMapping = new Properties();
+			for (JoinableResourceBundle bundle : reloadedBundles) {
+				if (!bundlesToBuild.contains(bundle)) {
+					JoinableResourceBundlePropertySerializer.serializeInProperties(bundle,
+							resourceBundleHandler.getResourceType(), reloadedMapping);
+				}
+			}
+			bundleMapping = reloadedMapping;
+		}
+
+		// The new bundles are processed before being served
+		try {
+			build(bundlesToBuild, true, ThreadLocalJawrContext.getStopWatch(), false);
+		} catch (RuntimeException e) {
+			bundleMapping = previousBundleMapping;
+			throw e;
+		}
+
+		this.bundles = new CopyOnWriteArrayList<>(reloadedBundles);
+		this.compositeResourceBundleMap = new ConcurrentHashMap<>();
+		splitBundlesByType(this.bundles);
+		rebuildBundlePathIndex();
+		this.clientSideHandlerGenerator.init(config, globalBundles, contextBundles);
+
+		// The listeners are notified again once the reloaded bundles are
+		// used, because the content they have cached since the end of the
+		// build may refer to the previous bundles
+		notifyEndBundlingProcess();
+	}
+
+	/**
+	 * Checks if a bundle has been modified by the reload of the bundle
+	 * definitions
+	 * 
+	 * @param currentBundle
+	 *            the current bundle
+	 * @param newBundle
+	 *            the bundle built from the new definition
+	 * @param modifiedBundleNames
+	 *            the names of the bundles whose definition has changed
+	 * @return true if the bundle has been modified
+	 */
+	private boolean isModified(JoinableResourceBundle currentBundle, JoinableResourceBundle newBundle,
+			Set<String> modifiedBundleNames) {
+
+		if (modifiedBundleNames.contains(newBundle.getName()) || currentBundle.isComposite() != newBundle.isComposite()
+				|| !currentBundle.getItemPathList().equals(newBundle.getItemPathList())
+				|| !currentBundle.getItemDebugPathList().equals(newBundle.getItemDebugPathList())) {
+			return true;
+		}
+
+		if (newBundle.isComposite()) {
+			List<JoinableResourceBundle> currentChildBundles = ((CompositeResourceBundle) currentBundle)
+					.getChildBundles();
+			List<JoinableResourceBundle> newChildBundles = ((CompositeResourceBundle) newBundle).getChildBundles();
+			if (currentChildBundles.size() != newChildBundles.size()) {
+				return true;
+			}
+			for (int i = 0; i < newChildBundles.size(); i++) {
+				if (!currentChildBundles.get(i).getId().equals(newChildBundles.get(i).getId())
+						|| isModified(currentChildBundles.get(i), newChildBundles.get(i), modifiedBundleNames)) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Returns the bundles which replace the ones given in parameter after the
+	 * reload of the bundle definitions
+	 * 
+	 * @param bundles
+	 *            the bundles
+	 * @param reloadedBundlesById
+	 *            the reloaded bundles mapped by ID
+	 * @return the reloaded bundles
+	 */
+	private List<JoinableResourceBundle> getReloadedBundles(List<JoinableResourceBundle> bundles,
+			Map<String, JoinableResourceBundle> reloadedBundlesById) {
+
+		List<JoinableResourceBundle> result = new ArrayList<>();
+		if (bundles != null) {
+			for (JoinableResourceBundle bundle : bundles) {
+				JoinableResourceBundle reloadedBundle = reloadedBundlesById.get(bundle.getId());
+				result.add(reloadedBundle != null ? reloadedBundle : bundle);
+			}
+		}
+		return result;
+	}
+
 	/**
 	 * Returns the bundles which needs to be rebuild
 	 * 
@@ -831,6 +1218,24 @@ public class ResourceBundlesHandlerImpl implements ResourceBundlesHandler {
 	 */
 	public void build(List<JoinableResourceBundle> bundlesToBuild, boolean forceWriteBundleMapping,
 			StopWatch stopWatch) {
+		build(bundlesToBuild, forceWriteBundleMapping, stopWatch, isLazyBundleProcessing());
+	}
+
+	/**
+	 * Builds the bundles given in parameter
+	 * 
+	 * @param bundlesToBuild
+	 *            the list of bundle to build
+	 * @param forceWriteBundleMapping
+	 *            the flag indicating if the bundle mapping must be written in
+	 *            any case
+	 * @param stopWatch
+	 *            the stop watch
+	 * @param lazy
+	 *            the flag indicating if the bundles are processed on demand
+	 */
+	private void build(List<JoinableResourceBundle> bundlesToBuild, boolean forceWriteBundleMapping,
+			StopWatch stopWatch, boolean lazy) {
 
 		stopProcessIfNeeded();
 
@@ -846,40 +1251,146 @@ public class ResourceBundlesHandlerImpl implements ResourceBundlesHandler {
 		// Global preprocessing
 		executeGlobalPreprocessing(bundlesToBuild, processBundleFlag, stopWatch);
 
-		for (JoinableResourceBundle bundle : bundlesToBuild) {
+		if (lazy && !bundlesToBuild.isEmpty()) {
 
-			stopProcessIfNeeded();
+			// Only the mappings are computed here, the bundles will be
+			// processed on demand
+			startLazyBundlingProcess(bundlesToBuild, processBundleFlag);
+			return;
+		}
 
-			if (stopWatch != null) {
-				stopWatch.start("Processing bundle '" + bundle.getName() + "'");
+		// The bundles are stored in a new generation, which is used once
+		// the bundling process ends, with their hashcodes and their mapping
+		if (!bundlesToBuild.isEmpty()) {
+			resourceBundleHandler.startGeneration();
+			stagedHashcodes = new ConcurrentHashMap<>();
+			if (bundleMapping != null) {
+				Properties mapping = new Properties();
+				mapping.putAll(bundleMapping);
+				stagedBundleMapping = mapping;
 			}
+		}
+		try {
+			processBundles(bundlesToBuild, stopWatch);
+			endBundlingProcess(bundlesToBuild, processBundleFlag, stopWatch);
+		} catch (RuntimeException e) {
+			discardStagedBundles(bundlesToBuild);
+			resourceBundleHandler.discardGeneration();
+			throw e;
+		}
+	}
 
-			if (!ThreadLocalJawrContext.isBundleProcessingAtBuildTime() && null != bundle.getAlternateProductionURL()) {
-				if (LOGGER.isDebugEnabled()) {
-					LOGGER.debug("No bundle generated for '" + bundle.getId()
-							+ "' because a production URL is defined for this bundle.");
+	/**
+	 * Publishes the hashcodes and the bundle mapping of the generation which
+	 * has been built
+	 */
+	private void publishStagedBundles() {
+
+		Map<JoinableResourceBundle, Map<String, String>> hashcodes = stagedHashcodes;
+		if (hashcodes != null) {
+			for (Entry<JoinableResourceBundle, Map<String, String>> entry : hashcodes.entrySet()) {
+				for (Entry<String, String> variantEntry : entry.getValue().entrySet()) {
+					entry.getKey().setBundleDataHashCode(variantEntry.getKey(), variantEntry.getValue());
 				}
 			}
-			if (bundle instanceof CompositeResourceBundle) {
-				joinAndStoreCompositeResourcebundle((CompositeResourceBundle) bundle);
-			} else {
-				joinAndStoreBundle(bundle);
-			}
+			stagedHashcodes = null;
+		}
 
-			if (config.getUseBundleMapping()) {
-				JoinableResourceBundlePropertySerializer.serializeInProperties(bundle,
-						resourceBundleHandler.getResourceType(), bundleMapping);
+		Properties mapping = stagedBundleMapping;
+		if (mapping != null) {
+			bundleMapping = mapping;
+			stagedBundleMapping = null;
+		}
+	}
+
+	/**
+	 * Discards the hashcodes and the bundle mapping of the generation which
+	 * has not been built. The bundles keep their previous hashcodes, and they
+	 * will be built again at the next bundling process.
+	 * 
+	 * @param bundlesToBuild
+	 *            the bundles which have not been built
+	 */
+	private void discardStagedBundles(List<JoinableResourceBundle> bundlesToBuild) {
+
+		stagedHashcodes = null;
+		stagedBundleMapping = null;
+		for (JoinableResourceBundle bundle : bundlesToBuild) {
+			bundle.setDirty(true);
+		}
+	}
+
+	/**
+	 * Joins and stores the bundles given in parameter
+	 * 
+	 * @param bundlesToBuild
+	 *            the list of bundle to build
+	 * @param stopWatch
+	 *            the stop watch
+	 */
+	private void processBundles(List<JoinableResourceBundle> bundlesToBuild, StopWatch stopWatch) {
+
+		if (config.isParallelBundleProcessing() && bundlesToBuild.size() > 1) {
+
+			if (stopWatch != null) {
+				stopWatch.start("Processing bundles in parallel");
 			}
 
-			bundle.setDirty(false);
+			joinAndStoreBundlesInParallel(bundlesToBuild);
+
+			// The bundle mapping is updated in the order of the bundles to
+			// keep it deterministic
+			for (JoinableResourceBundle bundle : bundlesToBuild) {
+				updateBundleMapping(bundle);
+			}
 
 			if (stopWatch != null) {
 				stopWatch.stop();
 			}
+		} else {
+			for (JoinableResourceBundle bundle : bundlesToBuild) {
+
+				stopProcessIfNeeded();
+
+				if (stopWatch != null) {
+					stopWatch.start("Processing bundle '" + bundle.getName() + "'");
+				}
+
+				joinAndStore(bundle);
+				updateBundleMapping(bundle);
+
+				if (stopWatch != null) {
+					stopWatch.stop();
+				}
+			}
 		}
+	}
+
+	/**
+	 * Ends the bundling process, once the bundles have been processed
+	 * 
+	 * @param bundlesToBuild
+	 *            the list of bundle which have been built
+	 * @param processBundleFlag
+	 *            the flag indicating if the bundles needs to be processed
+	 * @param stopWatch
+	 *            the stop watch
+	 */
+	private void endBundlingProcess(List<JoinableResourceBundle> bundlesToBuild, boolean processBundleFlag,
+			StopWatch stopWatch) {
 
 		executeGlobalPostProcessing(processBundleFlag, stopWatch);
 		storeJawrBundleMapping(resourceBundleHandler.isExistingMappingFile(), true);
+		if (postProcessingCache != null) {
+			postProcessingCache.save();
+		}
+
+		// The links use the new hashcodes once the new content is served
+		resourceBundleHandler.commitGeneration();
+		publishStagedBundles();
+
+		// The bundle mappings may have been updated during the process
+		rebuildBundlePathIndex();
 
 		// Update the watcher with the path to watch
 		try {
@@ -890,6 +1401,9 @@ public class ResourceBundlesHandlerImpl implements ResourceBundlesHandler {
 			throw new BundlingProcessException(e);
 		}
 
+		// The HTTP dates have a precision of one second
+		lastBuildTime = System.currentTimeMillis() / 1000 * 1000;
+
 		notifyEndBundlingProcess();
 		if (LOGGER.isInfoEnabled()) {
 			LOGGER.info("End of bundle processing");
@@ -898,29 +1412,436 @@ public class ResourceBundlesHandlerImpl implements ResourceBundlesHandler {
 	}
 
 	/**
-	 * Stop the bundling process if needed
+	 * Checks if the bundles are processed on demand. The lazy bundle
+	 * processing is not used at build time, and when a global postprocessor is
+	 * defined, because it needs all the bundles.
+	 * 
+	 * @return true if the bundles are processed on demand
 	 */
-	protected void stopProcessIfNeeded() {
-		if (ThreadLocalJawrContext.isInterruptingProcessingBundle()) {
-			throw new InterruptBundlingProcessException();
+	private boolean isLazyBundleProcessing() {
+
+		boolean lazy = config.isLazyBundleProcessing() && !ThreadLocalJawrContext.isBundleProcessingAtBuildTime();
+		if (lazy && resourceTypePostprocessor != null && !(resourceTypePostprocessor instanceof EmptyGlobalProcessor)) {
+			LOGGER.warn("The lazy bundle processing is not available when a global postprocessor is defined. "
+					+ "All the bundles will be processed now.");
+			lazy = false;
 		}
+		return lazy;
 	}
 
 	/**
-	 * Notify the start of the bundling process
+	 * Starts the lazy bundling process. The bundles are registered to be
+	 * processed on demand, and the warm up thread is started if needed. The
+	 * bundling process ends when the last bundle has been processed.
+	 * 
+	 * @param bundlesToBuild
+	 *            the list of bundle to build
+	 * @param processBundleFlag
+	 *            the flag indicating if the bundles needs to be processed
 	 */
-	protected void notifyStartBundlingProcess() {
+	private void startLazyBundlingProcess(final List<JoinableResourceBundle> bundlesToBuild,
+			final boolean processBundleFlag) {
 
-		for (BundlingProcessLifeCycleListener listener : lifeCycleListeners) {
-			listener.beforeBundlingProcess();
+		if (LOGGER.isInfoEnabled()) {
+			LOGGER.info(bundlesToBuild.size() + " bundles will be processed on demand");
 		}
-		processingBundle.set(true);
-		synchronized (processingBundle) {
-			processingBundle.notifyAll();
+
+		lazyBundlesToBuild = new ArrayList<>(bundlesToBuild);
+		pendingBundleCount.set(bundlesToBuild.size());
+		ObjectName jawrConfigMgrObjectName = ThreadLocalJawrContext.getJawrConfigMgrObjectName();
+		for (JoinableResourceBundle bundle : bundlesToBuild) {
+			pendingBundles.put(bundle.getId(),
+					createPendingBundleTask(bundle, processBundleFlag, jawrConfigMgrObjectName));
 		}
-	}
 
-	/**
+		// The bundles can be requested before being processed
+		rebuildBundlePathIndex();
+
+		if (config.isBundleProcessingWarmUp()) {
+			startWarmUp(bundlesToBuild);
+		}
+	}
+
+	/**
+	 * Creates the task which processes a bundle on demand. The task runs in a
+	 * clean Jawr context, so the processing doesn't depend on the request
+	 * which triggers it, like its debug mode override. If the processing
+	 * fails, the threads waiting for the task get the error, and the bundle
+	 * is processed again by the next request. The bundling process ends when
+	 * the last bundle has been processed.
+	 * 
+	 * @param bundle
+	 *            the bundle to process
+	 * @param processBundleFlag
+	 *            the flag indicating if the bundles needs to be processed
+	 * @param jawrConfigMgrObjectName
+	 *            the object name of the Jawr config manager MBean
+	 * @return the task
+	 */
+	private FutureTask<Void> createPendingBundleTask(final JoinableResourceBundle bundle,
+			final boolean processBundleFlag, final ObjectName jawrConfigMgrObjectName) {
+
+		return new FutureTask<Void>(new Callable<Void>() {
+
+			@Override
+			public Void call() throws Exception {
+
+				JawrContext requestContext = ThreadLocalJawrContext.getContext();
+				JawrContext processingContext = new JawrContext();
+				processingContext.setJawrConfigMgrObjectName(jawrConfigMgrObjectName);
+				ThreadLocalJawrContext.setContext(processingContext);
+				try {
+					try {
+						// The child bundles are processed first
+						if (bundle instanceof CompositeResourceBundle) {
+							for (JoinableResourceBundle child : ((CompositeResourceBundle) bundle)
+									.getChildBundles()) {
+								processPendingBundle(child);
+							}
+						}
+
+						joinAndStore(bundle);
+						updateBundleMapping(bundle);
+					} catch (RuntimeException | Error e) {
+						pendingBundles.replace(bundle.getId(),
+								createPendingBundleTask(bundle, processBundleFlag, jawrConfigMgrObjectName));
+						throw e;
+					}
+
+					pendingBundles.remove(bundle.getId());
+					if (pendingBundleCount.decrementAndGet() == 0) {
+						endBundlingProcess(lazyBundlesToBuild, processBundleFlag, null);
+						if (bundlePopularity != null) {
+							bundlePopularity.save();
+						}
+					}
+				} finally {
+					ThreadLocalJawrContext.setContext(requestContext);
+				}
+				return null;
+			}
+		});
+	}
+
+	/**
+	 * Starts the thread which processes in background the bundles which have
+	 * not been requested yet, from the most popular to the least popular one.
+	 * 
+	 * @param bundlesToBuild
+	 *            the list of bundle to build
+	 */
+	private void startWarmUp(List<JoinableResourceBundle> bundlesToBuild) {
+
+		final List<JoinableResourceBundle> bundlesToWarmUp = bundlePopularity.sortByPopularity(bundlesToBuild);
+		Thread thread = new Thread(new Runnable() {
+
+			@Override
+			public void run() {
+				for (JoinableResourceBundle bundle : bundlesToWarmUp) {
+					if (Thread.currentThread().isInterrupted()) {
+						return;
+					}
+					try {
+						processPendingBundle(bundle);
+					} catch (InterruptBundlingProcessException e) {
+						return;
+					} catch (BundlingProcessException e) {
+						LOGGER.error("Unable to process the bundle '" + bundle.getId() + "'", e);
+					}
+				}
+			}
+		}, "Jawr " + getResourceType() + " bundles warm up");
+		thread.setDaemon(true);
+		thread.setPriority(Thread.MIN_PRIORITY);
+		warmUpThread = thread;
+		thread.start();
+	}
+
+	/**
+	 * Processes the bundle given in parameter if it has not been processed
+	 * yet. If the bundle is being processed by another thread, this method
+	 * waits for the end of the processing.
+	 * 
+	 * @param bundle
+	 *            the bundle
+	 */
+	private void processPendingBundle(JoinableResourceBundle bundle) {
+
+		if (pendingBundles.isEmpty()) {
+			return;
+		}
+
+		FutureTask<Void> task = pendingBundles.get(bundle.getId());
+		if (task != null) {
+			task.run();
+			try {
+				task.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new InterruptBundlingProcessException();
+			} catch (ExecutionException e) {
+				if (e.getCause() instanceof RuntimeException) {
+					throw (RuntimeException) e.getCause();
+				}
+				throw new BundlingProcessException(
+						"Unexpected error while processing the bundle '" + bundle.getId() + "'", e.getCause());
+			}
+		}
+	}
+
+	/**
+	 * Processes the bundle of the path given in parameter if it has not been
+	 * processed yet.
+	 * 
+	 * @param bundlePath
+	 *            the requested bundle path
+	 */
+	private void processPendingBundle(String bundlePath) {
+
+		if (pendingBundles.isEmpty()) {
+			return;
+		}
+
+		String[] pathInfos = PathNormalizer.extractBundleInfoFromPath(bundlePath, bundlePrefixes);
+		if (pathInfos != null) {
+			JoinableResourceBundle bundle = resolveBundleForPath(pathInfos[1]);
+			if (bundle != null) {
+				processPendingBundle(bundle);
+			}
+		}
+	}
+
+	/**
+	 * Processes all the bundles which have not been processed yet
+	 */
+	private void processPendingBundles() {
+
+		for (JoinableResourceBundle bundle : bundles) {
+			processPendingBundle(bundle);
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * net.jawr.web.resource.bundle.handler.ResourceBundlesHandler#isBundlingReady
+	 * ()
+	 */
+	@Override
+	public boolean isBundlingReady() {
+		return pendingBundles.isEmpty();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see net.jawr.web.resource.bundle.handler.ResourceBundlesHandler#destroy()
+	 */
+	@Override
+	public void destroy() {
+
+		Thread thread = warmUpThread;
+		if (thread != null) {
+			thread.interrupt();
+			warmUpThread = null;
+		}
+		if (bundlePopularity != null) {
+			bundlePopularity.save();
+		}
+	}
+
+	/**
+	 * Joins the members of a bundle in all its variants and stores them
+	 * 
+	 * @param bundle
+	 *            the bundle
+	 */
+	private void joinAndStore(JoinableResourceBundle bundle) {
+
+		if (!ThreadLocalJawrContext.isBundleProcessingAtBuildTime() && null != bundle.getAlternateProductionURL()) {
+			if (LOGGER.isDebugEnabled()) {
+				LOGGER.debug("No bundle generated for '" + bundle.getId()
+						+ "' because a production URL is defined for this bundle.");
+			}
+		}
+		if (bundle instanceof CompositeResourceBundle) {
+			joinAndStoreCompositeResourcebundle((CompositeResourceBundle) bundle);
+		} else {
+			joinAndStoreBundle(bundle);
+		}
+	}
+
+	/**
+	 * Updates the bundle mapping for a bundle which has been built, and marks
+	 * it as not dirty
+	 * 
+	 * @param bundle
+	 *            the bundle
+	 */
+	private void updateBundleMapping(JoinableResourceBundle bundle) {
+
+		if (config.getUseBundleMapping()) {
+			Map<JoinableResourceBundle, Map<String, String>> hashcodes = stagedHashcodes;
+			Properties mapping = stagedBundleMapping;
+			if (hashcodes != null && mapping != null) {
+				JoinableResourceBundlePropertySerializer.serializeInProperties(bundle,
+						resourceBundleHandler.getResourceType(), mapping, hashcodes.get(bundle));
+			} else {
+				JoinableResourceBundlePropertySerializer.serializeInProperties(bundle,
+						resourceBundleHandler.getResourceType(), bundleMapping);
+			}
+		}
+
+		bundle.setDirty(false);
+	}
+
+	/**
+	 * Joins and stores the bundles in parallel. The standard bundles are
+	 * processed first, and the composite bundles are processed once all their
+	 * child bundles have been processed.
+	 * 
+	 * @param bundlesToBuild
+	 *            the bundles to build
+	 */
+	private void joinAndStoreBundlesInParallel(List<JoinableResourceBundle> bundlesToBuild) {
+
+		List<JoinableResourceBundle> standardBundles = new ArrayList<>();
+		List<JoinableResourceBundle> compositeBundles = new ArrayList<>();
+		for (JoinableResourceBundle bundle : bundlesToBuild) {
+			if (bundle instanceof CompositeResourceBundle) {
+				compositeBundles.add(bundle);
+			} else {
+				standardBundles.add(bundle);
+			}
+		}
+
+		if (LOGGER.isDebugEnabled()) {
+			LOGGER.debug("Processing " + bundlesToBuild.size() + " bundles using "
+					+ config.getBundleProcessingThreads() + " threads");
+		}
+
+		ForkJoinPool pool = new ForkJoinPool(config.getBundleProcessingThreads());
+		bundleProcessingPool = pool;
+		try {
+			joinAndStoreBundles(pool, standardBundles);
+			joinAndStoreBundles(pool, compositeBundles);
+		} finally {
+			bundleProcessingPool = null;
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Joins and stores the bundles using the pool, and waits for the end of
+	 * the processing
+	 * 
+	 * @param pool
+	 *            the pool
+	 * @param bundles
+	 *            the bundles to process
+	 */
+	private void joinAndStoreBundles(ForkJoinPool pool, List<JoinableResourceBundle> bundles) {
+
+		JawrContext groupContext = new JawrContext(ThreadLocalJawrContext.getContext());
+		List<BundleProcessingTask> tasks = new ArrayList<>();
+		for (final JoinableResourceBundle bundle : bundles) {
+			tasks.add(new BundleProcessingTask(groupContext) {
+
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected void process() {
+					stopProcessIfNeeded();
+					joinAndStore(bundle);
+				}
+			});
+		}
+		invokeAll(pool, groupContext, tasks);
+	}
+
+	/**
+	 * Executes the tasks and waits for the end of their processing. When a
+	 * task fails, the tasks which have not started are cancelled, the running
+	 * ones are interrupted through their group context, and the first failure
+	 * is rethrown.
+	 * 
+	 * @param pool
+	 *            the pool, used if the current thread is not a worker thread
+	 *            of the pool
+	 * @param groupContext
+	 *            the context from which the contexts of the tasks have been
+	 *            copied
+	 * @param tasks
+	 *            the tasks
+	 */
+	private void invokeAll(ForkJoinPool pool, JawrContext groupContext, List<BundleProcessingTask> tasks) {
+
+		boolean inPool = ForkJoinTask.getPool() == pool;
+		for (BundleProcessingTask task : tasks) {
+			if (inPool) {
+				task.fork();
+			} else {
+				pool.execute(task);
+			}
+		}
+
+		Throwable failure = null;
+		for (BundleProcessingTask task : tasks) {
+			try {
+				task.join();
+			} catch (RuntimeException | Error e) {
+				if (failure == null) {
+					failure = e;
+					groupContext.setInterruptProcessingBundle(true);
+					for (BundleProcessingTask otherTask : tasks) {
+						otherTask.cancel(false);
+					}
+				}
+			}
+		}
+
+		if (failure instanceof Error) {
+			throw (Error) failure;
+		} else if (failure != null) {
+			throw (RuntimeException) failure;
+		}
+	}
+
+	/**
+	 * Checks if the current thread processes the bundles in parallel
+	 * 
+	 * @return true if the current thread processes the bundles in parallel
+	 */
+	private boolean isProcessingInParallel() {
+		ForkJoinPool pool = bundleProcessingPool;
+		return pool != null && ForkJoinTask.getPool() == pool;
+	}
+
+	/**
+	 * Stop the bundling process if needed
+	 */
+	protected void stopProcessIfNeeded() {
+		if (ThreadLocalJawrContext.isInterruptingProcessingBundle()) {
+			throw new InterruptBundlingProcessException();
+		}
+	}
+
+	/**
+	 * Notify the start of the bundling process
+	 */
+	protected void notifyStartBundlingProcess() {
+
+		for (BundlingProcessLifeCycleListener listener : lifeCycleListeners) {
+			listener.beforeBundlingProcess();
+		}
+		processingBundle.set(true);
+		synchronized (processingBundle) {
+			processingBundle.notifyAll();
+		}
+	}
+
+	/**
 	 * Notify the start of the bundling process
 	 */
 	protected void notifyEndBundlingProcess() {
@@ -946,8 +1867,12 @@ public class ResourceBundlesHandlerImpl implements ResourceBundlesHandler {
 	 */
 	private void storeJawrBundleMapping(boolean mappingFileExists, boolean force) {
 		if (config.getUseBundleMapping() && (!mappingFileExists || force)) {
-			bundleMapping.setProperty(JawrConstant.JAWR_CONFIG_HASHCODE, getJawrConfigHashcode());
-			resourceBundleHandler.storeJawrBundleMapping(bundleMapping);
+			Properties mapping = stagedBundleMapping;
+			if (mapping == null) {
+				mapping = bundleMapping;
+			}
+			mapping.setProperty(JawrConstant.JAWR_CONFIG_HASHCODE, getJawrConfigHashcode());
+			resourceBundleHandler.storeJawrBundleMapping(mapping);
 
 			if (resourceBundleHandler.getResourceType().equals(JawrConstant.CSS_TYPE)) {
 				// Retrieve the image servlet mapping
@@ -994,10 +1919,12 @@ public class ResourceBundlesHandlerImpl implements ResourceBundlesHandler {
 			if (stopWatch != null) {
 				stopWatch.start("Global postprocessing");
 			}
+			long start = System.nanoTime();
 			GlobalPostProcessingContext ctx = new GlobalPostProcessingContext(config, this, resourceHandler,
 					processBundleFlag);
 
 			resourceTypePostprocessor.processBundles(ctx, this.bundles);
+			config.getMetrics().recordGlobalPostprocessing(System.nanoTime() - start);
 			if (stopWatch != null) {
 				stopWatch.stop();
 			}
@@ -1015,8 +1942,7 @@ public class ResourceBundlesHandlerImpl implements ResourceBundlesHandler {
 
 		stopProcessIfNeeded();
 
-		BundleProcessingStatus status = new BundleProcessingStatus(BundleProcessingStatus.FILE_PROCESSING_TYPE,
-				composite, resourceHandler, config);
+		BundleProcessingStatus status = createBundleProcessingStatus(composite);
 
 		// Collect all variant names from child bundles
 		Map<String, VariantSet> compositeBundleVariants = new HashMap<>();
@@ -1084,39 +2010,101 @@ public class ResourceBundlesHandlerImpl implements ResourceBundlesHandler {
 	 * @param compositeBundleVariants
 	 *            the variants
 	 */
-	private void joinAndPostProcessBundle(CompositeResourceBundle composite, BundleProcessingStatus status) {
-		JoinableResourceBundleContent store;
+	private void joinAndPostProcessBundle(final CompositeResourceBundle composite, BundleProcessingStatus status) {
 
 		stopProcessIfNeeded();
 
 		List<Map<String, String>> allVariants = VariantUtils.getAllVariants(composite.getVariants());
 		// Add the default bundle variant (the non variant one)
 		allVariants.add(null);
-		// Process all variants
-		for (Map<String, String> variants : allVariants) {
-			status.setBundleVariants(variants);
-			store = new JoinableResourceBundleContent();
-			for (JoinableResourceBundle childbundle : composite.getChildBundles()) {
-				if (!childbundle.getInclusionPattern().isIncludeOnlyOnDebug()) {
-					JoinableResourceBundleContent childContent = joinAndPostprocessBundle(childbundle, variants,
-							status);
-					// Do unitary postprocessing.
-					status.setProcessingType(BundleProcessingStatus.FILE_PROCESSING_TYPE);
-					StringBuffer content = executeUnitaryPostProcessing(composite, status, childContent.getContent(),
-							this.unitaryCompositePostProcessor);
-					childContent.setContent(content);
-					store.append(childContent);
-				}
+
+		if (!status.isSearchingPostProcessorVariants() && allVariants.size() > 1 && isProcessingInParallel()) {
+			JawrContext groupContext = new JawrContext(ThreadLocalJawrContext.getContext());
+			List<BundleProcessingTask> tasks = new ArrayList<>();
+			for (final Map<String, String> variants : allVariants) {
+				tasks.add(new BundleProcessingTask(groupContext) {
+
+					private static final long serialVersionUID = 1L;
+
+					@Override
+					protected void process() {
+						joinAndStoreCompositeVariant(composite, variants, createVariantProcessingStatus(composite));
+					}
+				});
 			}
+			invokeAll(ForkJoinTask.getPool(), groupContext, tasks);
+		} else {
+			// Process all variants
+			for (Map<String, String> variants : allVariants) {
+				joinAndStoreCompositeVariant(composite, variants, status);
+			}
+		}
+	}
 
-			// Post process composite bundle as needed
-			store = postProcessJoinedCompositeBundle(composite, store.getContent(), status);
+	/**
+	 * Joins, post process and stores a variant of the composite bundle
+	 * 
+	 * @param composite
+	 *            the composite bundle
+	 * @param variants
+	 *            the variant map
+	 * @param status
+	 *            the status
+	 */
+	private void joinAndStoreCompositeVariant(CompositeResourceBundle composite, Map<String, String> variants,
+			BundleProcessingStatus status) {
 
-			String variantKey = VariantUtils.getVariantKey(variants);
-			String name = VariantUtils.getVariantBundleName(composite.getId(), variantKey, false);
-			storeBundle(name, store);
-			initBundleDataHashcode(composite, store, variantKey);
+		status.setBundleVariants(variants);
+		JoinableResourceBundleContent store = new JoinableResourceBundleContent();
+		for (JoinableResourceBundle childbundle : composite.getChildBundles()) {
+			if (!childbundle.getInclusionPattern().isIncludeOnlyOnDebug()) {
+				JoinableResourceBundleContent childContent = joinAndPostprocessBundle(childbundle, variants, status);
+				// Do unitary postprocessing.
+				status.setProcessingType(BundleProcessingStatus.FILE_PROCESSING_TYPE);
+				StringBuffer content = executeUnitaryPostProcessing(composite, status, childContent.getContent(),
+						this.unitaryCompositePostProcessor);
+				childContent.setContent(content);
+				store.append(childContent);
+			}
 		}
+
+		// Post process composite bundle as needed
+		store = postProcessJoinedCompositeBundle(composite, store.getContent(), status);
+
+		String variantKey = VariantUtils.getVariantKey(variants);
+		String name = VariantUtils.getVariantBundleName(composite.getId(), variantKey, false);
+		storeBundle(name, store);
+		initBundleDataHashcode(composite, store, variantKey);
+	}
+
+	/**
+	 * Creates the status used to process a variant of a bundle in parallel
+	 * with the other variants
+	 * 
+	 * @param bundle
+	 *            the bundle
+	 * @return the bundle processing status
+	 */
+	private BundleProcessingStatus createVariantProcessingStatus(JoinableResourceBundle bundle) {
+
+		BundleProcessingStatus status = createBundleProcessingStatus(bundle);
+		status.setSearchingPostProcessorVariants(false);
+		return status;
+	}
+
+	/**
+	 * Creates the status used to process a bundle
+	 * 
+	 * @param bundle
+	 *            the bundle
+	 * @return the bundle processing status
+	 */
+	private BundleProcessingStatus createBundleProcessingStatus(JoinableResourceBundle bundle) {
+
+		BundleProcessingStatus status = new BundleProcessingStatus(BundleProcessingStatus.FILE_PROCESSING_TYPE,
+				bundle, resourceHandler, config);
+		status.setPostProcessingCache(postProcessingCache);
+		return status;
 	}
 
 	/**
@@ -1136,6 +2124,7 @@ public class ResourceBundlesHandlerImpl implements ResourceBundlesHandler {
 
 		JoinableResourceBundleContent store = new JoinableResourceBundleContent();
 		StringBuffer processedContent = null;
+		long start = System.nanoTime();
 		status.setProcessingType(BundleProcessingStatus.BUNDLE_PROCESSING_TYPE);
 		ResourceBundlePostProcessor bundlePostProcessor = composite.getBundlePostProcessor();
 		if (null != bundlePostProcessor) {
@@ -1147,6 +2136,7 @@ public class ResourceBundlesHandlerImpl implements ResourceBundlesHandler {
 		} else {
 			processedContent = content;
 		}
+		config.getMetrics().recordBundlePostprocessing(System.nanoTime() - start);
 
 		store.setContent(processedContent);
 
@@ -1165,8 +2155,29 @@ public class ResourceBundlesHandlerImpl implements ResourceBundlesHandler {
 	private void initBundleDataHashcode(JoinableResourceBundle bundle, JoinableResourceBundleContent store,
 			String variant) {
 
-		String bundleHashcode = bundleHashcodeGenerator.generateHashCode(config, store.getContent().toString());
-		bundle.setBundleDataHashCode(variant, bundleHashcode);
+		String bundleHashcode = null;
+		if (bundleHashcodeGenerator instanceof BundleContentHashcodeGenerator) {
+			// Hash the content without creating a string copy of it
+			bundleHashcode = ((BundleContentHashcodeGenerator) bundleHashcodeGenerator).generateHashCode(config,
+					store.getContent());
+		} else {
+			bundleHashcode = bundleHashcodeGenerator.generateHashCode(config, store.getContent().toString());
+		}
+
+		ConcurrentMap<JoinableResourceBundle, Map<String, String>> hashcodes = stagedHashcodes;
+		if (hashcodes != null) {
+			Map<String, String> bundleHashcodes = hashcodes.get(bundle);
+			if (bundleHashcodes == null) {
+				bundleHashcodes = new ConcurrentHashMap<>();
+				Map<String, String> existing = hashcodes.putIfAbsent(bundle, bundleHashcodes);
+				if (existing != null) {
+					bundleHashcodes = existing;
+				}
+			}
+			bundleHashcodes.put(variant == null ? "" : variant, bundleHashcode);
+		} else {
+			bundle.setBundleDataHashCode(variant, bundleHashcode);
+		}
 	}
 
 	/*
@@ -1191,6 +2202,13 @@ public class ResourceBundlesHandlerImpl implements ResourceBundlesHandler {
 
 			JoinableResourceBundle bundle = resolveBundleForPath(bundleId);
 			if (bundle != null) {
+				if (bundlePopularity != null) {
+					bundlePopularity.recordRequest(bundle.getId());
+				}
+				if (config.getMetrics().isEnabled()) {
+					ThreadLocalJawrContext.setRequestedBundleId(bundle.getId());
+				}
+				processPendingBundle(bundle);
 				String bundleHashcode = bundle.getBundleDataHashCode(variantKey);
 				if (hashcode == null && bundleHashcode == null || hashcode != null && hashcode.equals(bundleHashcode)
 						&& ((bundlePrefix == null && bundle.getBundlePrefix() == null)
@@ -1204,6 +2222,37 @@ public class ResourceBundlesHandlerImpl implements ResourceBundlesHandler {
 		return typeBundleHashcode;
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see net.jawr.web.resource.bundle.handler.ResourceBundlesHandler#
+	 * getBundleDataHashCode(java.lang.String)
+	 */
+	@Override
+	public String getBundleDataHashCode(String requestedPath) {
+
+		String[] pathInfos = PathNormalizer.extractBundleInfoFromPath(requestedPath, bundlePrefixes);
+		if (pathInfos != null) {
+			JoinableResourceBundle bundle = resolveBundleForPath(pathInfos[1]);
+			if (bundle != null) {
+				processPendingBundle(bundle);
+				return bundle.getBundleDataHashCode(pathInfos[2]);
+			}
+		}
+		return null;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * net.jawr.web.resource.bundle.handler.ResourceBundlesHandler#getLastBuildTime()
+	 */
+	@Override
+	public long getLastBuildTime() {
+		return lastBuildTime;
+	}
+
 	/**
 	 * Joins the members of a bundle and stores it
 	 * 
@@ -1214,12 +2263,19 @@ public class ResourceBundlesHandlerImpl implements ResourceBundlesHandler {
 	 */
 	private void joinAndStoreBundle(JoinableResourceBundle bundle) {
 
-		BundleProcessingStatus status = new BundleProcessingStatus(BundleProcessingStatus.FILE_PROCESSING_TYPE, bundle,
-				resourceHandler, config);
+		BundleProcessingStatus status = createBundleProcessingStatus(bundle);
 		JoinableResourceBundleContent store = null;
 
-		// Process the bundle for searching variant
-		if (needToSearchForVariantInPostProcess || hasVariantPostProcessor(bundle)) {
+		Set<String> dirtyVariantKeys = bundle.getDirtyVariantKeys();
+		if (dirtyVariantKeys != null) {
+			// Only the variants affected by the modification are rebuilt.
+			// The variants of the bundle are already known.
+			if (LOGGER.isDebugEnabled()) {
+				LOGGER.debug("Rebuilding the variants " + dirtyVariantKeys + " of the bundle " + bundle.getId());
+			}
+			status.setSearchingPostProcessorVariants(false);
+			joinAndPostProcessBundle(bundle, status, dirtyVariantKeys);
+		} else if (needToSearchForVariantInPostProcess || hasVariantPostProcessor(bundle)) {
 			status.setSearchingPostProcessorVariants(true);
 			joinAndPostProcessBundle(bundle, status);
 
@@ -1264,7 +2320,7 @@ public class ResourceBundlesHandlerImpl implements ResourceBundlesHandler {
 
 		stopProcessIfNeeded();
 
-		if (bundleMustBeProcessedInLive(store.getContent().toString())) {
+		if (bundleMustBeProcessedInLive(store.getContent())) {
 			liveProcessBundles.add(bundleId);
 		}
 		resourceBundleHandler.storeBundle(bundleId, store);
@@ -1277,8 +2333,8 @@ public class ResourceBundlesHandlerImpl implements ResourceBundlesHandler {
 	 *            bundle content
 	 * @return true if the bundle must be processed in live
 	 */
-	private boolean bundleMustBeProcessedInLive(String content) {
-		return content.contains(JawrConstant.JAWR_BUNDLE_PATH_PLACEHOLDER);
+	private boolean bundleMustBeProcessedInLive(StringBuffer content) {
+		return content.indexOf(JawrConstant.JAWR_BUNDLE_PATH_PLACEHOLDER) != -1;
 	}
 
 	/**
@@ -1289,23 +2345,79 @@ public class ResourceBundlesHandlerImpl implements ResourceBundlesHandler {
 	 * @param status
 	 *            the bundle processing status
 	 */
-	private void joinAndPostProcessBundle(JoinableResourceBundle bundle, BundleProcessingStatus status) {
+	private void joinAndPostProcessBundle(final JoinableResourceBundle bundle, BundleProcessingStatus status) {
+		joinAndPostProcessBundle(bundle, status, null);
+	}
+
+	/**
+	 * Join and post process the bundle taking in account the variants given
+	 * in parameter.
+	 * 
+	 * @param bundle
+	 *            the bundle
+	 * @param status
+	 *            the bundle processing status
+	 * @param variantKeys
+	 *            the keys of the variants to process, or null to process all
+	 *            the variants. The default variant is always processed.
+	 */
+	private void joinAndPostProcessBundle(final JoinableResourceBundle bundle, BundleProcessingStatus status,
+			Set<String> variantKeys) {
 
-		JoinableResourceBundleContent store;
 		List<Map<String, String>> allVariants = VariantUtils.getAllVariants(bundle.getVariants());
+		if (variantKeys != null) {
+			for (Iterator<Map<String, String>> it = allVariants.iterator(); it.hasNext();) {
+				if (!variantKeys.contains(VariantUtils.getVariantKey(it.next()))) {
+					it.remove();
+				}
+			}
+		}
 		// Add the default bundle variant (the non variant one)
 		allVariants.add(null);
 
-		for (Map<String, String> variantMap : allVariants) {
-			status.setBundleVariants(variantMap);
-			String variantKey = VariantUtils.getVariantKey(variantMap);
-			String name = VariantUtils.getVariantBundleName(bundle.getId(), variantKey, false);
-			store = joinAndPostprocessBundle(bundle, variantMap, status);
-			storeBundle(name, store);
-			initBundleDataHashcode(bundle, store, variantKey);
+		if (!status.isSearchingPostProcessorVariants() && allVariants.size() > 1 && isProcessingInParallel()) {
+			JawrContext groupContext = new JawrContext(ThreadLocalJawrContext.getContext());
+			List<BundleProcessingTask> tasks = new ArrayList<>();
+			for (final Map<String, String> variantMap : allVariants) {
+				tasks.add(new BundleProcessingTask(groupContext) {
+
+					private static final long serialVersionUID = 1L;
+
+					@Override
+					protected void process() {
+						joinAndStoreVariant(bundle, variantMap, createVariantProcessingStatus(bundle));
+					}
+				});
+			}
+			invokeAll(ForkJoinTask.getPool(), groupContext, tasks);
+		} else {
+			for (Map<String, String> variantMap : allVariants) {
+				joinAndStoreVariant(bundle, variantMap, status);
+			}
 		}
 	}
 
+	/**
+	 * Joins, post process and stores a variant of the bundle
+	 * 
+	 * @param bundle
+	 *            the bundle
+	 * @param variantMap
+	 *            the variant map
+	 * @param status
+	 *            the bundle processing status
+	 */
+	private void joinAndStoreVariant(JoinableResourceBundle bundle, Map<String, String> variantMap,
+			BundleProcessingStatus status) {
+
+		status.setBundleVariants(variantMap);
+		String variantKey = VariantUtils.getVariantKey(variantMap);
+		String name = VariantUtils.getVariantBundleName(bundle.getId(), variantKey, false);
+		JoinableResourceBundleContent store = joinAndPostprocessBundle(bundle, variantMap, status);
+		storeBundle(name, store);
+		initBundleDataHashcode(bundle, store, variantKey);
+	}
+
 	/**
 	 * Reads all the members of a bundle and executes all associated
 	 * postprocessors.
@@ -1331,6 +2443,7 @@ public class ResourceBundlesHandlerImpl implements ResourceBundlesHandler {
 
 		try {
 
+			long start = System.nanoTime();
 			boolean firstPath = true;
 			// Run through all the files belonging to the bundle
 			Iterator<BundlePath> pathIterator = null;
@@ -1342,10 +2455,6 @@ public class ResourceBundlesHandlerImpl implements ResourceBundlesHandler {
 
 			for (Iterator<BundlePath> it = pathIterator; it.hasNext();) {
 
-				// File is first created in memory using a stringwriter.
-				StringWriter writer = new StringWriter();
-				BufferedWriter bwriter = new BufferedWriter(writer);
-
 				String path = (String) it.next().getPath();
 				if (LOGGER.isDebugEnabled())
 					LOGGER.debug("Adding file [" + path + "] to bundle " + bundle.getId());
@@ -1372,12 +2481,18 @@ public class ResourceBundlesHandlerImpl implements ResourceBundlesHandler {
 					firstPath = false;
 				}
 
-				IOUtils.copy(rd, bwriter, true);
+				// The file content is read directly in the buffer passed to
+				// the unitary postprocessors
+				StringBuffer buffer = new StringBuffer();
+				try {
+					IOUtils.copy(rd, buffer);
+				} finally {
+					IOUtils.close(rd);
+				}
 
 				// Add new line at the end if it doesn't exist
-				StringBuffer buffer = writer.getBuffer();
-
-				if (!buffer.toString().endsWith(StringUtils.STR_LINE_FEED)) {
+				int length = buffer.length();
+				if (length == 0 || buffer.charAt(length - 1) != '\n') {
 					buffer.append(StringUtils.STR_LINE_FEED);
 				}
 
@@ -1386,8 +2501,12 @@ public class ResourceBundlesHandlerImpl implements ResourceBundlesHandler {
 				bundleData.append(executeUnitaryPostProcessing(bundle, status, buffer, this.unitaryPostProcessor));
 			}
 
+			long joinEnd = System.nanoTime();
+			config.getMetrics().recordBundleJoin(joinEnd - start);
+
 			// Post process bundle as needed
 			store = executeBundlePostProcessing(bundle, status, bundleData);
+			config.getMetrics().recordBundlePostprocessing(System.nanoTime() - joinEnd);
 
 		} catch (IOException e) {
 			throw new BundlingProcessException(
@@ -1412,16 +2531,14 @@ public class ResourceBundlesHandlerImpl implements ResourceBundlesHandler {
 	private StringBuffer executeUnitaryPostProcessing(JoinableResourceBundle bundle, BundleProcessingStatus status,
 			StringBuffer content, ResourceBundlePostProcessor defaultPostProcessor) {
 
-		StringBuffer bundleData = new StringBuffer();
+		StringBuffer bundleData = null;
 		status.setProcessingType(BundleProcessingStatus.FILE_PROCESSING_TYPE);
 		if (null != bundle.getUnitaryPostProcessor()) {
-			StringBuffer resourceData = bundle.getUnitaryPostProcessor().postProcessBundle(status, content);
-			bundleData.append(resourceData);
+			bundleData = bundle.getUnitaryPostProcessor().postProcessBundle(status, content);
 		} else if (null != defaultPostProcessor) {
 			if (LOGGER.isDebugEnabled())
 				LOGGER.debug("POSTPROCESSING UNIT:" + status.getLastPathAdded());
-			StringBuffer resourceData = defaultPostProcessor.postProcessBundle(status, content);
-			bundleData.append(resourceData);
+			bundleData = defaultPostProcessor.postProcessBundle(status, content);
 		} else {
 			bundleData = content;
 		}
@@ -1464,15 +2581,7 @@ public class ResourceBundlesHandlerImpl implements ResourceBundlesHandler {
 	@Override
 	public JoinableResourceBundle resolveBundleForPath(String path) {
 
-		JoinableResourceBundle theBundle = null;
-		for (Iterator<JoinableResourceBundle> it = bundles.iterator(); it.hasNext();) {
-			JoinableResourceBundle bundle = it.next();
-			if (bundle.getId().equals(path) || bundle.belongsToBundle(path)) {
-				theBundle = bundle;
-				break;
-			}
-		}
-		return theBundle;
+		return bundlePathIndex.getBundle(path);
 	}
 
 	/*
@@ -1516,11 +2625,26 @@ public class ResourceBundlesHandlerImpl implements ResourceBundlesHandler {
 	 */
 	@Override
 	public void notifyModification(List<JoinableResourceBundle> bundles) {
+		notifyModification(bundles, null);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see net.jawr.web.resource.bundle.handler.ResourceBundlesHandler#
+	 * notifyModification(java.util.List, java.lang.String)
+	 */
+	@Override
+	public void notifyModification(List<JoinableResourceBundle> bundles, String filePath) {
 		for (JoinableResourceBundle bundle : bundles) {
 			if (LOGGER.isInfoEnabled() && !bundle.isDirty()) {
 				LOGGER.info("The bundle '" + bundle.getId() + "' has been modified and needs to be rebuild.");
 			}
-			bundle.setDirty(true);
+			if (filePath != null) {
+				bundle.notifyFileModification(filePath);
+			} else {
+				bundle.setDirty(true);
+			}
 
 			// Update the composite bundles which are linked to this bundle if
 			// they exists
@@ -1535,6 +2659,8 @@ public class ResourceBundlesHandlerImpl implements ResourceBundlesHandler {
 				}
 			}
 		}
+
+		rebuildBundlePathIndex();
 	}
 
 	/*
@@ -1586,6 +2712,76 @@ public class ResourceBundlesHandlerImpl implements ResourceBundlesHandler {
 	public void setBundlingProcessLifeCycleListeners(List<BundlingProcessLifeCycleListener> listeners) {
 		this.lifeCycleListeners.clear();
 		this.lifeCycleListeners.addAll(listeners);
+		this.lifeCycleListeners.add(renderedLinksCache);
 	}
 
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see net.jawr.web.resource.bundle.handler.ResourceBundlesHandler#
+	 * addBundlingProcessLifeCycleListener(net.jawr.web.resource.bundle.
+	 * lifecycle.BundlingProcessLifeCycleListener)
+	 */
+	@Override
+	public void addBundlingProcessLifeCycleListener(BundlingProcessLifeCycleListener listener) {
+		this.lifeCycleListeners.add(listener);
+	}
+
+
+	/**
+	 * The task used to process the bundles in parallel. Each task runs with
+	 * its own copy of the Jawr context of its group, so the tasks don't share
+	 * their state, and they are interrupted when the group is interrupted.
+	 */
+	private abstract static class BundleProcessingTask extends RecursiveAction {
+
+		/** The serial version UID */
+		private static final long serialVersionUID = 4096427612939375165L;
+
+		/** The Jawr context of the task */
+		private final transient JawrContext context;
+
+		/**
+		 * Constructor
+		 * 
+		 * @param groupContext
+		 *            the context of the group of tasks
+		 */
+		protected BundleProcessingTask(JawrContext groupContext) {
+			this.context = new JawrContext(groupContext);
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see java.util.concurrent.RecursiveAction#compute()
+		 */
+		@Override
+		protected void compute() {
+
+			JawrContext currentContext = ThreadLocalJawrContext.getContext();
+			ThreadLocalJawrContext.setContext(context);
+			try {
+				process();
+			} finally {
+				ThreadLocalJawrContext.setContext(currentContext);
+			}
+		}
+
+		/**
+		 * Process the task
+		 */
+		protected abstract void process();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see net.jawr.web.resource.bundle.handler.ResourceBundlesHandler#
+	 * getRenderedLinksCache()
+	 */
+	@Override
+	public RenderedLinksCache getRenderedLinksCache() {
+		return renderedLinksCache;
+	}
 }
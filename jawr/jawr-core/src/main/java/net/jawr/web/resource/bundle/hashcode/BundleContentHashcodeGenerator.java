@@ -0,0 +1,39 @@
+/**
+ * Copyright 2017 Ibrahim Chaehoi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package net.jawr.web.resource.bundle.hashcode;
+
+import net.jawr.web.config.JawrConfig;
+
+/**
+ * This interface is implemented by the bundle hashcode generators which are
+ * able to hash the bundle content directly, without converting it to a
+ * string first. The generated hashcode must be the same as the one returned
+ * by {@link #generateHashCode(JawrConfig, String)} for the same content.
+ *
+ * @author Ibrahim Chaehoi
+ */
+public interface BundleContentHashcodeGenerator extends BundleHashcodeGenerator {
+
+	/**
+	 * Returns the hashcode for the content given in parameter
+	 *
+	 * @param config
+	 *            the Jawr config
+	 * @param content
+	 *            the content to hash
+	 * @return the hashcode for the content given in parameter
+	 */
+	String generateHashCode(JawrConfig config, CharSequence content);
+
+}
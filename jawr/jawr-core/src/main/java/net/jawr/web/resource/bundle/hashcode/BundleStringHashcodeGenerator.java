@@ -23,7 +23,7 @@ import net.jawr.web.config.JawrConfig;
  * @author Ibrahim Chaehoi
  *
  */
-public class BundleStringHashcodeGenerator implements BundleHashcodeGenerator, Serializable {
+public class BundleStringHashcodeGenerator implements BundleContentHashcodeGenerator, Serializable {
 
 	/** The serial version UID */
 	private static final long serialVersionUID = -6293097053045176614L;
@@ -36,9 +36,36 @@ public class BundleStringHashcodeGenerator implements BundleHashcodeGenerator, S
 	 */
 	@Override
 	public String generateHashCode(JawrConfig config, String content) {
+		return toHashCode(content.hashCode());
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see net.jawr.web.resource.bundle.hashcode.BundleContentHashcodeGenerator#
+	 * generateHashCode(net.jawr.web.config.JawrConfig, java.lang.CharSequence)
+	 */
+	@Override
+	public String generateHashCode(JawrConfig config, CharSequence content) {
+
+		// Same algorithm as String.hashCode()
+		int hashCode = 0;
+		for (int i = 0, length = content.length(); i < length; i++) {
+			hashCode = 31 * hashCode + content.charAt(i);
+		}
+		return toHashCode(hashCode);
+	}
+
+	/**
+	 * Returns the hashcode to use in the bundle URL
+	 * 
+	 * @param bundleDataHashCode
+	 *            the hashcode of the bundle content
+	 * @return the hashcode to use in the bundle URL
+	 */
+	private String toHashCode(int bundleDataHashCode) {
 
 		String generatedHashCode = null;
-		int bundleDataHashCode = content.hashCode();
 		// Since this number is used as part of urls, the -sign is converted to
 		// 'N'
 		if (bundleDataHashCode < 0) {
@@ -26,7 +26,7 @@ import net.jawr.web.resource.bundle.CheckSumUtils;
  * 
  * @author Ibrahim Chaehoi
  */
-public class MD5BundleHashcodeGenerator implements BundleHashcodeGenerator, Serializable {
+public class MD5BundleHashcodeGenerator implements BundleContentHashcodeGenerator, Serializable {
 
 	/** The serial version UID */
 	private static final long serialVersionUID = -5332600063100369915L;
@@ -40,6 +40,18 @@ public class MD5BundleHashcodeGenerator implements BundleHashcodeGenerator, Seri
 	@Override
 	public String generateHashCode(JawrConfig config, String content) {
 
+		return generateHashCode(config, (CharSequence) content);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see net.jawr.web.resource.bundle.hashcode.BundleContentHashcodeGenerator#
+	 * generateHashCode(net.jawr.web.config.JawrConfig, java.lang.CharSequence)
+	 */
+	@Override
+	public String generateHashCode(JawrConfig config, CharSequence content) {
+
 		try {
 			return CheckSumUtils.getMD5Checksum(content, config.getResourceCharset());
 		} catch (IOException e) {
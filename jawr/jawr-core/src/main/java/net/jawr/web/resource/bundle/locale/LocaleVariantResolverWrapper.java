@@ -16,7 +16,7 @@ package net.jawr.web.resource.bundle.locale;
 import javax.servlet.http.HttpServletRequest;
 
 import net.jawr.web.JawrConstant;
-import net.jawr.web.resource.bundle.variant.VariantResolver;
+import net.jawr.web.resource.bundle.variant.CacheableVariantResolver;
 import net.jawr.web.resource.bundle.variant.VariantSet;
 
 /**
@@ -25,7 +25,7 @@ import net.jawr.web.resource.bundle.variant.VariantSet;
  * @author Ibrahim Chaehoi
  *
  */
-public class LocaleVariantResolverWrapper implements VariantResolver, LocaleResolver {
+public class LocaleVariantResolverWrapper implements CacheableVariantResolver, LocaleResolver {
 
 	/** The locale resolver */
 	private final LocaleResolver localeResolver;
@@ -64,6 +64,25 @@ public class LocaleVariantResolverWrapper implements VariantResolver, LocaleReso
 		return localeResolver.resolveLocaleCode(request);
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see net.jawr.web.resource.bundle.variant.CacheableVariantResolver#
+	 * getRequestFingerprint(javax.servlet.http.HttpServletRequest)
+	 */
+	@Override
+	public String getRequestFingerprint(HttpServletRequest request) {
+
+		// Only the default locale resolver is known to depend on the request
+		// locale only
+		String fingerprint = null;
+		if (localeResolver.getClass() == DefaultLocaleResolver.class) {
+			String localeCode = localeResolver.resolveLocaleCode(request);
+			fingerprint = localeCode == null ? "" : "=" + localeCode;
+		}
+		return fingerprint;
+	}
+
 	/**
 	 * @param request
 	 * @return
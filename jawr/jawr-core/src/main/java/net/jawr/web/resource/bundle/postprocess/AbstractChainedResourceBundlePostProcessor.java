@@ -16,6 +16,7 @@ package net.jawr.web.resource.bundle.postprocess;
 import java.io.IOException;
 
 import net.jawr.web.exception.BundlingProcessException;
+import net.jawr.web.resource.bundle.variant.VariantUtils;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -41,6 +42,13 @@ public abstract class AbstractChainedResourceBundlePostProcessor implements Chai
 	 */
 	protected boolean isVariantPostProcessor = false;
 
+	/**
+	 * The flag indicating if the result of the post processor only depends on
+	 * the content to process and on the configuration. In this case the
+	 * results of the post processing of the bundle members are cached.
+	 */
+	protected boolean cacheable = false;
+
 	/** The ID of the chained bundle post processor */
 	private final String id;
 
@@ -93,7 +101,7 @@ public abstract class AbstractChainedResourceBundlePostProcessor implements Chai
 		try {
 			if (LOGGER.isDebugEnabled())
 				LOGGER.debug("postprocessing bundle:" + status.getCurrentBundle().getId());
-			processedBundle = doPostProcessBundle(status, bundleData);
+			processedBundle = executePostProcessing(status, bundleData);
 		} catch (IOException e) {
 			throw new BundlingProcessException("Unexpected IOException during execution of a postprocessor.", e);
 		}
@@ -103,6 +111,53 @@ public abstract class AbstractChainedResourceBundlePostProcessor implements Chai
 		return processedBundle;
 	}
 
+	/**
+	 * Executes the post processing of this post processor. If the post
+	 * processor is cacheable, the result of the post processing of a bundle
+	 * member is retrieved from the post processing cache when it has already
+	 * been computed for the same content.
+	 * 
+	 * @param status
+	 *            the bundle processing status
+	 * @param bundleData
+	 *            the bundle data
+	 * @return the processed content
+	 * @throws IOException
+	 *             if an IOException occurs
+	 */
+	protected StringBuffer executePostProcessing(BundleProcessingStatus status, StringBuffer bundleData)
+			throws IOException {
+
+		PostProcessingCache cache = status.getPostProcessingCache();
+		if (!cacheable || cache == null
+				|| !BundleProcessingStatus.FILE_PROCESSING_TYPE.equals(status.getProcessingType())) {
+			return doPostProcessBundle(status, bundleData);
+		}
+
+		String cacheKey = cache.getCacheKey(id, bundleData);
+		StringBuffer processedBundle = cache.get(cacheKey);
+		if (processedBundle == null) {
+			processedBundle = doPostProcessBundle(status, bundleData);
+			cache.put(cacheKey, getCachedResourceId(status), processedBundle);
+		} else if (LOGGER.isDebugEnabled()) {
+			LOGGER.debug(id + " result of '" + status.getLastPathAdded() + "' retrieved from cache");
+		}
+		return processedBundle;
+	}
+
+	/**
+	 * Returns the ID of the bundle member processed, which identifies it in
+	 * its bundle variant
+	 * 
+	 * @param status
+	 *            the bundle processing status
+	 * @return the ID of the bundle member processed
+	 */
+	private String getCachedResourceId(BundleProcessingStatus status) {
+		return id + ":" + status.getCurrentBundle().getId() + ":"
+				+ VariantUtils.getVariantKey(status.getBundleVariants()) + ":" + status.getLastPathAdded();
+	}
+
 	/**
 	 * Set the next post processor in the chain.
 	 * 
@@ -68,6 +68,9 @@ public class BundleProcessingStatus {
 	/** The processing type (bundle, file) */
 	private String processingType;
 
+	/** The cache of the post processing results */
+	private PostProcessingCache postProcessingCache;
+
 	/**
 	 * Constructor
 	 * 
@@ -105,6 +108,7 @@ public class BundleProcessingStatus {
 		this.bundleVariants = status.bundleVariants;
 		this.lastPathAdded = status.lastPathAdded;
 		this.searchingPostProcessorVariants = status.searchingPostProcessorVariants;
+		this.postProcessingCache = status.postProcessingCache;
 	}
 
 	/**
@@ -287,4 +291,24 @@ public class BundleProcessingStatus {
 		return dataMap.get(key);
 	}
 
+	/**
+	 * Returns the cache of the post processing results
+	 * 
+	 * @return the cache of the post processing results, or null if the
+	 *         results are not cached
+	 */
+	public PostProcessingCache getPostProcessingCache() {
+		return postProcessingCache;
+	}
+
+	/**
+	 * Sets the cache of the post processing results
+	 * 
+	 * @param postProcessingCache
+	 *            the cache to set
+	 */
+	public void setPostProcessingCache(PostProcessingCache postProcessingCache) {
+		this.postProcessingCache = postProcessingCache;
+	}
+
 }
@@ -0,0 +1,269 @@
+/**
+ * Copyright 2017 Ibrahim Chaehoi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package net.jawr.web.resource.bundle.postprocess;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.jawr.web.JawrConstant;
+import net.jawr.web.config.JawrConfig;
+import net.jawr.web.exception.BundlingProcessException;
+import net.jawr.web.resource.bundle.CheckSumUtils;
+import net.jawr.web.resource.bundle.IOUtils;
+import net.jawr.web.util.StringUtils;
+
+/**
+ * This class stores the results of the post processors applied to the bundle
+ * members. The results are addressed by the content they have been computed
+ * from and by the ID of the post processor, so a member which has not changed
+ * is not processed again when the bundle is rebuilt, or when it is shared by
+ * several bundles.
+ *
+ * Only the last result computed for a member of a bundle variant is kept. If
+ * a cache directory is defined, the results are also stored in it, to be
+ * reused after a restart.
+ *
+ * @author Ibrahim Chaehoi
+ */
+public class PostProcessingCache {
+
+	/** The logger */
+	private static final Logger LOGGER = LoggerFactory.getLogger(PostProcessingCache.class);
+
+	/** The name of the file containing the properties of the cache */
+	private static final String CACHE_PROPERTIES_FILE_NAME = "postProcessingCache.properties";
+
+	/** The prefix of the properties storing the cache key of a member */
+	private static final String RESOURCE_KEY_PREFIX = "resource.";
+
+	/** The extension of the files storing the results */
+	private static final String CACHE_FILE_EXTENSION = ".txt";
+
+	/** The results mapped by their cache key */
+	private final Map<String, String> results = new ConcurrentHashMap<>();
+
+	/** The key of the last result stored for each member */
+	private final Map<String, String> resourceKeys = new ConcurrentHashMap<>();
+
+	/** The charset of the contents */
+	private final Charset charset;
+
+	/** The directory where the results are stored, or null */
+	private final File cacheDirectory;
+
+	/** The hashcode of the Jawr config used to compute the results */
+	private final String configHashcode;
+
+	/**
+	 * Constructor
+	 *
+	 * @param charset
+	 *            the charset of the contents
+	 * @param cacheDirectory
+	 *            the directory where the results are stored, or null if they
+	 *            are only kept in memory
+	 * @param configHashcode
+	 *            the hashcode of the Jawr config. The results stored in the
+	 *            cache directory are discarded if they have been computed with
+	 *            another config.
+	 */
+	public PostProcessingCache(Charset charset, File cacheDirectory, String configHashcode) {
+		this.charset = charset;
+		this.cacheDirectory = cacheDirectory;
+		this.configHashcode = configHashcode;
+		if (cacheDirectory != null) {
+			loadCacheProperties();
+		}
+	}
+
+	/**
+	 * Returns the cache key of the result of a post processor applied to a
+	 * content
+	 *
+	 * @param processorId
+	 *            the ID of the post processor
+	 * @param content
+	 *            the content to process
+	 * @return the cache key
+	 */
+	public String getCacheKey(String processorId, CharSequence content) {
+		try {
+			return CheckSumUtils.getMD5Checksum(processorId) + "_" + CheckSumUtils.getMD5Checksum(content, charset);
+		} catch (IOException e) {
+			throw new BundlingProcessException("Unable to calculate the checksum of the content to post process", e);
+		}
+	}
+
+	/**
+	 * Returns the result stored for the cache key given in parameter
+	 *
+	 * @param cacheKey
+	 *            the cache key
+	 * @return the result, or null if it is not in cache
+	 */
+	public StringBuffer get(String cacheKey) {
+
+		String result = results.get(cacheKey);
+		if (result == null && cacheDirectory != null) {
+			File file = getCacheFile(cacheKey);
+			if (file.exists()) {
+				try (Reader rd = new InputStreamReader(new FileInputStream(file), charset)) {
+					result = IOUtils.toString(rd);
+					results.put(cacheKey, result);
+				} catch (IOException e) {
+					LOGGER.warn("Unable to read the post processing result from " + file, e);
+				}
+			}
+		}
+
+		return result == null ? null : new StringBuffer(result);
+	}
+
+	/**
+	 * Stores a result in the cache
+	 *
+	 * @param cacheKey
+	 *            the cache key
+	 * @param resourceId
+	 *            the ID of the processed member, which identifies the member
+	 *            in its bundle variant. The result previously stored for this
+	 *            member is removed from the cache.
+	 * @param result
+	 *            the result to store
+	 */
+	public void put(String cacheKey, String resourceId, StringBuffer result) {
+
+		String content = result.toString();
+		results.put(cacheKey, content);
+		if (cacheDirectory != null) {
+			File file = getCacheFile(cacheKey);
+			try (OutputStream os = new FileOutputStream(file)) {
+				IOUtils.write(content, charset, os);
+			} catch (IOException e) {
+				LOGGER.warn("Unable to store the post processing result in " + file, e);
+			}
+		}
+
+		String previousKey = resourceKeys.put(resourceId, cacheKey);
+		if (previousKey != null && !previousKey.equals(cacheKey)) {
+			results.remove(previousKey);
+			if (cacheDirectory != null) {
+				getCacheFile(previousKey).delete();
+			}
+		}
+	}
+
+	/**
+	 * Stores the properties of the cache in the cache directory, so they can
+	 * be reused after a restart.
+	 */
+	public synchronized void save() {
+
+		if (cacheDirectory == null) {
+			return;
+		}
+
+		Properties props = new Properties();
+		props.put(JawrConstant.JAWR_CONFIG_HASHCODE, configHashcode);
+		props.put(JawrConfig.JAWR_CHARSET_NAME, charset.name());
+		for (Map.Entry<String, String> entry : resourceKeys.entrySet()) {
+			props.put(RESOURCE_KEY_PREFIX + entry.getKey(), entry.getValue());
+		}
+
+		File file = new File(cacheDirectory, CACHE_PROPERTIES_FILE_NAME);
+		try (OutputStream os = new FileOutputStream(file)) {
+			props.store(os, "Post processing cache properties");
+		} catch (IOException e) {
+			LOGGER.warn("Unable to store the post processing cache properties in " + file, e);
+		}
+	}
+
+	/**
+	 * Clears the cache
+	 */
+	public void clear() {
+
+		results.clear();
+		resourceKeys.clear();
+		if (cacheDirectory != null) {
+			File[] files = cacheDirectory.listFiles();
+			if (files != null) {
+				for (File file : files) {
+					file.delete();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Loads the properties of the cache stored in the cache directory. The
+	 * stored results are discarded if they have been computed with another
+	 * config.
+	 */
+	private void loadCacheProperties() {
+
+		if (!cacheDirectory.exists() && !cacheDirectory.mkdirs()) {
+			throw new BundlingProcessException(
+					"Unable to create the post processing cache directory " + cacheDirectory);
+		}
+
+		Properties props = new Properties();
+		File file = new File(cacheDirectory, CACHE_PROPERTIES_FILE_NAME);
+		if (file.exists()) {
+			try (InputStream is = new FileInputStream(file)) {
+				props.load(is);
+			} catch (IOException e) {
+				LOGGER.warn("Unable to read the post processing cache properties from " + file, e);
+			}
+		}
+
+		if (StringUtils.equals(props.getProperty(JawrConstant.JAWR_CONFIG_HASHCODE), configHashcode)
+				&& StringUtils.equals(props.getProperty(JawrConfig.JAWR_CHARSET_NAME), charset.name())) {
+			for (String propName : props.stringPropertyNames()) {
+				if (propName.startsWith(RESOURCE_KEY_PREFIX)) {
+					resourceKeys.put(propName.substring(RESOURCE_KEY_PREFIX.length()), props.getProperty(propName));
+				}
+			}
+		} else {
+			if (LOGGER.isDebugEnabled()) {
+				LOGGER.debug("The post processing cache is invalid. Reset cache...");
+			}
+			clear();
+		}
+	}
+
+	/**
+	 * Returns the file storing the result of the cache key given in parameter
+	 *
+	 * @param cacheKey
+	 *            the cache key
+	 * @return the file storing the result
+	 */
+	private File getCacheFile(String cacheKey) {
+		return new File(cacheDirectory, cacheKey + CACHE_FILE_EXTENSION);
+	}
+}
@@ -55,7 +55,7 @@ public abstract class AbstractJsChainedResourceBundlePostProcessor extends Abstr
 		try {
 			if (LOGGER.isDebugEnabled())
 				LOGGER.debug("postprocessing bundle:" + status.getCurrentBundle().getId());
-			processedBundle = doPostProcessBundle(status, bundleData);
+			processedBundle = executePostProcessing(status, bundleData);
 			if (processedBundle.toString().trim().endsWith(")")) {
 				processedBundle.append(";");
 			}
@@ -17,6 +17,10 @@ package net.jawr.web.resource.bundle.postprocess.impl;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import javax.script.ScriptException;
 
@@ -26,12 +30,15 @@ import org.slf4j.LoggerFactory;
 import net.jawr.web.JawrConstant;
 import net.jawr.web.config.JawrConfig;
 import net.jawr.web.exception.BundlingProcessException;
+import net.jawr.web.resource.bundle.IOUtils;
 import net.jawr.web.resource.bundle.factory.util.ClassLoaderResourceUtils;
 import net.jawr.web.resource.bundle.postprocess.AbstractChainedResourceBundlePostProcessor;
 import net.jawr.web.resource.bundle.postprocess.BundleProcessingStatus;
 import net.jawr.web.resource.bundle.postprocess.PostProcessFactoryConstant;
 import net.jawr.web.util.StopWatch;
 import net.jawr.web.util.js.JavascriptEngine;
+import net.jawr.web.util.js.JavascriptEngineInitializer;
+import net.jawr.web.util.js.JavascriptEnginePool;
 
 /**
  * This class defines the autoprefixer postprocessor
@@ -63,23 +70,35 @@ public class AutoPrefixerPostProcessor extends AbstractChainedResourceBundlePost
 	/** The default options */
 	public static final String AUTOPREFIXER_DEFAULT_OPTIONS = "{}";
 
-	/** The autoprefixer script options */
-	private Object options;
+	/** The name of the engine variable holding the autoprefixer options */
+	private static final String OPTIONS_VARIABLE = "jawrAutoPrefixerOptions";
 
-	/** The Rhino engine */
-	private JavascriptEngine jsEngine;
+	/** The script defining the process function */
+	private static final String PROCESS_SCRIPT = "function process(cssSource, opts){\n"
+			+ "var result = autoprefixer.process.apply(autoprefixer, [cssSource, opts]);\n"
+			+ "if(result.warnings){\n" + "result.warnings().forEach(function(message){\n"
+			+ "if(logger.isWarnEnabled()){\n" + "logger.warn(message.toString());\n" + "}\n" + "});}\n"
+			+ "return result.css;\n" + "}";
+
+	/** The pool of Rhino engines */
+	private volatile JavascriptEnginePool jsEnginePool;
 
 	/**
 	 * Constructor
 	 */
 	public AutoPrefixerPostProcessor() {
 		super(PostProcessFactoryConstant.AUTOPREFIXER);
+		this.cacheable = true;
 	}
 
 	/**
 	 * Initialize the postprocessor
 	 */
-	private void initialize(JawrConfig config) {
+	private synchronized void initialize(JawrConfig config) {
+
+		if (jsEnginePool != null) {
+			return;
+		}
 
 		StopWatch stopWatch = new StopWatch("Initializing JS engine for Autoprefixer");
 		stopWatch.start();
@@ -87,24 +106,35 @@ public class AutoPrefixerPostProcessor extends AbstractChainedResourceBundlePost
 		// Load JavaScript Script Engine
 		String script = config.getProperty(AUTOPREFIXER_SCRIPT_LOCATION, AUTOPREFIXER_SCRIPT_DEFAULT_LOCATION);
 		String jsEngineName = config.getJavascriptEngineName(AUTOPREFIXER_JS_ENGINE);
-		jsEngine = new JavascriptEngine(jsEngineName, true);
-		jsEngine.getBindings().put("logger", LOGGER);
-		try(InputStream inputStream = getResourceInputStream(config, script)){
-			jsEngine.evaluate("autoprefixer.js", inputStream);
+		Map<String, String> scripts = new LinkedHashMap<>();
+		try (Reader rd = new InputStreamReader(getResourceInputStream(config, script))) {
+			scripts.put("autoprefixer.js", IOUtils.toString(rd));
 		} catch (IOException e) {
 			throw new BundlingProcessException(e);
 		}
-		String strOptions = config.getProperty(AUTOPREFIXER_SCRIPT_OPTIONS, AUTOPREFIXER_DEFAULT_OPTIONS);
-		this.options = jsEngine.execEval(strOptions);
-
-		jsEngine.evaluate("initAutoPrefixer.js", String.format("if(logger.isDebugEnabled()){ logger.debug('Autoprefixer config : '+autoprefixer(%s).info());}", strOptions));
-		jsEngine.evaluate("jawrAutoPrefixerProcess.js",
-				"function process(cssSource, opts){\n"
-				+ "var result = autoprefixer.process.apply(autoprefixer, [cssSource, opts]);\n"
-				+ "if(result.warnings){\n" + "result.warnings().forEach(function(message){\n"
-				+ "if(logger.isWarnEnabled()){\n" + "logger.warn(message.toString());\n" + "}\n" + "});}\n"
-				+ "return result.css;\n" + "}");
-        
+		scripts.put("jawrAutoPrefixerProcess.js", PROCESS_SCRIPT);
+
+		final String strOptions = config.getProperty(AUTOPREFIXER_SCRIPT_OPTIONS, AUTOPREFIXER_DEFAULT_OPTIONS);
+		JavascriptEnginePool pool = new JavascriptEnginePool(jsEngineName, true, config.getJavascriptEnginePoolSize(),
+				scripts, new JavascriptEngineInitializer() {
+
+					@Override
+					public void initialize(JavascriptEngine engine) {
+						engine.getBindings().put("logger", LOGGER);
+						engine.getBindings().put(OPTIONS_VARIABLE, engine.execEval(strOptions));
+					}
+				});
+
+		// Initialize the first engine of the pool
+		JavascriptEngine jsEngine = pool.borrowEngine();
+		try {
+			jsEngine.evaluate("initAutoPrefixer.js", String.format(
+					"if(logger.isDebugEnabled()){ logger.debug('Autoprefixer config : '+autoprefixer(%s).info());}",
+					strOptions));
+		} finally {
+			pool.returnEngine(jsEngine);
+		}
+		jsEnginePool = pool;
 
 		stopWatch.stop();
 		if (PERF_LOGGER.isDebugEnabled()) {
@@ -147,7 +177,7 @@ public class AutoPrefixerPostProcessor extends AbstractChainedResourceBundlePost
 	protected StringBuffer doPostProcessBundle(BundleProcessingStatus status, StringBuffer bundleData)
 			throws IOException {
 
-		if (jsEngine == null) {
+		if (jsEnginePool == null) {
 			initialize(status.getJawrConfig());
 		}
 
@@ -156,11 +186,15 @@ public class AutoPrefixerPostProcessor extends AbstractChainedResourceBundlePost
 
 		String cssSource = bundleData.toString();
 		String res = null;
+		JavascriptEngine jsEngine = jsEnginePool.borrowEngine();
 		try {
-			res = (String) jsEngine.invokeFunction("process", cssSource, options);
+			res = (String) jsEngine.invokeFunction("process", cssSource,
+					jsEngine.getBindings().get(OPTIONS_VARIABLE));
 
 		} catch (NoSuchMethodException | ScriptException e) {
 			throw new BundlingProcessException(e);
+		} finally {
+			jsEnginePool.returnEngine(jsEngine);
 		}
 
 		stopWatch.stop();
@@ -16,6 +16,7 @@ package net.jawr.web.resource.bundle.postprocess.impl;
 import java.io.IOException;
 
 import net.jawr.web.minification.CSSMinifier;
+import net.jawr.web.minification.CSSTokenizerMinifier;
 import net.jawr.web.resource.bundle.postprocess.AbstractChainedResourceBundlePostProcessor;
 import net.jawr.web.resource.bundle.postprocess.BundleProcessingStatus;
 import net.jawr.web.resource.bundle.postprocess.PostProcessFactoryConstant;
@@ -35,6 +36,12 @@ public class CSSMinPostProcessor extends AbstractChainedResourceBundlePostProces
 	 */
 	private static final String JAWR_CSS_POSTPROCESSOR_CSSMIN_KEEP_LICENCE = "jawr.css.postprocessor.cssmin.keepLicence";
 
+	/**
+	 * The property name of the flag indicating if the content should be
+	 * minified with the tokenizer instead of the regular expressions
+	 */
+	private static final String JAWR_CSS_POSTPROCESSOR_CSSMIN_USE_TOKENIZER = "jawr.css.postprocessor.cssmin.use.tokenizer";
+
 	/** The CSS minifier */
 	private CSSMinifier minifier;
 
@@ -43,6 +50,7 @@ public class CSSMinPostProcessor extends AbstractChainedResourceBundlePostProces
 	 */
 	public CSSMinPostProcessor() {
 		super(PostProcessFactoryConstant.CSS_MINIFIER);
+		this.cacheable = true;
 	}
 
 	/*
@@ -61,7 +69,11 @@ public class CSSMinPostProcessor extends AbstractChainedResourceBundlePostProces
 
 			boolean keepLicence = status.getJawrConfig().getBooleanProperty(JAWR_CSS_POSTPROCESSOR_CSSMIN_KEEP_LICENCE,
 					false);
-			this.minifier = new CSSMinifier(keepLicence);
+			if (status.getJawrConfig().getBooleanProperty(JAWR_CSS_POSTPROCESSOR_CSSMIN_USE_TOKENIZER, true)) {
+				this.minifier = new CSSTokenizerMinifier(keepLicence);
+			} else {
+				this.minifier = new CSSMinifier(keepLicence);
+			}
 		}
 
 		try {
@@ -13,19 +13,12 @@
  */
 package net.jawr.web.resource.bundle.postprocess.impl;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.Reader;
-import java.io.StringWriter;
-import java.nio.channels.Channels;
-import java.nio.channels.ReadableByteChannel;
 import java.nio.charset.Charset;
 
 import net.jawr.web.exception.BundlingProcessException;
 import net.jawr.web.minification.JSMin;
 import net.jawr.web.minification.JSMin.JSMinException;
-import net.jawr.web.resource.bundle.IOUtils;
 import net.jawr.web.resource.bundle.postprocess.BundleProcessingStatus;
 import net.jawr.web.resource.bundle.postprocess.PostProcessFactoryConstant;
 
@@ -39,17 +32,15 @@ import net.jawr.web.resource.bundle.postprocess.PostProcessFactoryConstant;
  */
 public class JSMinPostProcessor extends AbstractJsChainedResourceBundlePostProcessor {
 
-	/** The line feed string */
-	private static final String LF = "\n";
-
-	/** the carriage return line feed string */
-	private static final String CR_LF = "\r\n";
+	/** The number of characters displayed before the position of an error */
+	private static final int ERROR_CONTEXT_LENGTH = 100;
 
 	/**
 	 * Constructor for a compressor.
 	 */
 	public JSMinPostProcessor() {
 		super(PostProcessFactoryConstant.JSMIN);
+		this.cacheable = true;
 	}
 
 	/*
@@ -62,25 +53,14 @@ public class JSMinPostProcessor extends AbstractJsChainedResourceBundlePostProce
 	@Override
 	protected StringBuffer doPostProcessBundle(BundleProcessingStatus status, StringBuffer bundleString)
 			throws IOException {
-		Charset charset = status.getJawrConfig().getResourceCharset();
-
-		// The original JSMin doesn't handle Dos (CRLF) line endings
-		// So here we replace the CRLF with LF only
-		String bundleContent = bundleString.toString().replaceAll(CR_LF, LF);
-
-		byte[] bundleBytes = bundleContent.getBytes(charset.name());
-		ByteArrayInputStream bIs = new ByteArrayInputStream(bundleBytes);
-		ByteArrayOutputStream bOs = new ByteArrayOutputStream();
 
-		// Compress data and recover it as a byte array.
-		JSMin minifier = new JSMin(bIs, bOs);
+		StringBuffer result = null;
 		try {
-			minifier.jsmin();
+			result = minifyStringBuffer(bundleString);
 		} catch (JSMinException e) {
-			formatAndThrowJSLintError(status, bundleBytes, e);
+			formatAndThrowJSLintError(status, bundleString, e);
 		}
-		byte[] minified = bOs.toByteArray();
-		return byteArrayToString(charset, minified);
+		return result;
 	}
 
 	/**
@@ -90,7 +70,8 @@ public class JSMinPostProcessor extends AbstractJsChainedResourceBundlePostProce
 	 * @param sb
 	 *            the content to minify
 	 * @param charset
-	 *            the charset
+	 *            the charset. It is not used, as the content is minified as a
+	 *            character sequence.
 	 * @return the minified content
 	 * @throws java.io.IOException
 	 *             if an IOException occurs
@@ -98,35 +79,27 @@ public class JSMinPostProcessor extends AbstractJsChainedResourceBundlePostProce
 	 *             if a JSMin exception occurs
 	 */
 	public StringBuffer minifyStringBuffer(StringBuffer sb, Charset charset) throws IOException, JSMinException {
-		byte[] bundleBytes = sb.toString().getBytes(charset.name());
-		ByteArrayInputStream bIs = new ByteArrayInputStream(bundleBytes);
-		ByteArrayOutputStream bOs = new ByteArrayOutputStream();
-
-		// Compress data and recover it as a byte array.
-		JSMin minifier = new JSMin(bIs, bOs);
-		minifier.jsmin();
-		byte[] minified = bOs.toByteArray();
-		return byteArrayToString(charset, minified);
+		return minifyStringBuffer(sb);
 	}
 
 	/**
-	 * Convert a byte array to a String buffer taking into account the charset
+	 * Utility method for components that need to use JSMin in a different
+	 * context other than bundle postprocessing.
 	 * 
-	 * @param charset
-	 *            the charset
-	 * @param minified
-	 *            the byte array
-	 * @return the string buffer
-	 * @throws IOException
-	 *             if an IO exception occurs
+	 * @param sb
+	 *            the content to minify
+	 * @return the minified content
+	 * @throws java.io.IOException
+	 *             if an IOException occurs
+	 * @throws net.jawr.web.minification.JSMin.JSMinException
+	 *             if a JSMin exception occurs
 	 */
-	private StringBuffer byteArrayToString(Charset charset, byte[] minified) throws IOException {
-		// Write the data into a string
-		ReadableByteChannel chan = Channels.newChannel(new ByteArrayInputStream(minified));
-		Reader rd = Channels.newReader(chan, charset.newDecoder(), -1);
-		StringWriter writer = new StringWriter();
-		IOUtils.copy(rd, writer, true);
-		return writer.getBuffer();
+	public StringBuffer minifyStringBuffer(StringBuffer sb) throws IOException, JSMinException {
+
+		StringBuilder minified = new StringBuilder(sb.length());
+		JSMin minifier = new JSMin(sb, minified);
+		minifier.jsmin();
+		return new StringBuffer(minified);
 	}
 
 	/**
@@ -135,38 +108,23 @@ public class JSMinPostProcessor extends AbstractJsChainedResourceBundlePostProce
 	 * 
 	 * @param status
 	 *            the bundle processing status
-	 * @param bundleBytes
-	 *            the byte array of the bundle content
+	 * @param bundleContent
+	 *            the bundle content
 	 * @param e
 	 *            the JSMinException
 	 */
-	private void formatAndThrowJSLintError(BundleProcessingStatus status, byte[] bundleBytes, JSMinException e) {
+	private void formatAndThrowJSLintError(BundleProcessingStatus status, CharSequence bundleContent,
+			JSMinException e) {
 		StringBuilder errorMsg = new StringBuilder(
 				"JSMin failed to minify the bundle with id: '" + status.getCurrentBundle().getId() + "'.\n");
 		errorMsg.append("The exception thrown is of type:").append(e.getClass().getName()).append("'.\n");
-		int currentByte = e.getByteIndex();
-		int startPoint;
-		if (currentByte < 100)
-			startPoint = 0;
-		else
-			startPoint = currentByte - 100;
-		int totalSize = currentByte - startPoint;
-
-		byte[] lastData = new byte[totalSize];
+		int currentChar = Math.min(e.getByteIndex(), bundleContent.length());
+		int startPoint = Math.max(0, currentChar - ERROR_CONTEXT_LENGTH);
 
-		for (int x = 0; x < totalSize; x++) {
-			lastData[x] = bundleBytes[startPoint];
-			startPoint++;
-		}
 		errorMsg.append("The error happened at this point in your javascript (line ").append(e.getLine())
 				.append("; col. ").append(e.getColumn()).append(") : \n");
 		errorMsg.append("_______________________________________________\n...");
-		try {
-			String data = byteArrayToString(status.getJawrConfig().getResourceCharset(), lastData).toString();
-			errorMsg.append(data).append("\n\n");
-		} catch (IOException e1) {
-			// Ignored, we have enaugh problems by this point.
-		}
+		errorMsg.append(bundleContent, startPoint, currentChar).append("\n\n");
 		errorMsg.append("_______________________________________________");
 		errorMsg.append(
 				"\nIf you can't find the error, try to check the scripts using JSLint (http://www.jslint.com/) to find the conflicting part of the code. ");
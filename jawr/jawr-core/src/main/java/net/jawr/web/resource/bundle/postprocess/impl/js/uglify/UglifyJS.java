@@ -14,7 +14,12 @@
 package net.jawr.web.resource.bundle.postprocess.impl.js.uglify;
 
 import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import javax.script.ScriptException;
 
@@ -25,10 +30,13 @@ import net.jawr.web.JawrConstant;
 import net.jawr.web.config.JawrConfig;
 import net.jawr.web.exception.BundlingProcessException;
 import net.jawr.web.minification.CompressionResult;
+import net.jawr.web.resource.bundle.IOUtils;
 import net.jawr.web.resource.bundle.factory.util.ClassLoaderResourceUtils;
 import net.jawr.web.util.StopWatch;
 import net.jawr.web.util.StringUtils;
 import net.jawr.web.util.js.JavascriptEngine;
+import net.jawr.web.util.js.JavascriptEngineInitializer;
+import net.jawr.web.util.js.JavascriptEnginePool;
 
 /**
  * The Uglify JS engine. This compressor is using UglifyJS
@@ -45,18 +53,18 @@ public class UglifyJS {
 	private static final String[] UGLIFY_SCRIPTS = { "utils.js", "ast.js", "parse.js", "transform.js", "scope.js",
 			"output.js", "compress.js", "sourcemap.js", "uglify.js" };
 
+	/** The name of the engine variable holding the Uglify options */
+	private static final String OPTIONS_VARIABLE = "jawrUglifyOptions";
+
 	/** The flag indicating if we use the base engine */
 	boolean baseEngine = true;
 
-	/** The JS engine */
-	private final JavascriptEngine jsEngine;
+	/** The pool of JS engines */
+	private final JavascriptEnginePool jsEnginePool;
 
 	/** The Jawr configuration */
 	private final JawrConfig config;
 
-	/** The Uglify options in JSON format */
-	private final Object options;
-
 	/**
 	 * Constructor
 	 * 
@@ -67,21 +75,36 @@ public class UglifyJS {
 	 * @param optionsInJson
 	 *            the uglify options
 	 */
-	public UglifyJS(JawrConfig config, String scriptDirLocation, String optionsInJson) {
+	public UglifyJS(JawrConfig config, String scriptDirLocation, final String optionsInJson) {
 
 		StopWatch stopWatch = new StopWatch();
 		stopWatch.start("initializing JS engine for Uglify");
 
-		String jsEngineName = config.getJavascriptEngineName(JawrConstant.UGLIFY_POSTPROCESSOR_JS_ENGINE);
-		this.jsEngine = new JavascriptEngine(jsEngineName);
 		this.config = config;
-		this.options = jsEngine.execEval(optionsInJson);
 		String baseJsLocation = StringUtils.isNotEmpty(scriptDirLocation) ? scriptDirLocation
 				: JawrConstant.UGLIFY_POSTPROCESSOR_DEFAULT_JS_BASE_LOCATION;
+		Map<String, String> scripts = new LinkedHashMap<>();
 		for (String script : UGLIFY_SCRIPTS) {
-			jsEngine.evaluate(script, getResourceInputStream(baseJsLocation + script));
-
+			try (Reader rd = new InputStreamReader(getResourceInputStream(baseJsLocation + script))) {
+				scripts.put(script, IOUtils.toString(rd));
+			} catch (IOException e) {
+				throw new BundlingProcessException(e);
+			}
 		}
+
+		String jsEngineName = config.getJavascriptEngineName(JawrConstant.UGLIFY_POSTPROCESSOR_JS_ENGINE);
+		this.jsEnginePool = new JavascriptEnginePool(jsEngineName, false, config.getJavascriptEnginePoolSize(),
+				scripts, new JavascriptEngineInitializer() {
+
+					@Override
+					public void initialize(JavascriptEngine engine) {
+						engine.getBindings().put(OPTIONS_VARIABLE, engine.execEval(optionsInJson));
+					}
+				});
+
+		// Initialize the first engine of the pool
+		jsEnginePool.returnEngine(jsEnginePool.borrowEngine());
+
 		stopWatch.stop();
 		if (PERF_LOGGER.isDebugEnabled()) {
 			PERF_LOGGER.debug(stopWatch.prettyPrint());
@@ -120,10 +143,13 @@ public class UglifyJS {
 		Object result = null;
 		StopWatch stopWatch = new StopWatch();
 		stopWatch.start("Compressing using Uglify");
+		JavascriptEngine jsEngine = jsEnginePool.borrowEngine();
 		try {
-			result = jsEngine.invokeFunction("minify", scriptSource, options);
+			result = jsEngine.invokeFunction("minify", scriptSource, jsEngine.getBindings().get(OPTIONS_VARIABLE));
 		} catch (NoSuchMethodException | ScriptException e) {
 			throw new BundlingProcessException(e);
+		} finally {
+			jsEnginePool.returnEngine(jsEngine);
 		}
 
 		stopWatch.stop();
@@ -31,13 +31,14 @@ public class UglifyPostProcessor extends
 		AbstractChainedResourceBundlePostProcessor {
 
 	/** The UglifyJS compressor */
-	private UglifyJS uglifyJS;
+	private volatile UglifyJS uglifyJS;
 
 	/**
 	 * Constructor
 	 */
 	public UglifyPostProcessor() {
 		super(PostProcessFactoryConstant.UGLIFY_JS);
+		this.cacheable = true;
 	}
 
 	/*
@@ -53,18 +54,32 @@ public class UglifyPostProcessor extends
 	protected StringBuffer doPostProcessBundle(BundleProcessingStatus status,
 			StringBuffer bundleData) throws IOException {
 
+		CompressionResult result = getUglifyJS(status.getJawrConfig()).compress(bundleData.toString());
+		return new StringBuffer(result.getCode());
+	}
+
+	/**
+	 * Returns the UglifyJS compressor, which is initialized at the first call
+	 * 
+	 * @param config
+	 *            the Jawr config
+	 * @return the UglifyJS compressor
+	 */
+	private UglifyJS getUglifyJS(JawrConfig config) {
+
 		if (uglifyJS == null) {
-			JawrConfig config = status.getJawrConfig();
-			String scriptDirLocation = config.getProperty(
-					JawrConstant.UGLIFY_POSTPROCESSOR_SCRIPT_LOCATION,
-					JawrConstant.UGLIFY_POSTPROCESSOR_DEFAULT_JS_BASE_LOCATION);
+			synchronized (this) {
+				if (uglifyJS == null) {
+					String scriptDirLocation = config.getProperty(
+							JawrConstant.UGLIFY_POSTPROCESSOR_SCRIPT_LOCATION,
+							JawrConstant.UGLIFY_POSTPROCESSOR_DEFAULT_JS_BASE_LOCATION);
 
-			String optionsInJson = config.getProperty(JawrConstant.UGLIFY_POSTPROCESSOR_OPTIONS, "{}");
-			uglifyJS = new UglifyJS(config, scriptDirLocation, optionsInJson);
+					String optionsInJson = config.getProperty(JawrConstant.UGLIFY_POSTPROCESSOR_OPTIONS, "{}");
+					uglifyJS = new UglifyJS(config, scriptDirLocation, optionsInJson);
+				}
+			}
 		}
-
-		CompressionResult result = uglifyJS.compress(bundleData.toString());
-		return new StringBuffer(result.getCode());
+		return uglifyJS;
 	}
 
 }
@@ -39,6 +39,7 @@ public class YUICSSCompressor extends AbstractChainedResourceBundlePostProcessor
 	 */
 	public YUICSSCompressor() {
 		super(PostProcessFactoryConstant.YUI_COMPRESSOR);
+		this.cacheable = true;
 	}
 
 	/*
@@ -53,6 +53,7 @@ public class YUIJSCompressor extends AbstractJsChainedResourceBundlePostProcesso
 		super(obfuscate ? PostProcessFactoryConstant.YUI_COMPRESSOR_OBFUSCATOR
 				: PostProcessFactoryConstant.YUI_COMPRESSOR);
 		this.obfuscate = obfuscate;
+		this.cacheable = true;
 	}
 
 	/*
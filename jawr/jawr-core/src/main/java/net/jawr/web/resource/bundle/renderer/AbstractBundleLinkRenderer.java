@@ -14,7 +14,10 @@
 package net.jawr.web.resource.bundle.renderer;
 
 import java.io.IOException;
+import java.io.StringWriter;
 import java.io.Writer;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
@@ -47,6 +50,9 @@ public abstract class AbstractBundleLinkRenderer implements BundleRenderer {
 	/** The serial version UID */
 	private static final long serialVersionUID = 7440895269616865487L;
 
+	/** The index of the variant in the key of the rendered links */
+	private static final int RENDERED_LINKS_KEY_VARIANT_INDEX = 2;
+
 	/** The resource bundles handler */
 	protected ResourceBundlesHandler bundler;
 
@@ -175,9 +181,21 @@ public abstract class AbstractBundleLinkRenderer implements BundleRenderer {
 	protected void renderBundleLinks(JoinableResourceBundle bundle, BundleRendererContext ctx,
 			Map<String, String> variant, Writer out, boolean debugOn) throws IOException {
 
-		ResourceBundlePathsIterator it = bundler.getBundlePaths(bundle.getId(), new ConditionalCommentRenderer(out),
+		List<Object> fragmentKey = getRenderedLinksKey(bundle.getId(), ctx, variant, debugOn);
+		String fragment = getRenderedLinks(fragmentKey);
+		if (fragment != null) {
+			out.write(fragment);
+			return;
+		}
+
+		Writer writer = fragmentKey == null ? out : new StringWriter();
+		ResourceBundlePathsIterator it = bundler.getBundlePaths(bundle.getId(), new ConditionalCommentRenderer(writer),
 				variant);
-		renderBundleLinks(it, ctx, debugOn, out);
+		renderBundleLinks(it, ctx, debugOn, writer);
+
+		if (fragmentKey != null) {
+			storeRenderedLinks(fragmentKey, variant, writer.toString(), out);
+		}
 	}
 
 	/**
@@ -221,9 +239,109 @@ public abstract class AbstractBundleLinkRenderer implements BundleRenderer {
 	protected void performGlobalBundleLinksRendering(BundleRendererContext ctx, Writer out, boolean debugOn)
 			throws IOException {
 
+		Map<String, String> variants = ctx.getVariants();
+		List<Object> fragmentKey = getRenderedLinksKey(null, ctx, variants, debugOn);
+		String fragment = getRenderedLinks(fragmentKey);
+		if (fragment != null) {
+			out.write(fragment);
+			return;
+		}
+
+		Writer writer = fragmentKey == null ? out : new StringWriter();
 		ResourceBundlePathsIterator resourceBundleIterator = bundler.getGlobalResourceBundlePaths(getDebugMode(debugOn),
-				new ConditionalCommentRenderer(out), ctx.getVariants());
-		renderBundleLinks(resourceBundleIterator, ctx, debugOn, out);
+				new ConditionalCommentRenderer(writer), variants);
+		renderBundleLinks(resourceBundleIterator, ctx, debugOn, writer);
+
+		if (fragmentKey != null) {
+			storeRenderedLinks(fragmentKey, variants, writer.toString(), out);
+		}
+	}
+
+	/**
+	 * Returns the rendering flavor of this renderer, which identifies the
+	 * attributes used to render the links (tag type, media, ...). The links
+	 * rendered in production mode are cached by rendering flavor, so this
+	 * method must return a different value for renderers producing different
+	 * links.
+	 * 
+	 * @return the rendering flavor, or null if the rendered links must not be
+	 *         cached
+	 */
+	protected String getRenderingFlavor() {
+		return null;
+	}
+
+	/**
+	 * Returns the key of the links rendered for a bundle
+	 * 
+	 * @param bundleId
+	 *            the bundle ID, or null for the global bundles
+	 * @param ctx
+	 *            the context
+	 * @param variant
+	 *            the variant
+	 * @param debugOn
+	 *            the flag indicating if we are in debug mode
+	 * @return the key of the rendered links, or null if the links must not be
+	 *         cached
+	 */
+	private List<Object> getRenderedLinksKey(String bundleId, BundleRendererContext ctx, Map<String, String> variant,
+			boolean debugOn) {
+
+		// In debug mode, the links use a random parameter
+		if (debugOn || bundler.getRenderedLinksCache() == null) {
+			return null;
+		}
+
+		String flavor = getRenderingFlavor();
+		if (flavor == null) {
+			return null;
+		}
+
+		return Arrays.<Object> asList(flavor, bundleId, variant, ctx.isUseGzip(), ctx.isSslRequest(),
+				ctx.getContextPath());
+	}
+
+	/**
+	 * Returns the links rendered for the key given in parameter
+	 * 
+	 * @param fragmentKey
+	 *            the key of the rendered links
+	 * @return the rendered links, or null if they are not in cache
+	 */
+	private String getRenderedLinks(List<Object> fragmentKey) {
+
+		String fragment = null;
+		if (fragmentKey != null) {
+			fragment = bundler.getRenderedLinksCache().get(fragmentKey);
+		}
+		return fragment;
+	}
+
+	/**
+	 * Stores the rendered links in cache and writes them
+	 * 
+	 * @param fragmentKey
+	 *            the key of the rendered links
+	 * @param variant
+	 *            the variant
+	 * @param fragment
+	 *            the rendered links
+	 * @param out
+	 *            the writer
+	 * @throws IOException
+	 *             if an IO exception occurs
+	 */
+	private void storeRenderedLinks(List<Object> fragmentKey, Map<String, String> variant, String fragment,
+			Writer out) throws IOException {
+
+		// The variant map of the context may be updated by the renderers, so
+		// the key keeps a copy of it
+		if (variant != null) {
+			fragmentKey.set(RENDERED_LINKS_KEY_VARIANT_INDEX, new HashMap<>(variant));
+		}
+		bundler.getRenderedLinksCache().put(fragmentKey, fragment);
+		out.write(fragment);
 	}
 
 	/**
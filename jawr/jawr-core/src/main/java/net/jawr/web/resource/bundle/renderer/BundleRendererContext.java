@@ -17,6 +17,7 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
 
 import javax.servlet.http.HttpServletRequest;
 
@@ -36,6 +37,12 @@ public class BundleRendererContext {
 	/** The variants */
 	private Map<String, String> variants = new HashMap<>();
 
+	/**
+	 * The flag indicating if the variant map is a copy owned by this context,
+	 * which can be modified
+	 */
+	private boolean variantsCopied;
+
 	/** The included bundles */
 	private Set<String> includedBundles;
 
@@ -89,6 +96,8 @@ public class BundleRendererContext {
 		super();
 		this.request = request;
 		this.contextPath = request.getContextPath();
+		// The resolved variants are shared, they are only copied if a renderer
+		// forces one of them
 		this.variants = jawrConfig.getGeneratorRegistry().resolveVariants(request);
 		this.useGzip = RendererRequestUtils.isRequestGzippable(request, jawrConfig);
 		this.isSslRequest = RendererRequestUtils.isSslRequest(request);
@@ -137,7 +146,8 @@ public class BundleRendererContext {
 	}
 
 	/**
-	 * Returns the variant map
+	 * Returns the variant map. This map may be shared and must not be
+	 * modified, use {@link #setVariant(String, String)} instead.
 	 * 
 	 * @return the variants
 	 */
@@ -153,6 +163,24 @@ public class BundleRendererContext {
 	 */
 	public void setVariants(Map<String, String> variants) {
 		this.variants = variants;
+		this.variantsCopied = false;
+	}
+
+	/**
+	 * Forces a variant for the rest of the rendering. The variant map is
+	 * copied the first time a variant is forced.
+	 * 
+	 * @param variantType
+	 *            the variant type
+	 * @param variant
+	 *            the variant
+	 */
+	public void setVariant(String variantType, String variant) {
+		if (!variantsCopied) {
+			variants = new TreeMap<>(variants);
+			variantsCopied = true;
+		}
+		variants.put(variantType, variant);
 	}
 
 	/**
@@ -227,8 +227,11 @@ public class CSSHTMLBundleLinkRenderer extends AbstractBundleLinkRenderer implem
 		if (alternate && StringUtils.isNotEmpty(title)) {
 
 			// force alternate variant
-			Map<String, String> variants = ctx.getVariants();
-			variants.put(JawrConstant.SKIN_VARIANT_TYPE, title);
+			boolean contextVariant = variant == ctx.getVariants();
+			ctx.setVariant(JawrConstant.SKIN_VARIANT_TYPE, title);
+			if (contextVariant) {
+				variant = ctx.getVariants();
+			}
 		}
 
 		if (isForcedToRenderIeCssBundleInDebug(ctx, debugOn)) {
@@ -308,6 +311,17 @@ public class CSSHTMLBundleLinkRenderer extends AbstractBundleLinkRenderer implem
 		}
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see net.jawr.web.resource.bundle.renderer.AbstractBundleLinkRenderer#
+	 * getRenderingFlavor()
+	 */
+	@Override
+	protected String getRenderingFlavor() {
+		return getClass().getName() + '|' + media + '|' + alternate + '|' + title + '|' + closingFlavor;
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -147,6 +147,18 @@ public class JavascriptHTMLBundleLinkRenderer extends AbstractBundleLinkRenderer
 		renderGlobalLinks = false;
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see net.jawr.web.resource.bundle.renderer.AbstractBundleLinkRenderer#
+	 * getRenderingFlavor()
+	 */
+	@Override
+	protected String getRenderingFlavor() {
+		return getClass().getName() + '|' + type + '|' + async + '|' + defer + '|' + crossorigin + '|'
+				+ renderGlobalLinks;
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -0,0 +1,104 @@
+/**
+ * Copyright 2017 Ibrahim Chaehoi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package net.jawr.web.resource.bundle.renderer;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import net.jawr.web.resource.bundle.lifecycle.BundlingProcessLifeCycleListener;
+
+/**
+ * This class defines the cache of the HTML fragments rendered by the bundle
+ * link renderers in production mode. In this mode, the links of a bundle only
+ * depend on the variants, the gzip and SSL flags, the context path and the
+ * rendering flavor of the tag, so they are rendered once for each of these
+ * keys.
+ *
+ * The bundle URLs change when the bundles are rebuilt, so the cache is cleared
+ * at each bundling process.
+ *
+ * @author Ibrahim Chaehoi
+ */
+public class RenderedLinksCache implements BundlingProcessLifeCycleListener {
+
+	/** The maximum number of fragments kept in cache */
+	private static final int MAX_CACHED_FRAGMENTS = 1000;
+
+	/** The rendered fragments mapped by key */
+	private final Map<Object, String> fragments = new ConcurrentHashMap<>();
+
+	/**
+	 * Returns the fragment rendered for the key given in parameter
+	 *
+	 * @param key
+	 *            the fragment key
+	 * @return the fragment, or null if it is not in cache
+	 */
+	public String get(Object key) {
+		return fragments.get(key);
+	}
+
+	/**
+	 * Stores a rendered fragment
+	 *
+	 * @param key
+	 *            the fragment key
+	 * @param fragment
+	 *            the fragment
+	 */
+	public void put(Object key, String fragment) {
+		if (fragments.size() >= MAX_CACHED_FRAGMENTS) {
+			fragments.clear();
+		}
+		fragments.put(key, fragment);
+	}
+
+	/**
+	 * Returns the number of fragments in cache
+	 *
+	 * @return the number of fragments in cache
+	 */
+	public int size() {
+		return fragments.size();
+	}
+
+	/**
+	 * Clears the cache
+	 */
+	public void clear() {
+		fragments.clear();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see net.jawr.web.resource.bundle.lifecycle.
+	 * BundlingProcessLifeCycleListener#beforeBundlingProcess()
+	 */
+	@Override
+	public void beforeBundlingProcess() {
+		clear();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see net.jawr.web.resource.bundle.lifecycle.
+	 * BundlingProcessLifeCycleListener#afterBundlingProcess()
+	 */
+	@Override
+	public void afterBundlingProcess() {
+		clear();
+	}
+}
@@ -0,0 +1,42 @@
+/**
+ * Copyright 2017 Ibrahim Chaehoi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package net.jawr.web.resource.bundle.variant;
+
+import javax.servlet.http.HttpServletRequest;
+
+/**
+ * This interface is implemented by the variant resolvers, whose variant only
+ * depends on a few elements of the request, like a header or a cookie. These
+ * elements define the fingerprint of the request, which is used to cache the
+ * variants resolved for a request.
+ *
+ * @author Ibrahim Chaehoi
+ */
+public interface CacheableVariantResolver extends VariantResolver {
+
+	/**
+	 * Returns the fingerprint of the request elements used to resolve the
+	 * variant. Two requests with the same fingerprint must resolve the same
+	 * variant. The fingerprint should be made of the resolved variant inputs,
+	 * like a locale code, rather than of raw headers like the User-Agent, so
+	 * the number of fingerprints stays small.
+	 *
+	 * @param request
+	 *            the request
+	 * @return the fingerprint of the request, or null if the variant of this
+	 *         request can't be cached
+	 */
+	String getRequestFingerprint(HttpServletRequest request);
+
+}
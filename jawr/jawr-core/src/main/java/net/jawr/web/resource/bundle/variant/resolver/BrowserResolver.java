@@ -19,7 +19,7 @@ import java.util.regex.Pattern;
 import javax.servlet.http.HttpServletRequest;
 
 import net.jawr.web.JawrConstant;
-import net.jawr.web.resource.bundle.variant.VariantResolver;
+import net.jawr.web.resource.bundle.variant.CacheableVariantResolver;
 import net.jawr.web.resource.bundle.variant.VariantSet;
 
 /**
@@ -28,7 +28,7 @@ import net.jawr.web.resource.bundle.variant.VariantSet;
  * @author Ibrahim Chaehoi
  *
  */
-public class BrowserResolver implements VariantResolver {
+public class BrowserResolver implements CacheableVariantResolver {
 
 	/** The IE Pattern */
 	private static final Pattern IE_PATTERN = Pattern.compile("MSIE (\\d+)");
@@ -62,6 +62,21 @@ public class BrowserResolver implements VariantResolver {
 		return browser;
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see net.jawr.web.resource.bundle.variant.CacheableVariantResolver#
+	 * getRequestFingerprint(javax.servlet.http.HttpServletRequest)
+	 */
+	@Override
+	public String getRequestFingerprint(HttpServletRequest request) {
+
+		// The fingerprint is the resolved browser, as the user agents are too
+		// numerous to be cached
+		String browser = resolveVariant(request);
+		return browser == null ? "" : "=" + browser;
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
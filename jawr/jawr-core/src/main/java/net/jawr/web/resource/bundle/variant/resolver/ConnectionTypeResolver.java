@@ -16,7 +16,7 @@ package net.jawr.web.resource.bundle.variant.resolver;
 import javax.servlet.http.HttpServletRequest;
 
 import net.jawr.web.JawrConstant;
-import net.jawr.web.resource.bundle.variant.VariantResolver;
+import net.jawr.web.resource.bundle.variant.CacheableVariantResolver;
 import net.jawr.web.resource.bundle.variant.VariantSet;
 
 /**
@@ -25,7 +25,7 @@ import net.jawr.web.resource.bundle.variant.VariantSet;
  * @author Ibrahim Chaehoi
  *
  */
-public class ConnectionTypeResolver implements VariantResolver {
+public class ConnectionTypeResolver implements CacheableVariantResolver {
 
 	/*
 	 * (non-Javadoc)
@@ -56,6 +56,18 @@ public class ConnectionTypeResolver implements VariantResolver {
 		return connectionType;
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see net.jawr.web.resource.bundle.variant.CacheableVariantResolver#
+	 * getRequestFingerprint(javax.servlet.http.HttpServletRequest)
+	 */
+	@Override
+	public String getRequestFingerprint(HttpServletRequest request) {
+
+		return request.getScheme();
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
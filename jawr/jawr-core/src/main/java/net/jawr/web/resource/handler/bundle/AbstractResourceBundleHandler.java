@@ -19,17 +19,37 @@ import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.io.Reader;
-import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
 import java.nio.channels.Channels;
 import java.nio.channels.ClosedByInterruptException;
 import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
 import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.Charset;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
 import java.util.StringTokenizer;
-import java.util.zip.GZIPOutputStream;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import net.jawr.web.JawrConstant;
 import net.jawr.web.context.ThreadLocalJawrContext;
@@ -38,6 +58,8 @@ import net.jawr.web.exception.InterruptBundlingProcessException;
 import net.jawr.web.exception.ResourceNotFoundException;
 import net.jawr.web.resource.bundle.IOUtils;
 import net.jawr.web.resource.bundle.JoinableResourceBundleContent;
+import net.jawr.web.resource.bundle.encoding.BundleEncoder;
+import net.jawr.web.resource.bundle.encoding.GzipBundleEncoder;
 import net.jawr.web.resource.bundle.factory.util.PathNormalizer;
 import net.jawr.web.resource.bundle.generator.GeneratorRegistry;
 import net.jawr.web.util.StringUtils;
@@ -60,7 +82,10 @@ public abstract class AbstractResourceBundleHandler implements ResourceBundleHan
 	protected static final String TEMP_TEXT_SUBDIR = "text";
 
 	/** The name of the directory which contain the bundles in gzip format */
-	protected static final String TEMP_GZIP_SUBDIR = "gzip";
+	protected static final String TEMP_GZIP_SUBDIR = GzipBundleEncoder.GZIP_ENCODING;
+
+	/** The encoder of the bundles in gzip format */
+	private static final BundleEncoder GZIP_ENCODER = new GzipBundleEncoder();
 
 	/**
 	 * The name of the directory which contain the CSS defined in classpath for
@@ -68,14 +93,17 @@ public abstract class AbstractResourceBundleHandler implements ResourceBundleHan
 	 */
 	protected static final String TEMP_CSS_CLASSPATH_SUBDIR = "cssClasspath";
 
-	/** The path of the temporary working directory */
-	protected String tempDirPath;
+	/** The name of the directory which contain the generations of the bundles */
+	protected static final String TEMP_GENERATIONS_SUBDIR = "generations";
 
-	/** The path of the directory which contain the bundles in text format */
-	protected String textDirPath;
+	/** The name of the file storing the number of the current generation */
+	private static final String CURRENT_GENERATION_FILE_NAME = "current";
 
-	/** The path of the directory which contain the bundles in gzip format */
-	protected String gzipDirPath;
+	/** The suffix of the temporary files, which are renamed once written */
+	private static final String TEMP_FILE_SUFFIX = ".tmp";
+
+	/** The path of the temporary working directory */
+	protected String tempDirPath;
 
 	/**
 	 * The path of the directory which contain the CSS defined in classpath for
@@ -98,6 +126,34 @@ public abstract class AbstractResourceBundleHandler implements ResourceBundleHan
 	 */
 	private boolean useFileSystemTempDir = true;
 
+	/** The encoders of the additional precompressed versions of the bundles */
+	private List<BundleEncoder> bundleEncoders = Collections.emptyList();
+
+	/** The content codings in which the bundles are stored */
+	private List<String> storedEncodings = Collections.singletonList(GzipBundleEncoder.GZIP_ENCODING);
+
+	/**
+	 * The generation of the stored bundles which is currently used. This is
+	 * the only generation read by the requests. It's loaded when it's first
+	 * used if the working directory is not on the file system.
+	 */
+	private volatile BundleGeneration currentGeneration;
+
+	/**
+	 * The generation which is being built, or null. Its directory is created
+	 * when the first bundle which has changed is stored.
+	 */
+	private volatile BundleGeneration stagingGeneration;
+
+	/** The flag indicating if a generation has been started */
+	private volatile boolean generationStarted;
+
+	/**
+	 * The generations which have been replaced, and whose directory has not
+	 * been removed yet
+	 */
+	private final List<BundleGeneration> replacedGenerations = new ArrayList<>();
+
 	/**
 	 * Build a resource handler based on the specified temporary files root path
 	 * and charset.
@@ -209,20 +265,450 @@ public abstract class AbstractResourceBundleHandler implements ResourceBundleHan
 		if (tempDirPath.contains("%20"))
 			tempDirPath = tempDirPath.replaceAll("%20", " ");
 
-		this.textDirPath = tempDirPath + File.separator + TEMP_TEXT_SUBDIR;
-		this.gzipDirPath = tempDirPath + File.separator + TEMP_GZIP_SUBDIR;
 		this.cssClasspathDirPath = tempDirPath + File.separator + TEMP_CSS_CLASSPATH_SUBDIR;
 
 		if (createTempSubDir) {
 			try {
 				createDir(tempDirPath);
-				createDir(textDirPath);
-				createDir(gzipDirPath);
+				createDir(tempDirPath + File.separator + TEMP_TEXT_SUBDIR);
+				createDir(tempDirPath + File.separator + TEMP_GZIP_SUBDIR);
 				createDir(cssClasspathDirPath);
 			} catch (IOException e) {
 				throw new BundlingProcessException("Unexpected IOException creating temporary jawr directory", e);
 			}
 		}
+
+		// The resources of a working directory embedded in the web
+		// application are only available once the handler is initialized
+		if (useFileSystemTempDir) {
+			currentGeneration = loadCurrentGeneration();
+		}
+	}
+
+	/**
+	 * Returns the current generation of the bundles, stored in the working
+	 * directory by the last bundling process. The generation 0 is the working
+	 * directory itself.
+	 * 
+	 * @return the current generation
+	 */
+	private BundleGeneration loadCurrentGeneration() {
+
+		BundleGeneration generation = new BundleGeneration(0, tempDirPath);
+		String currentFilePath = getGenerationsDirPath() + File.separator + CURRENT_GENERATION_FILE_NAME;
+		InputStream is = null;
+		try {
+			is = getTemporaryResourceAsStream(currentFilePath);
+			int number = Integer.parseInt(IOUtils.toString(new InputStreamReader(is, "UTF-8")).trim());
+			BundleGeneration current = new BundleGeneration(number,
+					getGenerationsDirPath() + File.separator + number);
+
+			// The bundles of a working directory embedded in the web
+			// application can't be listed, so the generation is checked with
+			// its bundle mapping
+			if (number > 0 && (useFileSystemTempDir ? new File(current.rootDir).isDirectory()
+					: isExistingMappingFile(current))) {
+				generation = current;
+			}
+		} catch (ResourceNotFoundException e) {
+			// The bundles have never been stored in a generation
+		} catch (IOException | NumberFormatException e) {
+			LOGGER.warn("Unable to read the current bundle generation from " + currentFilePath, e);
+		} finally {
+			IOUtils.close(is);
+		}
+		return generation;
+	}
+
+	/**
+	 * Returns the generation of the bundles which is currently used
+	 * 
+	 * @return the current generation
+	 */
+	private BundleGeneration getCurrentBundleGeneration() {
+
+		BundleGeneration generation = currentGeneration;
+		if (generation == null) {
+			generation = initCurrentGeneration();
+		}
+		return generation;
+	}
+
+	/**
+	 * Initializes the current generation, if it has not been loaded yet
+	 * 
+	 * @return the current generation
+	 */
+	private synchronized BundleGeneration initCurrentGeneration() {
+
+		if (currentGeneration == null) {
+			currentGeneration = loadCurrentGeneration();
+		}
+		return currentGeneration;
+	}
+
+	/**
+	 * Returns the path of the directory which contains the generations of the
+	 * bundles of the resource type
+	 * 
+	 * @return the path of the directory
+	 */
+	private String getGenerationsDirPath() {
+
+		String type = StringUtils.isEmpty(resourceType) ? JawrConstant.JS_TYPE : resourceType;
+		return tempDirPath + File.separator + TEMP_GENERATIONS_SUBDIR + File.separator + type;
+	}
+
+	/**
+	 * Returns the generation where the bundles are stored. This is the
+	 * generation being built if there is one, and the current generation
+	 * otherwise. The bundles are always read from the current generation.
+	 * 
+	 * @return the generation
+	 */
+	private BundleGeneration getStoreGeneration() {
+
+		BundleGeneration generation = stagingGeneration;
+		if (generation == null) {
+			generation = generationStarted ? createStagingGeneration() : getCurrentBundleGeneration();
+		}
+		return generation;
+	}
+
+	/**
+	 * Returns the current generation, which is read until it's released
+	 * 
+	 * @return the current generation
+	 */
+	private BundleGeneration acquireCurrentGeneration() {
+
+		BundleGeneration generation = getCurrentBundleGeneration();
+		// A replaced generation may have been removed in the meantime
+		while (!generation.acquire()) {
+			generation = getCurrentBundleGeneration();
+		}
+		return generation;
+	}
+
+	/**
+	 * Releases a generation, once the reader doesn't use it anymore. The
+	 * directory of a replaced generation is removed once its last reader has
+	 * released it.
+	 * 
+	 * @param generation
+	 *            the generation
+	 */
+	private void releaseGeneration(BundleGeneration generation) {
+
+		if (generation.release() == 0 && generation.replaced) {
+			removeUnusedGenerations();
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see net.jawr.web.resource.handler.bundle.ResourceBundleHandler#
+	 * getCurrentGeneration()
+	 */
+	@Override
+	public int getCurrentGeneration() {
+		return getCurrentBundleGeneration().number;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see net.jawr.web.resource.handler.bundle.ResourceBundleHandler#
+	 * startGeneration()
+	 */
+	@Override
+	public synchronized void startGeneration() {
+
+		// The bundles processed at build time are packaged from the working
+		// directory itself
+		if (!useFileSystemTempDir || ThreadLocalJawrContext.isBundleProcessingAtBuildTime()) {
+			return;
+		}
+		generationStarted = true;
+	}
+
+	/**
+	 * Creates the directory of the generation which has been started. The
+	 * generation is only created once a bundle has changed, so a bundling
+	 * process which stores the same bundles doesn't create a new generation.
+	 * 
+	 * @return the generation being built
+	 */
+	private synchronized BundleGeneration createStagingGeneration() {
+
+		if (stagingGeneration != null) {
+			return stagingGeneration;
+		}
+		if (!generationStarted) {
+			return getCurrentBundleGeneration();
+		}
+
+		BundleGeneration current = getCurrentBundleGeneration();
+		int number = current.number + 1;
+		File[] dirs = new File(getGenerationsDirPath()).listFiles();
+		if (dirs != null) {
+			for (File dir : dirs) {
+				if (dir.isDirectory() && dir.getName().matches("\\d+")) {
+					number = Math.max(number, Integer.parseInt(dir.getName()) + 1);
+				}
+			}
+		}
+
+		BundleGeneration generation = new BundleGeneration(number,
+				getGenerationsDirPath() + File.separator + number);
+		try {
+			// The new generation starts with the bundles of the current one.
+			// As the bundles are never written in place, they are shared with
+			// hard links when it's possible.
+			List<String> subDirs = new ArrayList<>();
+			subDirs.add(TEMP_TEXT_SUBDIR);
+			subDirs.addAll(storedEncodings);
+			for (String subDir : subDirs) {
+				File dir = createDir(generation.getDirPath(subDir));
+				File currentDir = new File(current.getDirPath(subDir));
+				if (currentDir.isDirectory()) {
+					linkDirectory(currentDir.toPath(), dir.toPath());
+				}
+			}
+			File mappingFile = new File(current.rootDir, mappingFileName);
+			if (mappingFile.isFile()) {
+				linkFile(mappingFile.toPath(), new File(generation.rootDir, mappingFileName).toPath());
+			}
+		} catch (IOException e) {
+			deleteDirectory(new File(generation.rootDir));
+			throw new BundlingProcessException("Unable to create the bundle generation " + number, e);
+		}
+
+		stagingGeneration = generation;
+		if (LOGGER.isDebugEnabled()) {
+			LOGGER.debug("Bundle generation " + number + " started for the resource type " + resourceType);
+		}
+		return generation;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see net.jawr.web.resource.handler.bundle.ResourceBundleHandler#
+	 * commitGeneration()
+	 */
+	@Override
+	public synchronized void commitGeneration() {
+
+		BundleGeneration generation = stagingGeneration;
+		generationStarted = false;
+		if (generation == null) {
+			return;
+		}
+
+		// The requests use the new generation as soon as it's published
+		BundleGeneration previous = getCurrentBundleGeneration();
+		currentGeneration = generation;
+		stagingGeneration = null;
+
+		// The current generation is stored for the next startup
+		File currentFile = new File(getGenerationsDirPath(), CURRENT_GENERATION_FILE_NAME);
+		File tmpFile = new File(getGenerationsDirPath(), CURRENT_GENERATION_FILE_NAME + TEMP_FILE_SUFFIX);
+		try {
+			Files.write(tmpFile.toPath(), Integer.toString(generation.number).getBytes("UTF-8"));
+			moveFile(tmpFile, currentFile);
+		} catch (IOException e) {
+			LOGGER.warn("Unable to store the current bundle generation in " + currentFile, e);
+		}
+
+		for (BundleGeneration replaced : replacedGenerations) {
+			replaced.supersededCount++;
+		}
+		// The generation 0 is the working directory, which is never removed
+		if (previous.number > 0) {
+			previous.replaced = true;
+			previous.supersededCount = 1;
+			replacedGenerations.add(previous);
+		}
+		removeUnusedGenerations();
+
+		if (LOGGER.isInfoEnabled()) {
+			LOGGER.info("The bundle generation " + generation.number + " is now used for the resource type "
+					+ resourceType);
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see net.jawr.web.resource.handler.bundle.ResourceBundleHandler#
+	 * discardGeneration()
+	 */
+	@Override
+	public synchronized void discardGeneration() {
+
+		BundleGeneration generation = stagingGeneration;
+		generationStarted = false;
+		if (generation != null) {
+			stagingGeneration = null;
+
+			// The requests never read the generation being built
+			deleteDirectory(new File(generation.rootDir));
+			if (LOGGER.isInfoEnabled()) {
+				LOGGER.info("The bundle generation " + generation.number + " has been discarded for the resource type "
+						+ resourceType);
+			}
+		}
+	}
+
+	/**
+	 * Removes the directories of the generations which are not used anymore.
+	 * The generation replaced by the current one is always kept, as the
+	 * container may still send its files after the response. An older
+	 * generation is removed once it has no reader. The generations left by a
+	 * previous startup are removed.
+	 */
+	private synchronized void removeUnusedGenerations() {
+
+		Set<String> usedDirs = new HashSet<>();
+		usedDirs.add(new File(getCurrentBundleGeneration().rootDir).getAbsolutePath());
+		if (stagingGeneration != null) {
+			usedDirs.add(new File(stagingGeneration.rootDir).getAbsolutePath());
+		}
+
+		for (Iterator<BundleGeneration> iterator = replacedGenerations.iterator(); iterator.hasNext();) {
+			BundleGeneration generation = iterator.next();
+			if (generation.supersededCount > 1 && generation.remove()) {
+				deleteDirectory(new File(generation.rootDir));
+				iterator.remove();
+			} else {
+				usedDirs.add(new File(generation.rootDir).getAbsolutePath());
+			}
+		}
+
+		File[] dirs = new File(getGenerationsDirPath()).listFiles();
+		if (dirs != null) {
+			for (File dir : dirs) {
+				if (dir.isDirectory() && dir.getName().matches("\\d+")
+						&& !usedDirs.contains(dir.getAbsolutePath())) {
+					deleteDirectory(dir);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Shares the files of a directory with another one, using hard links when
+	 * it's possible
+	 * 
+	 * @param source
+	 *            the source directory
+	 * @param target
+	 *            the target directory
+	 * @throws IOException
+	 *             if an IOException occurs
+	 */
+	private void linkDirectory(final Path source, final Path target) throws IOException {
+
+		Files.walkFileTree(source, new SimpleFileVisitor<Path>() {
+
+			@Override
+			public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+				Files.createDirectories(target.resolve(source.relativize(dir).toString()));
+				return FileVisitResult.CONTINUE;
+			}
+
+			@Override
+			public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+				if (!isTempFile(file.toFile())) {
+					linkFile(file, target.resolve(source.relativize(file).toString()));
+				}
+				return FileVisitResult.CONTINUE;
+			}
+
+			@Override
+			public FileVisitResult visitFileFailed(Path file, IOException e) throws IOException {
+				// The temporary files may have been renamed in the meantime
+				return FileVisitResult.CONTINUE;
+			}
+		});
+	}
+
+	/**
+	 * Shares a file using a hard link, or copies it if the file system doesn't
+	 * support hard links
+	 * 
+	 * @param source
+	 *            the source file
+	 * @param target
+	 *            the target file
+	 * @throws IOException
+	 *             if an IOException occurs
+	 */
+	private void linkFile(Path source, Path target) throws IOException {
+
+		try {
+			Files.createLink(target, source);
+		} catch (UnsupportedOperationException | IOException e) {
+			Files.copy(source, target, StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	/**
+	 * Deletes a directory and its content. The files which can't be deleted
+	 * are removed at the next attempt.
+	 * 
+	 * @param dir
+	 *            the directory
+	 */
+	private void deleteDirectory(File dir) {
+
+		File[] files = dir.listFiles();
+		if (files != null) {
+			for (File file : files) {
+				if (file.isDirectory()) {
+					deleteDirectory(file);
+				} else if (!file.delete() && LOGGER.isDebugEnabled()) {
+					LOGGER.debug("Unable to delete the file " + file);
+				}
+			}
+		}
+		if (!dir.delete() && LOGGER.isDebugEnabled()) {
+			LOGGER.debug("Unable to delete the directory " + dir);
+		}
+	}
+
+	/**
+	 * Checks if a file is a temporary file, which is renamed once written
+	 * 
+	 * @param file
+	 *            the file
+	 * @return true if the file is a temporary file
+	 */
+	private boolean isTempFile(File file) {
+		return file.getName().startsWith(".") && file.getName().endsWith(TEMP_FILE_SUFFIX);
+	}
+
+	/**
+	 * Renames a file, replacing the target file in one atomic operation when
+	 * the file system supports it
+	 * 
+	 * @param source
+	 *            the file to rename
+	 * @param target
+	 *            the target file
+	 * @throws IOException
+	 *             if an IOException occurs
+	 */
+	private void moveFile(File source, File target) throws IOException {
+
+		try {
+			Files.move(source.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE,
+					StandardCopyOption.REPLACE_EXISTING);
+		} catch (AtomicMoveNotSupportedException e) {
+			Files.move(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
 	}
 
 	/*
@@ -233,7 +719,7 @@ public abstract class AbstractResourceBundleHandler implements ResourceBundleHan
 	 */
 	@Override
 	public String getBundleTextDirPath() {
-		return textDirPath;
+		return getStoreGeneration().getDirPath(TEMP_TEXT_SUBDIR);
 	}
 
 	/*
@@ -244,7 +730,36 @@ public abstract class AbstractResourceBundleHandler implements ResourceBundleHan
 	 */
 	@Override
 	public String getBundleZipDirPath() {
-		return gzipDirPath;
+		return getStoreGeneration().getDirPath(TEMP_GZIP_SUBDIR);
+	}
+
+	/**
+	 * Sets the encoders which create the additional precompressed versions of
+	 * the bundles. The gzipped version is always created.
+	 * 
+	 * @param bundleEncoders
+	 *            the bundle encoders
+	 */
+	public void setBundleEncoders(List<BundleEncoder> bundleEncoders) {
+
+		List<String> encodings = new ArrayList<>();
+		encodings.add(GzipBundleEncoder.GZIP_ENCODING);
+		for (BundleEncoder encoder : bundleEncoders) {
+			encodings.add(encoder.getEncoding());
+		}
+		this.bundleEncoders = new ArrayList<>(bundleEncoders);
+		this.storedEncodings = Collections.unmodifiableList(encodings);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see net.jawr.web.resource.handler.bundle.ResourceBundleHandler#
+	 * getStoredEncodings()
+	 */
+	@Override
+	public List<String> getStoredEncodings() {
+		return storedEncodings;
 	}
 
 	/*
@@ -266,7 +781,26 @@ public abstract class AbstractResourceBundleHandler implements ResourceBundleHan
 	@Override
 	public boolean isExistingMappingFile() {
 
-		return getBundleMappingStream() != null;
+		BundleGeneration generation = acquireCurrentGeneration();
+		try {
+			return isExistingMappingFile(generation);
+		} finally {
+			releaseGeneration(generation);
+		}
+	}
+
+	/**
+	 * Checks if the mapping file exists in a generation
+	 * 
+	 * @param generation
+	 *            the generation
+	 * @return true if the mapping file exists in the generation
+	 */
+	private boolean isExistingMappingFile(BundleGeneration generation) {
+
+		InputStream is = getBundleMappingStream(generation);
+		IOUtils.close(is);
+		return is != null;
 	}
 
 	/**
@@ -278,9 +812,10 @@ public abstract class AbstractResourceBundleHandler implements ResourceBundleHan
 	public Properties getJawrBundleMapping() {
 
 		final Properties bundleMapping = new Properties();
+		BundleGeneration generation = acquireCurrentGeneration();
 		InputStream is = null;
 		try {
-			is = getBundleMappingStream();
+			is = getBundleMappingStream(generation);
 			if (is != null) {
 				((Properties) bundleMapping).load(is);
 			} else {
@@ -291,21 +826,24 @@ public abstract class AbstractResourceBundleHandler implements ResourceBundleHan
 					+ JawrConstant.JAWR_JS_MAPPING_PROPERTIES_FILENAME + "'");
 		} finally {
 			IOUtils.close(is);
+			releaseGeneration(generation);
 		}
 
 		return bundleMapping;
 	}
 
 	/**
-	 * Returns the bundle mapping file
+	 * Returns the bundle mapping file of a generation
 	 * 
+	 * @param generation
+	 *            the generation
 	 * @return the bundle mapping file
 	 */
-	private InputStream getBundleMappingStream() {
+	private InputStream getBundleMappingStream(BundleGeneration generation) {
 
 		InputStream is = null;
 		try {
-			is = getTemporaryResourceAsStream(PathNormalizer.concatWebPath(tempDirPath + "/", mappingFileName));
+			is = getTemporaryResourceAsStream(PathNormalizer.concatWebPath(generation.rootDir + "/", mappingFileName));
 		} catch (ResourceNotFoundException e) {
 			// Nothing to do
 		}
@@ -357,11 +895,20 @@ public abstract class AbstractResourceBundleHandler implements ResourceBundleHan
 	@Override
 	public void storeJawrBundleMapping(Properties bundleMapping) {
 
-		File bundleMappingFile = new File(tempDirPath, mappingFileName);
+		// The mapping doesn't create a new generation, it's only stored with
+		// the bundles which have changed
+		BundleGeneration generation = stagingGeneration;
+		if (generation == null) {
+			generation = getCurrentBundleGeneration();
+		}
+		File bundleMappingFile = new File(generation.rootDir, mappingFileName);
+		File tmpFile = new File(bundleMappingFile.getParentFile(), "." + mappingFileName + TEMP_FILE_SUFFIX);
 		OutputStream out = null;
 		try {
-			out = new FileOutputStream(bundleMappingFile);
+			out = new FileOutputStream(tmpFile);
 			bundleMapping.store(out, "Jawr mapping");
+			out.close();
+			moveFile(tmpFile, bundleMappingFile);
 		} catch (IOException e) {
 			LOGGER.error("Unable to store the bundle mapping");
 		} finally {
@@ -412,27 +959,150 @@ public abstract class AbstractResourceBundleHandler implements ResourceBundleHan
 	public ReadableByteChannel getResourceBundleChannel(String bundleName, boolean gzipBundle)
 			throws ResourceNotFoundException {
 
-		String tempFileName = getStoredBundlePath(bundleName, gzipBundle);
-		InputStream is = getTemporaryResourceAsStream(tempFileName);
+		BundleGeneration generation = acquireCurrentGeneration();
+		return getStoredBundleChannel(generation, getStoredBundlePath(generation, bundleName, gzipBundle));
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see net.jawr.web.resource.handler.bundle.ResourceBundleHandler#
+	 * getResourceBundleChannel(java.lang.String, java.lang.String)
+	 */
+	@Override
+	public ReadableByteChannel getResourceBundleChannel(String bundleName, String encoding)
+			throws ResourceNotFoundException {
+
+		if (!storedEncodings.contains(encoding)) {
+			throw new ResourceNotFoundException(bundleName);
+		}
+		BundleGeneration generation = acquireCurrentGeneration();
+		return getStoredBundleChannel(generation,
+				getStoredBundlePath(getEncodingDirPath(generation, encoding), bundleName));
+	}
+
+	/**
+	 * Returns the readable byte channel of a stored bundle. The generation is
+	 * released when the channel is closed.
+	 * 
+	 * @param generation
+	 *            the generation, which has been acquired by the caller
+	 * @param tempFileName
+	 *            the path of the stored bundle
+	 * @return the readable byte channel of the stored bundle
+	 * @throws ResourceNotFoundException
+	 *             if the resource is not found
+	 */
+	private ReadableByteChannel getStoredBundleChannel(BundleGeneration generation, String tempFileName)
+			throws ResourceNotFoundException {
+
+		InputStream is;
+		try {
+			is = getTemporaryResourceAsStream(tempFileName);
+		} catch (ResourceNotFoundException e) {
+			releaseGeneration(generation);
+			throw e;
+		}
+		if (is instanceof FileInputStream) {
+			// Use the file channel, which allows direct transfers
+			return new GenerationFileChannel(((FileInputStream) is).getChannel(), generation);
+		}
+
+		// Only the working directory itself is used when it's not on the file
+		// system
+		releaseGeneration(generation);
 		return Channels.newChannel(is);
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see net.jawr.web.resource.handler.bundle.ResourceBundleHandler#
+	 * getResourceBundleFile(java.lang.String, boolean)
+	 */
+	@Override
+	public File getResourceBundleFile(String bundleName, boolean gzipBundle) {
+
+		// The file may be sent after the response, so it's not read under the
+		// reference of the generation. The generation replaced by the current
+		// one is never removed.
+		File file = null;
+		if (useFileSystemTempDir) {
+			file = new File(getStoredBundlePath(getCurrentBundleGeneration(), bundleName, gzipBundle));
+			if (!file.isFile()) {
+				file = null;
+			}
+		}
+		return file;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see net.jawr.web.resource.handler.bundle.ResourceBundleHandler#
+	 * getResourceBundleSize(java.lang.String, java.lang.String)
+	 */
+	@Override
+	public long getResourceBundleSize(String bundleName, String encoding) {
+
+		BundleGeneration generation = getCurrentBundleGeneration();
+		String key = encoding + ":" + bundleName;
+		Long size = generation.encodedBundleSizes.get(key);
+		if (size == null) {
+			if (!useFileSystemTempDir || !storedEncodings.contains(encoding)) {
+				return -1;
+			}
+			generation = acquireCurrentGeneration();
+			try {
+				File file = new File(getStoredBundlePath(getEncodingDirPath(generation, encoding), bundleName));
+				if (!file.isFile()) {
+					return -1;
+				}
+				size = file.length();
+				generation.encodedBundleSizes.put(key, size);
+			} finally {
+				releaseGeneration(generation);
+			}
+		}
+		return size;
+	}
+
+	/**
+	 * Returns the path of the directory which contains the bundles stored
+	 * with a content coding in a generation
+	 * 
+	 * @param generation
+	 *            the generation
+	 * @param encoding
+	 *            the content coding
+	 * @return the path of the directory
+	 */
+	private String getEncodingDirPath(BundleGeneration generation, String encoding) {
+
+		if (GzipBundleEncoder.GZIP_ENCODING.equals(encoding)) {
+			return generation.getDirPath(TEMP_GZIP_SUBDIR);
+		}
+		return generation.getDirPath(encoding);
+	}
+
 	/**
 	 * Resolves the file name with which a bundle is stored.
 	 * 
+	 * @param generation
+	 *            the generation
 	 * @param bundleName
 	 *            the bundle name
 	 * @param asGzippedBundle
 	 *            the flag indicating if it's a gzipped bundle or not
 	 * @return the file name.
 	 */
-	private String getStoredBundlePath(String bundleName, boolean asGzippedBundle) {
+	private String getStoredBundlePath(BundleGeneration generation, String bundleName, boolean asGzippedBundle) {
 		String tempFileName;
 
 		if (asGzippedBundle)
-			tempFileName = gzipDirPath;
+			tempFileName = generation.getDirPath(TEMP_GZIP_SUBDIR);
 		else
-			tempFileName = textDirPath;
+			tempFileName = generation.getDirPath(TEMP_TEXT_SUBDIR);
 
 		return getStoredBundlePath(tempFileName, bundleName);
 	}
@@ -480,71 +1150,73 @@ public abstract class AbstractResourceBundleHandler implements ResourceBundleHan
 	@Override
 	public void storeBundle(String bundleName, JoinableResourceBundleContent bundleResourcesContent) {
 
-		// Text version
-		String bundleContent = bundleResourcesContent.getContent().toString();
-		storeBundle(bundleName, bundleContent, false, textDirPath);
+		if (LOGGER.isDebugEnabled()) {
+			LOGGER.debug("Storing a generated bundle with an id of:" + bundleName);
+		}
 
-		// binary version
-		storeBundle(bundleName, bundleContent, true, gzipDirPath);
-	}
+		List<BundleEncoder> encoders = new ArrayList<>(bundleEncoders.size() + 1);
+		encoders.add(GZIP_ENCODER);
+		encoders.addAll(bundleEncoders);
 
-	/**
-	 * Stores a resource bundle either in text or binary gzipped format.
-	 * 
-	 * @param bundleName
-	 *            the bundle name
-	 * @param bundledResources
-	 *            the bundledResources
-	 * @param gzipFile
-	 *            a flag defining if the file is gzipped or not
-	 * @param rootDir
-	 *            the root directory
-	 */
-	@SuppressWarnings("resource")
-	private void storeBundle(String bundleName, String bundledResources, boolean gzipFile, String rootdir) {
-		if (LOGGER.isDebugEnabled()) {
-			String msg = "Storing a generated " + (gzipFile ? "and gzipped" : "") + " bundle with an id of:"
-					+ bundleName;
-			LOGGER.debug(msg);
+		// A bundle which hasn't changed doesn't create a new generation
+		if (stagingGeneration == null && generationStarted
+				&& isStoredBundle(getCurrentBundleGeneration(), bundleName, bundleResourcesContent, encoders)) {
+			return;
 		}
 
+		// The bundle files are written in temporary files, which replace them
+		// once complete, so the requests never read a partial bundle
+		BundleGeneration generation = getStoreGeneration();
+		List<File> storeFiles = new ArrayList<>(encoders.size() + 1);
+		List<File> tmpFiles = new ArrayList<>(encoders.size() + 1);
+		List<OutputStream> outputs = new ArrayList<>(encoders.size() + 1);
 		try {
-			// Create subdirs if needed
-			bundleName = bundleName.replaceAll(":", "_");
-			if (bundleName.indexOf('/') != -1) {
-				StringTokenizer tk = new StringTokenizer(bundleName, "/");
-				StringBuilder pathName = new StringBuilder(rootdir);
-				while (tk.hasMoreTokens()) {
-					String name = tk.nextToken();
-					if (tk.hasMoreTokens()) {
-						pathName.append(File.separator).append(name);
-						createDir(pathName.toString());
+			boolean written = false;
+			try {
+				// Text version
+				storeFiles.add(createBundleFile(bundleName, generation.getDirPath(TEMP_TEXT_SUBDIR)));
+				outputs.add(newBundleOutputStream(createTempFile(storeFiles.get(0), tmpFiles)));
+
+				// binary versions
+				for (BundleEncoder encoder : encoders) {
+					String rootDir = getEncodingDirPath(generation, encoder.getEncoding());
+					if (encoder != GZIP_ENCODER) {
+						createDir(rootDir);
+					}
+					File store = createBundleFile(bundleName, rootDir);
+					storeFiles.add(store);
+					outputs.add(encoder.encode(newBundleOutputStream(createTempFile(store, tmpFiles))));
+				}
+
+				// The content is encoded only once, and its bytes are written
+				// in all the versions at the same time
+				IOUtils.write(bundleResourcesContent.getContent(), charset, new BroadcastOutputStream(outputs));
+				written = true;
+			} finally {
+				if (!written) {
+					for (OutputStream out : outputs) {
+						IOUtils.close(out);
 					}
 				}
-				bundleName = bundleName.replace('/', File.separatorChar);
 			}
 
-			File store = createNewFile(rootdir + File.separator + bundleName);
+			// The encoders write their last bytes when they are closed, so the
+			// files are only renamed once all of them are complete
+			closeOutputs(outputs);
+			for (int i = 0; i < storeFiles.size(); i++) {
+				moveFile(tmpFiles.get(i), storeFiles.get(i));
+			}
 
-			GZIPOutputStream gzOut = null;
-			Writer wr = null;
-			try {
-				if (gzipFile) {
-					FileOutputStream fos = new FileOutputStream(store);
-					gzOut = new GZIPOutputStream(fos);
-					byte[] data = bundledResources.getBytes(charset.name());
-					gzOut.write(data, 0, data.length);
-				} else {
-					FileOutputStream fos = new FileOutputStream(store);
-					FileChannel channel = fos.getChannel();
-					wr = Channels.newWriter(channel, charset.newEncoder(), -1);
-					wr.write(bundledResources);
-				}
-			} finally {
-				IOUtils.close(gzOut);
-				IOUtils.close(wr);
+			for (int i = 0; i < encoders.size(); i++) {
+				generation.encodedBundleSizes.put(encoders.get(i).getEncoding() + ":" + bundleName,
+						storeFiles.get(i + 1).length());
 			}
 		} catch (IOException e) {
+			for (File tmpFile : tmpFiles) {
+				if (tmpFile.exists() && !tmpFile.delete()) {
+					LOGGER.debug("Unable to delete the temporary file " + tmpFile);
+				}
+			}
 			if (ThreadLocalJawrContext.isInterruptingProcessingBundle() || e instanceof ClosedByInterruptException) {
 				throw new InterruptBundlingProcessException();
 			}
@@ -552,6 +1224,139 @@ public abstract class AbstractResourceBundleHandler implements ResourceBundleHan
 		}
 	}
 
+	/**
+	 * Closes the output streams of a bundle. All the streams are closed, even
+	 * if one of them fails.
+	 * 
+	 * @param outputs
+	 *            the output streams
+	 * @throws IOException
+	 *             the first IOException thrown while closing the streams
+	 */
+	private void closeOutputs(List<OutputStream> outputs) throws IOException {
+
+		IOException exception = null;
+		for (OutputStream out : outputs) {
+			try {
+				out.close();
+			} catch (IOException e) {
+				if (exception == null) {
+					exception = e;
+				}
+			}
+		}
+		if (exception != null) {
+			throw exception;
+		}
+	}
+
+	/**
+	 * Checks if a bundle is already stored in a generation with the same
+	 * content, in text format and with all the content codings
+	 * 
+	 * @param generation
+	 *            the generation
+	 * @param bundleName
+	 *            the bundle name
+	 * @param bundleResourcesContent
+	 *            the bundle content
+	 * @param encoders
+	 *            the encoders of the bundle
+	 * @return true if the bundle is already stored
+	 */
+	private boolean isStoredBundle(BundleGeneration generation, String bundleName,
+			JoinableResourceBundleContent bundleResourcesContent, List<BundleEncoder> encoders) {
+
+		File textFile = new File(getStoredBundlePath(generation.getDirPath(TEMP_TEXT_SUBDIR), bundleName));
+		if (!textFile.isFile()) {
+			return false;
+		}
+		for (BundleEncoder encoder : encoders) {
+			if (!new File(getStoredBundlePath(getEncodingDirPath(generation, encoder.getEncoding()), bundleName))
+					.isFile()) {
+				return false;
+			}
+		}
+
+		try {
+			byte[] content = bundleResourcesContent.getContent().toString().getBytes(charset);
+			return textFile.length() == content.length && Arrays.equals(Files.readAllBytes(textFile.toPath()), content);
+		} catch (IOException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Returns the file where a bundle is stored, and creates its parent
+	 * directories
+	 * 
+	 * @param bundleName
+	 *            the bundle name
+	 * @param rootDir
+	 *            the root directory
+	 * @return the bundle file
+	 * @throws IOException
+	 *             if an IOException occurs
+	 */
+	private File createBundleFile(String bundleName, String rootdir) throws IOException {
+
+		// Create subdirs if needed
+		bundleName = bundleName.replaceAll(":", "_");
+		if (bundleName.indexOf('/') != -1) {
+			StringTokenizer tk = new StringTokenizer(bundleName, "/");
+			StringBuilder pathName = new StringBuilder(rootdir);
+			while (tk.hasMoreTokens()) {
+				String name = tk.nextToken();
+				if (tk.hasMoreTokens()) {
+					pathName.append(File.separator).append(name);
+					createDir(pathName.toString());
+				}
+			}
+			bundleName = bundleName.replace('/', File.separatorChar);
+		}
+
+		String path = rootdir + File.separator + bundleName;
+		// In windows, pathnames with spaces are returned as %20
+		if (path.contains("%20"))
+			path = path.replaceAll("%20", " ");
+		return new File(path);
+	}
+
+	/**
+	 * Creates the temporary file where a bundle file is written before
+	 * replacing it
+	 * 
+	 * @param store
+	 *            the bundle file
+	 * @param tmpFiles
+	 *            the list of temporary files, where the new one is added
+	 * @return the temporary file
+	 * @throws IOException
+	 *             if an IOException occurs
+	 */
+	private File createTempFile(File store, List<File> tmpFiles) throws IOException {
+
+		File tmpFile = File.createTempFile("." + store.getName() + ".", TEMP_FILE_SUFFIX, store.getParentFile());
+		tmpFiles.add(tmpFile);
+		return tmpFile;
+	}
+
+	/**
+	 * Returns an output stream on the bundle file. The stream is backed by a
+	 * file channel, so the writing stops if the bundling process is
+	 * interrupted.
+	 * 
+	 * @param store
+	 *            the bundle file
+	 * @return the output stream
+	 * @throws IOException
+	 *             if an IOException occurs
+	 */
+	@SuppressWarnings("resource")
+	private OutputStream newBundleOutputStream(File store) throws IOException {
+		return Channels.newOutputStream(new FileOutputStream(store).getChannel());
+	}
+
 	/**
 	 * Creates a directory. If dir is not created for some reason a
 	 * runtime exception is thrown.
@@ -574,27 +1379,336 @@ public abstract class AbstractResourceBundleHandler implements ResourceBundleHan
 	}
 
 	/**
-	 * Creates a file. If dir is not created for some reason a runtimeexception
-	 * is thrown.
-	 * 
-	 * @param path
-	 * @return
-	 * @throws IOException
+	 * A generation of the stored bundles, with its own bundle mapping
 	 */
-	private File createNewFile(String path) throws IOException {
+	private static final class BundleGeneration {
+
+		/** The generation number */
+		private final int number;
+
+		/** The path of the root directory of the generation */
+		private final String rootDir;
+
+		/** The sizes of the encoded bundles of the generation */
+		private final Map<String, Long> encodedBundleSizes = new ConcurrentHashMap<>();
+
+		/** The number of readers of the generation, or -1 once it's removed */
+		private final AtomicInteger readers = new AtomicInteger();
+
+		/** The flag indicating if the generation has been replaced */
+		private volatile boolean replaced;
+
+		/**
+		 * The number of generations committed since this one has been
+		 * replaced. This is guarded by the lock of the handler.
+		 */
+		private int supersededCount;
+
+		/**
+		 * Constructor
+		 * 
+		 * @param number
+		 *            the generation number
+		 * @param rootDir
+		 *            the path of the root directory of the generation
+		 */
+		private BundleGeneration(int number, String rootDir) {
+			this.number = number;
+			this.rootDir = rootDir;
+		}
 
-		// In windows, pathnames with spaces are returned as %20
-		if (path.contains("%20"))
-			path = path.replaceAll("%20", " ");
-		File newFile = new File(path);
+		/**
+		 * Returns the path of a sub directory of the generation
+		 * 
+		 * @param subDir
+		 *            the sub directory name
+		 * @return the path of the sub directory
+		 */
+		private String getDirPath(String subDir) {
+			return rootDir + File.separator + subDir;
+		}
+
+		/**
+		 * Registers a reader of the generation
+		 * 
+		 * @return false if the generation has been removed
+		 */
+		private boolean acquire() {
+
+			int count = readers.get();
+			while (count >= 0) {
+				if (readers.compareAndSet(count, count + 1)) {
+					return true;
+				}
+				count = readers.get();
+			}
+			return false;
+		}
 
-		if (!newFile.exists() && !newFile.createNewFile()) {
-			throw new BundlingProcessException("Unable to create a temporary file at " + path);
+		/**
+		 * Unregisters a reader of the generation
+		 * 
+		 * @return the number of remaining readers
+		 */
+		private int release() {
+			return readers.decrementAndGet();
 		}
 
-		if (LOGGER.isDebugEnabled())
-			LOGGER.debug("Created file: " + newFile.getCanonicalPath());
-		return newFile;
+		/**
+		 * Marks the generation as removed if it has no reader
+		 * 
+		 * @return true if the generation can be removed
+		 */
+		private boolean remove() {
+			return readers.compareAndSet(0, -1);
+		}
+	}
+
+	/**
+	 * This file channel reads a bundle of a generation, which is released
+	 * when the channel is closed. It remains a file channel, so the bundle can
+	 * be transferred directly.
+	 */
+	private class GenerationFileChannel extends FileChannel {
+
+		/** The file channel of the bundle */
+		private final FileChannel channel;
+
+		/** The generation of the bundle */
+		private final BundleGeneration generation;
+
+		/**
+		 * Constructor
+		 * 
+		 * @param channel
+		 *            the file channel of the bundle
+		 * @param generation
+		 *            the generation of the bundle
+		 */
+		private GenerationFileChannel(FileChannel channel, BundleGeneration generation) {
+			this.channel = channel;
+			this.generation = generation;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see java.nio.channels.FileChannel#read(java.nio.ByteBuffer)
+		 */
+		@Override
+		public int read(ByteBuffer dst) throws IOException {
+			return channel.read(dst);
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see java.nio.channels.FileChannel#read(java.nio.ByteBuffer[], int, int)
+		 */
+		@Override
+		public long read(ByteBuffer[] dsts, int offset, int length) throws IOException {
+			return channel.read(dsts, offset, length);
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see java.nio.channels.FileChannel#read(java.nio.ByteBuffer, long)
+		 */
+		@Override
+		public int read(ByteBuffer dst, long position) throws IOException {
+			return channel.read(dst, position);
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see java.nio.channels.FileChannel#write(java.nio.ByteBuffer)
+		 */
+		@Override
+		public int write(ByteBuffer src) throws IOException {
+			return channel.write(src);
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see java.nio.channels.FileChannel#write(java.nio.ByteBuffer[], int, int)
+		 */
+		@Override
+		public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+			return channel.write(srcs, offset, length);
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see java.nio.channels.FileChannel#write(java.nio.ByteBuffer, long)
+		 */
+		@Override
+		public int write(ByteBuffer src, long position) throws IOException {
+			return channel.write(src, position);
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see java.nio.channels.FileChannel#position()
+		 */
+		@Override
+		public long position() throws IOException {
+			return channel.position();
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see java.nio.channels.FileChannel#position(long)
+		 */
+		@Override
+		public FileChannel position(long newPosition) throws IOException {
+			channel.position(newPosition);
+			return this;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see java.nio.channels.FileChannel#size()
+		 */
+		@Override
+		public long size() throws IOException {
+			return channel.size();
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see java.nio.channels.FileChannel#truncate(long)
+		 */
+		@Override
+		public FileChannel truncate(long size) throws IOException {
+			channel.truncate(size);
+			return this;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see java.nio.channels.FileChannel#force(boolean)
+		 */
+		@Override
+		public void force(boolean metaData) throws IOException {
+			channel.force(metaData);
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see java.nio.channels.FileChannel#transferTo(long, long, java.nio.channels.WritableByteChannel)
+		 */
+		@Override
+		public long transferTo(long position, long count, WritableByteChannel target) throws IOException {
+			return channel.transferTo(position, count, target);
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see java.nio.channels.FileChannel#transferFrom(java.nio.channels.ReadableByteChannel, long, long)
+		 */
+		@Override
+		public long transferFrom(ReadableByteChannel src, long position, long count) throws IOException {
+			return channel.transferFrom(src, position, count);
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see java.nio.channels.FileChannel#map(java.nio.channels.FileChannel.MapMode, long, long)
+		 */
+		@Override
+		public MappedByteBuffer map(MapMode mode, long position, long size) throws IOException {
+			return channel.map(mode, position, size);
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see java.nio.channels.FileChannel#lock(long, long, boolean)
+		 */
+		@Override
+		public FileLock lock(long position, long size, boolean shared) throws IOException {
+			return channel.lock(position, size, shared);
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see java.nio.channels.FileChannel#tryLock(long, long, boolean)
+		 */
+		@Override
+		public FileLock tryLock(long position, long size, boolean shared) throws IOException {
+			return channel.tryLock(position, size, shared);
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see java.nio.channels.spi.AbstractInterruptibleChannel#
+		 * implCloseChannel()
+		 */
+		@Override
+		protected void implCloseChannel() throws IOException {
+			try {
+				channel.close();
+			} finally {
+				releaseGeneration(generation);
+			}
+		}
+	}
+
+	/**
+	 * This output stream writes the same bytes in several output streams
+	 */
+	private static class BroadcastOutputStream extends OutputStream {
+
+		/** The output streams */
+		private final List<OutputStream> outputs;
+
+		/**
+		 * Constructor
+		 * 
+		 * @param outputs
+		 *            the output streams
+		 */
+		private BroadcastOutputStream(List<OutputStream> outputs) {
+			this.outputs = outputs;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see java.io.OutputStream#write(int)
+		 */
+		@Override
+		public void write(int b) throws IOException {
+			for (OutputStream out : outputs) {
+				out.write(b);
+			}
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see java.io.OutputStream#write(byte[], int, int)
+		 */
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			for (OutputStream out : outputs) {
+				out.write(b, off, len);
+			}
+		}
 	}
 
 }
@@ -13,9 +13,11 @@
  */
 package net.jawr.web.resource.handler.bundle;
 
+import java.io.File;
 import java.io.InputStream;
 import java.io.Reader;
 import java.nio.channels.ReadableByteChannel;
+import java.util.List;
 import java.util.Properties;
 
 import net.jawr.web.exception.ResourceNotFoundException;
@@ -38,7 +40,8 @@ public interface ResourceBundleHandler {
 
 	/**
 	 * Stores a collected group of resources with the specified name. Creates a
-	 * text version, a gzipped binary version.
+	 * text version, a gzipped binary version, and a version for each
+	 * additional bundle encoder.
 	 * 
 	 * @param bundleName
 	 *            the bundle name.
@@ -70,6 +73,56 @@ public interface ResourceBundleHandler {
 	 */
 	public ReadableByteChannel getResourceBundleChannel(String bundleName) throws ResourceNotFoundException;
 
+	/**
+	 * Retrieves ReadableByteChannel on a resource bundle stored with a content
+	 * coding.
+	 * 
+	 * @param bundleName
+	 *            the bundle name
+	 * @param encoding
+	 *            the content coding, which must be one of the stored
+	 *            encodings
+	 * @return ReadableByteChannel channel to read the file where the encoded
+	 *         bundle is stored.
+	 * @throws net.jawr.web.exception.ResourceNotFoundException
+	 *             if the resource is not found
+	 */
+	public ReadableByteChannel getResourceBundleChannel(String bundleName, String encoding)
+			throws ResourceNotFoundException;
+
+	/**
+	 * Returns the content codings in which the bundles are stored. The gzip
+	 * content coding is always the first one.
+	 * 
+	 * @return the content codings in which the bundles are stored
+	 */
+	public List<String> getStoredEncodings();
+
+	/**
+	 * Returns the size in bytes of a bundle stored with a content coding
+	 * 
+	 * @param bundleName
+	 *            the bundle name
+	 * @param encoding
+	 *            the content coding
+	 * @return the size of the encoded bundle, or -1 if it is unknown
+	 */
+	public long getResourceBundleSize(String bundleName, String encoding);
+
+	/**
+	 * Returns the file where a bundle is stored, if the bundles are stored in
+	 * a file system directory.
+	 * 
+	 * @param bundleName
+	 *            the bundle name
+	 * @param gzipBundle
+	 *            the flag indicating if we want to retrieve the gzip version or
+	 *            not
+	 * @return the file where the bundle is stored, or null if the bundle is
+	 *         not stored in a file system directory
+	 */
+	public File getResourceBundleFile(String bundleName, boolean gzipBundle);
+
 	/**
 	 * Retrieves the input stream of a resource bundle.
 	 * 
@@ -104,17 +157,50 @@ public interface ResourceBundleHandler {
 	public void storeJawrBundleMapping(Properties bundleMapping);
 
 	/**
-	 * Returns the path of the directory containing the generated text bundles
+	 * Returns the path of the directory containing the generated text bundles.
+	 * While a generation is being built, this is the directory of the new
+	 * generation.
 	 * 
 	 * @return the path of the directory containing the generated text bundles
 	 */
 	public String getBundleTextDirPath();
 
 	/**
-	 * Returns the path of the directory containing the generated zipped bundles
+	 * Returns the path of the directory containing the generated zipped
+	 * bundles. While a generation is being built, this is the directory of the
+	 * new generation.
 	 * 
 	 * @return the path of the directory containing the generated zipped bundles
 	 */
 	public String getBundleZipDirPath();
 
+	/**
+	 * Starts a new generation of the stored bundles. The new generation
+	 * contains the bundles of the current one, and the bundles and the bundle
+	 * mapping stored until it is committed only replace them in the new
+	 * generation. The bundles are still read from the current generation.
+	 */
+	public void startGeneration();
+
+	/**
+	 * Commits the generation started by {@link #startGeneration()}, which
+	 * becomes the current generation in a single step. The generations which
+	 * are not used anymore are removed after a delay, as some requests may
+	 * still read them.
+	 */
+	public void commitGeneration();
+
+	/**
+	 * Discards the generation started by {@link #startGeneration()}, and
+	 * removes its files. The current generation is kept.
+	 */
+	public void discardGeneration();
+
+	/**
+	 * Returns the number of the current generation of the stored bundles
+	 * 
+	 * @return the number of the current generation
+	 */
+	public int getCurrentGeneration();
+
 }
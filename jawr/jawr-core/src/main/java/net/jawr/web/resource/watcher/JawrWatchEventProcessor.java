@@ -15,27 +15,44 @@ package net.jawr.web.resource.watcher;
 
 import static java.nio.file.LinkOption.NOFOLLOW_LINKS;
 import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
 
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import net.jawr.web.exception.BundlingProcessException;
+import net.jawr.web.exception.InterruptBundlingProcessException;
 import net.jawr.web.resource.FileNameUtils;
 import net.jawr.web.resource.bundle.JoinableResourceBundle;
+import net.jawr.web.resource.bundle.generator.GeneratorRegistry;
 import net.jawr.web.resource.bundle.handler.ResourceBundlesHandler;
 import net.jawr.web.resource.bundle.mappings.PathMapping;
 
 /**
- * The Jawr watch event processor
+ * The Jawr watch event processor.
+ * 
+ * The events received are coalesced by path until no event has been received
+ * during the quiet window defined in the configuration. The resulting batch is
+ * then processed at once, so a batch modification, like a checkout, only
+ * marks each modified bundle once, and triggers at most one rebuild.
  * 
  * @author Ibrahim Chaehoi
  */
@@ -44,6 +61,12 @@ public class JawrWatchEventProcessor extends Thread {
 	/** The logger */
 	private static final Logger LOGGER = LoggerFactory.getLogger(JawrWatchEventProcessor.class);
 
+	/**
+	 * The maximum age of a batch of events, in number of quiet windows. This
+	 * ensures that a continuous flow of events is still processed.
+	 */
+	private static final int MAX_BATCH_AGE_IN_QUIET_WINDOWS = 20;
+
 	/** The flag indicating if the watch event processor is stopped or not */
 	private final AtomicBoolean stopProcessing = new AtomicBoolean(false);
 
@@ -56,6 +79,27 @@ public class JawrWatchEventProcessor extends Thread {
 	/** The watch events queue */
 	private final BlockingQueue<JawrWatchEvent> watchEvents;
 
+	/** The events waiting for the end of the quiet window, mapped by path */
+	private final Map<Path, JawrWatchEvent> pendingEvents = new LinkedHashMap<>();
+
+	/** The number of events waiting for the end of the quiet window */
+	private final AtomicInteger pendingEventCount = new AtomicInteger();
+
+	/** The number of events received for the current batch */
+	private int batchReceivedEventCount;
+
+	/** The creation time of the current batch */
+	private long batchStartTime;
+
+	/** The number of events received in the processed batches */
+	private final AtomicLong receivedEventCount = new AtomicLong();
+
+	/** The number of events processed once coalesced */
+	private final AtomicLong processedEventCount = new AtomicLong();
+
+	/** The flag indicating if the modified bundles are being rebuilt */
+	private final AtomicBoolean rebuilding = new AtomicBoolean(false);
+
 	/** The last process time */
 	private final AtomicLong lastProcessTime = new AtomicLong();
 
@@ -92,7 +136,28 @@ public class JawrWatchEventProcessor extends Thread {
 		while (!stopProcessing.get()) {
 
 			try {
-				JawrWatchEvent evt = watchEvents.take();
+				int quietWindow = bundlesHandler.getConfig().getSmartBundlingEventQuietWindow();
+				JawrWatchEvent evt = null;
+				if (pendingEvents.isEmpty()) {
+					evt = watchEvents.take();
+				} else {
+					evt = watchEvents.poll(quietWindow, TimeUnit.MILLISECONDS);
+				}
+
+				if (evt != null) {
+					coalesce(evt);
+					List<JawrWatchEvent> queuedEvents = new ArrayList<>();
+					watchEvents.drainTo(queuedEvents);
+					for (JawrWatchEvent queuedEvent : queuedEvents) {
+						coalesce(queuedEvent);
+					}
+
+					long batchAge = Calendar.getInstance().getTimeInMillis() - batchStartTime;
+					if (batchAge < (long) quietWindow * MAX_BATCH_AGE_IN_QUIET_WINDOWS) {
+						continue;
+					}
+				}
+
 				AtomicBoolean processingBundle = bundlesHandler.isProcessingBundle();
 				synchronized (processingBundle) {
 
@@ -105,18 +170,95 @@ public class JawrWatchEventProcessor extends Thread {
 						}
 					}
 				}
-				if (evt != null && !stopProcessing.get()) {
-					process(evt);
+				if (!stopProcessing.get()) {
+					processPendingEvents();
 				}
 			} catch (InterruptedException e) {
 				LOGGER.debug("Thread interrupted");
 			}
 		}
-		
+
 		this.bundlesHandler = null;
 		this.watcher = null;
 	}
 
+	/**
+	 * Adds an event to the current batch. Only one event is kept by path. The
+	 * creation of a file followed by its modification is kept as a creation,
+	 * and an overflow is never replaced.
+	 * 
+	 * @param evt
+	 *            the jawr watch event
+	 */
+	private void coalesce(JawrWatchEvent evt) {
+
+		if (pendingEvents.isEmpty()) {
+			batchStartTime = Calendar.getInstance().getTimeInMillis();
+		}
+		batchReceivedEventCount++;
+
+		Path path = evt.getResolvedPath();
+		JawrWatchEvent pendingEvent = pendingEvents.get(path);
+		if (pendingEvent == null) {
+			pendingEvents.put(path, evt);
+			pendingEventCount.incrementAndGet();
+		} else if (pendingEvent.getKind() != OVERFLOW
+				&& !(pendingEvent.getKind() == ENTRY_CREATE && evt.getKind() == ENTRY_MODIFY)) {
+			pendingEvents.put(path, evt);
+		}
+	}
+
+	/**
+	 * Processes the events of the current batch
+	 */
+	private void processPendingEvents() {
+
+		List<JawrWatchEvent> events = new ArrayList<>(pendingEvents.values());
+		pendingEvents.clear();
+
+		Set<String> modifiedPaths = new LinkedHashSet<>();
+		Set<JoinableResourceBundle> modifiedBundles = new LinkedHashSet<>();
+		Map<String, List<JoinableResourceBundle>> modifiedFiles = new LinkedHashMap<>();
+		for (JawrWatchEvent evt : events) {
+			collectModifications(evt, modifiedPaths, modifiedBundles, modifiedFiles);
+		}
+		notifyModifications(modifiedPaths, modifiedBundles, modifiedFiles);
+
+		receivedEventCount.addAndGet(batchReceivedEventCount);
+		processedEventCount.addAndGet(events.size());
+		batchReceivedEventCount = 0;
+		lastProcessTime.set(Calendar.getInstance().getTimeInMillis());
+		pendingEventCount.set(0);
+
+		if (LOGGER.isDebugEnabled()) {
+			LOGGER.debug(events.size() + " watch events processed, " + modifiedBundles.size()
+					+ " bundles and " + modifiedFiles.size() + " files modified");
+		}
+
+		if (bundlesHandler.getConfig().isSmartBundlingRebuildOnChange() && bundlesHandler.bundlesNeedToBeRebuild()) {
+			rebuildModifiedBundles();
+		}
+	}
+
+	/**
+	 * Rebuilds the modified bundles at once
+	 */
+	private void rebuildModifiedBundles() {
+
+		rebuilding.set(true);
+		try {
+			bundlesHandler.rebuildModifiedBundles();
+		} catch (InterruptBundlingProcessException e) {
+			if (LOGGER.isInfoEnabled()) {
+				LOGGER.info("Bundling processed stopped");
+			}
+		} catch (BundlingProcessException e) {
+			LOGGER.error("Error while rebuilding the modified bundles", e);
+		} finally {
+			rebuilding.set(false);
+		}
+	}
+
 	/**
 	 * Process the event
 	 * 
@@ -125,58 +267,173 @@ public class JawrWatchEventProcessor extends Thread {
 	 */
 	public void process(JawrWatchEvent evt) {
 
+		Set<String> modifiedPaths = new LinkedHashSet<>();
+		Set<JoinableResourceBundle> modifiedBundles = new LinkedHashSet<>();
+		Map<String, List<JoinableResourceBundle>> modifiedFiles = new LinkedHashMap<>();
+		collectModifications(evt, modifiedPaths, modifiedBundles, modifiedFiles);
+		notifyModifications(modifiedPaths, modifiedBundles, modifiedFiles);
+
+		lastProcessTime.set(Calendar.getInstance().getTimeInMillis());
+	}
+
+	/**
+	 * Collects the bundles impacted by an event
+	 * 
+	 * @param evt
+	 *            the jawr watch event
+	 * @param modifiedPaths
+	 *            the paths of the watched files and directories modified
+	 * @param modifiedBundles
+	 *            the bundles which must be rebuilt entirely
+	 * @param modifiedFiles
+	 *            the bundles to update, mapped by modified file, when only the
+	 *            variants depending on the file need to be rebuilt
+	 */
+	private void collectModifications(JawrWatchEvent evt, Set<String> modifiedPaths,
+			Set<JoinableResourceBundle> modifiedBundles, Map<String, List<JoinableResourceBundle>> modifiedFiles) {
+
 		Path resolvedPath = evt.getResolvedPath();
 		List<PathMapping> mappings = watcher.getPathToResourceBundle().get(evt.getDirPath());
-		if (mappings != null) {
+		if (mappings == null) {
+			return;
+		}
+		modifiedPaths.add(resolvedPath.toFile().getAbsolutePath());
 
-			boolean isDir = Files.isDirectory(resolvedPath, NOFOLLOW_LINKS);
-			List<JoinableResourceBundle> bundles = new ArrayList<>();
+		if (evt.getKind() == OVERFLOW) {
+
+			// Some events have been lost for this directory, so all the
+			// bundles mapped to it are considered as modified, and the
+			// sub-directories which may have been created are registered
 			List<PathMapping> recursivePathMappings = new ArrayList<>();
 			for (PathMapping mapping : mappings) {
+				modifiedBundles.add(mapping.getBundle());
+				if (mapping.isRecursive()) {
+					recursivePathMappings.add(mapping);
+				}
+			}
 
-				String filePath = resolvedPath.toFile().getAbsolutePath();
-				if (mapping.isAsset()) {
-					String fileName = FileNameUtils.getName(filePath);
-					if (fileName.equals(FileNameUtils.getName(mapping.getPath()))) {
-						bundles.add(mapping.getBundle());
+			if (!recursivePathMappings.isEmpty()) {
+				try {
+					watcher.rescan(resolvedPath, recursivePathMappings);
+				} catch (IOException e) {
+					if (LOGGER.isWarnEnabled()) {
+						LOGGER.warn(e.getMessage());
 					}
-				} else {
-					if (isDir) {
-						if (mapping.isRecursive() && (!mapping.hasFileFilter() || mapping.accept(filePath))) {
-							bundles.add(mapping.getBundle());
-						}
-					} else if (!mapping.hasFileFilter() || mapping.accept(filePath)) {
+				}
+			}
+			return;
+		}
+
+		boolean isDir = Files.isDirectory(resolvedPath, NOFOLLOW_LINKS);
+		List<JoinableResourceBundle> bundles = new ArrayList<>();
+		List<PathMapping> recursivePathMappings = new ArrayList<>();
+		String filePath = resolvedPath.toFile().getAbsolutePath();
+		for (PathMapping mapping : mappings) {
+
+			if (mapping.isAsset()) {
+				String fileName = FileNameUtils.getName(filePath);
+				if (fileName.equals(FileNameUtils.getName(mapping.getPath()))) {
+					bundles.add(mapping.getBundle());
+				}
+			} else {
+				if (isDir) {
+					if (mapping.isRecursive() && (!mapping.hasFileFilter() || mapping.accept(filePath))) {
 						bundles.add(mapping.getBundle());
 					}
-					if (mapping.isRecursive()) {
-						recursivePathMappings.add(mapping);
-					}
+				} else if (!mapping.hasFileFilter() || mapping.accept(filePath)) {
+					bundles.add(mapping.getBundle());
+				}
+				if (mapping.isRecursive()) {
+					recursivePathMappings.add(mapping);
 				}
 			}
+		}
 
-			if (!bundles.isEmpty()) {
-				bundlesHandler.notifyModification(bundles);
+		if (!bundles.isEmpty()) {
+			if (!isDir && evt.getKind() == ENTRY_MODIFY) {
+				// Only the variants depending on the modified file need
+				// to be rebuilt
+				modifiedFiles.put(filePath, bundles);
+			} else {
+				modifiedBundles.addAll(bundles);
 			}
+		}
 
-			if (!recursivePathMappings.isEmpty()) {
+		if (!recursivePathMappings.isEmpty()) {
 
-				// if directory is created, and watching
-				// recursively,
-				// then
-				// register it and its sub-directories
-				if (evt.getKind() == ENTRY_CREATE && isDir) {
-					try {
-						watcher.registerAll(resolvedPath, recursivePathMappings);
-					} catch (IOException e) {
-						if (LOGGER.isWarnEnabled()) {
-							LOGGER.warn(e.getMessage());
-						}
+			// if directory is created, and watching
+			// recursively,
+			// then
+			// register it and its sub-directories
+			if (evt.getKind() == ENTRY_CREATE && isDir) {
+				try {
+					watcher.registerAll(resolvedPath, recursivePathMappings);
+				} catch (IOException e) {
+					if (LOGGER.isWarnEnabled()) {
+						LOGGER.warn(e.getMessage());
 					}
 				}
 			}
 		}
+	}
 
-		lastProcessTime.set(Calendar.getInstance().getTimeInMillis());
+	/**
+	 * Notifies the generators and the bundles handler of the modifications
+	 * collected
+	 * 
+	 * @param modifiedPaths
+	 *            the paths of the watched files and directories modified
+	 * @param modifiedBundles
+	 *            the bundles which must be rebuilt entirely
+	 * @param modifiedFiles
+	 *            the bundles to update, mapped by modified file
+	 */
+	private void notifyModifications(Set<String> modifiedPaths, Set<JoinableResourceBundle> modifiedBundles,
+			Map<String, List<JoinableResourceBundle>> modifiedFiles) {
+
+		// The generated resources depending on the modified files must be
+		// generated again
+		GeneratorRegistry generatorRegistry = bundlesHandler.getConfig().getGeneratorRegistry();
+		if (generatorRegistry != null) {
+			for (String path : modifiedPaths) {
+				generatorRegistry.notifyResourceModification(path);
+			}
+		}
+
+		if (!modifiedBundles.isEmpty()) {
+			bundlesHandler.notifyModification(new ArrayList<>(modifiedBundles));
+		}
+
+		for (Entry<String, List<JoinableResourceBundle>> entry : modifiedFiles.entrySet()) {
+
+			// The bundles which will be rebuilt entirely don't need to know
+			// which file has been modified
+			List<JoinableResourceBundle> bundles = new ArrayList<>(entry.getValue());
+			bundles.removeAll(modifiedBundles);
+			if (!bundles.isEmpty()) {
+				bundlesHandler.notifyModification(bundles, entry.getKey());
+			}
+		}
+	}
+
+	/**
+	 * Returns the number of events waiting to be processed
+	 * 
+	 * @return the number of events waiting to be processed
+	 */
+	public int getQueueSize() {
+		return watchEvents.size() + pendingEventCount.get();
+	}
+
+	/**
+	 * Returns the ratio between the number of events received and the number
+	 * of events processed once coalesced by path
+	 * 
+	 * @return the coalescing ratio
+	 */
+	public double getCoalescingRatio() {
+		long processed = processedEventCount.get();
+		return processed == 0 ? 1 : (double) receivedEventCount.get() / processed;
 	}
 
 	/**
@@ -186,8 +443,14 @@ public class JawrWatchEventProcessor extends Thread {
 	 */
 	public boolean hasNoEventToProcess() {
 
+		// The events received during a rebuild triggered by this processor
+		// will be processed in the next batch
+		if (rebuilding.get()) {
+			return true;
+		}
+
 		long currentTime = Calendar.getInstance().getTimeInMillis();
-		return watchEvents.isEmpty() && (currentTime - lastProcessTime.get() > bundlesHandler.getConfig()
-				.getSmartBundlingDelayAfterLastEvent());
+		return watchEvents.isEmpty() && pendingEventCount.get() == 0 && (currentTime
+				- lastProcessTime.get() > bundlesHandler.getConfig().getSmartBundlingDelayAfterLastEvent());
 	}
 }
@@ -33,7 +33,6 @@ import java.nio.file.WatchService;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -99,7 +98,7 @@ public class ResourceWatcher extends Thread {
 		super(bundlesHandler.getResourceType() + " JawrResourceWatcher");
 		this.bundlesHandler = bundlesHandler;
 		this.rsReader = rsReader;
-		this.keys = new HashMap<>();
+		this.keys = new ConcurrentHashMap<>();
 
 		try {
 			this.watchService = FileSystems.getDefault().newWatchService();
@@ -302,6 +301,35 @@ public class ResourceWatcher extends Thread {
 		});
 	}
 
+	/**
+	 * Rescans a directory whose events have been lost, and registers the
+	 * sub-directories which are not yet registered for the path mappings
+	 * given in parameter.
+	 * 
+	 * @param start
+	 *            the directory to rescan
+	 * @param pathMappings
+	 *            the recursive path mappings of the directory
+	 * @throws IOException
+	 *             if an IOException occurs
+	 */
+	void rescan(final Path start, final List<PathMapping> pathMappings) throws IOException {
+		Files.walkFileTree(start, new SimpleFileVisitor<Path>() {
+			@Override
+			public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+				List<PathMapping> missingMappings = new ArrayList<>(pathMappings);
+				List<PathMapping> registeredMappings = pathToResourceBundle.get(dir);
+				if (registeredMappings != null) {
+					missingMappings.removeAll(registeredMappings);
+				}
+				if (!missingMappings.isEmpty()) {
+					register(dir, missingMappings);
+				}
+				return FileVisitResult.CONTINUE;
+			}
+		});
+	}
+
 	/**
 	 * Close the watch service
 	 */
@@ -340,6 +368,9 @@ public class ResourceWatcher extends Thread {
 					WatchEvent.Kind<?> kind = event.kind();
 
 					if (kind == OVERFLOW) {
+						// Some events have been lost for this directory, which
+						// will be rescanned
+						watchEvents.add(new JawrWatchEvent(kind, dir, dir));
 						continue;
 					}
 
@@ -384,4 +415,23 @@ public class ResourceWatcher extends Thread {
 	public boolean hasNoEventToProcess() {
 		return jawrEvtProcessor.hasNoEventToProcess();
 	}
+
+	/**
+	 * Returns the number of watch events waiting to be processed
+	 * 
+	 * @return the number of watch events waiting to be processed
+	 */
+	public int getEventQueueSize() {
+		return jawrEvtProcessor.getQueueSize();
+	}
+
+	/**
+	 * Returns the ratio between the number of watch events received and the
+	 * number of events processed once coalesced by path
+	 * 
+	 * @return the coalescing ratio of the watch events
+	 */
+	public double getEventCoalescingRatio() {
+		return jawrEvtProcessor.getCoalescingRatio();
+	}
 }
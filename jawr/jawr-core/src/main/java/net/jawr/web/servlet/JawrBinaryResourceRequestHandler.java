@@ -16,6 +16,7 @@ package net.jawr.web.servlet;
 import static net.jawr.web.JawrConstant.URL_SEPARATOR;
 
 import java.io.EOFException;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -27,6 +28,8 @@ import java.util.Map.Entry;
 import java.util.Properties;
 import java.util.Set;
 import java.util.StringTokenizer;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
 
 import javax.servlet.ServletConfig;
 import javax.servlet.ServletContext;
@@ -38,9 +41,12 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import net.jawr.web.JawrConstant;
+import net.jawr.web.cache.BoundedCacheManager;
+import net.jawr.web.config.JawrConfig;
 import net.jawr.web.context.ThreadLocalJawrContext;
 import net.jawr.web.exception.InvalidPathException;
 import net.jawr.web.exception.ResourceNotFoundException;
+import net.jawr.web.resource.BinaryResourcesChecksumCache;
 import net.jawr.web.resource.BinaryResourcesHandler;
 import net.jawr.web.resource.bundle.CheckSumUtils;
 import net.jawr.web.resource.bundle.IOUtils;
@@ -50,9 +56,11 @@ import net.jawr.web.resource.bundle.factory.util.PropertiesConfigHelper;
 import net.jawr.web.resource.bundle.generator.GeneratorRegistry;
 import net.jawr.web.resource.bundle.handler.BundleHashcodeType;
 import net.jawr.web.resource.handler.bundle.ResourceBundleHandler;
+import net.jawr.web.resource.handler.reader.ResourceReaderHandler;
 import net.jawr.web.servlet.util.ClientAbortExceptionResolver;
 import net.jawr.web.servlet.util.MIMETypesSupport;
 import net.jawr.web.util.StopWatch;
+import net.jawr.web.util.io.CountingOutputStream;
 
 /**
  * This class defines the request handler for binary web resources (images,
@@ -81,6 +89,15 @@ public class JawrBinaryResourceRequestHandler extends JawrRequestHandler {
 	/** The bundle mapping */
 	private Properties bundleMapping;
 
+	/** The maximum time in ms to wait for the checksum thread to stop */
+	private static final long CHECKSUM_THREAD_STOP_TIMEOUT = 10000;
+
+	/** The pool computing the checksums of the binary resources */
+	private volatile ForkJoinPool checksumPool;
+
+	/** The thread computing the checksums in background */
+	private volatile Thread checksumThread;
+
 	/**
 	 * The binary resource MIME map, associating the resource extension to their
 	 * MIME type
@@ -145,6 +162,9 @@ public class JawrBinaryResourceRequestHandler extends JawrRequestHandler {
 			this.binaryMimeTypeMap = MIMETypesSupport.getSupportedProperties(this);
 		}
 
+		// Stop the computation of the checksums for the previous config
+		stopChecksumComputation();
+
 		// init registry
 		generatorRegistry = new GeneratorRegistry(resourceType);
 
@@ -220,21 +240,39 @@ public class JawrBinaryResourceRequestHandler extends JawrRequestHandler {
 	 * @param binaryRsHandler
 	 *            the binary web resources handler
 	 */
-	private void initMapping(BinaryResourcesHandler binaryRsHandler) {
+	private void initMapping(final BinaryResourcesHandler binaryRsHandler) {
 
 		if (jawrConfig.getUseBundleMapping() && rsBundleHandler.isExistingMappingFile()) {
 
 			// Initialize the binary web resource mapping
+			final List<String> resourcePaths = new ArrayList<>();
 			Iterator<Entry<Object, Object>> mapIterator = bundleMapping.entrySet().iterator();
 			while (mapIterator.hasNext()) {
 				Entry<Object, Object> entry = mapIterator.next();
 				binaryRsHandler.addMapping((String) entry.getKey(), entry.getValue().toString());
+				if (!JawrConstant.JAWR_CONFIG_HASHCODE.equals(entry.getKey())) {
+					resourcePaths.add((String) entry.getKey());
+				}
 			}
 
+			if (jawrConfig.isImageTagCachePrecompute()) {
+				runInitTask(new Runnable() {
+
+					@Override
+					public void run() {
+						binaryRsHandler.precomputeImageTagCache(resourcePaths);
+					}
+				}, "Jawr binary resources image tag cache");
+			}
+
+			if (LOGGER.isDebugEnabled())
+				LOGGER.debug("Finish creation of map for image bundle");
+
 		} else {
 			// Create a resource handler to read files from the WAR archive or
 			// exploded dir.
 
+			final List<String> resourcePaths = new ArrayList<>();
 			String binaryResourcesDefinition = jawrConfig.getBinaryResourcesDefinition();
 			if (binaryResourcesDefinition != null) {
 
@@ -247,48 +285,219 @@ public class JawrBinaryResourceRequestHandler extends JawrRequestHandler {
 					if (generatorRegistry.isGeneratedBinaryResource(pathMapping)
 							&& hasBinaryFileExtension(pathMapping)) {
 
-						addBinaryResourcePath(binaryRsHandler, pathMapping);
+						resourcePaths.add(pathMapping);
 					}
 					// path ends in /, the folder is included without subfolders
 					else if (pathMapping.endsWith("/")) {
-						addItemsFromDir(binaryRsHandler, pathMapping, false);
+						addItemsFromDir(binaryRsHandler, resourcePaths, pathMapping, false);
 					}
 					// path ends in /, the folder is included with all
 					// subfolders
 					else if (pathMapping.endsWith("/**")) {
-						addItemsFromDir(binaryRsHandler, pathMapping.substring(0, pathMapping.lastIndexOf("**")), true);
+						addItemsFromDir(binaryRsHandler, resourcePaths,
+								pathMapping.substring(0, pathMapping.lastIndexOf("**")), true);
 					} else if (hasBinaryFileExtension(pathMapping)) {
-						addBinaryResourcePath(binaryRsHandler, pathMapping);
+						resourcePaths.add(pathMapping);
 					} else
 						LOGGER.warn(
 								"Wrong mapping [" + pathMapping + "] for image bundle. Please check configuration. ");
 				}
 			}
+
+			// The binary resources which are not mapped yet are handled
+			// at runtime, so the requests and the image tags get the cache
+			// busted URLs while the checksums are computed.
+			runInitTask(new Runnable() {
+
+				@Override
+				public void run() {
+					addBinaryResourcePaths(binaryRsHandler, resourcePaths);
+				}
+			}, "Jawr binary resources checksums");
+		}
+	}
+
+	/**
+	 * Runs a task of the binary resource initialization. The task is run in
+	 * background if the checksums are computed in background, and in the
+	 * current thread otherwise.
+	 * 
+	 * @param task
+	 *            the task to run
+	 * @param threadName
+	 *            the name of the background thread
+	 */
+	private void runInitTask(Runnable task, String threadName) {
+
+		if (jawrConfig.isBinaryChecksumInBackground()) {
+			Thread thread = new Thread(task, threadName);
+			thread.setDaemon(true);
+			checksumThread = thread;
+			thread.start();
+		} else {
+			task.run();
+		}
+	}
+
+	/**
+	 * Adds the binary resource paths to the binary map, and stores the bundle
+	 * mapping. The checksums are computed in parallel, if more than one thread
+	 * is configured.
+	 * 
+	 * @param binRsHandler
+	 *            the binary resources handler
+	 * @param resourcePaths
+	 *            the binary resource paths
+	 */
+	private void addBinaryResourcePaths(final BinaryResourcesHandler binRsHandler, List<String> resourcePaths) {
+
+		StopWatch stopWatch = new StopWatch();
+		stopWatch.start("Computing the checksums of " + resourcePaths.size() + " binary resources");
+
+		// The handlers of the current config are used, as the config may be
+		// reloaded while the checksums are computed in background
+		final JawrConfig config = binRsHandler.getConfig();
+		final Properties mapping = bundleMapping;
+		final BinaryResourcesChecksumCache checksumCache = createChecksumCache(binRsHandler);
+		int nbThreads = Math.min(config.getBinaryChecksumThreads(), resourcePaths.size());
+		if (nbThreads > 1) {
+			ForkJoinPool pool = new ForkJoinPool(nbThreads);
+			checksumPool = pool;
+			try {
+				for (final String resourcePath : resourcePaths) {
+					pool.execute(new Runnable() {
+
+						@Override
+						public void run() {
+							addBinaryResourcePath(binRsHandler, mapping, resourcePath, checksumCache);
+						}
+					});
+				}
+				pool.shutdown();
+				pool.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+			} catch (InterruptedException e) {
+				pool.shutdownNow();
+				Thread.currentThread().interrupt();
+			}
+		} else {
+			for (String resourcePath : resourcePaths) {
+				if (!config.isValid() || Thread.currentThread().isInterrupted()) {
+					break;
+				}
+				addBinaryResourcePath(binRsHandler, mapping, resourcePath, checksumCache);
+			}
+		}
+
+		// The mapping is not stored if the checksum computation has been
+		// stopped
+		if (!config.isValid() || Thread.currentThread().isInterrupted()) {
+			return;
+		}
+
+		if (checksumCache != null) {
+			checksumCache.save();
 		}
 
 		// Store the bundle mapping
-		if (jawrConfig.getUseBundleMapping() && !rsBundleHandler.isExistingMappingFile()) {
-			rsBundleHandler.storeJawrBundleMapping(bundleMapping);
+		ResourceBundleHandler bundleHandler = binRsHandler.getRsBundleHandler();
+		if (config.getUseBundleMapping() && !bundleHandler.isExistingMappingFile()) {
+			bundleHandler.storeJawrBundleMapping(mapping);
+		}
+
+		stopWatch.stop();
+
+		if (config.isImageTagCachePrecompute()) {
+			stopWatch.start("Encoding in base64 the " + resourcePaths.size() + " binary resources");
+			binRsHandler.precomputeImageTagCache(resourcePaths);
+			stopWatch.stop();
+		}
+
+		if (PERF_PROCESSING_LOGGER.isDebugEnabled()) {
+			PERF_PROCESSING_LOGGER.debug(stopWatch.shortSummary());
 		}
 
 		if (LOGGER.isDebugEnabled())
 			LOGGER.debug("Finish creation of map for image bundle");
 	}
 
+	/**
+	 * Creates the cache of the checksums of the binary resources
+	 * 
+	 * @param binRsHandler
+	 *            the binary resources handler
+	 * @return the cache of the checksums, or null if the checksums must not be
+	 *         stored
+	 */
+	private BinaryResourcesChecksumCache createChecksumCache(BinaryResourcesHandler binRsHandler) {
+
+		BinaryResourcesChecksumCache checksumCache = null;
+		JawrConfig config = binRsHandler.getConfig();
+		String workingDirectory = binRsHandler.getRsReaderHandler().getWorkingDirectory();
+		if (config.isPersistentBinaryChecksumCache() && workingDirectory != null) {
+			File cacheFile = new File(workingDirectory,
+					resourceType + URL_SEPARATOR + BinaryResourcesChecksumCache.CACHE_FILE_NAME);
+			checksumCache = new BinaryResourcesChecksumCache(cacheFile, config.getBinaryHashAlgorithm());
+		}
+		return checksumCache;
+	}
+
+	/**
+	 * Stops the computation of the checksums of the binary resources, if it is
+	 * running
+	 */
+	private void stopChecksumComputation() {
+
+		ForkJoinPool pool = checksumPool;
+		if (pool != null) {
+			pool.shutdownNow();
+			checksumPool = null;
+		}
+
+		Thread thread = checksumThread;
+		if (thread != null) {
+			thread.interrupt();
+			if (thread != Thread.currentThread()) {
+				try {
+					thread.join(CHECKSUM_THREAD_STOP_TIMEOUT);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				if (thread.isAlive()) {
+					LOGGER.warn("The computation of the binary resource checksums didn't stop in "
+							+ CHECKSUM_THREAD_STOP_TIMEOUT + " ms");
+				}
+			}
+			checksumThread = null;
+		}
+	}
+
 	/**
 	 * Add an binary resource path to the binary map
 	 * 
 	 * @param binRsHandler
 	 *            the image resources handler
+	 * @param mapping
+	 *            the bundle mapping
 	 * @param resourcePath
 	 *            the image path
+	 * @param checksumCache
+	 *            the cache of the checksums, or null
 	 */
-	private void addBinaryResourcePath(BinaryResourcesHandler binRsHandler, String resourcePath) {
+	private void addBinaryResourcePath(BinaryResourcesHandler binRsHandler, Properties mapping, String resourcePath,
+			BinaryResourcesChecksumCache checksumCache) {
 
+		JawrConfig config = binRsHandler.getConfig();
+		ResourceReaderHandler rsReader = binRsHandler.getRsReaderHandler();
 		try {
-			String resultPath = CheckSumUtils.getCacheBustedUrl(resourcePath, rsReaderHandler, jawrConfig);
+			String resultPath = null;
+			if (checksumCache != null) {
+				String checksum = checksumCache.getChecksum(resourcePath, rsReader, config);
+				resultPath = CheckSumUtils.getCacheBustedUrl(resourcePath, checksum, config);
+			} else {
+				resultPath = CheckSumUtils.getCacheBustedUrl(resourcePath, rsReader, config);
+			}
 			binRsHandler.addMapping(resourcePath, resultPath);
-			bundleMapping.put(resourcePath, resultPath);
+			mapping.put(resourcePath, resultPath);
 		} catch (IOException e) {
 			LOGGER.error("An exception occurs while defining the mapping for the file : " + resourcePath, e);
 		} catch (ResourceNotFoundException e) {
@@ -317,17 +526,21 @@ public class JawrBinaryResourceRequestHandler extends JawrRequestHandler {
 	}
 
 	/**
-	 * Adds all the resources within a path to the image map.
+	 * Adds all the resources within a path to the list of binary resource
+	 * paths.
 	 * 
 	 * @param binRsHandler
 	 *            the binary resources handler
+	 * @param resourcePaths
+	 *            the list of binary resource paths
 	 * @param dirName
 	 *            the directory name
 	 * @param addSubDirs
 	 *            boolean If subfolders will be included. In such case, every
 	 *            folder below the path is included.
 	 */
-	private void addItemsFromDir(BinaryResourcesHandler binRsHandler, String dirName, boolean addSubDirs) {
+	private void addItemsFromDir(BinaryResourcesHandler binRsHandler, List<String> resourcePaths, String dirName,
+			boolean addSubDirs) {
 		Set<String> resources = rsReaderHandler.getResourceNames(dirName);
 
 		if (LOGGER.isDebugEnabled()) {
@@ -341,7 +554,7 @@ public class JawrBinaryResourceRequestHandler extends JawrRequestHandler {
 		for (String resourceName : resources) {
 			String resourcePath = PathNormalizer.joinPaths(dirName, resourceName, generatedPath);
 			if (hasBinaryFileExtension(resourceName)) {
-				addBinaryResourcePath(binRsHandler, resourcePath);
+				resourcePaths.add(resourcePath);
 
 				if (LOGGER.isDebugEnabled())
 					LOGGER.debug("Added to item path list:" + PathNormalizer.asPath(resourcePath));
@@ -363,11 +576,47 @@ public class JawrBinaryResourceRequestHandler extends JawrRequestHandler {
 		// specified in sorting file.
 		if (addSubDirs) {
 			for (String folderName : folders) {
-				addItemsFromDir(binRsHandler, PathNormalizer.joinPaths(dirName, folderName), true);
+				addItemsFromDir(binRsHandler, resourcePaths, PathNormalizer.joinPaths(dirName, folderName), true);
 			}
 		}
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see net.jawr.web.servlet.JawrRequestHandler#destroy()
+	 */
+	@Override
+	public void destroy() {
+
+		stopChecksumComputation();
+		super.destroy();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see net.jawr.web.servlet.JawrRequestHandler#isReady()
+	 */
+	@Override
+	public boolean isReady() {
+
+		Thread thread = checksumThread;
+		return thread == null || !thread.isAlive();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see net.jawr.web.servlet.JawrRequestHandler#getImageTagCache()
+	 */
+	@Override
+	public BoundedCacheManager getImageTagCache() {
+
+		BinaryResourcesHandler handler = binaryRsHandler;
+		return handler == null ? null : handler.getImageTagCache();
+	}
+
 	/**
 	 * Process the request
 	 * 
@@ -396,10 +645,13 @@ public class JawrBinaryResourceRequestHandler extends JawrRequestHandler {
 		// If debug mode is off, check for If-Modified-Since and
 		// If-none-match headers and set response caching headers.
 		if (!this.jawrConfig.isDebugModeOn()) {
-			// If a browser checks for changes, always respond 'no changes'.
-			if (validBundle && (null != request.getHeader(IF_MODIFIED_SINCE_HEADER)
-					|| null != request.getHeader(IF_NONE_MATCH_HEADER))) {
+
+			String eTag = getETag(requestedPath, request);
+			long lastModified = binaryRsHandler.getLastBuildTime();
+			if (validBundle && RendererRequestUtils.isNotModified(request, eTag, lastModified)) {
+				setResponseHeaders(response, eTag, lastModified);
 				response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+				metrics.recordNotModified();
 				if (LOGGER.isDebugEnabled())
 					LOGGER.debug("Returning 'not modified' header. ");
 				return;
@@ -407,14 +659,14 @@ public class JawrBinaryResourceRequestHandler extends JawrRequestHandler {
 
 			if (validBundle) {
 				// Add caching headers
-				setResponseHeaders(response);
+				setResponseHeaders(response, eTag, lastModified);
 			} else {
 
 				responseHeaderWritten = illegalBundleRequestHandler.writeResponseHeader(requestedPath, request,
 						response);
 				if (!responseHeaderWritten) {
 					// Add caching headers
-					setResponseHeaders(response);
+					setResponseHeaders(response, eTag, lastModified);
 				}
 			}
 		}
@@ -433,6 +685,7 @@ public class JawrBinaryResourceRequestHandler extends JawrRequestHandler {
 			} else {
 				if (!responseHeaderWritten) {
 					LOGGER.error("Unable to load the image for the request URI : " + request.getRequestURI());
+					metrics.recordBundleNotFound();
 					response.sendError(HttpServletResponse.SC_NOT_FOUND);
 				}
 			}
@@ -440,6 +693,7 @@ public class JawrBinaryResourceRequestHandler extends JawrRequestHandler {
 			LOGGER.info("Browser cut off response", eofex);
 		} catch (ResourceNotFoundException e) {
 			LOGGER.info("Unable to write resource " + request.getRequestURI(), e);
+			metrics.recordBundleNotFound();
 			response.sendError(HttpServletResponse.SC_NOT_FOUND);
 		} catch (IOException ex) {
 			LOGGER.error("Unable to write resource " + request.getRequestURI(), ex);
@@ -450,6 +704,20 @@ public class JawrBinaryResourceRequestHandler extends JawrRequestHandler {
 			LOGGER.debug("request successfully attended");
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see net.jawr.web.servlet.JawrRequestHandler#getETag(java.lang.String,
+	 * javax.servlet.http.HttpServletRequest)
+	 */
+	@Override
+	protected String getETag(String requestedPath, HttpServletRequest request) {
+
+		// The cache buster is the checksum of the binary resource content
+		String cacheBuster = binaryRsHandler.getCacheBuster(requestedPath);
+		return cacheBuster == null ? null : "\"" + cacheBuster + "\"";
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -589,8 +857,12 @@ public class JawrBinaryResourceRequestHandler extends JawrRequestHandler {
 		}
 
 		try (InputStream is = rsReaderHandler.getResourceAsStream(resourceName);
-				OutputStream os = response.getOutputStream()) {
+				OutputStream os = metrics.isEnabled() ? new CountingOutputStream(response.getOutputStream())
+						: response.getOutputStream()) {
 			IOUtils.copy(is, os);
+			if (os instanceof CountingOutputStream) {
+				metrics.recordBinaryResponse(((CountingOutputStream) os).getCount());
+			}
 		} catch (EOFException eofex) {
 			LOGGER.debug("Browser cut off response", eofex);
 		} catch (IOException e) {
@@ -14,6 +14,7 @@
 package net.jawr.web.servlet;
 
 import java.io.EOFException;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
@@ -28,6 +29,7 @@ import java.util.Map;
 import java.util.Properties;
 import java.util.ResourceBundle;
 
+import javax.management.ObjectName;
 import javax.servlet.ServletConfig;
 import javax.servlet.ServletContext;
 import javax.servlet.ServletException;
@@ -38,11 +40,14 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import net.jawr.web.JawrConstant;
+import net.jawr.web.cache.BoundedCacheManager;
 import net.jawr.web.cache.CacheManagerFactory;
+import net.jawr.web.cache.JawrCacheManager;
 import net.jawr.web.config.ConfigPropertyResolver;
 import net.jawr.web.config.JawrConfig;
 import net.jawr.web.config.jmx.JawrApplicationConfigManager;
 import net.jawr.web.config.jmx.JawrConfigManager;
+import net.jawr.web.config.jmx.JawrMetricsManager;
 import net.jawr.web.config.jmx.JmxUtils;
 import net.jawr.web.context.ThreadLocalJawrContext;
 import net.jawr.web.exception.BundleDependencyException;
@@ -53,12 +58,15 @@ import net.jawr.web.exception.ResourceNotFoundException;
 import net.jawr.web.resource.BinaryResourcesHandler;
 import net.jawr.web.resource.FileNameUtils;
 import net.jawr.web.resource.bundle.IOUtils;
+import net.jawr.web.resource.bundle.JoinableResourceBundle;
 import net.jawr.web.resource.bundle.css.CssDebugUrlRewriter;
+import net.jawr.web.resource.bundle.encoding.GzipBundleEncoder;
 import net.jawr.web.resource.bundle.factory.PropertiesBasedBundlesHandlerFactory;
 import net.jawr.web.resource.bundle.factory.PropsConfigPropertiesSource;
 import net.jawr.web.resource.bundle.factory.util.ClassLoaderResourceUtils;
 import net.jawr.web.resource.bundle.factory.util.ConfigChangeListener;
 import net.jawr.web.resource.bundle.factory.util.ConfigChangeListenerThread;
+import net.jawr.web.resource.bundle.factory.util.ConfigPropertiesDiff;
 import net.jawr.web.resource.bundle.factory.util.ConfigPropertiesSource;
 import net.jawr.web.resource.bundle.factory.util.PathNormalizer;
 import net.jawr.web.resource.bundle.factory.util.PropsFilePropertiesSource;
@@ -76,6 +84,9 @@ import net.jawr.web.resource.watcher.ResourceWatcher;
 import net.jawr.web.servlet.util.ClientAbortExceptionResolver;
 import net.jawr.web.util.StopWatch;
 import net.jawr.web.util.StringUtils;
+import net.jawr.web.util.io.CountingOutputStream;
+import net.jawr.web.util.io.CountingWriter;
+import net.jawr.web.util.metrics.JawrMetrics;
 
 /**
  * Request handling class. Any jawr enabled servlet delegates to this class to
@@ -102,8 +113,26 @@ public class JawrRequestHandler implements ConfigChangeListener, Serializable {
 	/** The content encoding */
 	private static final String CONTENT_ENCODING = "Content-Encoding";
 
-	/** The gzip encoding */
-	private static final String GZIP = "gzip";
+	/** The vary header */
+	private static final String VARY = "Vary";
+
+	/** The accept encoding header */
+	private static final String ACCEPT_ENCODING = "Accept-Encoding";
+
+	/**
+	 * The request attribute set by the servlet containers, like Tomcat, which
+	 * support sending files without copying them
+	 */
+	private static final String SENDFILE_SUPPORT_ATTR = "org.apache.tomcat.sendfile.support";
+
+	/** The request attribute of the file to send */
+	private static final String SENDFILE_FILENAME_ATTR = "org.apache.tomcat.sendfile.filename";
+
+	/** The request attribute of the start position of the file to send */
+	private static final String SENDFILE_START_ATTR = "org.apache.tomcat.sendfile.start";
+
+	/** The request attribute of the end position of the file to send */
+	private static final String SENDFILE_END_ATTR = "org.apache.tomcat.sendfile.end";
 
 	/** The cache control header parameter name */
 	protected static final String CACHE_CONTROL_HEADER = "Cache-Control";
@@ -120,15 +149,9 @@ public class JawrRequestHandler implements ConfigChangeListener, Serializable {
 	/** The If-non-match-since header parameter name */
 	protected static final String IF_NONE_MATCH_HEADER = "If-None-Match";
 
-	/** The last-modified value */
-	protected static final String LAST_MODIFIED_VALUE = "Sun, 06 Nov 2005 12:00:00 GMT";
-
 	/** The ETag header parameter name */
 	protected static final String ETAG_HEADER = "ETag";
 
-	/** The ETag parameter value */
-	protected static final String ETAG_VALUE = "2740050219";
-
 	/** The expires header parameter name */
 	protected static final String EXPIRES_HEADER = "Expires";
 
@@ -147,6 +170,9 @@ public class JawrRequestHandler implements ConfigChangeListener, Serializable {
 	/** The resource reader handler */
 	protected ResourceReaderHandler rsReaderHandler;
 
+	/** The resource bundle handler */
+	protected ResourceBundleHandler resourceBundleHandler;
+
 	/** The content type */
 	protected String contentType;
 
@@ -189,6 +215,15 @@ public class JawrRequestHandler implements ConfigChangeListener, Serializable {
 	/** The handler for the illegal bundle request */
 	protected IllegalBundleRequestHandler illegalBundleRequestHandler;
 
+	/** The metrics of the requests and of the bundling processes */
+	protected final JawrMetrics metrics = new JawrMetrics();
+
+	/**
+	 * The object name of the Jawr config manager MBean, which is computed on
+	 * the first request
+	 */
+	private volatile ObjectName jawrConfigMgrObjectName;
+
 	/**
 	 * Reads the properties file and initializes all configuration using the
 	 * ServletConfig object. If applicable, a ConfigChangeListenerThread will be
@@ -252,6 +287,7 @@ public class JawrRequestHandler implements ConfigChangeListener, Serializable {
 	private void initRequestHandler(ServletContext context, Properties configProps) throws ServletException {
 
 		long initialTime = System.currentTimeMillis();
+		boolean bundleProcessingAtBuildTime = ThreadLocalJawrContext.isBundleProcessingAtBuildTime();
 		if (LOGGER.isInfoEnabled())
 			LOGGER.info("Initializing jawr config for request handler named " + getInitParameter("handlerName"));
 
@@ -322,8 +358,12 @@ public class JawrRequestHandler implements ConfigChangeListener, Serializable {
 			LOGGER.info("Init method successful. jawr started in " + (totaltime / 1000) + " seconds....");
 		}
 
-		// Reset ThreadLocalJawrContext
+		// Reset ThreadLocalJawrContext. The next handlers initialized at build
+		// time are still processed at build time.
 		ThreadLocalJawrContext.reset();
+		if (bundleProcessingAtBuildTime) {
+			ThreadLocalJawrContext.setBundleProcessingAtBuildTime(true);
+		}
 	}
 
 	/**
@@ -338,6 +378,9 @@ public class JawrRequestHandler implements ConfigChangeListener, Serializable {
 	 */
 	protected void initializeJawrContext(Properties props) throws ServletException {
 
+		// The MBean prefix may have changed
+		jawrConfigMgrObjectName = null;
+
 		// Initialize config
 		initializeJawrConfig(props);
 
@@ -349,6 +392,8 @@ public class JawrRequestHandler implements ConfigChangeListener, Serializable {
 
 		JmxUtils.initJMXBean(appConfigMgr, servletContext, resourceType,
 				props.getProperty(JawrConstant.JAWR_JMX_MBEAN_PREFIX));
+		JmxUtils.initMetricsJMXBean(new JawrMetricsManager(this), servletContext, resourceType,
+				props.getProperty(JawrConstant.JAWR_JMX_MBEAN_PREFIX));
 	}
 
 	/**
@@ -489,6 +534,11 @@ public class JawrRequestHandler implements ConfigChangeListener, Serializable {
 			jawrConfig.invalidate();
 		}
 
+		// Stop the warm up of the previous bundles
+		if (null != bundlesHandler) {
+			bundlesHandler.destroy();
+		}
+
 		stopWatch.start("Initialize configuration");
 		createJawrConfig(props);
 
@@ -529,9 +579,9 @@ public class JawrRequestHandler implements ConfigChangeListener, Serializable {
 		// Create a resource handler to read files from the WAR archive or
 		// exploded dir.
 		rsReaderHandler = initResourceReaderHandler();
-		ResourceBundleHandler rsBundleHandler = initResourceBundleHandler();
+		resourceBundleHandler = initResourceBundleHandler();
 		PropertiesBasedBundlesHandlerFactory factory = new PropertiesBasedBundlesHandlerFactory(props, resourceType,
-				rsReaderHandler, rsBundleHandler, jawrConfig);
+				rsReaderHandler, resourceBundleHandler, jawrConfig);
 		try {
 			bundlesHandler = factory.buildResourceBundlesHandler();
 		} catch (DuplicateBundlePathException | BundleDependencyException e) {
@@ -598,7 +648,7 @@ public class JawrRequestHandler implements ConfigChangeListener, Serializable {
 	 * @return the resource bundle handler
 	 */
 	protected ResourceBundleHandler initResourceBundleHandler() {
-		ResourceBundleHandler rsHandler = null;
+		ServletContextResourceBundleHandler rsHandler = null;
 		if (jawrConfig.getUseBundleMapping() && StringUtils.isNotEmpty(jawrConfig.getJawrWorkingDirectory())) {
 			rsHandler = new ServletContextResourceBundleHandler(servletContext, jawrConfig.getJawrWorkingDirectory(),
 					jawrConfig.getResourceCharset(), jawrConfig.getGeneratorRegistry(), resourceType);
@@ -606,6 +656,7 @@ public class JawrRequestHandler implements ConfigChangeListener, Serializable {
 			rsHandler = new ServletContextResourceBundleHandler(servletContext, jawrConfig.getResourceCharset(),
 					jawrConfig.getGeneratorRegistry(), resourceType);
 		}
+		rsHandler.setBundleEncoders(jawrConfig.getBundleEncoders());
 		return rsHandler;
 	}
 
@@ -618,6 +669,8 @@ public class JawrRequestHandler implements ConfigChangeListener, Serializable {
 	 */
 	protected JawrConfig createJawrConfig(Properties props) {
 		jawrConfig = new JawrConfig(resourceType, props, configPropResolver);
+		jawrConfig.setMetrics(metrics);
+		metrics.setEnabled(jawrConfig.isMetricsEnabled());
 
 		// Override properties which are incompatible with the build time bundle
 		// processing
@@ -689,9 +742,17 @@ public class JawrRequestHandler implements ConfigChangeListener, Serializable {
 	public void processRequest(String requestedPath, HttpServletRequest request, HttpServletResponse response)
 			throws ServletException, IOException {
 
-		StopWatch stopWatch = new StopWatch("Request Handling for '" + requestedPath + "'");
-		ThreadLocalJawrContext.setStopWatch(stopWatch);
-		stopWatch.start("Process request for '" + requestedPath + "'");
+		// The request is only timed if the metrics are collected
+		boolean recordMetrics = metrics.isEnabled();
+		long start = recordMetrics ? System.nanoTime() : 0;
+
+		// The stop watch is only created if the request handling is monitored
+		StopWatch stopWatch = null;
+		if (PERF_REQUEST_HANDLING_LOGGER.isDebugEnabled()) {
+			stopWatch = new StopWatch("Request Handling for '" + requestedPath + "'");
+			ThreadLocalJawrContext.setStopWatch(stopWatch);
+			stopWatch.start("Process request for '" + requestedPath + "'");
+		}
 		try {
 			// Checks that the requested Path is a normalized one. If not don't
 			// treat the request
@@ -709,7 +770,9 @@ public class JawrRequestHandler implements ConfigChangeListener, Serializable {
 					&& null != request.getParameter(JawrConstant.REFRESH_KEY_PARAM)
 					&& this.jawrConfig.getRefreshKey().equals(request.getParameter(JawrConstant.REFRESH_KEY_PARAM))) {
 
-				stopWatch.stop();
+				if (stopWatch != null) {
+					stopWatch.stop();
+				}
 
 				if (propertiesSource.configChanged()) {
 					this.configChanged(propertiesSource.getConfigProperties());
@@ -743,9 +806,13 @@ public class JawrRequestHandler implements ConfigChangeListener, Serializable {
 			}
 		} finally {
 
+			if (recordMetrics) {
+				metrics.recordRequest(ThreadLocalJawrContext.getRequestedBundleId(), System.nanoTime() - start);
+			}
+
 			// Reset the Thread local for the Jawr context
-			ThreadLocalJawrContext.reset();
-			if (PERF_REQUEST_HANDLING_LOGGER.isDebugEnabled()) {
+			ThreadLocalJawrContext.recycle();
+			if (stopWatch != null) {
 				PERF_REQUEST_HANDLING_LOGGER.debug(stopWatch.shortSummary());
 			}
 
@@ -759,14 +826,33 @@ public class JawrRequestHandler implements ConfigChangeListener, Serializable {
 	 *            the HTTP request
 	 */
 	protected void initThreadLocalJawrContext(HttpServletRequest request) {
-		ThreadLocalJawrContext.setJawrConfigMgrObjectName(JmxUtils.getJawrConfigMBeanObjectName(
-				request.getContextPath(), resourceType, jawrConfig.getProperty(JawrConstant.JAWR_JMX_MBEAN_PREFIX)));
+		ThreadLocalJawrContext.setJawrConfigMgrObjectName(getJawrConfigMgrObjectName(request));
 
-		ThreadLocalJawrContext.setRequest(request.getRequestURL().toString());
+		// The request URL is only computed for the bundles processed in live
+		ThreadLocalJawrContext.setRequest(request);
 
 		RendererRequestUtils.setRequestDebuggable(request, jawrConfig);
 	}
 
+	/**
+	 * Returns the object name of the Jawr config manager MBean. The object
+	 * name is computed on the first request, as the context path is the same
+	 * for all the requests.
+	 * 
+	 * @param request
+	 *            the HTTP request
+	 * @return the object name of the Jawr config manager MBean
+	 */
+	private ObjectName getJawrConfigMgrObjectName(HttpServletRequest request) {
+		ObjectName objectName = jawrConfigMgrObjectName;
+		if (objectName == null) {
+			objectName = JmxUtils.getJawrConfigMBeanObjectName(request.getContextPath(), resourceType,
+					jawrConfig.getProperty(JawrConstant.JAWR_JMX_MBEAN_PREFIX));
+			jawrConfigMgrObjectName = objectName;
+		}
+		return objectName;
+	}
+
 	/**
 	 * Copy the requested content to the response
 	 * 
@@ -891,10 +977,17 @@ public class JawrRequestHandler implements ConfigChangeListener, Serializable {
 		// If debug mode is off, check for If-Modified-Since and If-none-match
 		// headers and set response caching headers.
 		if (!this.jawrConfig.isDebugModeOn()) {
-			// If a browser checks for changes, always respond 'no changes'.
-			if (validBundle && (null != request.getHeader(IF_MODIFIED_SINCE_HEADER)
-					|| null != request.getHeader(IF_NONE_MATCH_HEADER))) {
+
+			String eTag = getETag(requestedPath, request);
+			long lastModified = bundlesHandler.getLastBuildTime();
+			if (validBundle && RendererRequestUtils.isNotModified(request, eTag, lastModified)) {
+				setResponseHeaders(response, eTag, lastModified);
+				if (!jawrConfig.getBundleEncoders().isEmpty()
+						&& requestedPath.indexOf(BundleRenderer.GZIP_PATH_PREFIX) != -1) {
+					response.setHeader(VARY, ACCEPT_ENCODING);
+				}
 				response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+				metrics.recordNotModified();
 				if (LOGGER.isDebugEnabled())
 					LOGGER.debug("Returning 'not modified' header. ");
 				return;
@@ -902,13 +995,13 @@ public class JawrRequestHandler implements ConfigChangeListener, Serializable {
 
 			if (validBundle) {
 				// Add caching headers
-				setResponseHeaders(response);
+				setResponseHeaders(response, eTag, lastModified);
 			} else {
 
 				writeResponseHeader = illegalBundleRequestHandler.writeResponseHeader(requestedPath, request, response);
 				if (!writeResponseHeader) {
 					// Add caching headers
-					setResponseHeaders(response);
+					setResponseHeaders(response, eTag, lastModified);
 				}
 			}
 		}
@@ -925,6 +1018,7 @@ public class JawrRequestHandler implements ConfigChangeListener, Serializable {
 			} else {
 				if (!writeResponseHeader) {
 					logBundleNotFound(requestedPath);
+					metrics.recordBundleNotFound();
 					response.sendError(HttpServletResponse.SC_NOT_FOUND);
 				}
 			}
@@ -939,10 +1033,65 @@ public class JawrRequestHandler implements ConfigChangeListener, Serializable {
 			}
 		} catch (ResourceNotFoundException e) {
 			logBundleNotFound(requestedPath);
+			metrics.recordBundleNotFound();
 			response.setStatus(HttpServletResponse.SC_NOT_FOUND);
 		}
 	}
 
+	/**
+	 * Returns the strong entity tag of the requested bundle. It is derived
+	 * from the hashcode of the content of the requested bundle variant, and
+	 * from the content coding with which the bundle is sent, as each coding
+	 * is a different representation of the bundle.
+	 * 
+	 * @param requestedPath
+	 *            the requested path
+	 * @param request
+	 *            the request
+	 * @return the entity tag, or null if the requested path doesn't match any
+	 *         bundle
+	 */
+	protected String getETag(String requestedPath, HttpServletRequest request) {
+
+		String hashcode = bundlesHandler.getBundleDataHashCode(requestedPath);
+		if (hashcode == null) {
+			return null;
+		}
+
+		StringBuilder eTag = new StringBuilder("\"").append(hashcode);
+		String encoding = getContentEncoding(requestedPath, request);
+		if (encoding != null) {
+			eTag.append('-').append(encoding);
+		}
+		return eTag.append('"').toString();
+	}
+
+	/**
+	 * Returns the content coding with which the requested bundle is sent
+	 * 
+	 * @param requestedPath
+	 *            the requested path
+	 * @param request
+	 *            the request
+	 * @return the content coding, or null if the bundle is sent uncompressed
+	 */
+	protected String getContentEncoding(String requestedPath, HttpServletRequest request) {
+
+		int idx = requestedPath.indexOf(BundleRenderer.GZIP_PATH_PREFIX);
+		if (idx == -1) {
+			return null;
+		}
+
+		String encoding = GzipBundleEncoder.GZIP_ENCODING;
+		if (!jawrConfig.getBundleEncoders().isEmpty()) {
+			String bundlePath = JawrConstant.URL_SEPARATOR
+					+ requestedPath.substring(idx + BundleRenderer.GZIP_PATH_PREFIX.length(), requestedPath.length());
+			encoding = bundlesHandler.resolveBundleEncoding(bundlePath,
+					RendererRequestUtils.getAcceptedEncodings(request));
+		}
+		return encoding;
+	}
+
 	/**
 	 * Logs that the requested bundle was not found
 	 * 
@@ -966,6 +1115,39 @@ public class JawrRequestHandler implements ConfigChangeListener, Serializable {
 		return contentType;
 	}
 
+	/**
+	 * Lets the servlet container send the file of the gzipped bundle, if the
+	 * NIO serving mode is enabled and if the container supports it.
+	 * 
+	 * @param requestedPath
+	 *            the requested path
+	 * @param request
+	 *            the request
+	 * @param response
+	 *            the response
+	 * @return true if the file will be sent by the container
+	 */
+	protected boolean sendGzipBundleFile(String requestedPath, HttpServletRequest request,
+			HttpServletResponse response) {
+
+		if (!jawrConfig.isGzipNioServing() || !Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT_ATTR))) {
+			return false;
+		}
+
+		File bundleFile = bundlesHandler.getGzipBundleFile(requestedPath);
+		if (bundleFile == null) {
+			return false;
+		}
+
+		long length = bundleFile.length();
+		response.setHeader("Content-Length", Long.toString(length));
+		request.setAttribute(SENDFILE_FILENAME_ATTR, bundleFile.getAbsolutePath());
+		request.setAttribute(SENDFILE_START_ATTR, Long.valueOf(0));
+		request.setAttribute(SENDFILE_END_ATTR, Long.valueOf(length));
+		metrics.recordEncodedResponse(length);
+		return true;
+	}
+
 	/**
 	 * Writes the content to the output stream
 	 * 
@@ -987,11 +1169,27 @@ public class JawrRequestHandler implements ConfigChangeListener, Serializable {
 		int idx = requestedPath.indexOf(BundleRenderer.GZIP_PATH_PREFIX);
 		if (idx != -1) {
 
+			String gzipPath = requestedPath;
 			requestedPath = JawrConstant.URL_SEPARATOR
 					+ requestedPath.substring(idx + BundleRenderer.GZIP_PATH_PREFIX.length(), requestedPath.length());
 			if (isValidRequestedPath(requestedPath)) {
-				response.setHeader(CONTENT_ENCODING, GZIP);
-				bundlesHandler.streamBundleTo(requestedPath, response.getOutputStream());
+				String encoding = getContentEncoding(gzipPath, request);
+				if (!jawrConfig.getBundleEncoders().isEmpty()) {
+					// The same URL may be served with different content
+					// codings
+					response.setHeader(VARY, ACCEPT_ENCODING);
+				}
+				response.setHeader(CONTENT_ENCODING, encoding);
+				if (!GzipBundleEncoder.GZIP_ENCODING.equals(encoding)
+						|| !sendGzipBundleFile(requestedPath, request, response)) {
+					if (metrics.isEnabled()) {
+						CountingOutputStream out = new CountingOutputStream(response.getOutputStream());
+						bundlesHandler.streamBundleTo(requestedPath, out, encoding);
+						metrics.recordEncodedResponse(out.getCount());
+					} else {
+						bundlesHandler.streamBundleTo(requestedPath, response.getOutputStream(), encoding);
+					}
+				}
 			} else {
 				throw new ResourceNotFoundException(requestedPath);
 			}
@@ -1014,8 +1212,13 @@ public class JawrRequestHandler implements ConfigChangeListener, Serializable {
 			} else {
 
 				if (isValidRequestedPath(requestedPath)) {
-					Writer out = response.getWriter();
-					bundlesHandler.writeBundleTo(requestedPath, out);
+					if (metrics.isEnabled()) {
+						CountingWriter out = new CountingWriter(response.getWriter());
+						bundlesHandler.writeBundleTo(requestedPath, out);
+						metrics.recordTextResponse(out.getCount());
+					} else {
+						bundlesHandler.writeBundleTo(requestedPath, response.getWriter());
+					}
 				} else {
 					throw new ResourceNotFoundException(requestedPath);
 				}
@@ -1122,12 +1325,21 @@ public class JawrRequestHandler implements ConfigChangeListener, Serializable {
 	 * 
 	 * @param resp
 	 *            the response
+	 * @param eTag
+	 *            the entity tag of the content, or null if there is none
+	 * @param lastModified
+	 *            the last modification date of the content, or -1 if it is
+	 *            unknown
 	 */
-	protected void setResponseHeaders(HttpServletResponse resp) {
+	protected void setResponseHeaders(HttpServletResponse resp, String eTag, long lastModified) {
 		// Force resource caching as best as possible
 		resp.setHeader(CACHE_CONTROL_HEADER, CACHE_CONTROL_VALUE);
-		resp.setHeader(LAST_MODIFIED_HEADER, LAST_MODIFIED_VALUE);
-		resp.setHeader(ETAG_HEADER, ETAG_VALUE);
+		if (lastModified != -1) {
+			resp.setDateHeader(LAST_MODIFIED_HEADER, lastModified);
+		}
+		if (eTag != null) {
+			resp.setHeader(ETAG_HEADER, eTag);
+		}
 		Calendar cal = Calendar.getInstance();
 		cal.roll(Calendar.YEAR, 10);
 		resp.setDateHeader(EXPIRES_HEADER, cal.getTimeInMillis());
@@ -1141,6 +1353,7 @@ public class JawrRequestHandler implements ConfigChangeListener, Serializable {
 
 		if (bundlesHandler != null) {
 			ThreadLocalJawrContext.setInterruptProcessingBundle(true);
+			bundlesHandler.destroy();
 		}
 
 		// Stop the config change listener.
@@ -1169,6 +1382,70 @@ public class JawrRequestHandler implements ConfigChangeListener, Serializable {
 		ThreadLocalJawrContext.reset();
 	}
 
+	/**
+	 * Returns the cache manager of the bundles
+	 * 
+	 * @return the cache manager of the bundles
+	 */
+	public JawrCacheManager getCacheManager() {
+
+		return CacheManagerFactory.getCacheManager(jawrConfig, resourceType);
+	}
+
+	/**
+	 * Returns the metrics of the requests and of the bundling processes
+	 * 
+	 * @return the metrics
+	 */
+	public JawrMetrics getMetrics() {
+
+		return metrics;
+	}
+
+	/**
+	 * Returns the cache of the image URLs and base64 encoded images rendered
+	 * by the image tags
+	 * 
+	 * @return the image tag cache, or null if the handler doesn't serve the
+	 *         binary resources
+	 */
+	public BoundedCacheManager getImageTagCache() {
+
+		return null;
+	}
+
+	/**
+	 * Returns true if the resources are ready to be served, which means that
+	 * all the bundles have been processed
+	 * 
+	 * @return true if the resources are ready to be served
+	 */
+	public boolean isReady() {
+
+		return bundlesHandler == null || bundlesHandler.isBundlingReady();
+	}
+
+	/**
+	 * Returns the number of watch events waiting to be processed
+	 * 
+	 * @return the number of watch events waiting to be processed
+	 */
+	public int getWatchEventQueueSize() {
+
+		return watcher == null ? 0 : watcher.getEventQueueSize();
+	}
+
+	/**
+	 * Returns the ratio between the number of watch events received and the
+	 * number of events processed once coalesced by path
+	 * 
+	 * @return the coalescing ratio of the watch events
+	 */
+	public double getWatchEventCoalescingRatio() {
+
+		return watcher == null ? 1 : watcher.getEventCoalescingRatio();
+	}
+
 	/**
 	 * Returns the names of the dirty bundles
 	 * 
@@ -1227,6 +1504,68 @@ public class JawrRequestHandler implements ConfigChangeListener, Serializable {
 		}
 	}
 
+	/**
+	 * Reloads only the bundles whose definition has changed. The Jawr context
+	 * is kept as it is, so this is only possible if no global setting has
+	 * changed.
+	 * 
+	 * @param props
+	 *            the new configuration
+	 * @return true if the bundle definitions have been reloaded, false if the
+	 *         Jawr context must be initialized again
+	 * @throws DuplicateBundlePathException
+	 *             if two bundles are defined with the same path
+	 * @throws BundleDependencyException
+	 *             if an error exists in the dependency definition
+	 */
+	protected boolean reloadBundleDefinitions(Properties props)
+			throws DuplicateBundlePathException, BundleDependencyException {
+
+		if (bundlesHandler == null || resourceBundleHandler == null) {
+			return false;
+		}
+
+		// When the configuration has not changed, the reload has been
+		// explicitly requested, so everything is initialized again
+		ConfigPropertiesDiff diff = new ConfigPropertiesDiff(jawrConfig.getConfigProperties(), props, resourceType);
+		if (!diff.hasChanges() || diff.isGlobalChange()) {
+			return false;
+		}
+
+		if (LOGGER.isDebugEnabled()) {
+			LOGGER.debug("Reloading the definition of the bundles " + diff.getModifiedBundleNames());
+		}
+
+		StopWatch stopWatch = new StopWatch("Jawr Processing for '" + resourceType + "' resource");
+		ThreadLocalJawrContext.setStopWatch(stopWatch);
+
+		boolean reloaded = false;
+		Properties previousConfigProperties = jawrConfig.getConfigProperties();
+		try {
+			PropertiesBasedBundlesHandlerFactory factory = new PropertiesBasedBundlesHandlerFactory(props,
+					resourceType, rsReaderHandler, resourceBundleHandler, jawrConfig);
+			List<JoinableResourceBundle> bundles = factory.buildResourceBundles();
+
+			// The stored bundle mapping refers to the new configuration. The
+			// properties are swapped, as they are read by the requests.
+			Properties configProperties = new Properties();
+			configProperties.putAll(props);
+			jawrConfig.setConfigProperties(configProperties);
+
+			reloaded = bundlesHandler.reloadBundles(bundles, diff.getModifiedBundleNames());
+		} finally {
+			if (!reloaded) {
+				jawrConfig.setConfigProperties(previousConfigProperties);
+			}
+			ThreadLocalJawrContext.setStopWatch(null);
+		}
+
+		if (reloaded && PERF_PROCESSING_LOGGER.isDebugEnabled()) {
+			PERF_PROCESSING_LOGGER.debug(stopWatch.prettyPrint());
+		}
+		return reloaded;
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -1257,7 +1596,9 @@ public class JawrRequestHandler implements ConfigChangeListener, Serializable {
 			}
 			props.putAll(newConfig);
 
-			initializeJawrContext(props);
+			if (!reloadBundleDefinitions(props)) {
+				initializeJawrContext(props);
+			}
 
 			if (LOGGER.isDebugEnabled()) {
 				LOGGER.debug("Jawr configuration successfully reloaded. ");
@@ -13,6 +13,8 @@
  */
 package net.jawr.web.servlet;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -30,6 +32,7 @@ import net.jawr.web.context.ThreadLocalJawrContext;
 import net.jawr.web.resource.bundle.factory.util.PathNormalizer;
 import net.jawr.web.resource.bundle.renderer.BundleRenderer;
 import net.jawr.web.resource.bundle.renderer.BundleRendererContext;
+import net.jawr.web.util.LRUCache;
 
 /**
  * Utilities for tag rendering components, which help in handling request
@@ -51,6 +54,12 @@ public class RendererRequestUtils {
 	/** The IE user agent pattern */
 	private static final Pattern IE_USER_AGENT_PATTERN = Pattern.compile("MSIE (\\d+)");
 
+	/** The maximum number of user agents whose IE version is cached */
+	private static final int MAX_CACHED_USER_AGENTS = 1000;
+
+	/** The IE versions mapped by user agent, -1 for the other browsers */
+	private static final LRUCache<String, Integer> IE_VERSIONS = new LRUCache<>(MAX_CACHED_USER_AGENTS);
+
 	/**
 	 * The attribute name of the exception in the request when a dispatch error
 	 * happens
@@ -156,10 +165,11 @@ public class RendererRequestUtils {
 	 */
 	public static boolean isRequestGzippable(HttpServletRequest req, JawrConfig jawrConfig) {
 		boolean rets;
+		String acceptEncoding = req.getHeader("Accept-Encoding");
 		// If gzip is completely off, return false.
 		if (!jawrConfig.isGzipResourcesModeOn())
 			rets = false;
-		else if (req.getHeader("Accept-Encoding") != null && req.getHeader("Accept-Encoding").contains("gzip")) {
+		else if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
 
 			// If gzip for IE6 or less is off, the user agent is checked to
 			// avoid compression.
@@ -175,6 +185,116 @@ public class RendererRequestUtils {
 		return rets;
 	}
 
+	/**
+	 * Returns the content codings accepted by the client, from the
+	 * Accept-Encoding header. The codings with a quality value of 0 are
+	 * excluded.
+	 * 
+	 * @param req
+	 *            the request
+	 * @return the content codings accepted by the client, in lower case
+	 */
+	public static List<String> getAcceptedEncodings(HttpServletRequest req) {
+
+		List<String> encodings = new ArrayList<>();
+		String header = req.getHeader("Accept-Encoding");
+		if (header != null) {
+			for (String token : header.split(",")) {
+				String encoding = token.trim();
+				int idx = encoding.indexOf(';');
+				if (idx != -1) {
+					String params = encoding.substring(idx + 1).replace(" ", "");
+					encoding = encoding.substring(0, idx).trim();
+					if (params.startsWith("q=") && isZeroQuality(params.substring(2))) {
+						continue;
+					}
+				}
+				if (encoding.length() > 0) {
+					encodings.add(encoding.toLowerCase());
+				}
+			}
+		}
+		return encodings;
+	}
+
+	/**
+	 * Determines whether a request should get a 304 response and empty body,
+	 * according to its If-None-Match and If-Modified-Since headers. As stated
+	 * by the HTTP specification, the If-Modified-Since header is ignored if
+	 * the request contains an If-None-Match header.
+	 *
+	 * @param req
+	 *            the request
+	 * @param eTag
+	 *            the entity tag of the content, or null if there is none
+	 * @param lastModified
+	 *            the last modification date of the content, or -1 if it is
+	 *            unknown
+	 * @return true if the content has not been modified
+	 */
+	public static boolean isNotModified(HttpServletRequest req, String eTag, long lastModified) {
+
+		String eTags = req.getHeader("If-None-Match");
+		if (eTags != null) {
+			return matchesETag(eTags, eTag);
+		}
+
+		if (lastModified == -1) {
+			return false;
+		}
+
+		long modifiedSince = -1;
+		try {
+			modifiedSince = req.getDateHeader("If-Modified-Since");
+		} catch (RuntimeException ex) {
+			// Invalid date, the header is ignored
+		}
+		return modifiedSince != -1 && lastModified <= modifiedSince;
+	}
+
+	/**
+	 * Checks if the If-None-Match header value matches the etag. The header
+	 * value may be a wildcard or a comma separated list of strong or weak
+	 * etags, which are compared using the weak comparison.
+	 *
+	 * @param eTags
+	 *            the If-None-Match header value
+	 * @param eTag
+	 *            the etag of the content, or null if there is none
+	 * @return true if the etag matches
+	 */
+	private static boolean matchesETag(String eTags, String eTag) {
+
+		for (String value : eTags.split(",")) {
+			value = value.trim();
+			if (value.equals("*")) {
+				return true;
+			}
+			if (value.startsWith("W/")) {
+				value = value.substring(2);
+			}
+			if (eTag != null && value.equals(eTag)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Checks if the quality value of the Accept-Encoding header is 0
+	 * 
+	 * @param quality
+	 *            the quality value
+	 * @return true if the quality value is 0
+	 */
+	private static boolean isZeroQuality(String quality) {
+		try {
+			return Float.parseFloat(quality) == 0;
+		} catch (NumberFormatException e) {
+			return false;
+		}
+	}
+
 	/**
 	 * Checks if the user agent is IE
 	 * 
@@ -232,18 +352,37 @@ public class RendererRequestUtils {
 		}
 		if (agent != null) {
 
-			Matcher matcher = IE_USER_AGENT_PATTERN.matcher(agent);
-			if (matcher.find()) {
-				int version = Integer.parseInt(matcher.group(1));
-				if (version <= ieVersion) {
-					result = true;
-				}
+			int version = getIEVersion(agent);
+			if (version != -1 && version <= ieVersion) {
+				result = true;
 			}
 		}
 
 		return result;
 	}
 
+	/**
+	 * Returns the IE version of the user agent. The versions of the most
+	 * recently seen user agents are cached, so they are parsed only once.
+	 * 
+	 * @param agent
+	 *            the user agent
+	 * @return the IE version, or -1 if the user agent is not IE
+	 */
+	private static int getIEVersion(String agent) {
+
+		Integer version = IE_VERSIONS.get(agent);
+		if (version == null) {
+			version = -1;
+			Matcher matcher = IE_USER_AGENT_PATTERN.matcher(agent);
+			if (matcher.find()) {
+				version = Integer.parseInt(matcher.group(1));
+			}
+			IE_VERSIONS.put(agent, version);
+		}
+		return version;
+	}
+
 	/**
 	 * Determines whether to override the debug settings. Sets the debugOverride
 	 * status on ThreadLocalJawrContext
@@ -13,9 +13,7 @@
  */
 package net.jawr.web.taglib;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
@@ -29,13 +27,8 @@ import net.jawr.web.config.JawrConfig;
 import net.jawr.web.exception.JawrLinkRenderingException;
 import net.jawr.web.exception.ResourceNotFoundException;
 import net.jawr.web.resource.BinaryResourcesHandler;
-import net.jawr.web.resource.FileNameUtils;
-import net.jawr.web.resource.bundle.CheckSumUtils;
-import net.jawr.web.resource.bundle.IOUtils;
 import net.jawr.web.resource.bundle.factory.util.PathNormalizer;
 import net.jawr.web.servlet.RendererRequestUtils;
-import net.jawr.web.servlet.util.MIMETypesSupport;
-import net.jawr.web.util.Base64Encoder;
 
 /**
  * Utility class for image tags.
@@ -47,12 +40,6 @@ public final class ImageTagUtils {
 	/** The logger */
 	private static final Logger LOGGER = LoggerFactory.getLogger(ImageTagUtils.class);
 
-	/** The base64 key prefix */
-	private static final String BASE64_KEY_PREFIX = "base64#";
-
-	/** The data prefix */
-	private static final String DATA_PREFIX = "data:";
-
 	/**
 	 * Returns the image URL generated by Jawr from a source image path
 	 * 
@@ -107,20 +94,16 @@ public final class ImageTagUtils {
 
 		imgSrc = getFullImagePath(imgSrc, binaryRsHandler, request);
 
-		String newUrl = (String) binaryRsHandler.getCacheUrl(imgSrc);
-
-		JawrConfig jawrConfig = binaryRsHandler.getConfig();
-		if (newUrl == null) {
-			try {
-				newUrl = CheckSumUtils.getCacheBustedUrl(imgSrc, binaryRsHandler.getRsReaderHandler(), jawrConfig);
-				binaryRsHandler.addMapping(imgSrc, newUrl);
-			} catch (IOException e) {
-				LOGGER.info("Unable to create the checksum for the image '" + imgSrc + "' while generating image tag.");
-			} catch (ResourceNotFoundException e) {
-				LOGGER.info("Unable to find the image '" + imgSrc + "' while generating image tag.");
-			}
+		String newUrl = null;
+		try {
+			newUrl = binaryRsHandler.getCacheBustedUrl(imgSrc);
+		} catch (IOException e) {
+			LOGGER.info("Unable to create the checksum for the image '" + imgSrc + "' while generating image tag.");
+		} catch (ResourceNotFoundException e) {
+			LOGGER.info("Unable to find the image '" + imgSrc + "' while generating image tag.");
 		}
 
+		JawrConfig jawrConfig = binaryRsHandler.getConfig();
 		if (newUrl == null) {
 			newUrl = imgSrc;
 		}
@@ -217,26 +200,12 @@ public final class ImageTagUtils {
 
 		imgSrc = getFullImagePath(imgSrc, binaryRsHandler, request);
 
-		encodedResult = binaryRsHandler.getCacheUrl(BASE64_KEY_PREFIX + imgSrc);
-		if (encodedResult == null) {
-			try {
-				String fileExtension = FileNameUtils.getExtension(imgSrc);
-				String fileMimeType = (String) MIMETypesSupport.getSupportedProperties(ImageTagUtils.class)
-						.get(fileExtension);
-
-				InputStream is = binaryRsHandler.getRsReaderHandler().getResourceAsStream(imgSrc);
-
-				ByteArrayOutputStream out = new ByteArrayOutputStream();
-				IOUtils.copy(is, out, true);
-				byte[] data = out.toByteArray();
-				encodedResult = new String(Base64Encoder.encode(data));
-				encodedResult = DATA_PREFIX + fileMimeType + ";base64," + encodedResult;
-				binaryRsHandler.addMapping(BASE64_KEY_PREFIX + imgSrc, encodedResult);
-			} catch (ResourceNotFoundException e) {
-				LOGGER.warn("Unable to find the image '" + imgSrc + "' while generating image tag.");
-			} catch (IOException e) {
-				LOGGER.warn("Unable to copy the image '" + imgSrc + "' while generating image tag.");
-			}
+		try {
+			encodedResult = binaryRsHandler.getBase64EncodedImage(imgSrc);
+		} catch (ResourceNotFoundException e) {
+			LOGGER.warn("Unable to find the image '" + imgSrc + "' while generating image tag.");
+		} catch (IOException e) {
+			LOGGER.warn("Unable to copy the image '" + imgSrc + "' while generating image tag.");
 		}
 
 		return encodedResult;
@@ -0,0 +1,157 @@
+/**
+ * Copyright 2017 Ibrahim Chaehoi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package net.jawr.web.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * This class defines a thread safe cache holding a maximum number of
+ * elements. When the cache is full, the least recently used elements are
+ * evicted.
+ * 
+ * The elements are read without lock, each read only updates the access time
+ * of the element. The additions which exceed the maximum number of elements
+ * are serialized to evict the elements.
+ *
+ * @param <K>
+ *            the type of the keys
+ * @param <V>
+ *            the type of the values
+ *
+ * @author Ibrahim Chaehoi
+ */
+public class LRUCache<K, V> {
+
+	/** The elements */
+	private final ConcurrentMap<K, CacheEntry<V>> elements = new ConcurrentHashMap<>();
+
+	/** The maximum number of elements */
+	private final int maxSize;
+
+	/**
+	 * Constructor
+	 *
+	 * @param maxSize
+	 *            the maximum number of elements
+	 */
+	public LRUCache(int maxSize) {
+		this.maxSize = maxSize;
+	}
+
+	/**
+	 * Returns the element mapped to the key
+	 *
+	 * @param key
+	 *            the key
+	 * @return the element or null if there is none
+	 */
+	public V get(K key) {
+
+		CacheEntry<V> entry = elements.get(key);
+		if (entry == null) {
+			return null;
+		}
+		entry.accessTime = System.nanoTime();
+		return entry.value;
+	}
+
+	/**
+	 * Puts an element in the cache
+	 *
+	 * @param key
+	 *            the key
+	 * @param value
+	 *            the element
+	 */
+	public void put(K key, V value) {
+
+		elements.put(key, new CacheEntry<>(value));
+		if (elements.size() > maxSize) {
+			evict();
+		}
+	}
+
+	/**
+	 * Returns the number of elements in the cache
+	 *
+	 * @return the number of elements in the cache
+	 */
+	public int size() {
+		return elements.size();
+	}
+
+	/**
+	 * Removes all the elements
+	 */
+	public void clear() {
+		elements.clear();
+	}
+
+	/**
+	 * Evicts the least recently used elements until the number of elements is
+	 * below the maximum
+	 */
+	private synchronized void evict() {
+
+		int count = elements.size() - maxSize;
+		if (count <= 0) {
+			return;
+		}
+		List<Map.Entry<K, CacheEntry<V>>> entries = new ArrayList<>(elements.entrySet());
+		Collections.sort(entries, new Comparator<Map.Entry<K, CacheEntry<V>>>() {
+
+			@Override
+			public int compare(Map.Entry<K, CacheEntry<V>> entry1, Map.Entry<K, CacheEntry<V>> entry2) {
+				long accessTime1 = entry1.getValue().accessTime;
+				long accessTime2 = entry2.getValue().accessTime;
+				return accessTime1 < accessTime2 ? -1 : (accessTime1 == accessTime2 ? 0 : 1);
+			}
+		});
+		for (int i = 0; i < count && i < entries.size(); i++) {
+			Map.Entry<K, CacheEntry<V>> entry = entries.get(i);
+			elements.remove(entry.getKey(), entry.getValue());
+		}
+	}
+
+	/**
+	 * The cache entry
+	 *
+	 * @param <V>
+	 *            the type of the value
+	 */
+	private static class CacheEntry<V> {
+
+		/** The element */
+		private final V value;
+
+		/** The time of the last access to the element */
+		private volatile long accessTime = System.nanoTime();
+
+		/**
+		 * Constructor
+		 *
+		 * @param value
+		 *            the element
+		 */
+		private CacheEntry(V value) {
+			this.value = value;
+		}
+	}
+}
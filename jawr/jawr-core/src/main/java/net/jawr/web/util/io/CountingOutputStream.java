@@ -0,0 +1,58 @@
+/**
+ * Copyright 2017 Ibrahim Chaehoi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package net.jawr.web.util.io;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * This class defines an output stream which counts the bytes written to the
+ * proxied stream.
+ *
+ * @author Ibrahim Chaehoi
+ */
+public class CountingOutputStream extends ProxyOutputStream {
+
+	/** The number of bytes written */
+	private long count;
+
+	/**
+	 * Constructor
+	 *
+	 * @param out
+	 *            the output stream to delegate to
+	 */
+	public CountingOutputStream(OutputStream out) {
+		super(out);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see net.jawr.web.util.io.ProxyOutputStream#afterWrite(int)
+	 */
+	@Override
+	protected void afterWrite(int n) throws IOException {
+		count += n;
+	}
+
+	/**
+	 * Returns the number of bytes written
+	 *
+	 * @return the number of bytes written
+	 */
+	public long getCount() {
+		return count;
+	}
+}
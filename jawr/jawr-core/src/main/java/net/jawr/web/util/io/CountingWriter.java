@@ -0,0 +1,82 @@
+/**
+ * Copyright 2017 Ibrahim Chaehoi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package net.jawr.web.util.io;
+
+import java.io.FilterWriter;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * This class defines a writer which counts the characters written to the
+ * proxied writer.
+ *
+ * @author Ibrahim Chaehoi
+ */
+public class CountingWriter extends FilterWriter {
+
+	/** The number of characters written */
+	private long count;
+
+	/**
+	 * Constructor
+	 *
+	 * @param out
+	 *            the writer to delegate to
+	 */
+	public CountingWriter(Writer out) {
+		super(out);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.io.FilterWriter#write(int)
+	 */
+	@Override
+	public void write(int c) throws IOException {
+		out.write(c);
+		count++;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.io.FilterWriter#write(char[], int, int)
+	 */
+	@Override
+	public void write(char[] cbuf, int off, int len) throws IOException {
+		out.write(cbuf, off, len);
+		count += len;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.io.FilterWriter#write(java.lang.String, int, int)
+	 */
+	@Override
+	public void write(String str, int off, int len) throws IOException {
+		out.write(str, off, len);
+		count += len;
+	}
+
+	/**
+	 * Returns the number of characters written
+	 *
+	 * @return the number of characters written
+	 */
+	public long getCount() {
+		return count;
+	}
+}
@@ -18,6 +18,8 @@ import java.io.InputStreamReader;
 import java.io.Reader;
 
 import javax.script.Bindings;
+import javax.script.Compilable;
+import javax.script.CompiledScript;
 import javax.script.Invocable;
 import javax.script.ScriptContext;
 import javax.script.ScriptEngine;
@@ -26,6 +28,7 @@ import javax.script.ScriptException;
 
 import net.jawr.web.JawrConstant;
 import net.jawr.web.exception.BundlingProcessException;
+import net.jawr.web.util.js.rhino.RhinoScriptEngine;
 
 /**
  * This class is intended to provide facility method for JS script engine.
@@ -181,6 +184,61 @@ public class JavascriptEngine implements Invocable {
 		}
 	}
 
+	/**
+	 * Compiles a script
+	 * 
+	 * @param scriptName
+	 *            the script name
+	 * @param script
+	 *            the script
+	 * @return the compiled script
+	 */
+	public CompiledScript compile(String scriptName, String script) {
+
+		if (!(scriptEngine instanceof Compilable)) {
+			throw new BundlingProcessException("The script engine is not able to compile the script : " + scriptName);
+		}
+		try {
+			scriptEngine.put(ScriptEngine.FILENAME, scriptName);
+			return ((Compilable) scriptEngine).compile(script);
+		} catch (ScriptException e) {
+			throw new BundlingProcessException("Error while compiling script : " + scriptName, e);
+		}
+	}
+
+	/**
+	 * Returns true if the scripts compiled by this engine can be evaluated by
+	 * other engines of the same type. This is the case of the Rhino engine.
+	 * 
+	 * @return true if the compiled scripts can be shared between engines
+	 */
+	public boolean canShareCompiledScripts() {
+		return scriptEngine instanceof RhinoScriptEngine;
+	}
+
+	/**
+	 * Evaluates a compiled script. The script must have been compiled by this
+	 * engine, or by another engine if the compiled scripts can be shared.
+	 * 
+	 * @param scriptName
+	 *            the script name
+	 * @param script
+	 *            the compiled script
+	 * @return the result
+	 * @see #canShareCompiledScripts()
+	 */
+	public Object evaluate(String scriptName, CompiledScript script) {
+
+		try {
+			if (scriptEngine instanceof RhinoScriptEngine) {
+				return ((RhinoScriptEngine) scriptEngine).eval(script, getContext());
+			}
+			return script.eval(getContext());
+		} catch (ScriptException e) {
+			throw new BundlingProcessException("Error while evaluating script : " + scriptName, e);
+		}
+	}
+
 	/**
 	 * Evaluates a script
 	 * 
@@ -0,0 +1,33 @@
+/**
+ * Copyright 2017 Ibrahim Chaehoi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package net.jawr.web.util.js;
+
+/**
+ * This interface defines the initialization of the engines created by a
+ * {@link JavascriptEnginePool}, once the library scripts of the pool have
+ * been evaluated in them.
+ *
+ * @author Ibrahim Chaehoi
+ */
+public interface JavascriptEngineInitializer {
+
+	/**
+	 * Initializes an engine of the pool
+	 *
+	 * @param engine
+	 *            the engine to initialize
+	 */
+	void initialize(JavascriptEngine engine);
+
+}
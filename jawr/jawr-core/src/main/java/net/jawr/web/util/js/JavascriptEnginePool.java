@@ -0,0 +1,221 @@
+/**
+ * Copyright 2017 Ibrahim Chaehoi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package net.jawr.web.util.js;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.script.CompiledScript;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.jawr.web.JawrConstant;
+import net.jawr.web.exception.InterruptBundlingProcessException;
+import net.jawr.web.util.StopWatch;
+
+/**
+ * This class defines a pool of Javascript engines, in which the same library
+ * scripts have been evaluated. A Javascript engine can't be used by several
+ * threads at the same time, so the pool lets the bundles be processed in
+ * parallel by different engines.
+ *
+ * The engines are created when they are needed, up to the size of the pool.
+ * When the engines are Rhino engines, the library scripts are compiled only
+ * once and the compiled scripts are shared by the engines of the pool.
+ *
+ * An engine must be returned to the pool once it has been used:
+ *
+ * <pre>
+ * JavascriptEngine engine = pool.borrowEngine();
+ * try {
+ * 	// use the engine
+ * } finally {
+ * 	pool.returnEngine(engine);
+ * }
+ * </pre>
+ *
+ * @author Ibrahim Chaehoi
+ */
+public class JavascriptEnginePool {
+
+	/** The logger */
+	private static final Logger PERF_LOGGER = LoggerFactory.getLogger(JawrConstant.PERF_PROCESSING_LOGGER);
+
+	/** The name of the Javascript engine */
+	private final String engineName;
+
+	/**
+	 * The flag indicating that we must initialize the global object in the
+	 * global variable
+	 */
+	private final boolean initGlobal;
+
+	/** The maximum number of engines */
+	private final int size;
+
+	/** The sources of the library scripts mapped by script name */
+	private final Map<String, String> librarySources;
+
+	/** The engine initializer */
+	private final JavascriptEngineInitializer initializer;
+
+	/** The engines which are not used */
+	private final BlockingQueue<JavascriptEngine> idleEngines = new LinkedBlockingQueue<>();
+
+	/** The number of engines created */
+	private final AtomicInteger engineCount = new AtomicInteger();
+
+	/**
+	 * The compiled library scripts, which are shared by the engines, or null
+	 * if they have not been compiled yet
+	 */
+	private Map<String, CompiledScript> compiledLibraries;
+
+	/**
+	 * Constructor
+	 *
+	 * @param engineName
+	 *            the name of the Javascript engine to use
+	 * @param initGlobal
+	 *            the flag indicating that we must initialize the global object
+	 *            in the global variable
+	 * @param size
+	 *            the maximum number of engines
+	 * @param librarySources
+	 *            the sources of the library scripts to evaluate in each
+	 *            engine, mapped by script name in the evaluation order
+	 * @param initializer
+	 *            the initializer of the engines, which is called once the
+	 *            library scripts have been evaluated. It may be null.
+	 */
+	public JavascriptEnginePool(String engineName, boolean initGlobal, int size, Map<String, String> librarySources,
+			JavascriptEngineInitializer initializer) {
+		this.engineName = engineName;
+		this.initGlobal = initGlobal;
+		this.size = Math.max(1, size);
+		this.librarySources = new LinkedHashMap<>(librarySources);
+		this.initializer = initializer;
+	}
+
+	/**
+	 * Returns the maximum number of engines
+	 *
+	 * @return the maximum number of engines
+	 */
+	public int getSize() {
+		return size;
+	}
+
+	/**
+	 * Borrows an engine from the pool. If all the engines are used and the
+	 * pool is full, this method waits until an engine is returned.
+	 *
+	 * @return the engine
+	 */
+	public JavascriptEngine borrowEngine() {
+
+		JavascriptEngine engine = idleEngines.poll();
+		if (engine == null) {
+			if (engineCount.incrementAndGet() <= size) {
+				try {
+					engine = createEngine();
+				} catch (RuntimeException e) {
+					engineCount.decrementAndGet();
+					throw e;
+				}
+			} else {
+				engineCount.decrementAndGet();
+				try {
+					engine = idleEngines.take();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new InterruptBundlingProcessException();
+				}
+			}
+		}
+		return engine;
+	}
+
+	/**
+	 * Returns an engine to the pool
+	 *
+	 * @param engine
+	 *            the engine borrowed from the pool
+	 */
+	public void returnEngine(JavascriptEngine engine) {
+		idleEngines.offer(engine);
+	}
+
+	/**
+	 * Creates and initializes a new engine
+	 *
+	 * @return the new engine
+	 */
+	private JavascriptEngine createEngine() {
+
+		StopWatch stopWatch = new StopWatch();
+		stopWatch.start("Initializing JS engine " + engineCount.get() + "/" + size + " of the pool");
+
+		JavascriptEngine engine = new JavascriptEngine(engineName, initGlobal);
+		Map<String, CompiledScript> libraries = getCompiledLibraries(engine);
+		if (libraries != null) {
+			for (Map.Entry<String, CompiledScript> library : libraries.entrySet()) {
+				engine.evaluate(library.getKey(), library.getValue());
+			}
+		} else {
+			for (Map.Entry<String, String> library : librarySources.entrySet()) {
+				engine.evaluate(library.getKey(), library.getValue());
+			}
+		}
+
+		if (initializer != null) {
+			initializer.initialize(engine);
+		}
+
+		stopWatch.stop();
+		if (PERF_LOGGER.isDebugEnabled()) {
+			PERF_LOGGER.debug(stopWatch.shortSummary());
+		}
+		return engine;
+	}
+
+	/**
+	 * Returns the compiled library scripts, which are compiled by the first
+	 * engine created
+	 *
+	 * @param engine
+	 *            the engine
+	 * @return the compiled library scripts, or null if the compiled scripts
+	 *         can't be shared by the engines
+	 */
+	private synchronized Map<String, CompiledScript> getCompiledLibraries(JavascriptEngine engine) {
+
+		if (!engine.canShareCompiledScripts()) {
+			return null;
+		}
+
+		if (compiledLibraries == null) {
+			Map<String, CompiledScript> libraries = new LinkedHashMap<>();
+			for (Map.Entry<String, String> library : librarySources.entrySet()) {
+				libraries.put(library.getKey(), engine.compile(library.getKey(), library.getValue()));
+			}
+			compiledLibraries = libraries;
+		}
+		return compiledLibraries;
+	}
+}
@@ -44,14 +44,27 @@ final class RhinoCompiledScript extends CompiledScript {
     }
 
     public Object eval(ScriptContext context) throws ScriptException {
+        return eval(engine, context);
+    }
+
+    /**
+     * Executes the compiled script in the scope of a Rhino engine, which may
+     * not be the engine which has compiled it.
+     *
+     * @param scriptEngine the engine in which the script is executed
+     * @param context the script context
+     * @return the result of the script
+     * @throws ScriptException if a script exception occurs
+     */
+    Object eval(RhinoScriptEngine scriptEngine, ScriptContext context) throws ScriptException {
 
         Object result = null;
         Context cx = RhinoScriptEngine.enterContext();
         try {
 
-            Scriptable scope = engine.getRuntimeScope(context);
+            Scriptable scope = scriptEngine.getRuntimeScope(context);
             Object ret = script.exec(cx, scope);
-            result = engine.unwrapReturnValue(ret);
+            result = scriptEngine.unwrapReturnValue(ret);
         } catch (RhinoException re) {
             int line = (line = re.lineNumber()) == 0 ? -1 : line;
             String msg;
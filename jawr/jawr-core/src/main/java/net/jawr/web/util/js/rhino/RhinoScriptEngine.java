@@ -388,6 +388,23 @@ public final class RhinoScriptEngine extends AbstractScriptEngine
     }
 
 
+    /**
+     * Evaluates a compiled script in this engine. The scripts compiled by
+     * another Rhino engine are executed in the scope of this engine, so a
+     * script can be compiled once and shared by several engines.
+     *
+     * @param script the compiled script
+     * @param ctxt the script context
+     * @return the result of the script
+     * @throws ScriptException if a script exception occurs
+     */
+    public Object eval(CompiledScript script, ScriptContext ctxt) throws ScriptException {
+        if (script instanceof RhinoCompiledScript) {
+            return ((RhinoCompiledScript) script).eval(this, ctxt);
+        }
+        return script.eval(ctxt);
+    }
+
     //package-private helpers
 
     static Context enterContext() {
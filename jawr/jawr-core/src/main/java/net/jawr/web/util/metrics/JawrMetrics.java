@@ -0,0 +1,392 @@
+/**
+ * Copyright 2017 Ibrahim Chaehoi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package net.jawr.web.util.metrics;
+
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * This class holds the metrics of a resource type : the counters and the
+ * latencies of the requests, globally and per bundle, and the latencies of the
+ * phases of the bundling process. The metrics are only collected once they
+ * are enabled, so the requests don't pay for them by default.
+ *
+ * @author Ibrahim Chaehoi
+ */
+public class JawrMetrics {
+
+	/** The flag indicating if the metrics are collected */
+	private volatile boolean enabled;
+
+	/** The number of requests */
+	private final StripedCounter requestCount = new StripedCounter();
+
+	/** The number of 'not modified' responses */
+	private final StripedCounter notModifiedCount = new StripedCounter();
+
+	/** The number of responses sent with a content coding */
+	private final StripedCounter encodedResponseCount = new StripedCounter();
+
+	/** The number of responses sent without content coding */
+	private final StripedCounter plainResponseCount = new StripedCounter();
+
+	/** The number of bytes of the responses sent as a stream of bytes */
+	private final StripedCounter bytesServed = new StripedCounter();
+
+	/** The number of characters of the responses sent as text */
+	private final StripedCounter charactersServed = new StripedCounter();
+
+	/** The number of requests for a bundle which doesn't exist */
+	private final StripedCounter bundleNotFoundCount = new StripedCounter();
+
+	/** The latencies of the requests */
+	private final LatencyHistogram requestLatency = new LatencyHistogram();
+
+	/** The latencies of the requests per bundle */
+	private final ConcurrentMap<String, LatencyHistogram> bundleRequestLatencies = new ConcurrentHashMap<>();
+
+	/** The latencies of the global preprocessing */
+	private final LatencyHistogram globalPreprocessingLatency = new LatencyHistogram();
+
+	/** The latencies of the join of the bundle resources */
+	private final LatencyHistogram bundleJoinLatency = new LatencyHistogram();
+
+	/** The latencies of the bundle postprocessing */
+	private final LatencyHistogram bundlePostprocessingLatency = new LatencyHistogram();
+
+	/** The latencies of the global postprocessing */
+	private final LatencyHistogram globalPostprocessingLatency = new LatencyHistogram();
+
+	/**
+	 * Returns the flag indicating if the metrics are collected
+	 *
+	 * @return the flag indicating if the metrics are collected
+	 */
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Sets the flag indicating if the metrics are collected
+	 *
+	 * @param enabled
+	 *            the flag to set
+	 */
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	/**
+	 * Records a request
+	 *
+	 * @param bundleId
+	 *            the ID of the requested bundle, or null if the request
+	 *            doesn't target a known bundle
+	 * @param nanos
+	 *            the time spent handling the request in nanoseconds
+	 */
+	public void recordRequest(String bundleId, long nanos) {
+
+		if (!enabled) {
+			return;
+		}
+		requestCount.increment();
+		requestLatency.record(nanos);
+		if (bundleId != null) {
+			LatencyHistogram histogram = bundleRequestLatencies.get(bundleId);
+			if (histogram == null) {
+				LatencyHistogram newHistogram = new LatencyHistogram();
+				histogram = bundleRequestLatencies.putIfAbsent(bundleId, newHistogram);
+				if (histogram == null) {
+					histogram = newHistogram;
+				}
+			}
+			histogram.record(nanos);
+		}
+	}
+
+	/**
+	 * Records a 'not modified' response
+	 */
+	public void recordNotModified() {
+
+		if (!enabled) {
+			return;
+		}
+		notModifiedCount.increment();
+	}
+
+	/**
+	 * Records a response sent with a content coding
+	 *
+	 * @param bytes
+	 *            the number of bytes sent
+	 */
+	public void recordEncodedResponse(long bytes) {
+
+		if (!enabled) {
+			return;
+		}
+		encodedResponseCount.increment();
+		bytesServed.add(bytes);
+	}
+
+	/**
+	 * Records a response sent as a stream of bytes without content coding
+	 *
+	 * @param bytes
+	 *            the number of bytes sent
+	 */
+	public void recordBinaryResponse(long bytes) {
+
+		if (!enabled) {
+			return;
+		}
+		plainResponseCount.increment();
+		bytesServed.add(bytes);
+	}
+
+	/**
+	 * Records a response sent as text without content coding
+	 *
+	 * @param characters
+	 *            the number of characters sent
+	 */
+	public void recordTextResponse(long characters) {
+
+		if (!enabled) {
+			return;
+		}
+		plainResponseCount.increment();
+		charactersServed.add(characters);
+	}
+
+	/**
+	 * Records a request for a bundle which doesn't exist
+	 */
+	public void recordBundleNotFound() {
+
+		if (!enabled) {
+			return;
+		}
+		bundleNotFoundCount.increment();
+	}
+
+	/**
+	 * Records the duration of the global preprocessing
+	 *
+	 * @param nanos
+	 *            the duration in nanoseconds
+	 */
+	public void recordGlobalPreprocessing(long nanos) {
+
+		if (!enabled) {
+			return;
+		}
+		globalPreprocessingLatency.record(nanos);
+	}
+
+	/**
+	 * Records the duration of the join of the resources of a bundle
+	 *
+	 * @param nanos
+	 *            the duration in nanoseconds
+	 */
+	public void recordBundleJoin(long nanos) {
+
+		if (!enabled) {
+			return;
+		}
+		bundleJoinLatency.record(nanos);
+	}
+
+	/**
+	 * Records the duration of the postprocessing of a bundle
+	 *
+	 * @param nanos
+	 *            the duration in nanoseconds
+	 */
+	public void recordBundlePostprocessing(long nanos) {
+
+		if (!enabled) {
+			return;
+		}
+		bundlePostprocessingLatency.record(nanos);
+	}
+
+	/**
+	 * Records the duration of the global postprocessing
+	 *
+	 * @param nanos
+	 *            the duration in nanoseconds
+	 */
+	public void recordGlobalPostprocessing(long nanos) {
+
+		if (!enabled) {
+			return;
+		}
+		globalPostprocessingLatency.record(nanos);
+	}
+
+	/**
+	 * Returns the number of requests
+	 *
+	 * @return the number of requests
+	 */
+	public long getRequestCount() {
+		return requestCount.sum();
+	}
+
+	/**
+	 * Returns the number of 'not modified' responses
+	 *
+	 * @return the number of 'not modified' responses
+	 */
+	public long getNotModifiedCount() {
+		return notModifiedCount.sum();
+	}
+
+	/**
+	 * Returns the number of responses sent with a content coding
+	 *
+	 * @return the number of responses sent with a content coding
+	 */
+	public long getEncodedResponseCount() {
+		return encodedResponseCount.sum();
+	}
+
+	/**
+	 * Returns the number of responses sent without content coding
+	 *
+	 * @return the number of responses sent without content coding
+	 */
+	public long getPlainResponseCount() {
+		return plainResponseCount.sum();
+	}
+
+	/**
+	 * Returns the number of bytes of the responses sent as a stream of bytes
+	 *
+	 * @return the number of bytes served
+	 */
+	public long getBytesServed() {
+		return bytesServed.sum();
+	}
+
+	/**
+	 * Returns the number of characters of the responses sent as text
+	 *
+	 * @return the number of characters served
+	 */
+	public long getCharactersServed() {
+		return charactersServed.sum();
+	}
+
+	/**
+	 * Returns the number of requests for a bundle which doesn't exist
+	 *
+	 * @return the number of requests for a bundle which doesn't exist
+	 */
+	public long getBundleNotFoundCount() {
+		return bundleNotFoundCount.sum();
+	}
+
+	/**
+	 * Returns the latencies of the requests
+	 *
+	 * @return the latencies of the requests
+	 */
+	public LatencyHistogram getRequestLatency() {
+		return requestLatency;
+	}
+
+	/**
+	 * Returns the IDs of the bundles which have been requested
+	 *
+	 * @return the IDs of the bundles which have been requested
+	 */
+	public Set<String> getRequestedBundleIds() {
+		return new TreeSet<>(bundleRequestLatencies.keySet());
+	}
+
+	/**
+	 * Returns the latencies of the requests of a bundle
+	 *
+	 * @param bundleId
+	 *            the bundle ID
+	 * @return the latencies of the requests of the bundle, or null if the
+	 *         bundle has not been requested
+	 */
+	public LatencyHistogram getBundleRequestLatency(String bundleId) {
+		return bundleRequestLatencies.get(bundleId);
+	}
+
+	/**
+	 * Returns the latencies of the global preprocessing
+	 *
+	 * @return the latencies of the global preprocessing
+	 */
+	public LatencyHistogram getGlobalPreprocessingLatency() {
+		return globalPreprocessingLatency;
+	}
+
+	/**
+	 * Returns the latencies of the join of the bundle resources
+	 *
+	 * @return the latencies of the join of the bundle resources
+	 */
+	public LatencyHistogram getBundleJoinLatency() {
+		return bundleJoinLatency;
+	}
+
+	/**
+	 * Returns the latencies of the bundle postprocessing
+	 *
+	 * @return the latencies of the bundle postprocessing
+	 */
+	public LatencyHistogram getBundlePostprocessingLatency() {
+		return bundlePostprocessingLatency;
+	}
+
+	/**
+	 * Returns the latencies of the global postprocessing
+	 *
+	 * @return the latencies of the global postprocessing
+	 */
+	public LatencyHistogram getGlobalPostprocessingLatency() {
+		return globalPostprocessingLatency;
+	}
+
+	/**
+	 * Resets the metrics
+	 */
+	public void reset() {
+
+		requestCount.reset();
+		notModifiedCount.reset();
+		encodedResponseCount.reset();
+		plainResponseCount.reset();
+		bytesServed.reset();
+		charactersServed.reset();
+		bundleNotFoundCount.reset();
+		requestLatency.reset();
+		bundleRequestLatencies.clear();
+		globalPreprocessingLatency.reset();
+		bundleJoinLatency.reset();
+		bundlePostprocessingLatency.reset();
+		globalPostprocessingLatency.reset();
+	}
+}
@@ -0,0 +1,195 @@
+/**
+ * Copyright 2017 Ibrahim Chaehoi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package net.jawr.web.util.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * This class defines a histogram of latencies, which are recorded in
+ * microseconds. The buckets are log-linear : each power of 2 is divided in 8
+ * sub-buckets, so the relative error of a percentile is below 12.5%, whatever
+ * the magnitude of the latency. The latencies above 2^32 microseconds (more
+ * than one hour) are recorded in the last bucket.
+ *
+ * As for {@link StripedCounter}, the buckets are striped by thread, so the
+ * threads which record a latency don't contend.
+ *
+ * @author Ibrahim Chaehoi
+ */
+public class LatencyHistogram {
+
+	/** The number of bits of the sub-bucket index */
+	private static final int SUB_BUCKET_BITS = 3;
+
+	/** The number of sub-buckets per power of 2 */
+	private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+	/** The highest power of 2 which is tracked */
+	private static final int MAX_MAGNITUDE = 32;
+
+	/** The number of buckets */
+	static final int BUCKET_COUNT = (MAX_MAGNITUDE - SUB_BUCKET_BITS + 2) * SUB_BUCKET_COUNT;
+
+	/** The maximum number of stripes */
+	private static final int MAX_STRIPES = 8;
+
+	/** The number of stripes */
+	private static final int STRIPES = StripedCounter.getStripeCount(MAX_STRIPES);
+
+	/** The bucket counts of all the stripes */
+	private final AtomicLongArray counts = new AtomicLongArray(STRIPES * BUCKET_COUNT);
+
+	/** The total of the recorded latencies in microseconds */
+	private final StripedCounter total = new StripedCounter();
+
+	/** The highest recorded latency in microseconds */
+	private final AtomicLong max = new AtomicLong();
+
+	/**
+	 * Records a latency
+	 *
+	 * @param nanos
+	 *            the latency in nanoseconds
+	 */
+	public void record(long nanos) {
+
+		long micros = Math.max(0, TimeUnit.NANOSECONDS.toMicros(nanos));
+		counts.getAndIncrement(StripedCounter.getStripe(STRIPES) * BUCKET_COUNT + getBucketIndex(micros));
+		total.add(micros);
+
+		long current = max.get();
+		while (micros > current && !max.compareAndSet(current, micros)) {
+			current = max.get();
+		}
+	}
+
+	/**
+	 * Returns the number of recorded latencies
+	 *
+	 * @return the number of recorded latencies
+	 */
+	public long getCount() {
+		long count = 0;
+		for (int i = 0; i < counts.length(); i++) {
+			count += counts.get(i);
+		}
+		return count;
+	}
+
+	/**
+	 * Returns the mean latency in milliseconds
+	 *
+	 * @return the mean latency in milliseconds
+	 */
+	public double getMean() {
+		long count = getCount();
+		return count == 0 ? 0 : total.sum() / 1000d / count;
+	}
+
+	/**
+	 * Returns the highest latency in milliseconds
+	 *
+	 * @return the highest latency in milliseconds
+	 */
+	public double getMax() {
+		return max.get() / 1000d;
+	}
+
+	/**
+	 * Returns the latency in milliseconds below which the given percentage of
+	 * the latencies fall. The value returned is the upper bound of the bucket
+	 * of the percentile.
+	 *
+	 * @param percentile
+	 *            the percentile, between 0 and 100
+	 * @return the latency in milliseconds
+	 */
+	public double getPercentile(double percentile) {
+
+		long[] buckets = new long[BUCKET_COUNT];
+		long count = 0;
+		for (int i = 0; i < counts.length(); i++) {
+			long value = counts.get(i);
+			buckets[i % BUCKET_COUNT] += value;
+			count += value;
+		}
+		if (count == 0) {
+			return 0;
+		}
+
+		long rank = Math.max(1, (long) Math.ceil(Math.min(100, percentile) / 100 * count));
+		long seen = 0;
+		int bucket = 0;
+		for (; bucket < BUCKET_COUNT - 1; bucket++) {
+			seen += buckets[bucket];
+			if (seen >= rank) {
+				break;
+			}
+		}
+		return Math.min(getBucketUpperBound(bucket), max.get()) / 1000d;
+	}
+
+	/**
+	 * Resets the histogram
+	 */
+	public void reset() {
+		for (int i = 0; i < counts.length(); i++) {
+			counts.set(i, 0);
+		}
+		total.reset();
+		max.set(0);
+	}
+
+	/**
+	 * Returns the index of the bucket of a value
+	 *
+	 * @param value
+	 *            the value
+	 * @return the index of the bucket
+	 */
+	static int getBucketIndex(long value) {
+
+		if (value < SUB_BUCKET_COUNT) {
+			return (int) value;
+		}
+		int magnitude = 63 - Long.numberOfLeadingZeros(value);
+		if (magnitude > MAX_MAGNITUDE) {
+			return BUCKET_COUNT - 1;
+		}
+		int subBucket = (int) (value >>> (magnitude - SUB_BUCKET_BITS)) & (SUB_BUCKET_COUNT - 1);
+		return (magnitude - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT + subBucket;
+	}
+
+	/**
+	 * Returns the highest value of a bucket
+	 *
+	 * @param index
+	 *            the index of the bucket
+	 * @return the highest value of the bucket
+	 */
+	static long getBucketUpperBound(int index) {
+
+		if (index < SUB_BUCKET_COUNT) {
+			return index;
+		}
+		if (index == BUCKET_COUNT - 1) {
+			return Long.MAX_VALUE;
+		}
+		int shift = index / SUB_BUCKET_COUNT - 1;
+		long lowerBound = (long) (SUB_BUCKET_COUNT + index % SUB_BUCKET_COUNT) << shift;
+		return lowerBound + (1L << shift) - 1;
+	}
+}
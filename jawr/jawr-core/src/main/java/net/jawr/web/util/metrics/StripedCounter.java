@@ -0,0 +1,110 @@
+/**
+ * Copyright 2017 Ibrahim Chaehoi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package net.jawr.web.util.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * This class defines a counter which is updated by many threads without
+ * contention. The value is spread over several cells, one cell being selected
+ * by the current thread, and the cells are summed when the value is read. The
+ * cells are padded so that two cells never share a cache line.
+ *
+ * The value returned by {@link #sum()} is not an atomic snapshot if the
+ * counter is updated concurrently, which is acceptable for statistics.
+ *
+ * @author Ibrahim Chaehoi
+ */
+public class StripedCounter {
+
+	/** The number of longs in a cache line */
+	private static final int PADDING = 8;
+
+	/** The maximum number of stripes */
+	private static final int MAX_STRIPES = 64;
+
+	/** The number of stripes, which is a power of 2 */
+	static final int STRIPES = getStripeCount(MAX_STRIPES);
+
+	/** The cells */
+	private final AtomicLongArray cells = new AtomicLongArray((STRIPES + 1) * PADDING);
+
+	/**
+	 * Adds a value to the counter
+	 *
+	 * @param value
+	 *            the value to add
+	 */
+	public void add(long value) {
+		cells.getAndAdd((getStripe(STRIPES) + 1) * PADDING, value);
+	}
+
+	/**
+	 * Increments the counter
+	 */
+	public void increment() {
+		add(1);
+	}
+
+	/**
+	 * Returns the value of the counter
+	 *
+	 * @return the value of the counter
+	 */
+	public long sum() {
+		long sum = 0;
+		for (int i = 1; i <= STRIPES; i++) {
+			sum += cells.get(i * PADDING);
+		}
+		return sum;
+	}
+
+	/**
+	 * Resets the counter
+	 */
+	public void reset() {
+		for (int i = 1; i <= STRIPES; i++) {
+			cells.set(i * PADDING, 0);
+		}
+	}
+
+	/**
+	 * Returns the number of stripes to use, which is the number of processors
+	 * rounded to the next power of 2
+	 *
+	 * @param maxStripes
+	 *            the maximum number of stripes
+	 * @return the number of stripes
+	 */
+	static int getStripeCount(int maxStripes) {
+		int processors = Runtime.getRuntime().availableProcessors();
+		int stripes = 1;
+		while (stripes < processors && stripes < maxStripes) {
+			stripes <<= 1;
+		}
+		return stripes;
+	}
+
+	/**
+	 * Returns the stripe of the current thread. The thread IDs are sequential,
+	 * so the threads of a pool are spread over the stripes.
+	 *
+	 * @param stripes
+	 *            the number of stripes, which must be a power of 2
+	 * @return the stripe of the current thread
+	 */
+	static int getStripe(int stripes) {
+		return (int) Thread.currentThread().getId() & (stripes - 1);
+	}
+}
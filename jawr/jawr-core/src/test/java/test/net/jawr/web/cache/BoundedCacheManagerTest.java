@@ -0,0 +1,215 @@
+/**
+ * Copyright 2017 Ibrahim Chaehoi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package test.net.jawr.web.cache;
+
+import java.io.IOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import net.jawr.web.cache.BoundedCacheManager;
+
+/**
+ * BoundedCacheManager test case
+ *
+ * @author Ibrahim Chaehoi
+ */
+public class BoundedCacheManagerTest {
+
+	@Test
+	public void testEvictLeastRecentlyUsed() throws Exception {
+
+		// Each element weighs 2 bytes for the key and 100 bytes for the value
+		BoundedCacheManager cacheMgr = new BoundedCacheManager(250);
+		cacheMgr.put("a", new byte[100]);
+		cacheMgr.put("b", new byte[100]);
+
+		// Access "a" so "b" becomes the least recently used element
+		Assert.assertNotNull(cacheMgr.get("a"));
+		cacheMgr.put("c", new byte[100]);
+
+		Assert.assertNotNull(cacheMgr.get("a"));
+		Assert.assertNull(cacheMgr.get("b"));
+		Assert.assertNotNull(cacheMgr.get("c"));
+		Assert.assertEquals(1, cacheMgr.getEvictionCount());
+		Assert.assertEquals(204, cacheMgr.getSize());
+	}
+
+	@Test
+	public void testElementLargerThanCacheIsNotStored() {
+
+		BoundedCacheManager cacheMgr = new BoundedCacheManager(100);
+		cacheMgr.put("big", "a text which is larger than the cache size, because each char weighs 2 bytes");
+		Assert.assertNull(cacheMgr.get("big"));
+		Assert.assertEquals(0, cacheMgr.getSize());
+	}
+
+	@Test
+	public void testRemoveAndClear() {
+
+		BoundedCacheManager cacheMgr = new BoundedCacheManager(1000);
+		cacheMgr.put("a", "text");
+		cacheMgr.put("b", new byte[10]);
+		cacheMgr.put("b", new byte[20]);
+		Assert.assertEquals(2 + 8 + 2 + 20, cacheMgr.getSize());
+
+		Assert.assertEquals("text", cacheMgr.remove("a"));
+		Assert.assertEquals(22, cacheMgr.getSize());
+
+		cacheMgr.clear();
+		Assert.assertEquals(0, cacheMgr.getSize());
+		Assert.assertEquals(0, cacheMgr.getElementCount());
+	}
+
+	@Test
+	public void testStatistics() throws Exception {
+
+		BoundedCacheManager cacheMgr = new BoundedCacheManager(1000);
+		Callable<String> loader = new Callable<String>() {
+
+			@Override
+			public String call() {
+				return "content";
+			}
+		};
+		Assert.assertEquals("content", cacheMgr.get("key", loader));
+		Assert.assertEquals("content", cacheMgr.get("key", loader));
+		Assert.assertEquals("content", cacheMgr.get("key", loader));
+
+		Assert.assertEquals(1, cacheMgr.getMissCount());
+		Assert.assertEquals(2, cacheMgr.getHitCount());
+	}
+
+	@Test
+	public void testLoaderExceptionIsPropagated() throws Exception {
+
+		BoundedCacheManager cacheMgr = new BoundedCacheManager(1000);
+		try {
+			cacheMgr.get("key", new Callable<String>() {
+
+				@Override
+				public String call() throws IOException {
+					throw new IOException("Unable to load");
+				}
+			});
+			Assert.fail("The exception should be propagated");
+		} catch (IOException e) {
+			Assert.assertEquals("Unable to load", e.getMessage());
+		}
+		Assert.assertNull(cacheMgr.get("key"));
+	}
+
+	@Test
+	public void testConcurrentMissesLoadOnce() throws Exception {
+
+		final BoundedCacheManager cacheMgr = new BoundedCacheManager(1000);
+		final AtomicInteger loadCount = new AtomicInteger();
+		final CountDownLatch loading = new CountDownLatch(1);
+		final CountDownLatch release = new CountDownLatch(1);
+
+		final Callable<String> loader = new Callable<String>() {
+
+			@Override
+			public String call() throws Exception {
+				loadCount.incrementAndGet();
+				loading.countDown();
+				release.await(5, TimeUnit.SECONDS);
+				return "content";
+			}
+		};
+
+		Callable<Object> request = new Callable<Object>() {
+
+			@Override
+			public Object call() throws Exception {
+				return cacheMgr.get("key", loader);
+			}
+		};
+
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			Future<Object> first = executor.submit(request);
+			Assert.assertTrue(loading.await(5, TimeUnit.SECONDS));
+			Future<Object> second = executor.submit(request);
+			Future<Object> third = executor.submit(request);
+
+			// Let the other requests wait for the current loading
+			Thread.sleep(50);
+			release.countDown();
+
+			Assert.assertEquals("content", first.get(5, TimeUnit.SECONDS));
+			Assert.assertEquals("content", second.get(5, TimeUnit.SECONDS));
+			Assert.assertEquals("content", third.get(5, TimeUnit.SECONDS));
+		} finally {
+			executor.shutdownNow();
+		}
+		Assert.assertEquals(1, loadCount.get());
+
+		// The requests which waited for the loading are misses
+		Assert.assertEquals(3, cacheMgr.getMissCount());
+		Assert.assertEquals(0, cacheMgr.getHitCount());
+	}
+
+	@Test
+	public void testElementLoadedDuringClearIsNotStored() throws Exception {
+
+		final BoundedCacheManager cacheMgr = new BoundedCacheManager(1000);
+		Assert.assertEquals("stale", cacheMgr.get("key", new Callable<String>() {
+
+			@Override
+			public String call() {
+				// The cache is cleared while the element is loaded
+				cacheMgr.clear();
+				return "stale";
+			}
+		}));
+		Assert.assertNull(cacheMgr.get("key"));
+		Assert.assertEquals(0, cacheMgr.getSize());
+
+		Assert.assertEquals("content", cacheMgr.get("key", new Callable<String>() {
+
+			@Override
+			public String call() {
+				return "content";
+			}
+		}));
+		Assert.assertEquals("content", cacheMgr.get("key"));
+	}
+
+	@Test
+	public void testElementLoadedDuringRemoveIsNotStored() throws Exception {
+
+		final BoundedCacheManager cacheMgr = new BoundedCacheManager(1000);
+		cacheMgr.put("other", "other content");
+		Assert.assertEquals("stale", cacheMgr.get("key", new Callable<String>() {
+
+			@Override
+			public String call() {
+				// The element is removed while it is loaded, for example
+				// because its bundle is rebuilt
+				cacheMgr.remove("key");
+				return "stale";
+			}
+		}));
+		Assert.assertNull(cacheMgr.get("key"));
+		Assert.assertEquals("other content", cacheMgr.get("other"));
+	}
+}
@@ -0,0 +1,71 @@
+package test.net.jawr.web.minification;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import net.jawr.web.minification.CSSMinifier;
+import net.jawr.web.minification.CSSTokenizerMinifier;
+import test.net.jawr.web.FileUtils;
+
+/**
+ * Micro benchmark comparing the throughput of the CSS minifier based on
+ * regular expressions with the one of the tokenizer minifier.
+ *
+ * The benchmark is not executed by the unit tests. Run the main method using
+ * the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CSSMinifierBenchmark {
+
+	@Param({ "/cssminifier/source2.css", "/generator/webjars/bootstrap_debug_expected.css" })
+	public String stylesheet;
+
+	private String source;
+
+	private CSSMinifier regexMinifier;
+
+	private CSSMinifier tokenizerMinifier;
+
+	@Setup
+	public void setup() throws Exception {
+		source = FileUtils.readFile(new File(FileUtils.getClasspathRootDir() + stylesheet));
+		regexMinifier = new CSSMinifier();
+		tokenizerMinifier = new CSSTokenizerMinifier();
+	}
+
+	@Benchmark
+	public StringBuffer regexMinifier() {
+		return regexMinifier.minifyCSS(new StringBuffer(source));
+	}
+
+	@Benchmark
+	public StringBuffer tokenizerMinifier() {
+		return tokenizerMinifier.minifyCSS(new StringBuffer(source));
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		Options opt = new OptionsBuilder().include(CSSMinifierBenchmark.class.getSimpleName()).build();
+		new Runner(opt).run();
+	}
+}
@@ -0,0 +1,93 @@
+/**
+ * Copyright 2017 Ibrahim Chaehoi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package test.net.jawr.web.minification;
+
+import java.io.File;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import net.jawr.web.minification.CSSMinifier;
+import net.jawr.web.minification.CSSTokenizerMinifier;
+import test.net.jawr.web.FileUtils;
+
+/**
+ * Test case for the CSS tokenizer minifier, which must produce the same
+ * result as the CSS minifier based on regular expressions
+ *
+ * @author Ibrahim Chaehoi
+ */
+public class CSSTokenizerMinifierTest {
+
+	private static final String TEST_FOLDER = "/cssminifier";
+
+	@Test
+	public void testMinifyCSS() throws Exception {
+		checkMinification(false, "source.css", "expected.css");
+	}
+
+	@Test
+	public void testMinifyCSSWithLicence() throws Exception {
+		checkMinification(true, "source.css", "expected_withLicence.css");
+	}
+
+	@Test
+	public void test2MinifyCSS() throws Exception {
+		checkMinification(false, "source2.css", "expected2.css");
+	}
+
+	@Test
+	public void testMinifyCSSMultiLine() {
+		Assert.assertEquals(".some-class{background:transparent url(image/path);}", minify(false,
+				".some-class { \n" + "  background: transparent\n" + "url(image/path);\n" + "}"));
+	}
+
+	@Test
+	public void testSameResultAsRegexMinifier() {
+
+		String[] sources = { "\n.a { color : red }", "\n@media screen { .a { color : red } }",
+				"@media only screen and (max-width:767px){ .a{ width : calc( 100% - 10px ) } }",
+				"}\nand (x){}", ".a * {color:red}\n.b + .c { margin : 0 }", "@media x { .a - { b : c } }",
+				".a{content:\"/* } { */\" ; font-family : 'My  Font' }", "/*! licence */\n.a { }\n/* comment */",
+				".a{content:\"unclosed}" };
+
+		for (String source : sources) {
+			for (boolean keepLicence : new boolean[] { false, true }) {
+				String expected = new CSSMinifier(keepLicence).minifyCSS(new StringBuffer(source)).toString();
+				Assert.assertEquals("Error for : " + source, expected, minify(keepLicence, source));
+			}
+		}
+	}
+
+	@Test
+	public void testSameResultOnLargeStylesheet() throws Exception {
+
+		String source = FileUtils.readFile(new File(
+				FileUtils.getClasspathRootDir() + "/generator/webjars/bootstrap_debug_expected.css"));
+		String expected = new CSSMinifier().minifyCSS(new StringBuffer(source)).toString();
+		Assert.assertEquals(expected, minify(false, source));
+	}
+
+	private void checkMinification(boolean keepLicence, String sourceFile, String expectedFile) throws Exception {
+
+		String source = FileUtils.readFile(new File(FileUtils.getClasspathRootDir() + TEST_FOLDER + "/" + sourceFile));
+		String expected = FileUtils
+				.readFile(new File(FileUtils.getClasspathRootDir() + TEST_FOLDER + "/" + expectedFile));
+		Assert.assertEquals("Error in minifier", expected, minify(keepLicence, source));
+	}
+
+	private String minify(boolean keepLicence, String source) {
+		return new CSSTokenizerMinifier(keepLicence).minifyCSS(new StringBuffer(source)).toString();
+	}
+}
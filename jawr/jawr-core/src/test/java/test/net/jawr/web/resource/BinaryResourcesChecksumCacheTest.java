@@ -0,0 +1,132 @@
+/**
+ * Copyright 2017 Ibrahim Chaehoi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package test.net.jawr.web.resource;
+
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Properties;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import net.jawr.web.JawrConstant;
+import net.jawr.web.config.JawrConfig;
+import net.jawr.web.resource.BinaryResourcesChecksumCache;
+import net.jawr.web.resource.bundle.CheckSumUtils;
+import net.jawr.web.resource.bundle.generator.GeneratorRegistry;
+import net.jawr.web.resource.handler.reader.ResourceReaderHandler;
+import test.net.jawr.web.FileUtils;
+
+/**
+ * Test case for the cache of the checksums of the binary resources
+ *
+ * @author Ibrahim Chaehoi
+ */
+public class BinaryResourcesChecksumCacheTest {
+
+	private File dir;
+
+	private File image;
+
+	private File cacheFile;
+
+	private JawrConfig config;
+
+	private ResourceReaderHandler rsReader;
+
+	@Before
+	public void setUp() throws Exception {
+
+		dir = new File(FileUtils.getClasspathRootDir(), "binaryChecksumCache");
+		FileUtils.clearDirectory(dir.getAbsolutePath());
+		dir.mkdirs();
+		image = new File(dir, "logo.png");
+		writeFile(image, "logo");
+		cacheFile = new File(dir, "cache/" + BinaryResourcesChecksumCache.CACHE_FILE_NAME);
+
+		config = new JawrConfig(JawrConstant.BINARY_TYPE, new Properties());
+		config.setGeneratorRegistry(new GeneratorRegistry(JawrConstant.BINARY_TYPE));
+
+		rsReader = mock(ResourceReaderHandler.class);
+		when(rsReader.getFilePath("/img/logo.png")).thenReturn(image.getAbsolutePath());
+		when(rsReader.getResourceAsStream(anyString())).thenAnswer(new Answer<InputStream>() {
+
+			@Override
+			public InputStream answer(InvocationOnMock invocation) throws Throwable {
+				return new FileInputStream(image);
+			}
+		});
+	}
+
+	@Test
+	public void testUnchangedResourceNotReadAfterRestart() throws Exception {
+
+		BinaryResourcesChecksumCache cache = new BinaryResourcesChecksumCache(cacheFile, "CRC32");
+		String checksum = cache.getChecksum("/img/logo.png", rsReader, config);
+		Assert.assertEquals(CheckSumUtils.getChecksum(new FileInputStream(image), "CRC32"), checksum);
+		cache.save();
+
+		cache = new BinaryResourcesChecksumCache(cacheFile, "CRC32");
+		Assert.assertEquals(checksum, cache.getChecksum("/img/logo.png", rsReader, config));
+		verify(rsReader, times(1)).getResourceAsStream(anyString());
+	}
+
+	@Test
+	public void testModifiedResourceReadAgain() throws Exception {
+
+		BinaryResourcesChecksumCache cache = new BinaryResourcesChecksumCache(cacheFile, "CRC32");
+		String checksum = cache.getChecksum("/img/logo.png", rsReader, config);
+		cache.save();
+
+		writeFile(image, "new logo");
+		cache = new BinaryResourcesChecksumCache(cacheFile, "CRC32");
+		String newChecksum = cache.getChecksum("/img/logo.png", rsReader, config);
+		Assert.assertNotEquals(checksum, newChecksum);
+		Assert.assertEquals(CheckSumUtils.getChecksum(new FileInputStream(image), "CRC32"), newChecksum);
+		verify(rsReader, times(2)).getResourceAsStream(anyString());
+	}
+
+	@Test
+	public void testChecksumsDiscardedForOtherAlgorithm() throws Exception {
+
+		BinaryResourcesChecksumCache cache = new BinaryResourcesChecksumCache(cacheFile, "CRC32");
+		cache.getChecksum("/img/logo.png", rsReader, config);
+		cache.save();
+
+		cache = new BinaryResourcesChecksumCache(cacheFile, "MD5");
+		config.setBinaryHashAlgorithm("MD5");
+		Assert.assertEquals(CheckSumUtils.getMD5Checksum(new FileInputStream(image)),
+				cache.getChecksum("/img/logo.png", rsReader, config));
+		verify(rsReader, times(2)).getResourceAsStream(anyString());
+	}
+
+	private void writeFile(File file, String content) throws IOException {
+		try (OutputStream os = new FileOutputStream(file)) {
+			os.write(content.getBytes("UTF-8"));
+		}
+	}
+}
@@ -0,0 +1,167 @@
+/**
+ * Copyright 2017 Ibrahim Chaehoi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package test.net.jawr.web.resource;
+
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import net.jawr.web.JawrConstant;
+import net.jawr.web.config.JawrConfig;
+import net.jawr.web.exception.ResourceNotFoundException;
+import net.jawr.web.resource.BinaryResourcesHandler;
+import net.jawr.web.resource.bundle.generator.GeneratorRegistry;
+import net.jawr.web.resource.handler.reader.ResourceReaderHandler;
+
+/**
+ * Test case for the image tag cache of the binary resources handler
+ *
+ * @author Ibrahim Chaehoi
+ */
+public class BinaryResourcesHandlerTest {
+
+	private JawrConfig config;
+
+	private ResourceReaderHandler rsReader;
+
+	@Before
+	public void setUp() throws Exception {
+
+		config = new JawrConfig(JawrConstant.BINARY_TYPE, new Properties());
+		config.setGeneratorRegistry(new GeneratorRegistry(JawrConstant.BINARY_TYPE));
+
+		rsReader = mock(ResourceReaderHandler.class);
+		when(rsReader.getResourceAsStream(anyString())).thenAnswer(new Answer<InputStream>() {
+
+			@Override
+			public InputStream answer(InvocationOnMock invocation) throws Throwable {
+				return new ByteArrayInputStream("logo".getBytes("UTF-8"));
+			}
+		});
+	}
+
+	@Test
+	public void testBase64EncodedImageCached() throws Exception {
+
+		BinaryResourcesHandler handler = new BinaryResourcesHandler(config, rsReader, null);
+		Assert.assertEquals("data:image/png;base64,bG9nbw==", handler.getBase64EncodedImage("/img/logo.png"));
+		Assert.assertEquals("data:image/png;base64,bG9nbw==", handler.getBase64EncodedImage("/img/logo.png"));
+
+		verify(rsReader, times(1)).getResourceAsStream("/img/logo.png");
+		Assert.assertEquals(1, handler.getImageTagCache().getElementCount());
+		Assert.assertEquals(1, handler.getImageTagCache().getMissCount());
+
+		// The encoded images are not part of the binary mapping
+		Assert.assertTrue(handler.getBinaryPathMap().isEmpty());
+	}
+
+	@Test
+	public void testConcurrentMissesEncodeOnce() throws Exception {
+
+		final CountDownLatch readStarted = new CountDownLatch(1);
+		final CountDownLatch allRequested = new CountDownLatch(1);
+		when(rsReader.getResourceAsStream(anyString())).thenAnswer(new Answer<InputStream>() {
+
+			@Override
+			public InputStream answer(InvocationOnMock invocation) throws Throwable {
+				readStarted.countDown();
+				allRequested.await(5, TimeUnit.SECONDS);
+				return new ByteArrayInputStream("logo".getBytes("UTF-8"));
+			}
+		});
+
+		final BinaryResourcesHandler handler = new BinaryResourcesHandler(config, rsReader, null);
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<String>> results = new ArrayList<>();
+			for (int i = 0; i < 4; i++) {
+				results.add(executor.submit(new Callable<String>() {
+
+					@Override
+					public String call() throws Exception {
+						return handler.getBase64EncodedImage("/img/logo.png");
+					}
+				}));
+			}
+			readStarted.await(5, TimeUnit.SECONDS);
+			Thread.sleep(100);
+			allRequested.countDown();
+
+			for (Future<String> result : results) {
+				Assert.assertEquals("data:image/png;base64,bG9nbw==", result.get(5, TimeUnit.SECONDS));
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		verify(rsReader, times(1)).getResourceAsStream("/img/logo.png");
+	}
+
+	@Test
+	public void testCacheBoundedBySize() throws Exception {
+
+		config.setImageTagCacheMaxSize(200);
+		BinaryResourcesHandler handler = new BinaryResourcesHandler(config, rsReader, null);
+		handler.precomputeImageTagCache(Arrays.asList("/img/a.png", "/img/b.png", "/img/c.png"));
+
+		Assert.assertTrue(handler.getImageTagCache().getSize() <= 200);
+		Assert.assertTrue(handler.getImageTagCache().getElementCount() < 3);
+		Assert.assertTrue(handler.getImageTagCache().getEvictionCount() > 0);
+	}
+
+	@Test
+	public void testCacheBustedUrlMapped() throws Exception {
+
+		BinaryResourcesHandler handler = new BinaryResourcesHandler(config, rsReader, null);
+		String url = handler.getCacheBustedUrl("/img/logo.png");
+		Assert.assertTrue(url.endsWith("/img/logo.png"));
+		Assert.assertEquals(url, handler.getCacheUrl("/img/logo.png"));
+		Assert.assertEquals(url, handler.getCacheBustedUrl("/img/logo.png"));
+		verify(rsReader, times(1)).getResourceAsStream("/img/logo.png");
+	}
+
+	@Test(expected = ResourceNotFoundException.class)
+	public void testMissingImageNotCached() throws Exception {
+
+		when(rsReader.getResourceAsStream("/img/missing.png"))
+				.thenThrow(new ResourceNotFoundException("/img/missing.png"));
+		BinaryResourcesHandler handler = new BinaryResourcesHandler(config, rsReader, null);
+		try {
+			handler.getBase64EncodedImage("/img/missing.png");
+		} finally {
+			Assert.assertEquals(0, handler.getImageTagCache().getElementCount());
+		}
+	}
+}
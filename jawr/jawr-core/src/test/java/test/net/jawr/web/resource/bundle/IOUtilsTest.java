@@ -0,0 +1,120 @@
+/**
+ * Copyright 2017 Ibrahim Chaehoi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package test.net.jawr.web.resource.bundle;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import net.jawr.web.resource.bundle.IOUtils;
+
+/**
+ * IOUtils test case
+ *
+ * @author Ibrahim Chaehoi
+ */
+public class IOUtilsTest {
+
+	private File source;
+
+	private File target;
+
+	private byte[] content;
+
+	@Before
+	public void setUp() throws IOException {
+
+		content = new byte[100000];
+		for (int i = 0; i < content.length; i++) {
+			content[i] = (byte) i;
+		}
+		source = File.createTempFile("jawr-source", ".gz");
+		target = File.createTempFile("jawr-target", ".gz");
+		try (FileOutputStream out = new FileOutputStream(source)) {
+			out.write(content);
+		}
+	}
+
+	@After
+	public void tearDown() {
+		source.delete();
+		target.delete();
+	}
+
+	@Test
+	public void testTransferToStreamChannel() throws IOException {
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (FileChannel in = new FileInputStream(source).getChannel()) {
+			IOUtils.transfer(in, Channels.newChannel(out));
+		}
+		Assert.assertTrue(Arrays.equals(content, out.toByteArray()));
+	}
+
+	@Test
+	public void testTransferToFileChannel() throws IOException {
+
+		try (FileChannel in = new FileInputStream(source).getChannel();
+				FileChannel out = new FileOutputStream(target).getChannel()) {
+			IOUtils.transfer(in, out);
+		}
+		Assert.assertEquals(content.length, target.length());
+	}
+
+	@Test
+	public void testTransferEmptyFile() throws IOException {
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (FileChannel in = new FileInputStream(target).getChannel()) {
+			IOUtils.transfer(in, Channels.newChannel(out));
+		}
+		Assert.assertEquals(0, out.size());
+	}
+
+	@Test
+	public void testWriteCharSequence() throws IOException {
+
+		// The content is larger than the encoding buffer, and contains multi
+		// bytes characters and surrogate pairs
+		StringBuffer content = new StringBuffer();
+		for (int i = 0; i < 5000; i++) {
+			content.append("var \u00e9t\u00e9 = '\ud83d\ude00';\n");
+		}
+		Charset charset = Charset.forName("UTF-8");
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		IOUtils.write(content, charset, out);
+		Assert.assertTrue(Arrays.equals(content.toString().getBytes(charset), out.toByteArray()));
+	}
+
+	@Test
+	public void testCopyToStringBuffer() throws IOException {
+
+		StringBuffer buffer = new StringBuffer("/* header */");
+		IOUtils.copy(new StringReader("var a = 1;"), buffer);
+		Assert.assertEquals("/* header */var a = 1;", buffer.toString());
+	}
+}
@@ -5,14 +5,21 @@ package test.net.jawr.web.resource.bundle;
 
 import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import net.jawr.web.resource.bundle.DebugInclusion;
 import net.jawr.web.resource.bundle.InclusionPattern;
 import net.jawr.web.resource.bundle.JoinableResourceBundle;
 import net.jawr.web.resource.bundle.JoinableResourceBundleImpl;
 import net.jawr.web.resource.bundle.iterator.BundlePath;
+import net.jawr.web.resource.bundle.variant.VariantSet;
+import net.jawr.web.resource.bundle.variant.VariantUtils;
 import net.jawr.web.resource.handler.reader.ResourceReaderHandler;
 import test.net.jawr.web.resource.bundle.handler.ResourceHandlerBasedTest;
 
@@ -88,5 +95,50 @@ public class JoinableResourceBundleImplTest extends  ResourceHandlerBasedTest  {
 		assertEquals("[partialMapping] Order of inclusion does not match the expected. ",expectedInPartCol, partialCollection.getItemPathList());
 	}
 
+	/**
+	 * Test method for {@link net.jawr.web.resource.bundle.JoinableResourceBundleImpl#notifyFileModification(java.lang.String)}.
+	 */
+	public void testNotifyFileModification() {
+		Map<String, VariantSet> variants = new HashMap<String, VariantSet>();
+		variants.put("locale", new VariantSet("locale", "", Arrays.asList("", "fr", "en")));
+		variants.put("connectionType", new VariantSet("connectionType", "", Arrays.asList("", "ssl")));
+		fullCollection.setVariants(variants);
+
+		Map<String, String> frVariant = Collections.singletonMap("locale", "fr");
+		Map<String, String> enVariant = Collections.singletonMap("locale", "en");
+		fullCollection.addFileDependency("/messages_fr.properties", frVariant);
+		fullCollection.addFileDependency("/messages_en.properties", enVariant);
+		fullCollection.addFileDependency("/messages.properties", null);
+
+		// Only the french variants depend on the french messages
+		fullCollection.notifyFileModification("/messages_fr.properties");
+		assertTrue(fullCollection.isDirty());
+		Set<String> expected = new HashSet<String>();
+		for (Map<String, String> variantMap : VariantUtils.getAllVariants(variants)) {
+			if ("fr".equals(variantMap.get("locale"))) {
+				expected.add(VariantUtils.getVariantKey(variantMap));
+			}
+		}
+		assertEquals(2, expected.size());
+		assertEquals(expected, fullCollection.getDirtyVariantKeys());
 
+		// The dirty variants are accumulated until the bundle is rebuilt
+		fullCollection.notifyFileModification("/messages_en.properties");
+		assertEquals(4, fullCollection.getDirtyVariantKeys().size());
+
+		// A file used by all the variants makes the whole bundle dirty
+		fullCollection.notifyFileModification("/messages.properties");
+		assertTrue(fullCollection.isDirty());
+		assertNull(fullCollection.getDirtyVariantKeys());
+
+		// The dirty variants are reset once the bundle has been rebuilt
+		fullCollection.setDirty(false);
+		fullCollection.notifyFileModification("/messages_en.properties");
+		assertEquals(2, fullCollection.getDirtyVariantKeys().size());
+
+		// An unknown file makes the whole bundle dirty
+		fullCollection.setDirty(false);
+		fullCollection.notifyFileModification("/unknown.properties");
+		assertNull(fullCollection.getDirtyVariantKeys());
+	}
 }
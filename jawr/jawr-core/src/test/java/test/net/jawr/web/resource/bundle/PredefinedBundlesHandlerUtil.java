@@ -46,11 +46,14 @@ public class PredefinedBundlesHandlerUtil {
 		GeneratorRegistry generatorRegistry = new GeneratorRegistry(type);
 		generatorRegistry.setResourceReaderHandler(handler);
 		config.setGeneratorRegistry(generatorRegistry);
-		BundlesHandlerFactory factory = new BundlesHandlerFactory(config);
-		factory.setResourceReaderHandler(handler);
-		factory.setResourceBundleHandler(rsBundleHandler);
-		factory.setBaseDir(baseDir);
-		factory.setBundlesType(type);
+		BundlesHandlerFactory factory = createSimpleBundlesFactory(handler,
+				rsBundleHandler, baseDir, type, config,
+				getSimpleBundleDefinitions(baseDir, type));
+		return factory.buildResourceBundlesHandler();
+	}
+
+	public static final Set<ResourceBundleDefinition> getSimpleBundleDefinitions(
+			String baseDir, String type) {
 
 		Set<ResourceBundleDefinition> customBundles = new HashSet<ResourceBundleDefinition>();
 
@@ -90,6 +93,19 @@ public class PredefinedBundlesHandlerUtil {
 		def.setDebugNever(true);
 		customBundles.add(def);
 
+		return customBundles;
+	}
+
+	public static final BundlesHandlerFactory createSimpleBundlesFactory(
+			ResourceReaderHandler handler,
+			ResourceBundleHandler rsBundleHandler, String baseDir, String type,
+			JawrConfig config, Set<ResourceBundleDefinition> customBundles) {
+
+		BundlesHandlerFactory factory = new BundlesHandlerFactory(config);
+		factory.setResourceReaderHandler(handler);
+		factory.setResourceBundleHandler(rsBundleHandler);
+		factory.setBaseDir(baseDir);
+		factory.setBundlesType(type);
 		factory.setBundleDefinitions(customBundles);
 		factory.setUseDirMapperFactory(true);
 		Set<String> excludedPaths = new HashSet<String>();
@@ -97,7 +113,7 @@ public class PredefinedBundlesHandlerUtil {
 		excludedPaths.add(baseDir + "/global");
 		excludedPaths.add(baseDir + "/debug");
 		factory.setExludedDirMapperDirs(excludedPaths);
-		return factory.buildResourceBundlesHandler();
+		return factory;
 	}
 
 	public static final ResourceBundlesHandler buildSimpleCompositeBundles(
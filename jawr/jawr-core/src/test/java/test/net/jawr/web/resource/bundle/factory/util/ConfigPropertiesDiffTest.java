@@ -0,0 +1,109 @@
+/**
+ * Copyright 2017 Ibrahim Chaehoi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package test.net.jawr.web.resource.bundle.factory.util;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Properties;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import net.jawr.web.resource.bundle.factory.util.ConfigPropertiesDiff;
+
+/**
+ * Test case for the differences between two versions of the Jawr
+ * configuration
+ *
+ * @author Ibrahim Chaehoi
+ */
+public class ConfigPropertiesDiffTest {
+
+	private Properties oldProps;
+
+	private Properties newProps;
+
+	@Before
+	public void setUp() {
+
+		oldProps = new Properties();
+		oldProps.setProperty("jawr.debug.on", "false");
+		oldProps.setProperty("jawr.js.bundle.lib.id", "/bundles/lib.js");
+		oldProps.setProperty("jawr.js.bundle.lib.mappings", "/js/lib/**");
+		oldProps.setProperty("jawr.js.bundle.app.id", "/bundles/app.js");
+		oldProps.setProperty("jawr.js.bundle.app.mappings", "/js/app/**");
+		oldProps.setProperty("jawr.css.bundle.main.id", "/bundles/main.css");
+		oldProps.setProperty("jawr.css.bundle.main.mappings", "/css/**");
+		oldProps.setProperty("jawr.binary.base.dir", "/img");
+
+		newProps = new Properties();
+		newProps.putAll(oldProps);
+	}
+
+	@Test
+	public void testNoChange() {
+
+		ConfigPropertiesDiff diff = new ConfigPropertiesDiff(oldProps, newProps, "js");
+		Assert.assertFalse(diff.hasChanges());
+		Assert.assertFalse(diff.isGlobalChange());
+		Assert.assertTrue(diff.getModifiedBundleNames().isEmpty());
+	}
+
+	@Test
+	public void testBundleDefinitionChange() {
+
+		newProps.setProperty("jawr.js.bundle.app.mappings", "/js/app/**,/js/common/**");
+		ConfigPropertiesDiff diff = new ConfigPropertiesDiff(oldProps, newProps, "js");
+		Assert.assertTrue(diff.hasChanges());
+		Assert.assertFalse(diff.isGlobalChange());
+		Assert.assertEquals(Collections.singleton("app"), diff.getModifiedBundleNames());
+	}
+
+	@Test
+	public void testBundleAddedAndRemoved() {
+
+		newProps.remove("jawr.js.bundle.lib.id");
+		newProps.remove("jawr.js.bundle.lib.mappings");
+		newProps.setProperty("jawr.js.bundle.admin.id", "/bundles/admin.js");
+		newProps.setProperty("jawr.js.bundle.admin.mappings", "/js/admin/**");
+		ConfigPropertiesDiff diff = new ConfigPropertiesDiff(oldProps, newProps, "js");
+		Assert.assertFalse(diff.isGlobalChange());
+		Assert.assertEquals(new HashSet<>(Arrays.asList("lib", "admin")), diff.getModifiedBundleNames());
+	}
+
+	@Test
+	public void testGlobalChange() {
+
+		newProps.setProperty("jawr.debug.on", "true");
+		newProps.setProperty("jawr.js.bundle.app.mappings", "/js/app/**,/js/common/**");
+		ConfigPropertiesDiff diff = new ConfigPropertiesDiff(oldProps, newProps, "js");
+		Assert.assertTrue(diff.hasChanges());
+		Assert.assertTrue(diff.isGlobalChange());
+	}
+
+	@Test
+	public void testOtherResourceTypeIgnored() {
+
+		newProps.setProperty("jawr.css.bundle.main.mappings", "/css/main/**");
+		newProps.setProperty("jawr.binary.base.dir", "/images");
+		Assert.assertFalse(new ConfigPropertiesDiff(oldProps, newProps, "js").hasChanges());
+
+		// The binary resource settings are used to rewrite the CSS
+		ConfigPropertiesDiff diff = new ConfigPropertiesDiff(oldProps, newProps, "css");
+		Assert.assertTrue(diff.isGlobalChange());
+		Assert.assertEquals(Collections.singleton("main"), diff.getModifiedBundleNames());
+	}
+}
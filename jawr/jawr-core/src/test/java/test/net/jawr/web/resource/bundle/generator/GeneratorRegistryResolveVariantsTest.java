@@ -0,0 +1,127 @@
+/**
+ * Copyright 2017 Ibrahim Chaehoi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package test.net.jawr.web.resource.bundle.generator;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Map;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import net.jawr.web.JawrConstant;
+import net.jawr.web.resource.bundle.generator.GeneratorRegistry;
+import net.jawr.web.resource.bundle.variant.VariantResolver;
+import net.jawr.web.resource.bundle.variant.VariantSet;
+import net.jawr.web.resource.bundle.variant.resolver.BrowserResolver;
+import net.jawr.web.resource.bundle.variant.resolver.ConnectionTypeResolver;
+
+/**
+ * Test case for the resolution of the variants of a request
+ *
+ * @author Ibrahim Chaehoi
+ */
+public class GeneratorRegistryResolveVariantsTest {
+
+	private static final String IE6_USER_AGENT = "Mozilla/4.0 (compatible; MSIE 6.0; Windows NT 5.0)";
+
+	private static final String IE7_USER_AGENT = "Mozilla/4.0 (compatible; MSIE 7.0; Windows NT 5.0)";
+
+	private GeneratorRegistry registry;
+
+	@Before
+	public void setUp() {
+		registry = new GeneratorRegistry(JawrConstant.CSS_TYPE);
+		registry.registerVariantResolver(new BrowserResolver());
+		registry.registerVariantResolver(new ConnectionTypeResolver());
+	}
+
+	@Test
+	public void testVariantsResolvedOncePerFingerprint() {
+
+		Map<String, String> variants = registry.resolveVariants(createRequest(IE6_USER_AGENT, "http"));
+		Assert.assertEquals("ie6", variants.get(JawrConstant.BROWSER_VARIANT_TYPE));
+		Assert.assertSame(variants, registry.resolveVariants(createRequest(IE6_USER_AGENT, "http")));
+
+		Map<String, String> sslVariants = registry.resolveVariants(createRequest(IE6_USER_AGENT, "https"));
+		Assert.assertEquals(JawrConstant.SSL, sslVariants.get(JawrConstant.CONNECTION_TYPE_VARIANT_TYPE));
+		Assert.assertNotSame(variants, sslVariants);
+		Map<String, String> ie7Variants = registry.resolveVariants(createRequest(IE7_USER_AGENT, "http"));
+		Assert.assertEquals("ie7", ie7Variants.get(JawrConstant.BROWSER_VARIANT_TYPE));
+		Assert.assertNotSame(variants, ie7Variants);
+	}
+
+	@Test
+	public void testRecentlyUsedVariantsKeptInCache() {
+
+		Map<String, String> variants = registry.resolveVariants(createRequest(IE6_USER_AGENT, "http"));
+		for (int i = 0; i < 1500; i++) {
+			registry.resolveVariants(createRequest("Mozilla/4.0 (compatible; MSIE " + (100 + i) + ".0)", "http"));
+			if (i % 100 == 0) {
+				Assert.assertSame(variants, registry.resolveVariants(createRequest(IE6_USER_AGENT, "http")));
+			}
+		}
+		Assert.assertSame(variants, registry.resolveVariants(createRequest(IE6_USER_AGENT, "http")));
+	}
+
+	@Test
+	public void testSameVariantsShared() {
+
+		Map<String, String> variants = registry.resolveVariants(createRequest("Firefox 6", "http"));
+		Assert.assertSame(variants, registry.resolveVariants(createRequest("Firefox 7", "http")));
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void testVariantsNotModifiable() {
+
+		registry.resolveVariants(createRequest("Firefox 6", "http")).put(JawrConstant.BROWSER_VARIANT_TYPE, "ie6");
+	}
+
+	@Test
+	public void testVariantsNotCachedWithNonCacheableResolver() {
+
+		registry.registerVariantResolver(new VariantResolver() {
+
+			@Override
+			public String resolveVariant(HttpServletRequest request) {
+				return "custom";
+			}
+
+			@Override
+			public String getVariantType() {
+				return "custom";
+			}
+
+			@Override
+			public String getAvailableVariant(String variant, VariantSet variantSet) {
+				return variant;
+			}
+		});
+
+		Map<String, String> variants = registry.resolveVariants(createRequest(IE6_USER_AGENT, "http"));
+		Assert.assertEquals("custom", variants.get("custom"));
+		Assert.assertNotSame(variants, registry.resolveVariants(createRequest(IE6_USER_AGENT, "http")));
+	}
+
+	private HttpServletRequest createRequest(String userAgent, String scheme) {
+		HttpServletRequest request = mock(HttpServletRequest.class);
+		when(request.getHeader("User-Agent")).thenReturn(userAgent);
+		when(request.getScheme()).thenReturn(scheme);
+		return request;
+	}
+}
@@ -0,0 +1,193 @@
+/**
+ * Copyright 2017 Ibrahim Chaehoi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package test.net.jawr.web.resource.bundle.handler;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Locale;
+import java.util.Properties;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import net.jawr.web.config.JawrConfig;
+import net.jawr.web.context.ThreadLocalJawrContext;
+import net.jawr.web.resource.bundle.generator.GeneratorRegistry;
+import net.jawr.web.resource.bundle.handler.ClientSideHandlerGenerator;
+import net.jawr.web.resource.bundle.handler.ClientSideHandlerScriptRequestHandler;
+import net.jawr.web.resource.bundle.handler.ResourceBundlesHandler;
+import test.net.jawr.web.servlet.mock.MockServletContext;
+
+/**
+ * ClientSideHandlerScriptRequestHandler test case
+ *
+ * @author Ibrahim Chaehoi
+ */
+public class ClientSideHandlerScriptRequestHandlerTest {
+
+	private ClientSideHandlerGenerator generator;
+
+	private ClientSideHandlerScriptRequestHandler requestHandler;
+
+	@Before
+	public void setUp() {
+
+		JawrConfig config = new JawrConfig("js", new Properties());
+		config.setCharsetName("UTF-8");
+		config.setGzipResourcesModeOn(true);
+		GeneratorRegistry generatorRegistry = new GeneratorRegistry();
+		generatorRegistry.setConfig(config);
+		config.setGeneratorRegistry(generatorRegistry);
+		config.setContext(new MockServletContext());
+
+		generator = mock(ClientSideHandlerGenerator.class);
+		when(generator.getClientSideHandlerScript(any(HttpServletRequest.class)))
+				.thenReturn(new StringBuffer("JAWR.loader.script('/bundle.js');"));
+		ResourceBundlesHandler rsHandler = mock(ResourceBundlesHandler.class);
+		when(rsHandler.getClientSideHandler()).thenReturn(generator);
+
+		requestHandler = new ClientSideHandlerScriptRequestHandler(rsHandler, config);
+		verify(rsHandler).addBundlingProcessLifeCycleListener(requestHandler);
+	}
+
+	@Test
+	public void testScriptIsCachedPerGzipFlag() throws Exception {
+
+		ByteArrayOutputStream plain = new ByteArrayOutputStream();
+		requestHandler.handleClientSideHandlerRequest(createRequest(false, null), createResponse(plain));
+		requestHandler.handleClientSideHandlerRequest(createRequest(false, null), createResponse(plain));
+		verify(generator, times(1)).getClientSideHandlerScript(any(HttpServletRequest.class));
+
+		ByteArrayOutputStream gzipped = new ByteArrayOutputStream();
+		requestHandler.handleClientSideHandlerRequest(createRequest(true, null), createResponse(gzipped));
+		verify(generator, times(2)).getClientSideHandlerScript(any(HttpServletRequest.class));
+
+		String script = "JAWR.loader.script('/bundle.js');";
+		Assert.assertEquals(script + script, plain.toString("UTF-8"));
+		Assert.assertTrue(gzipped.size() > 0);
+	}
+
+	@Test
+	public void testNotModifiedWithContentHashETag() throws Exception {
+
+		HttpServletResponse response = createResponse(new ByteArrayOutputStream());
+		requestHandler.handleClientSideHandlerRequest(createRequest(false, null), response);
+		ArgumentCaptor<String> eTag = ArgumentCaptor.forClass(String.class);
+		verify(response).setHeader(org.mockito.Matchers.eq(ClientSideHandlerScriptRequestHandler.HEADER_ETAG),
+				eTag.capture());
+		Assert.assertTrue(eTag.getValue().startsWith("\"") && eTag.getValue().endsWith("\""));
+
+		HttpServletResponse notModifiedResponse = createResponse(new ByteArrayOutputStream());
+		requestHandler.handleClientSideHandlerRequest(createRequest(false, "W/" + eTag.getValue()),
+				notModifiedResponse);
+		verify(notModifiedResponse).setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+		verify(notModifiedResponse, never()).getOutputStream();
+
+		HttpServletResponse modifiedResponse = createResponse(new ByteArrayOutputStream());
+		requestHandler.handleClientSideHandlerRequest(createRequest(false, "\"other\""), modifiedResponse);
+		verify(modifiedResponse, never()).setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+	}
+
+	@Test
+	public void testCacheClearedAfterBundlingProcess() throws Exception {
+
+		requestHandler.handleClientSideHandlerRequest(createRequest(false, null),
+				createResponse(new ByteArrayOutputStream()));
+		requestHandler.afterBundlingProcess();
+		requestHandler.handleClientSideHandlerRequest(createRequest(false, null),
+				createResponse(new ByteArrayOutputStream()));
+		verify(generator, times(2)).getClientSideHandlerScript(any(HttpServletRequest.class));
+	}
+
+	@Test
+	public void testScriptIsCachedPerDebugMode() throws Exception {
+
+		requestHandler.handleClientSideHandlerRequest(createRequest(false, null),
+				createResponse(new ByteArrayOutputStream()));
+		try {
+			ThreadLocalJawrContext.setDebugOverriden(true);
+			requestHandler.handleClientSideHandlerRequest(createRequest(false, null),
+					createResponse(new ByteArrayOutputStream()));
+		} finally {
+			ThreadLocalJawrContext.reset();
+		}
+		requestHandler.handleClientSideHandlerRequest(createRequest(false, null),
+				createResponse(new ByteArrayOutputStream()));
+		verify(generator, times(2)).getClientSideHandlerScript(any(HttpServletRequest.class));
+	}
+
+	@Test
+	public void testScriptCreatedDuringClearIsNotCached() throws Exception {
+
+		when(generator.getClientSideHandlerScript(any(HttpServletRequest.class)))
+				.thenAnswer(new Answer<StringBuffer>() {
+
+					@Override
+					public StringBuffer answer(InvocationOnMock invocation) throws Throwable {
+						// Simulates a bundling process ending while the
+						// script is created
+						requestHandler.afterBundlingProcess();
+						return new StringBuffer("JAWR.loader.script('/bundle.js');");
+					}
+				});
+
+		requestHandler.handleClientSideHandlerRequest(createRequest(false, null),
+				createResponse(new ByteArrayOutputStream()));
+		requestHandler.handleClientSideHandlerRequest(createRequest(false, null),
+				createResponse(new ByteArrayOutputStream()));
+		verify(generator, times(2)).getClientSideHandlerScript(any(HttpServletRequest.class));
+	}
+
+	private HttpServletRequest createRequest(boolean gzip, String ifNoneMatch) {
+
+		HttpServletRequest request = mock(HttpServletRequest.class);
+		when(request.getContextPath()).thenReturn("/sample");
+		when(request.getScheme()).thenReturn("http");
+		when(request.getLocale()).thenReturn(Locale.US);
+		when(request.getDateHeader(ClientSideHandlerScriptRequestHandler.HEADER_IF_MODIFIED)).thenReturn(-1L);
+		when(request.getHeader(ClientSideHandlerScriptRequestHandler.HEADER_IF_NONE)).thenReturn(ifNoneMatch);
+		if (gzip) {
+			when(request.getHeader("Accept-Encoding")).thenReturn("gzip, deflate");
+		}
+		return request;
+	}
+
+	private HttpServletResponse createResponse(final ByteArrayOutputStream out) throws IOException {
+
+		HttpServletResponse response = mock(HttpServletResponse.class);
+		when(response.getOutputStream()).thenReturn(new ServletOutputStream() {
+
+			@Override
+			public void write(int b) throws IOException {
+				out.write(b);
+			}
+		});
+		return response;
+	}
+}
@@ -0,0 +1,122 @@
+package test.net.jawr.web.resource.bundle.handler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import net.jawr.web.config.JawrConfig;
+import net.jawr.web.resource.bundle.InclusionPattern;
+import net.jawr.web.resource.bundle.JoinableResourceBundle;
+import net.jawr.web.resource.bundle.JoinableResourceBundleImpl;
+import net.jawr.web.resource.bundle.generator.GeneratorRegistry;
+import net.jawr.web.resource.bundle.handler.ResourceBundlePathIndex;
+import net.jawr.web.resource.bundle.iterator.BundlePath;
+
+/**
+ * Micro benchmark comparing the sequential bundle resolution with the indexed
+ * one, for an increasing number of bundles.
+ *
+ * The benchmark is not executed by the unit tests. Run the main method using
+ * the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResolveBundleForPathBenchmark {
+
+	/** The number of members for each bundle */
+	private static final int ITEMS_PER_BUNDLE = 20;
+
+	@Param({ "10", "100", "400", "1000" })
+	public int bundleCount;
+
+	private List<JoinableResourceBundle> bundles;
+
+	private ResourceBundlePathIndex index;
+
+	private String lastMemberPath;
+
+	private String lastBundleId;
+
+	@Setup
+	public void setup() {
+
+		JawrConfig config = new JawrConfig("js", new Properties());
+		GeneratorRegistry generatorRegistry = new GeneratorRegistry();
+		config.setGeneratorRegistry(generatorRegistry);
+
+		bundles = new ArrayList<>();
+		for (int i = 0; i < bundleCount; i++) {
+			String bundleId = "/bundles/bundle" + i + ".js";
+			JoinableResourceBundle bundle = new JoinableResourceBundleImpl(bundleId, "bundle" + i, null, "js",
+					new InclusionPattern(), null, generatorRegistry);
+			for (int j = 0; j < ITEMS_PER_BUNDLE; j++) {
+				String path = "/js/module" + i + "/file" + j + ".js";
+				bundle.getItemPathList().add(new BundlePath(null, path));
+				bundle.getItemDebugPathList().add(new BundlePath(null, path));
+				lastMemberPath = path;
+			}
+			bundles.add(bundle);
+			lastBundleId = bundleId;
+		}
+
+		index = new ResourceBundlePathIndex(bundles);
+	}
+
+	@Benchmark
+	public JoinableResourceBundle sequentialLookupByMember() {
+		return sequentialLookup(lastMemberPath);
+	}
+
+	@Benchmark
+	public JoinableResourceBundle indexedLookupByMember() {
+		return index.getBundle(lastMemberPath);
+	}
+
+	@Benchmark
+	public JoinableResourceBundle sequentialLookupById() {
+		return sequentialLookup(lastBundleId);
+	}
+
+	@Benchmark
+	public JoinableResourceBundle indexedLookupById() {
+		return index.getBundle(lastBundleId);
+	}
+
+	/**
+	 * The former implementation of ResourceBundlesHandlerImpl.resolveBundleForPath
+	 */
+	private JoinableResourceBundle sequentialLookup(String path) {
+		for (JoinableResourceBundle bundle : bundles) {
+			if (bundle.getId().equals(path) || bundle.belongsToBundle(path)) {
+				return bundle;
+			}
+		}
+		return null;
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		Options opt = new OptionsBuilder().include(ResolveBundleForPathBenchmark.class.getSimpleName()).build();
+		new Runner(opt).run();
+	}
+}
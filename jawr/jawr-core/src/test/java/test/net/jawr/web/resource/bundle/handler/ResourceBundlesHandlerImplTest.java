@@ -1,19 +1,47 @@
 package test.net.jawr.web.resource.bundle.handler;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.StringWriter;
 import java.nio.charset.Charset;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Properties;
+import java.util.Set;
 
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import com.aayushatharva.brotli4j.decoder.BrotliInputStream;
+import com.github.luben.zstd.ZstdInputStream;
+
+import net.jawr.web.cache.CacheManagerFactory;
+import net.jawr.web.cache.JawrCacheManager;
 import net.jawr.web.config.JawrConfig;
+import net.jawr.web.context.ThreadLocalJawrContext;
 import net.jawr.web.exception.BundleDependencyException;
+import net.jawr.web.exception.BundlingProcessException;
 import net.jawr.web.exception.DuplicateBundlePathException;
 import net.jawr.web.exception.ResourceNotFoundException;
+import net.jawr.web.resource.bundle.IOUtils;
 import net.jawr.web.resource.bundle.JoinableResourceBundle;
+import net.jawr.web.resource.bundle.JoinableResourceBundleContent;
+import net.jawr.web.resource.bundle.encoding.BrotliBundleEncoder;
+import net.jawr.web.resource.bundle.encoding.BundleEncoder;
+import net.jawr.web.resource.bundle.encoding.ZstdBundleEncoder;
+import net.jawr.web.resource.bundle.factory.util.PathNormalizer;
+import net.jawr.web.resource.bundle.factory.util.ResourceBundleDefinition;
 import net.jawr.web.resource.bundle.generator.GeneratorRegistry;
+import net.jawr.web.resource.bundle.handler.CachedResourceBundlesHandler;
 import net.jawr.web.resource.bundle.handler.ResourceBundlesHandler;
 import net.jawr.web.resource.bundle.iterator.ResourceBundlePathsIterator;
+import net.jawr.web.resource.bundle.lifecycle.BundlingProcessLifeCycleListener;
+import net.jawr.web.resource.handler.bundle.AbstractResourceBundleHandler;
 import net.jawr.web.resource.handler.bundle.ResourceBundleHandler;
 import net.jawr.web.resource.handler.reader.ResourceReaderHandler;
 import test.net.jawr.web.resource.bundle.PredefinedBundlesHandlerUtil;
@@ -24,6 +52,11 @@ public class ResourceBundlesHandlerImplTest  extends  ResourceHandlerBasedTest {
 	private static final String ROOT_DEFAULT_FOLDER = "/collectionshandler/default/";
 	private static final String ROOT_DEFAULT_DEBUG_FOLDER = "/collectionshandler/debug/";
 	private static final String ROOT_SIMPLE_FOLDER = "/collectionshandler/simple/";
+	private static final String ROOT_PARALLEL_FOLDER = "/collectionshandler/parallel/";
+	private static final String ROOT_ENCODED_FOLDER = "/collectionshandler/encoded/";
+	private static final String ROOT_LAZY_FOLDER = "/collectionshandler/lazy/";
+	private static final String ROOT_RELOAD_FOLDER = "/collectionshandler/reload/";
+	private static final String ROOT_FAILED_FOLDER = "/collectionshandler/failed/";
 	private ResourceBundlesHandler defaultHandler;
 	private ResourceBundlesHandler defaultDebugCollection;
 	private ResourceBundlesHandler simpleHandler;
@@ -74,6 +107,16 @@ public class ResourceBundlesHandlerImplTest  extends  ResourceHandlerBasedTest {
 		assertEquals("N1266058766", bundle.getBundleDataHashCode(null));
 	}
 	
+	public void testBundleDataHashCodeOfRequestedPath(){
+		assertEquals("N1266058766", defaultHandler.getBundleDataHashCode("/N1266058766/script.js"));
+		assertEquals("N1266058766", defaultHandler.getBundleDataHashCode("/gzip_N1266058766/script.js"));
+		assertNull(defaultHandler.getBundleDataHashCode("/N1266058766/unknown.js"));
+
+		long lastBuildTime = defaultHandler.getLastBuildTime();
+		assertEquals(0, lastBuildTime % 1000);
+		assertTrue(lastBuildTime <= System.currentTimeMillis());
+	}
+	
 	public void testGetSingleFilePath() {
 		
 		assertTrue("The collection path was not initialized properly", 
@@ -125,6 +168,17 @@ public class ResourceBundlesHandlerImplTest  extends  ResourceHandlerBasedTest {
 
 		assertEquals("Get script by id failed","/library.js", simpleHandler.resolveBundleForPath("/library.js").getId());
 		assertEquals("Get script by script name failed","/global.js", simpleHandler.resolveBundleForPath("/js/global/global.js").getId());
+
+		assertNull("Unknown path should not be resolved", simpleHandler.resolveBundleForPath("/js/unknown.js"));
+		assertNull("Null path should not be resolved", simpleHandler.resolveBundleForPath(null));
+	}
+
+	public void testResolveCollectionForPathAfterNotification() {
+		JoinableResourceBundle bundle = simpleHandler.resolveBundleForPath("/js/global/global.js");
+		simpleHandler.notifyModification(Arrays.asList(bundle));
+		assertSame(bundle, simpleHandler.resolveBundleForPath("/js/global/global.js"));
+		assertSame(bundle, simpleHandler.resolveBundleForPath("/global.js"));
+		bundle.setDirty(false);
 	}
 
 	public void testNotificationOnCompositeBundle() throws DuplicateBundlePathException, BundleDependencyException{
@@ -164,4 +218,321 @@ public class ResourceBundlesHandlerImplTest  extends  ResourceHandlerBasedTest {
 			}
 		}
 	}
+
+	public void testParallelBuildProducesSameBundles() throws Exception {
+
+		ResourceBundlesHandler serialHandler = buildCompositeBundlesHandler(ROOT_SIMPLE_FOLDER, false);
+		ResourceBundlesHandler parallelHandler = buildCompositeBundlesHandler(ROOT_PARALLEL_FOLDER, true);
+
+		List<JoinableResourceBundle> serialBundles = serialHandler.getContextBundles();
+		assertEquals(serialBundles.size(), parallelHandler.getContextBundles().size());
+		for (JoinableResourceBundle bundle : serialBundles) {
+			JoinableResourceBundle parallelBundle = parallelHandler.resolveBundleForPath(bundle.getId());
+			assertNotNull(parallelBundle.getBundleDataHashCode(null));
+			assertEquals(bundle.getBundleDataHashCode(null), parallelBundle.getBundleDataHashCode(null));
+			assertFalse(parallelBundle.isDirty());
+
+			StringWriter serialContent = new StringWriter();
+			serialHandler.writeBundleTo("/dummy" + bundle.getId(), serialContent);
+			StringWriter parallelContent = new StringWriter();
+			parallelHandler.writeBundleTo("/dummy" + bundle.getId(), parallelContent);
+			assertEquals(serialContent.toString(), parallelContent.toString());
+		}
+	}
+
+	public void testLazyBuildProcessesBundlesOnDemand() throws Exception {
+
+		ResourceBundlesHandler serialHandler = buildCompositeBundlesHandler(ROOT_SIMPLE_FOLDER, false);
+		ResourceBundlesHandler lazyHandler = buildCompositeBundlesHandler(ROOT_LAZY_FOLDER, false, true);
+
+		List<JoinableResourceBundle> lazyBundles = lazyHandler.getContextBundles();
+		assertFalse(lazyHandler.isBundlingReady());
+		for (JoinableResourceBundle bundle : lazyBundles) {
+			assertNull(bundle.getBundleDataHashCode(null));
+		}
+
+		for (JoinableResourceBundle bundle : serialHandler.getContextBundles()) {
+			String requestedPath = "/dummy" + bundle.getId();
+			assertNotNull(lazyHandler.getBundleDataHashCode(requestedPath));
+
+			JoinableResourceBundle lazyBundle = lazyHandler.resolveBundleForPath(bundle.getId());
+			assertEquals(bundle.getBundleDataHashCode(null), lazyBundle.getBundleDataHashCode(null));
+			assertFalse(lazyBundle.isDirty());
+
+			StringWriter serialContent = new StringWriter();
+			serialHandler.writeBundleTo(requestedPath, serialContent);
+			StringWriter lazyContent = new StringWriter();
+			lazyHandler.writeBundleTo(requestedPath, lazyContent);
+			assertEquals(serialContent.toString(), lazyContent.toString());
+		}
+
+		assertTrue(lazyHandler.isBundlingReady());
+		lazyHandler.destroy();
+	}
+
+	public void testLazyBuildIgnoresDebugOverride() throws Exception {
+
+		ResourceBundlesHandler serialHandler = buildCompositeBundlesHandler(ROOT_SIMPLE_FOLDER, false);
+		ResourceBundlesHandler lazyHandler = buildCompositeBundlesHandler(ROOT_LAZY_FOLDER, false, true);
+
+		// The bundles are processed by a request which overrides the debug
+		// mode
+		ThreadLocalJawrContext.setDebugOverriden(true);
+		try {
+			for (JoinableResourceBundle bundle : lazyHandler.getContextBundles()) {
+				assertNotNull(lazyHandler.getBundleDataHashCode("/dummy" + bundle.getId()));
+			}
+			assertTrue(ThreadLocalJawrContext.isDebugOverriden());
+		} finally {
+			ThreadLocalJawrContext.reset();
+		}
+
+		for (JoinableResourceBundle bundle : serialHandler.getContextBundles()) {
+			String requestedPath = "/dummy" + bundle.getId();
+			assertEquals(bundle.getBundleDataHashCode(null), lazyHandler.getBundleDataHashCode(requestedPath));
+
+			StringWriter serialContent = new StringWriter();
+			serialHandler.writeBundleTo(requestedPath, serialContent);
+			StringWriter lazyContent = new StringWriter();
+			lazyHandler.writeBundleTo(requestedPath, lazyContent);
+			assertEquals(serialContent.toString(), lazyContent.toString());
+		}
+		lazyHandler.destroy();
+	}
+
+	public void testLazyBuildProcessesFailedBundleAgain() throws Exception {
+
+		ResourceBundleHandler bundleHandler = Mockito
+				.spy(createResourceBundleHandler(ROOT_LAZY_FOLDER, Charset.forName("UTF-8")));
+		Mockito.doThrow(new BundlingProcessException("Unable to store the bundle")).doCallRealMethod()
+				.when(bundleHandler)
+				.storeBundle(Mockito.anyString(), Mockito.any(JoinableResourceBundleContent.class));
+		ResourceBundlesHandler lazyHandler = buildCompositeBundlesHandler(bundleHandler, false, true);
+
+		String requestedPath = "/dummy" + lazyHandler.getContextBundles().get(0).getId();
+		try {
+			lazyHandler.getBundleDataHashCode(requestedPath);
+			fail("The processing of the bundle should have failed");
+		} catch (BundlingProcessException e) {
+			// The bundle is still pending
+		}
+		assertFalse(lazyHandler.isBundlingReady());
+
+		assertNotNull(lazyHandler.getBundleDataHashCode(requestedPath));
+		lazyHandler.destroy();
+	}
+
+	public void testFailedRebuildKeepsCommittedBundles() throws Exception {
+
+		ResourceBundleHandler bundleHandler = Mockito
+				.spy(createResourceBundleHandler(ROOT_FAILED_FOLDER, Charset.forName("UTF-8")));
+		ResourceBundlesHandler rsHandler = buildCompositeBundlesHandler(bundleHandler, false, false);
+		JoinableResourceBundle bundle = rsHandler.getContextBundles().get(0);
+		String requestedPath = "/dummy" + bundle.getId();
+		String hashcode = rsHandler.getBundleDataHashCode(requestedPath);
+		int generation = bundleHandler.getCurrentGeneration();
+
+		Mockito.doThrow(new BundlingProcessException("Unable to store the bundle")).when(bundleHandler)
+				.storeBundle(Mockito.anyString(), Mockito.any(JoinableResourceBundleContent.class));
+		rsHandler.getConfig().setUseSmartBundling(true);
+		bundle.setDirty(true);
+		try {
+			rsHandler.rebuildModifiedBundles();
+			fail("The processing of the bundle should have failed");
+		} catch (BundlingProcessException e) {
+			// The generation is discarded
+		}
+
+		assertEquals(generation, bundleHandler.getCurrentGeneration());
+		assertEquals(hashcode, rsHandler.getBundleDataHashCode(requestedPath));
+		assertTrue(bundle.isDirty());
+	}
+
+	public void testReloadBundlesProcessesOnlyModifiedBundles() throws Exception {
+
+		Charset charsetUtf = Charset.forName("UTF-8");
+		JawrConfig config = new JawrConfig("js", new Properties());
+		config.setCharsetName("UTF-8");
+		config.setDebugModeOn(false);
+		config.setGzipResourcesModeOn(false);
+		config.setContext(new MockServletContext());
+
+		ResourceReaderHandler handler = createResourceReaderHandler(ROOT_SIMPLE_FOLDER, "js", charsetUtf);
+		ResourceBundleHandler bundleHandler = createResourceBundleHandler(ROOT_RELOAD_FOLDER, charsetUtf);
+		ResourceBundlesHandler rsHandler = PredefinedBundlesHandlerUtil.buildSimpleBundles(handler, bundleHandler,
+				"/js", "js", config);
+
+		JoinableResourceBundle library = rsHandler.resolveBundleForPath("/library.js");
+		JoinableResourceBundle global = rsHandler.resolveBundleForPath("/global.js");
+		assertNotNull(rsHandler.resolveBundleForPath("/debugOn.js"));
+		final ResourceBundlesHandler reloadedHandler = rsHandler;
+		final List<Boolean> debugOnRemoved = new ArrayList<>();
+		BundlingProcessLifeCycleListener listener = Mockito.mock(BundlingProcessLifeCycleListener.class);
+		Mockito.doAnswer(new Answer<Void>() {
+
+			@Override
+			public Void answer(InvocationOnMock invocation) {
+				debugOnRemoved.add(reloadedHandler.resolveBundleForPath("/debugOn.js") == null);
+				return null;
+			}
+		}).when(listener).afterBundlingProcess();
+		rsHandler.addBundlingProcessLifeCycleListener(listener);
+
+		// The global bundle now contains the library scripts, and the debugOn
+		// bundle is removed
+		Set<ResourceBundleDefinition> definitions = PredefinedBundlesHandlerUtil.getSimpleBundleDefinitions("/js",
+				"js");
+		for (Iterator<ResourceBundleDefinition> it = definitions.iterator(); it.hasNext();) {
+			ResourceBundleDefinition definition = it.next();
+			if (definition.getBundleName().equals("debugOn")) {
+				it.remove();
+			} else if (definition.getBundleName().equals("global")) {
+				definition.setMappings(Arrays.asList("/js/global/**", "/js/lib/**"));
+			}
+		}
+		List<JoinableResourceBundle> bundles = PredefinedBundlesHandlerUtil
+				.createSimpleBundlesFactory(handler, bundleHandler, "/js", "js", config, definitions)
+				.buildResourceBundles();
+		assertTrue(rsHandler.reloadBundles(bundles, new HashSet<>(Arrays.asList("global", "debugOn"))));
+
+		// The listeners are notified once the new bundles are used
+		assertTrue(debugOnRemoved.get(debugOnRemoved.size() - 1));
+
+		assertSame(library, rsHandler.resolveBundleForPath("/library.js"));
+		assertNull(rsHandler.resolveBundleForPath("/debugOn.js"));
+		assertEquals(3, rsHandler.getGlobalBundles().size());
+
+		JoinableResourceBundle reloadedGlobal = rsHandler.resolveBundleForPath("/global.js");
+		assertNotSame(global, reloadedGlobal);
+		assertNotNull(reloadedGlobal.getBundleDataHashCode(null));
+
+		StringWriter libraryContent = new StringWriter();
+		rsHandler.writeBundleTo("/dummy/library.js", libraryContent);
+		StringWriter globalContent = new StringWriter();
+		rsHandler.writeBundleTo("/dummy/global.js", globalContent);
+		assertTrue(globalContent.toString().contains(libraryContent.toString()));
+	}
+
+	public void testCachedReloadKeepsUnchangedBundles() throws Exception {
+
+		Charset charsetUtf = Charset.forName("UTF-8");
+		JawrConfig config = new JawrConfig("js", new Properties());
+		config.setCharsetName("UTF-8");
+		config.setDebugModeOn(false);
+		config.setGzipResourcesModeOn(false);
+		config.setContext(new MockServletContext());
+
+		ResourceReaderHandler handler = createResourceReaderHandler(ROOT_SIMPLE_FOLDER, "js", charsetUtf);
+		ResourceBundleHandler bundleHandler = createResourceBundleHandler(ROOT_RELOAD_FOLDER, charsetUtf);
+		ResourceBundlesHandler rsHandler = new CachedResourceBundlesHandler(PredefinedBundlesHandlerUtil
+				.buildSimpleBundles(handler, bundleHandler, "/js", "js", config));
+		JawrCacheManager cacheMgr = CacheManagerFactory.getCacheManager(config, "js");
+
+		String libraryKey = "TEXT." + getBundlePath(rsHandler, "/library.js");
+		String globalKey = "TEXT." + getBundlePath(rsHandler, "/global.js");
+		cacheMgr.put(libraryKey, "library");
+		cacheMgr.put(globalKey, "global");
+
+		Set<ResourceBundleDefinition> definitions = PredefinedBundlesHandlerUtil.getSimpleBundleDefinitions("/js",
+				"js");
+		for (ResourceBundleDefinition definition : definitions) {
+			if (definition.getBundleName().equals("global")) {
+				definition.setMappings(Arrays.asList("/js/global/**", "/js/lib/**"));
+			}
+		}
+		List<JoinableResourceBundle> bundles = PredefinedBundlesHandlerUtil
+				.createSimpleBundlesFactory(handler, bundleHandler, "/js", "js", config, definitions)
+				.buildResourceBundles();
+		assertTrue(rsHandler.reloadBundles(bundles, Collections.singleton("global")));
+
+		// Only the content of the replaced bundle is removed from the cache
+		assertEquals("library", cacheMgr.get(libraryKey));
+		assertNull(cacheMgr.get(globalKey));
+	}
+
+	private String getBundlePath(ResourceBundlesHandler rsHandler, String path) {
+		JoinableResourceBundle bundle = rsHandler.resolveBundleForPath(path);
+		return PathNormalizer.joinPaths(bundle.getURLPrefix(null), bundle.getId());
+	}
+
+	private ResourceBundlesHandler buildCompositeBundlesHandler(String rootFolder, boolean parallel)
+			throws DuplicateBundlePathException, BundleDependencyException {
+
+		return buildCompositeBundlesHandler(rootFolder, parallel, false);
+	}
+
+	private ResourceBundlesHandler buildCompositeBundlesHandler(String rootFolder, boolean parallel, boolean lazy)
+			throws DuplicateBundlePathException, BundleDependencyException {
+
+		return buildCompositeBundlesHandler(createResourceBundleHandler(rootFolder, Charset.forName("UTF-8")),
+				parallel, lazy);
+	}
+
+	private ResourceBundlesHandler buildCompositeBundlesHandler(ResourceBundleHandler bundleHandler,
+			boolean parallel, boolean lazy) throws DuplicateBundlePathException, BundleDependencyException {
+
+		Charset charsetUtf = Charset.forName("UTF-8");
+		JawrConfig config = new JawrConfig("js", new Properties());
+		config.setCharsetName("UTF-8");
+		config.setDebugModeOn(false);
+		config.setGzipResourcesModeOn(false);
+		config.setParallelBundleProcessing(parallel);
+		config.setBundleProcessingThreads(4);
+		config.setLazyBundleProcessing(lazy);
+		config.setBundleProcessingWarmUp(false);
+		GeneratorRegistry generatorRegistry = new GeneratorRegistry();
+		config.setGeneratorRegistry(generatorRegistry);
+		generatorRegistry.setConfig(config);
+		config.setContext(new MockServletContext());
+
+		ResourceReaderHandler handler = createResourceReaderHandler(ROOT_SIMPLE_FOLDER, "js", charsetUtf);
+		return PredefinedBundlesHandlerUtil.buildSimpleCompositeBundles(handler, bundleHandler, "/js", "js", config);
+	}
+
+	public void testStoredEncodingNegotiation() throws Exception {
+
+		Charset charsetUtf = Charset.forName("UTF-8");
+		JawrConfig config = new JawrConfig("js", new Properties());
+		config.setCharsetName("UTF-8");
+		config.setDebugModeOn(false);
+		config.setBundleEncoders(Arrays.<BundleEncoder> asList(new BrotliBundleEncoder(), new ZstdBundleEncoder()));
+		GeneratorRegistry generatorRegistry = new GeneratorRegistry();
+		config.setGeneratorRegistry(generatorRegistry);
+		generatorRegistry.setConfig(config);
+		config.setContext(new MockServletContext());
+
+		ResourceReaderHandler handler = createResourceReaderHandler(ROOT_SIMPLE_FOLDER, "js", charsetUtf);
+		ResourceBundleHandler bundleHandler = createResourceBundleHandler(ROOT_ENCODED_FOLDER, charsetUtf);
+		((AbstractResourceBundleHandler) bundleHandler).setBundleEncoders(config.getBundleEncoders());
+		ResourceBundlesHandler rsHandler = PredefinedBundlesHandlerUtil.buildSimpleBundles(handler, bundleHandler,
+				"/js", "js", config);
+
+		assertEquals(Arrays.asList("gzip", "br", "zstd"), bundleHandler.getStoredEncodings());
+
+		// The Brotli and Zstandard representations of the small bundle are
+		// smaller than the gzip one
+		String bundlePath = "/js/one.js";
+		long gzipSize = bundleHandler.getResourceBundleSize(bundlePath, "gzip");
+		assertTrue(bundleHandler.getResourceBundleSize(bundlePath, "br") < gzipSize);
+		assertTrue(bundleHandler.getResourceBundleSize(bundlePath, "zstd") < gzipSize);
+		String requestedPath = "/dummy" + bundlePath;
+		assertEquals("br", rsHandler.resolveBundleEncoding(requestedPath, Arrays.asList("gzip", "deflate", "br")));
+		assertEquals("zstd", rsHandler.resolveBundleEncoding(requestedPath, Arrays.asList("gzip", "deflate", "zstd")));
+		assertEquals("gzip", rsHandler.resolveBundleEncoding(requestedPath, Arrays.asList("gzip", "deflate")));
+
+		StringWriter text = new StringWriter();
+		rsHandler.writeBundleTo(requestedPath, text);
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		rsHandler.streamBundleTo(requestedPath, out, "br");
+		StringWriter decoded = new StringWriter();
+		IOUtils.copy(new BrotliInputStream(new ByteArrayInputStream(out.toByteArray())), decoded);
+		assertEquals(text.toString(), decoded.toString());
+
+		out = new ByteArrayOutputStream();
+		rsHandler.streamBundleTo(requestedPath, out, "zstd");
+		decoded = new StringWriter();
+		IOUtils.copy(new ZstdInputStream(new ByteArrayInputStream(out.toByteArray())), decoded);
+		assertEquals(text.toString(), decoded.toString());
+	}
 }
@@ -0,0 +1,59 @@
+/**
+ * Copyright 2017 Ibrahim Chaehoi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package test.net.jawr.web.resource.bundle.hashcode;
+
+import java.io.ByteArrayInputStream;
+import java.util.Properties;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import net.jawr.web.config.JawrConfig;
+import net.jawr.web.resource.bundle.CheckSumUtils;
+import net.jawr.web.resource.bundle.hashcode.BundleContentHashcodeGenerator;
+import net.jawr.web.resource.bundle.hashcode.BundleStringHashcodeGenerator;
+import net.jawr.web.resource.bundle.hashcode.MD5BundleHashcodeGenerator;
+
+/**
+ * Checks that the hashcode of a bundle content is the same, whether it is
+ * computed from a string or directly from the content buffer
+ *
+ * @author Ibrahim Chaehoi
+ */
+public class BundleContentHashcodeGeneratorTest {
+
+	private static final String CONTENT = "function été(){ return '😀'; }\n";
+
+	@Test
+	public void testStringHashcodeGenerator() {
+
+		int hashcode = CONTENT.hashCode();
+		String expected = hashcode < 0 ? "N" + (-hashcode) : Integer.toString(hashcode);
+		checkSameHashcode(new BundleStringHashcodeGenerator(), expected);
+	}
+
+	@Test
+	public void testMD5HashcodeGenerator() throws Exception {
+
+		String expected = CheckSumUtils.getMD5Checksum(new ByteArrayInputStream(CONTENT.getBytes("UTF-8")));
+		checkSameHashcode(new MD5BundleHashcodeGenerator(), expected);
+	}
+
+	private void checkSameHashcode(BundleContentHashcodeGenerator generator, String expected) {
+
+		JawrConfig config = new JawrConfig("js", new Properties());
+		Assert.assertEquals(expected, generator.generateHashCode(config, CONTENT));
+		Assert.assertEquals(expected, generator.generateHashCode(config, new StringBuffer(CONTENT)));
+	}
+}
@@ -545,6 +545,46 @@ public class ResourceBundleMessageGeneratorTestCase {
 
 	}
 
+	@Test
+	public void testMemoryCacheInvalidatedByResourceModification() throws Exception {
+
+		// Force default locale
+		Locale.setDefault(Locale.FRENCH);
+
+		Properties prop = new Properties();
+		prop.put(JawrConstant.JAWR_LOCALE_GENERATOR_ADD_QUOTE_TO_MSG_KEY, "false");
+		JawrConfig config = new JawrConfig("js", prop);
+		config.setUseSmartBundling(true);
+		generator.setConfig(config);
+		generator.afterPropertiesSet();
+		GeneratorContext ctx = new GeneratorContext(bundle, config, "bundleLocale.messages");
+		ctx.setLocale(Locale.FRENCH);
+		Reader rd = generator.createResource(ctx);
+		String result = IOUtils.toString(rd);
+		assertEquals(readFile("bundleLocale/resultScript_fr.js"), FileUtils.removeCarriageReturn(result));
+		assertFalse(ctx.isRetrievedFromCache());
+		assertEquals(1, generator.getCacheMissCount());
+
+		// Retrieve from the memory cache
+		rd = generator.createResource(ctx);
+		result = IOUtils.toString(rd);
+		assertEquals(readFile("bundleLocale/resultScript_fr.js"), FileUtils.removeCarriageReturn(result));
+		assertTrue(ctx.isRetrievedFromCache());
+		assertEquals(1, generator.getMemoryCacheHitCount());
+
+		// Update the resource bundle and notify the modification
+		FileUtils.copyFile("bundleLocale/messages_new_fr.properties", "bundleLocale/messages_fr.properties");
+		generator.notifyResourceModification(
+				FileUtils.getClassPathFile("bundleLocale/messages_fr.properties").getAbsolutePath());
+
+		ctx.setRetrievedFromCache(false);
+		rd = generator.createResource(ctx);
+		result = IOUtils.toString(rd);
+		assertEquals(readFile("bundleLocale/resultScript_fr_updated.js"), FileUtils.removeCarriageReturn(result));
+		assertFalse(ctx.isRetrievedFromCache());
+		assertEquals(2, generator.getCacheMissCount());
+	}
+
 	/**
 	 * Checks if the generated script contains the expected messages Here we
 	 * check result content instead of generated file content to overcome the
@@ -0,0 +1,135 @@
+/**
+ * Copyright 2017 Ibrahim Chaehoi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package test.net.jawr.web.resource.bundle.postprocess;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.Properties;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import net.jawr.web.config.JawrConfig;
+import net.jawr.web.resource.bundle.JoinableResourceBundle;
+import net.jawr.web.resource.bundle.postprocess.AbstractChainedResourceBundlePostProcessor;
+import net.jawr.web.resource.bundle.postprocess.BundleProcessingStatus;
+import net.jawr.web.resource.bundle.postprocess.PostProcessingCache;
+import test.net.jawr.web.FileUtils;
+
+/**
+ * Test case for the cache of the post processing results
+ *
+ * @author Ibrahim Chaehoi
+ */
+public class PostProcessingCacheTest {
+
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+	private CountingPostProcessor processor;
+
+	private JoinableResourceBundle bundle;
+
+	private JawrConfig config;
+
+	@Before
+	public void setUp() {
+		processor = new CountingPostProcessor();
+		bundle = mock(JoinableResourceBundle.class);
+		when(bundle.getId()).thenReturn("/bundle.js");
+		config = new JawrConfig("js", new Properties());
+	}
+
+	@Test
+	public void testMemberProcessedOnceForSameContent() {
+
+		PostProcessingCache cache = new PostProcessingCache(UTF_8, null, null);
+		Assert.assertEquals("A", process(cache, "/a.js", "a"));
+		Assert.assertEquals("A", process(cache, "/a.js", "a"));
+		Assert.assertEquals(1, processor.count);
+
+		// The same content in another member is not processed again
+		Assert.assertEquals("A", process(cache, "/other.js", "a"));
+		Assert.assertEquals(1, processor.count);
+
+		// A modified content is processed
+		Assert.assertEquals("B", process(cache, "/a.js", "b"));
+		Assert.assertEquals(2, processor.count);
+	}
+
+	@Test
+	public void testBundlePostProcessingNotCached() {
+
+		PostProcessingCache cache = new PostProcessingCache(UTF_8, null, null);
+		BundleProcessingStatus status = createStatus(cache, "/a.js");
+		status.setProcessingType(BundleProcessingStatus.BUNDLE_PROCESSING_TYPE);
+		processor.postProcessBundle(status, new StringBuffer("a"));
+		processor.postProcessBundle(status, new StringBuffer("a"));
+		Assert.assertEquals(2, processor.count);
+	}
+
+	@Test
+	public void testPersistentCache() throws Exception {
+
+		File cacheDir = new File(FileUtils.getClasspathRootDir(), "postProcessingCache");
+		FileUtils.clearDirectory(cacheDir.getAbsolutePath());
+
+		PostProcessingCache cache = new PostProcessingCache(UTF_8, cacheDir, "config1");
+		Assert.assertEquals("A", process(cache, "/a.js", "a"));
+		cache.save();
+
+		// The results are reused after a restart
+		cache = new PostProcessingCache(UTF_8, cacheDir, "config1");
+		Assert.assertEquals("A", process(cache, "/a.js", "a"));
+		Assert.assertEquals(1, processor.count);
+
+		// The results are discarded if the config has changed
+		cache = new PostProcessingCache(UTF_8, cacheDir, "config2");
+		Assert.assertEquals("A", process(cache, "/a.js", "a"));
+		Assert.assertEquals(2, processor.count);
+	}
+
+	private String process(PostProcessingCache cache, String path, String content) {
+		return processor.postProcessBundle(createStatus(cache, path), new StringBuffer(content)).toString();
+	}
+
+	private BundleProcessingStatus createStatus(PostProcessingCache cache, String path) {
+		BundleProcessingStatus status = new BundleProcessingStatus(BundleProcessingStatus.FILE_PROCESSING_TYPE,
+				bundle, null, config);
+		status.setLastPathAdded(path);
+		status.setPostProcessingCache(cache);
+		return status;
+	}
+
+	private static class CountingPostProcessor extends AbstractChainedResourceBundlePostProcessor {
+
+		private int count;
+
+		public CountingPostProcessor() {
+			super("counting");
+			this.cacheable = true;
+		}
+
+		@Override
+		protected StringBuffer doPostProcessBundle(BundleProcessingStatus status, StringBuffer bundleData)
+				throws IOException {
+			count++;
+			return new StringBuffer(bundleData.toString().toUpperCase());
+		}
+	}
+}
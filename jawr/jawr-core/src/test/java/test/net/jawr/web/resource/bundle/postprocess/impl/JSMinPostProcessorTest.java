@@ -9,6 +9,9 @@ import java.nio.charset.Charset;
 import java.util.Properties;
 
 import net.jawr.web.config.JawrConfig;
+import net.jawr.web.exception.BundlingProcessException;
+import net.jawr.web.minification.JSMin;
+import net.jawr.web.minification.JSMin.JSMinException;
 import net.jawr.web.resource.bundle.JoinableResourceBundle;
 import net.jawr.web.resource.bundle.postprocess.BundleProcessingStatus;
 import net.jawr.web.resource.bundle.postprocess.impl.JSMinPostProcessor;
@@ -138,4 +141,36 @@ public class JSMinPostProcessorTest {
 		assertEquals("function test(mStyle){return/(url\\s*\\(.*?){3}/.test(mStyle.background);}", ret.toString());
 	}
 	
+	@Test
+	public void testPostProcessCRLFLineEndings() {
+		String script = "var a = 1\r\nvar b = 'é'\r\n\r\n// comment\r\nalert(a + b)";
+		JawrConfig config = new JawrConfig("js", new Properties());
+		config.setCharsetName("ISO-8859-1");
+		JSMinPostProcessor processor = new JSMinPostProcessor();
+		BundleProcessingStatus status = new BundleProcessingStatus(BundleProcessingStatus.BUNDLE_PROCESSING_TYPE, bundle,null,config);
+		StringBuffer ret = processor.postProcessBundle(status, new StringBuffer(script));
+
+		assertEquals("var a=1\nvar b='é'\nalert(a+b);", ret.toString());
+	}
+
+	@Test
+	public void testPostProcessUnterminatedString() {
+		String script = "var a = 1;\r\nvar b = 'é;";
+		JawrConfig config = new JawrConfig("js", new Properties());
+		config.setCharsetName("UTF-8");
+		JSMinPostProcessor processor = new JSMinPostProcessor();
+		BundleProcessingStatus status = new BundleProcessingStatus(BundleProcessingStatus.BUNDLE_PROCESSING_TYPE, bundle,null,config);
+		try {
+			processor.postProcessBundle(status, new StringBuffer(script));
+			fail("An exception should have been thrown");
+		} catch (BundlingProcessException e) {
+			Assert.assertTrue(e.getCause() instanceof JSMin.UnterminatedStringLiteralException);
+			JSMinException cause = (JSMinException) e.getCause();
+			assertEquals(1, cause.getLine());
+			assertEquals(script.length(), cause.getByteIndex());
+			Assert.assertTrue(e.getMessage().contains("(line 1; col. " + cause.getColumn() + ")"));
+			Assert.assertTrue(e.getMessage().contains("...var a = 1;\r\nvar b = 'é;"));
+		}
+	}
+
 }
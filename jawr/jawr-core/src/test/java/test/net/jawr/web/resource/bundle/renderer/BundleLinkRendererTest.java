@@ -25,6 +25,7 @@ import net.jawr.web.resource.bundle.renderer.BundleRenderer;
 import net.jawr.web.resource.bundle.renderer.BundleRendererContext;
 import net.jawr.web.resource.bundle.renderer.CSSHTMLBundleLinkRenderer;
 import net.jawr.web.resource.bundle.renderer.JavascriptHTMLBundleLinkRenderer;
+import net.jawr.web.resource.bundle.renderer.RenderedLinksCache;
 import net.jawr.web.resource.handler.bundle.ResourceBundleHandler;
 import net.jawr.web.resource.handler.reader.ResourceReaderHandler;
 import net.jawr.web.util.StringUtils;
@@ -1729,4 +1730,49 @@ public class BundleLinkRendererTest extends ResourceHandlerBasedTest {
 
 	}
 
+	@Test
+	public void testRenderedLinksCache() {
+		jawrConfig.setDebugModeOn(false);
+
+		RenderedLinksCache cache = jsHandler.getRenderedLinksCache();
+		bundleRendererCtx = new BundleRendererContext(JS_CTX_PATH, null, false,
+				false);
+		String result = renderToString(jsRenderer, "/js/one/one2.js",
+				bundleRendererCtx);
+		assertEquals("Invalid number of tags written. ", 4,
+				new StringTokenizer(result, "\n").countTokens());
+
+		// The global links and the bundle links are cached
+		assertEquals(2, cache.size());
+
+		// The same links are rendered for another page
+		bundleRendererCtx = new BundleRendererContext(JS_CTX_PATH, null, false,
+				false);
+		assertEquals(result, renderToString(jsRenderer, "/js/one/one2.js",
+				bundleRendererCtx));
+		assertEquals(2, cache.size());
+
+		// The links are cached by rendering flavor
+		JavascriptHTMLBundleLinkRenderer asyncRenderer = new JavascriptHTMLBundleLinkRenderer();
+		asyncRenderer.init(jsHandler, null, true, true, false, null);
+		bundleRendererCtx = new BundleRendererContext(JS_CTX_PATH, null, false,
+				false);
+		String asyncResult = renderToString(asyncRenderer, "/js/one/one2.js",
+				bundleRendererCtx);
+		assertTrue(asyncResult.contains(JS_WITH_ASYNC_POST_TAG));
+		assertFalse(result.contains(JS_WITH_ASYNC_POST_TAG));
+		assertEquals(4, cache.size());
+
+		// The cache is cleared by the bundling process
+		cache.beforeBundlingProcess();
+		assertEquals(0, cache.size());
+
+		// The links are not cached in debug mode
+		jawrConfig.setDebugModeOn(true);
+		bundleRendererCtx = new BundleRendererContext(JS_CTX_PATH, null, false,
+				false);
+		renderToString(jsRenderer, "/js/one/one2.js", bundleRendererCtx);
+		assertEquals(0, cache.size());
+	}
+
 }
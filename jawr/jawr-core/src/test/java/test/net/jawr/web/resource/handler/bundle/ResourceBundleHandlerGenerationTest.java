@@ -0,0 +1,286 @@
+/**
+ * Copyright 2017 Ibrahim Chaehoi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package test.net.jawr.web.resource.handler.bundle;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.nio.charset.Charset;
+import java.util.Properties;
+
+import javax.servlet.ServletContext;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Matchers;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import net.jawr.web.JawrConstant;
+import net.jawr.web.context.ThreadLocalJawrContext;
+import net.jawr.web.resource.bundle.IOUtils;
+import net.jawr.web.resource.bundle.JoinableResourceBundleContent;
+import net.jawr.web.resource.bundle.generator.GeneratorRegistry;
+import net.jawr.web.resource.handler.bundle.ResourceBundleHandler;
+import net.jawr.web.resource.handler.bundle.ServletContextResourceBundleHandler;
+import test.net.jawr.web.FileUtils;
+
+/**
+ * Test case for the generations of the stored bundles
+ *
+ * @author Ibrahim Chaehoi
+ */
+public class ResourceBundleHandlerGenerationTest {
+
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+	private File tempDir;
+
+	private ServletContext context;
+
+	private ResourceBundleHandler handler;
+
+	@Before
+	public void setUp() throws Exception {
+
+		// The handlers of the previous tests are still alive, so each test
+		// uses its own directory
+		File rootDir = new File(FileUtils.getClasspathRootDir(), "bundleGenerations");
+		FileUtils.clearDirectory(rootDir.getAbsolutePath());
+		tempDir = new File(rootDir, Long.toString(System.nanoTime()));
+		tempDir.mkdirs();
+
+		context = mock(ServletContext.class);
+		when(context.getAttribute(JawrConstant.SERVLET_CONTEXT_TEMPDIR)).thenReturn(tempDir);
+		handler = createHandler();
+		store("/bundle/msg.js", "var msg = 'v1';");
+	}
+
+	@Test
+	public void testBundleReplacedInNewGeneration() throws Exception {
+
+		Reader oldReader = handler.getResourceBundleReader("/bundle/msg.js");
+
+		handler.startGeneration();
+		store("/bundle/msg.js", "var msg = 'v2';");
+		Assert.assertEquals(0, handler.getCurrentGeneration());
+
+		// The generation being built is never read
+		Assert.assertEquals("var msg = 'v1';", read(handler.getResourceBundleReader("/bundle/msg.js")));
+
+		handler.commitGeneration();
+		Assert.assertEquals(1, handler.getCurrentGeneration());
+		Assert.assertEquals("var msg = 'v2';", read(handler.getResourceBundleReader("/bundle/msg.js")));
+
+		// The requests which have started before still read the whole old
+		// content
+		Assert.assertEquals("var msg = 'v1';", read(oldReader));
+	}
+
+	@Test
+	public void testUnchangedBundleKeptInNewGeneration() throws Exception {
+
+		store("/bundle/lib.js", "var lib;");
+
+		handler.startGeneration();
+		store("/bundle/msg.js", "var msg = 'v2';");
+		handler.commitGeneration();
+
+		Assert.assertEquals("var lib;", read(handler.getResourceBundleReader("/bundle/lib.js")));
+		Assert.assertNotNull(handler.getResourceBundleFile("/bundle/lib.js", true));
+	}
+
+	@Test
+	public void testDiscardedGenerationNotUsed() throws Exception {
+
+		handler.startGeneration();
+		store("/bundle/msg.js", "var msg = 'v2';");
+		handler.discardGeneration();
+
+		Assert.assertEquals(0, handler.getCurrentGeneration());
+		Assert.assertEquals("var msg = 'v1';", read(handler.getResourceBundleReader("/bundle/msg.js")));
+		Assert.assertFalse(new File(getGenerationsDir(), "1").exists());
+	}
+
+	@Test
+	public void testCurrentGenerationUsedAfterRestart() throws Exception {
+
+		handler.startGeneration();
+		store("/bundle/msg.js", "var msg = 'v2';");
+		Properties mapping = new Properties();
+		mapping.setProperty("/bundle/msg.js", "12345");
+		handler.storeJawrBundleMapping(mapping);
+		handler.commitGeneration();
+
+		handler = createHandler();
+		Assert.assertEquals(1, handler.getCurrentGeneration());
+		Assert.assertEquals("var msg = 'v2';", read(handler.getResourceBundleReader("/bundle/msg.js")));
+		Assert.assertEquals("12345", handler.getJawrBundleMapping().getProperty("/bundle/msg.js"));
+	}
+
+	@Test
+	public void testReplacedGenerationRemovedOnceSupersededTwice() throws Exception {
+
+		for (int i = 2; i <= 4; i++) {
+			handler.startGeneration();
+			store("/bundle/msg.js", "var msg = 'v" + i + "';");
+			handler.commitGeneration();
+		}
+
+		// The generation replaced by the current one may still be sent by
+		// the container
+		File generationsDir = getGenerationsDir();
+		Assert.assertFalse(new File(generationsDir, "1").exists());
+		Assert.assertTrue(new File(generationsDir, "2").isDirectory());
+		Assert.assertTrue(new File(generationsDir, "3").isDirectory());
+		Assert.assertEquals("var msg = 'v4';", read(handler.getResourceBundleReader("/bundle/msg.js")));
+	}
+
+	@Test
+	public void testReplacedGenerationKeptWhileRead() throws Exception {
+
+		handler.startGeneration();
+		store("/bundle/msg.js", "var msg = 'v2';");
+		handler.commitGeneration();
+
+		Reader reader = handler.getResourceBundleReader("/bundle/msg.js");
+		for (int i = 3; i <= 4; i++) {
+			handler.startGeneration();
+			store("/bundle/msg.js", "var msg = 'v" + i + "';");
+			handler.commitGeneration();
+		}
+
+		File generationDir = new File(getGenerationsDir(), "1");
+		Assert.assertTrue(generationDir.isDirectory());
+		Assert.assertEquals("var msg = 'v2';", read(reader));
+
+		// The generation is removed once its last reader is closed
+		Assert.assertFalse(generationDir.exists());
+	}
+
+	@Test
+	public void testUnchangedBundlesDontCreateGeneration() throws Exception {
+
+		handler.startGeneration();
+		store("/bundle/msg.js", "var msg = 'v1';");
+		Properties mapping = new Properties();
+		mapping.setProperty("/bundle/msg.js", "12345");
+		handler.storeJawrBundleMapping(mapping);
+		handler.commitGeneration();
+
+		Assert.assertEquals(0, handler.getCurrentGeneration());
+		Assert.assertFalse(new File(getGenerationsDir(), "1").exists());
+		Assert.assertEquals("12345", handler.getJawrBundleMapping().getProperty("/bundle/msg.js"));
+	}
+
+	@Test
+	public void testNoGenerationAtBuildTime() throws Exception {
+
+		ThreadLocalJawrContext.setBundleProcessingAtBuildTime(true);
+		try {
+			handler.startGeneration();
+			store("/bundle/msg.js", "var msg = 'v2';");
+			handler.commitGeneration();
+		} finally {
+			ThreadLocalJawrContext.setBundleProcessingAtBuildTime(false);
+		}
+
+		// The bundles are packaged from the working directory itself
+		Assert.assertEquals(0, handler.getCurrentGeneration());
+		Assert.assertFalse(getGenerationsDir().exists());
+		Assert.assertTrue(new File(tempDir, JawrConstant.JAWR_WRK_DIR + "/text/bundle/msg.js").isFile());
+	}
+
+	@Test
+	public void testCurrentGenerationOfWebAppWorkingDirectory() throws Exception {
+
+		handler.startGeneration();
+		store("/bundle/msg.js", "var msg = 'v2';");
+		handler.storeJawrBundleMapping(new Properties());
+		handler.commitGeneration();
+
+		// The working directory is packaged in the web application
+		final String workingDir = "/WEB-INF/jawrTmp";
+		when(context.getResourceAsStream(Matchers.anyString())).thenAnswer(new Answer<InputStream>() {
+
+			@Override
+			public InputStream answer(InvocationOnMock invocation) throws Throwable {
+				String path = (String) invocation.getArguments()[0];
+				File file = new File(tempDir, JawrConstant.JAWR_WRK_DIR + path.substring(workingDir.length()));
+				return file.isFile() ? new FileInputStream(file) : null;
+			}
+		});
+		handler = new ServletContextResourceBundleHandler(context, workingDir, UTF_8, new GeneratorRegistry(),
+				JawrConstant.JS_TYPE);
+
+		Assert.assertEquals(1, handler.getCurrentGeneration());
+		Assert.assertEquals("var msg = 'v2';", read(handler.getResourceBundleReader("/bundle/msg.js")));
+	}
+
+	@Test
+	public void testGenerationsOfPreviousStartupRemoved() throws Exception {
+
+		File staleDir = new File(getGenerationsDir(), "7");
+		Assert.assertTrue(staleDir.mkdirs());
+
+		handler.startGeneration();
+		store("/bundle/msg.js", "var msg = 'v2';");
+		handler.commitGeneration();
+
+		Assert.assertFalse(staleDir.exists());
+	}
+
+	@Test
+	public void testBundleSizeOfCurrentGeneration() throws Exception {
+
+		long size = handler.getResourceBundleSize("/bundle/msg.js", "gzip");
+
+		handler.startGeneration();
+		store("/bundle/msg.js", "var msg = 'version 2';");
+		Assert.assertEquals(size, handler.getResourceBundleSize("/bundle/msg.js", "gzip"));
+
+		handler.commitGeneration();
+		Assert.assertTrue(handler.getResourceBundleSize("/bundle/msg.js", "gzip") > size);
+	}
+
+	private File getGenerationsDir() {
+		return new File(tempDir, JawrConstant.JAWR_WRK_DIR + "/generations/js");
+	}
+
+	private void store(String bundleName, String content) {
+		handler.storeBundle(bundleName, new JoinableResourceBundleContent(new StringBuffer(content)));
+	}
+
+	private ResourceBundleHandler createHandler() {
+		return new ServletContextResourceBundleHandler(context, UTF_8, new GeneratorRegistry(),
+				JawrConstant.JS_TYPE);
+	}
+
+	private String read(Reader reader) throws IOException {
+		StringWriter writer = new StringWriter();
+		try {
+			IOUtils.copy(reader, writer);
+		} finally {
+			IOUtils.close(reader);
+		}
+		return writer.toString();
+	}
+}
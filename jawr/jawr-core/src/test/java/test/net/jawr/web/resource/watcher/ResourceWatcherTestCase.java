@@ -18,6 +18,7 @@ import java.io.FileWriter;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Properties;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -32,12 +33,14 @@ import org.mockito.invocation.InvocationOnMock;
 import org.mockito.runners.MockitoJUnitRunner;
 import org.mockito.stubbing.Answer;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -73,6 +76,8 @@ public class ResourceWatcherTestCase {
 	private JoinableResourceBundle b;
 
 	private AtomicBoolean processingBundle;
+
+	private JawrConfig config;
 	
 	private int waitTime = 500;
 
@@ -87,7 +92,7 @@ public class ResourceWatcherTestCase {
 		String travisFlag = System.getenv("TRAVIS");
 		Assume.assumeTrue(StringUtils.isEmpty(travisFlag));
 		
-		JawrConfig config = new JawrConfig(JawrConstant.JS_TYPE, new Properties());
+		config = new JawrConfig(JawrConstant.JS_TYPE, new Properties());
 		GeneratorRegistry registry = new GeneratorRegistry(JawrConstant.JS_TYPE);
 		registry.setConfig(config);
 		config.setGeneratorRegistry(registry);
@@ -113,6 +118,18 @@ public class ResourceWatcherTestCase {
 			}
 		}).when(bundlesHandler).notifyModification(Matchers.eq(Arrays.asList(b)));
 
+		// The notification of a file modification is handled as the
+		// notification of the modification of the bundles
+		doAnswer(new Answer<Object>() {
+
+			@SuppressWarnings("unchecked")
+			@Override
+			public Object answer(InvocationOnMock invocation) throws Throwable {
+				bundlesHandler.notifyModification((List<JoinableResourceBundle>) invocation.getArguments()[0]);
+				return null;
+			}
+		}).when(bundlesHandler).notifyModification(Matchers.anyListOf(JoinableResourceBundle.class),
+				Matchers.anyString());
 	
 	}
 
@@ -767,4 +784,65 @@ public class ResourceWatcherTestCase {
 		
 		verify(bundlesHandler, atLeastOnce()).notifyModification(Matchers.eq(Arrays.asList(b)));
 	}
+
+	@Test
+	public void testCreateManyAssetsInDirMappingCoalesced() throws Exception {
+
+		setBundleMapping("/js/lib/chart/");
+
+		File f = FileUtils.getClassPathFile("watcher/js/lib/chart/");
+		String path = f.getAbsolutePath();
+		when(rsReader.getFilePath("/js/lib/chart/")).thenReturn(path);
+
+		List<File> filesToCreate = new ArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			File fToCreate = new File(f, "batchScript" + i + ".js");
+			deleteFileIfExists(fToCreate);
+			filesToCreate.add(fToCreate);
+		}
+
+		initWatcher();
+		watcher.start();
+
+		// Create and modify the files in a single batch
+		for (File fToCreate : filesToCreate) {
+			createOrModifyFile(fToCreate);
+			createOrModifyFile(fToCreate);
+		}
+
+		// Wait a little bit
+		Thread.sleep(waitTime);
+		watcher.stopWatching();
+		verify(bundlesHandler, times(1)).notifyModification(Matchers.eq(Arrays.asList(b)));
+		assertEquals(0, watcher.getEventQueueSize());
+		assertTrue(watcher.getEventCoalescingRatio() > 1);
+
+		for (File fToCreate : filesToCreate) {
+			deleteFile(fToCreate);
+		}
+	}
+
+	@Test
+	public void testRebuildOnChange() throws Exception {
+
+		config.setSmartBundlingRebuildOnChange(true);
+		when(bundlesHandler.bundlesNeedToBeRebuild()).thenReturn(true);
+		setBundleMapping("/js/lib/chart/");
+
+		File f = FileUtils.getClassPathFile("watcher/js/lib/chart/");
+		String path = f.getAbsolutePath();
+		when(rsReader.getFilePath("/js/lib/chart/")).thenReturn(path);
+
+		initWatcher();
+		watcher.start();
+
+		// Modify the files
+		createOrModifyFile(f, "/chart.js");
+		createOrModifyFile(f, "/scriptToBeCreated.js");
+
+		// Wait a little bit
+		Thread.sleep(waitTime);
+		watcher.stopWatching();
+		verify(bundlesHandler, times(1)).rebuildModifiedBundles();
+	}
 }
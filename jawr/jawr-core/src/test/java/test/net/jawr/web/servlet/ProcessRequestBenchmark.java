@@ -0,0 +1,325 @@
+package test.net.jawr.web.servlet;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import net.jawr.web.JawrConstant;
+import net.jawr.web.resource.bundle.JoinableResourceBundle;
+import net.jawr.web.resource.bundle.handler.ResourceBundlesHandler;
+import net.jawr.web.resource.bundle.renderer.BundleRenderer;
+import net.jawr.web.servlet.JawrRequestHandler;
+import test.net.jawr.web.servlet.mock.MockServletContext;
+
+/**
+ * Micro benchmark of the production request path of the Jawr request
+ * handler, for a 'not modified' response, a bundle sent as text and a gzipped
+ * bundle. The request and the response are stubs which don't allocate, so the
+ * allocation reported by the GC profiler (gc.alloc.rate.norm) is the one of
+ * the request handling.
+ *
+ * The benchmark is not executed by the unit tests. Run the main method using
+ * the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProcessRequestBenchmark {
+
+	private File baseDir;
+
+	private JawrRequestHandler handler;
+
+	private String plainPath;
+
+	private String gzipPath;
+
+	private StubRequest notModifiedRequest;
+
+	private StubRequest plainRequest;
+
+	private StubRequest gzipRequest;
+
+	private StubResponse response;
+
+	@Setup
+	public void setup() throws Exception {
+
+		baseDir = Files.createTempDirectory("jawr-benchmark").toFile();
+		File webappDir = new File(baseDir, "webapp");
+		File jsDir = new File(webappDir, "js");
+		File tempDir = new File(baseDir, "temp");
+		jsDir.mkdirs();
+		tempDir.mkdirs();
+		StringBuilder content = new StringBuilder();
+		for (int i = 0; i < 200; i++) {
+			content.append("function f").append(i).append("() { return ").append(i).append("; }\n");
+		}
+		Files.write(new File(jsDir, "lib.js").toPath(), content.toString().getBytes(StandardCharsets.UTF_8));
+
+		MockServletContext servletContext = new MockServletContext(webappDir.getAbsolutePath(),
+				tempDir.getAbsolutePath());
+		Map<String, Object> initParams = new HashMap<>();
+		initParams.put("type", JawrConstant.JS_TYPE);
+		Properties props = new Properties();
+		props.setProperty("jawr.js.bundle.lib.id", "/bundles/lib.js");
+		props.setProperty("jawr.js.bundle.lib.mappings", "/js/lib.js");
+		handler = new JawrRequestHandler(servletContext, initParams, props);
+
+		ResourceBundlesHandler bundlesHandler = (ResourceBundlesHandler) servletContext
+				.getAttribute(JawrConstant.JS_CONTEXT_ATTRIBUTE);
+		JoinableResourceBundle bundle = bundlesHandler.resolveBundleForPath("/bundles/lib.js");
+		String prefix = bundle.getURLPrefix(null);
+		plainPath = JawrConstant.URL_SEPARATOR + prefix + "bundles/lib.js";
+		gzipPath = BundleRenderer.GZIP_PATH_PREFIX + prefix + "bundles/lib.js";
+
+		response = new StubResponse();
+		plainRequest = new StubRequest(null);
+		gzipRequest = new StubRequest("gzip");
+
+		// Retrieve the entity tag of the bundle
+		response.status = HttpServletResponse.SC_OK;
+		handler.processRequest(plainPath, plainRequest, response);
+		if (response.status != HttpServletResponse.SC_OK || response.eTag == null) {
+			throw new IllegalStateException("The bundle " + plainPath + " is not served");
+		}
+		notModifiedRequest = new StubRequest(null);
+		notModifiedRequest.ifNoneMatch = response.eTag;
+	}
+
+	@TearDown
+	public void tearDown() throws Exception {
+		handler.destroy();
+		delete(baseDir);
+	}
+
+	@Benchmark
+	public int notModified() throws Exception {
+		response.status = HttpServletResponse.SC_OK;
+		handler.processRequest(plainPath, notModifiedRequest, response);
+		return response.status;
+	}
+
+	@Benchmark
+	public int plainBundle() throws Exception {
+		response.status = HttpServletResponse.SC_OK;
+		handler.processRequest(plainPath, plainRequest, response);
+		return response.status;
+	}
+
+	@Benchmark
+	public int gzipBundle() throws Exception {
+		response.status = HttpServletResponse.SC_OK;
+		handler.processRequest(gzipPath, gzipRequest, response);
+		return response.status;
+	}
+
+	private static void delete(File file) {
+		File[] children = file.listFiles();
+		if (children != null) {
+			for (File child : children) {
+				delete(child);
+			}
+		}
+		file.delete();
+	}
+
+	/**
+	 * Creates a proxy returning the default value of each method, used for the
+	 * methods which are not called on the request path
+	 */
+	@SuppressWarnings("unchecked")
+	private static <T> T defaultProxy(Class<T> type) {
+		return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, new InvocationHandler() {
+
+			@Override
+			public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+				Class<?> returnType = method.getReturnType();
+				if (returnType == boolean.class) {
+					return Boolean.FALSE;
+				} else if (returnType == int.class) {
+					return Integer.valueOf(0);
+				} else if (returnType == long.class) {
+					return Long.valueOf(-1);
+				}
+				return null;
+			}
+		});
+	}
+
+	/**
+	 * The request stub
+	 */
+	private static class StubRequest extends HttpServletRequestWrapper {
+
+		private final String acceptEncoding;
+
+		private String ifNoneMatch;
+
+		StubRequest(String acceptEncoding) {
+			super(defaultProxy(HttpServletRequest.class));
+			this.acceptEncoding = acceptEncoding;
+		}
+
+		@Override
+		public String getHeader(String name) {
+			if ("Accept-Encoding".equals(name)) {
+				return acceptEncoding;
+			} else if ("If-None-Match".equals(name)) {
+				return ifNoneMatch;
+			}
+			return null;
+		}
+
+		@Override
+		public long getDateHeader(String name) {
+			return -1;
+		}
+
+		@Override
+		public String getParameter(String name) {
+			return null;
+		}
+
+		@Override
+		public Object getAttribute(String name) {
+			return null;
+		}
+
+		@Override
+		public String getContextPath() {
+			return "/benchmark";
+		}
+
+		@Override
+		public StringBuffer getRequestURL() {
+			return new StringBuffer("http://localhost/benchmark/jawr");
+		}
+
+		@Override
+		public String getRequestURI() {
+			return "/benchmark/jawr";
+		}
+	}
+
+	/**
+	 * The response stub, which discards the content
+	 */
+	private static class StubResponse extends HttpServletResponseWrapper {
+
+		private final ServletOutputStream out = new ServletOutputStream() {
+
+			@Override
+			public void write(int b) throws IOException {
+			}
+
+			@Override
+			public void write(byte[] b, int off, int len) throws IOException {
+			}
+		};
+
+		private final PrintWriter writer = new PrintWriter(new Writer() {
+
+			@Override
+			public void write(char[] cbuf, int off, int len) throws IOException {
+			}
+
+			@Override
+			public void flush() throws IOException {
+			}
+
+			@Override
+			public void close() throws IOException {
+			}
+		});
+
+		private int status;
+
+		private String eTag;
+
+		StubResponse() {
+			super(defaultProxy(HttpServletResponse.class));
+		}
+
+		@Override
+		public void setHeader(String name, String value) {
+			if ("ETag".equals(name)) {
+				eTag = value;
+			}
+		}
+
+		@Override
+		public void addHeader(String name, String value) {
+		}
+
+		@Override
+		public void setDateHeader(String name, long date) {
+		}
+
+		@Override
+		public void setStatus(int sc) {
+			status = sc;
+		}
+
+		@Override
+		public void sendError(int sc) throws IOException {
+			status = sc;
+		}
+
+		@Override
+		public void setContentType(String type) {
+		}
+
+		@Override
+		public ServletOutputStream getOutputStream() throws IOException {
+			return out;
+		}
+
+		@Override
+		public PrintWriter getWriter() throws IOException {
+			return writer;
+		}
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		Options opt = new OptionsBuilder().include(ProcessRequestBenchmark.class.getSimpleName())
+				.addProfiler(GCProfiler.class).build();
+		new Runner(opt).run();
+	}
+}
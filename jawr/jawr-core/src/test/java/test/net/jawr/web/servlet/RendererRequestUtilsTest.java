@@ -0,0 +1,86 @@
+/**
+ * Copyright 2017 Ibrahim Chaehoi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package test.net.jawr.web.servlet;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import net.jawr.web.servlet.RendererRequestUtils;
+
+/**
+ * RendererRequestUtils test case
+ *
+ * @author Ibrahim Chaehoi
+ */
+public class RendererRequestUtilsTest {
+
+	@Test
+	public void testAcceptedEncodings() {
+
+		Assert.assertEquals(Arrays.asList("gzip", "deflate", "br"),
+				RendererRequestUtils.getAcceptedEncodings(createRequest("gzip, deflate, br")));
+		Assert.assertEquals(Arrays.asList("br", "gzip"),
+				RendererRequestUtils.getAcceptedEncodings(createRequest("BR;q=1.0, gzip ; q=0.8, zstd;q=0")));
+		Assert.assertEquals(Collections.emptyList(), RendererRequestUtils.getAcceptedEncodings(createRequest(null)));
+	}
+
+	@Test
+	public void testNotModified() {
+
+		String eTag = "\"N1266058766-gzip\"";
+		long lastModified = 1500000000000L;
+
+		Assert.assertFalse(RendererRequestUtils.isNotModified(createConditionalRequest(null, -1), eTag, lastModified));
+		Assert.assertTrue(RendererRequestUtils.isNotModified(createConditionalRequest(eTag, -1), eTag, lastModified));
+		Assert.assertTrue(RendererRequestUtils
+				.isNotModified(createConditionalRequest("\"other\", W/" + eTag, -1), eTag, lastModified));
+		Assert.assertTrue(RendererRequestUtils.isNotModified(createConditionalRequest("*", -1), null, lastModified));
+
+		// The etag of another content coding doesn't match
+		Assert.assertFalse(RendererRequestUtils.isNotModified(createConditionalRequest("\"N1266058766-zstd\"", -1),
+				eTag, lastModified));
+
+		// If-Modified-Since is ignored when If-None-Match is present
+		Assert.assertFalse(RendererRequestUtils.isNotModified(createConditionalRequest("\"other\"", lastModified),
+				eTag, lastModified));
+
+		Assert.assertTrue(
+				RendererRequestUtils.isNotModified(createConditionalRequest(null, lastModified), eTag, lastModified));
+		Assert.assertFalse(RendererRequestUtils.isNotModified(createConditionalRequest(null, lastModified - 1000),
+				eTag, lastModified));
+	}
+
+	private HttpServletRequest createConditionalRequest(String ifNoneMatch, long ifModifiedSince) {
+
+		HttpServletRequest request = mock(HttpServletRequest.class);
+		when(request.getHeader("If-None-Match")).thenReturn(ifNoneMatch);
+		when(request.getDateHeader("If-Modified-Since")).thenReturn(ifModifiedSince);
+		return request;
+	}
+
+	private HttpServletRequest createRequest(String acceptEncoding) {
+
+		HttpServletRequest request = mock(HttpServletRequest.class);
+		when(request.getHeader("Accept-Encoding")).thenReturn(acceptEncoding);
+		return request;
+	}
+}
@@ -0,0 +1,57 @@
+/**
+ * Copyright 2017 Ibrahim Chaehoi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package test.net.jawr.web.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import net.jawr.web.util.LRUCache;
+
+/**
+ * LRUCache test case
+ *
+ * @author Ibrahim Chaehoi
+ */
+public class LRUCacheTestCase {
+
+	@Test
+	public void testEvictLeastRecentlyUsed() throws Exception {
+
+		LRUCache<String, Integer> cache = new LRUCache<>(2);
+		cache.put("a", 1);
+		Thread.sleep(1);
+		cache.put("b", 2);
+		Thread.sleep(1);
+
+		// Access "a" so "b" becomes the least recently used element
+		Assert.assertEquals(Integer.valueOf(1), cache.get("a"));
+		Thread.sleep(1);
+		cache.put("c", 3);
+
+		Assert.assertEquals(2, cache.size());
+		Assert.assertEquals(Integer.valueOf(1), cache.get("a"));
+		Assert.assertNull(cache.get("b"));
+		Assert.assertEquals(Integer.valueOf(3), cache.get("c"));
+	}
+
+	@Test
+	public void testClear() {
+
+		LRUCache<String, Integer> cache = new LRUCache<>(2);
+		cache.put("a", 1);
+		cache.clear();
+		Assert.assertEquals(0, cache.size());
+		Assert.assertNull(cache.get("a"));
+	}
+}
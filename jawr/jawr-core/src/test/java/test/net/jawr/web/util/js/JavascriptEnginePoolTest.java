@@ -0,0 +1,102 @@
+/**
+ * Copyright 2017 Ibrahim Chaehoi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package test.net.jawr.web.util.js;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import net.jawr.web.JawrConstant;
+import net.jawr.web.util.js.JavascriptEngine;
+import net.jawr.web.util.js.JavascriptEngineInitializer;
+import net.jawr.web.util.js.JavascriptEnginePool;
+
+/**
+ * Test case for the pool of Javascript engines
+ *
+ * @author Ibrahim Chaehoi
+ */
+public class JavascriptEnginePoolTest {
+
+	private static final Map<String, String> LIBRARIES = Collections.singletonMap("lib.js",
+			"function greet(name){ return prefix + name; }");
+
+	private JavascriptEnginePool createPool(int size) {
+		return new JavascriptEnginePool(JawrConstant.DEFAULT_JS_ENGINE, false, size, LIBRARIES,
+				new JavascriptEngineInitializer() {
+
+					@Override
+					public void initialize(JavascriptEngine engine) {
+						engine.evaluate("init.js", "var prefix = 'Hello ';");
+					}
+				});
+	}
+
+	@Test
+	public void testLibrariesSharedByEngines() throws Exception {
+
+		JavascriptEnginePool pool = createPool(2);
+		JavascriptEngine engine1 = pool.borrowEngine();
+		JavascriptEngine engine2 = pool.borrowEngine();
+		Assert.assertNotSame(engine1, engine2);
+		Assert.assertEquals("Hello Bob", engine1.invokeFunction("greet", "Bob"));
+		Assert.assertEquals("Hello Alice", engine2.invokeFunction("greet", "Alice"));
+
+		// The engines don't share their state
+		engine1.evaluate("update.js", "prefix = 'Bye ';");
+		Assert.assertEquals("Bye Bob", engine1.invokeFunction("greet", "Bob"));
+		Assert.assertEquals("Hello Bob", engine2.invokeFunction("greet", "Bob"));
+
+		pool.returnEngine(engine1);
+		pool.returnEngine(engine2);
+	}
+
+	@Test
+	public void testBorrowWaitsForReturnedEngine() throws Exception {
+
+		final JavascriptEnginePool pool = createPool(1);
+		JavascriptEngine engine = pool.borrowEngine();
+
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			Future<JavascriptEngine> borrowed = executor.submit(new Callable<JavascriptEngine>() {
+
+				@Override
+				public JavascriptEngine call() throws Exception {
+					return pool.borrowEngine();
+				}
+			});
+
+			try {
+				borrowed.get(200, TimeUnit.MILLISECONDS);
+				Assert.fail("No engine should be available");
+			} catch (TimeoutException e) {
+				// The pool is full
+			}
+
+			pool.returnEngine(engine);
+			Assert.assertSame(engine, borrowed.get(5, TimeUnit.SECONDS));
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+}
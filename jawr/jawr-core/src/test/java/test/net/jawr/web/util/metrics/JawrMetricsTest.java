@@ -0,0 +1,138 @@
+/**
+ * Copyright 2017 Ibrahim Chaehoi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package test.net.jawr.web.util.metrics;
+
+import java.util.Collections;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import net.jawr.web.util.metrics.JawrMetrics;
+import net.jawr.web.util.metrics.LatencyHistogram;
+import net.jawr.web.util.metrics.StripedCounter;
+
+/**
+ * Test case for the metrics of the requests and of the bundling processes
+ *
+ * @author Ibrahim Chaehoi
+ */
+public class JawrMetricsTest {
+
+	@Test
+	public void testStripedCounterConcurrentUpdates() throws Exception {
+
+		final StripedCounter counter = new StripedCounter();
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		for (int i = 0; i < 8; i++) {
+			executor.submit(new Runnable() {
+
+				@Override
+				public void run() {
+					for (int j = 0; j < 10000; j++) {
+						counter.increment();
+					}
+				}
+			});
+		}
+		executor.shutdown();
+		Assert.assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+		Assert.assertEquals(80000, counter.sum());
+
+		counter.reset();
+		Assert.assertEquals(0, counter.sum());
+	}
+
+	@Test
+	public void testHistogramPercentiles() {
+
+		LatencyHistogram histogram = new LatencyHistogram();
+		for (int i = 1; i <= 100; i++) {
+			histogram.record(TimeUnit.MILLISECONDS.toNanos(i));
+		}
+
+		Assert.assertEquals(100, histogram.getCount());
+		Assert.assertEquals(50.5, histogram.getMean(), 0.01);
+		Assert.assertEquals(100, histogram.getMax(), 0.01);
+
+		// The relative error of a percentile is below 12.5%
+		Assert.assertEquals(50, histogram.getPercentile(50), 50 * 0.125);
+		Assert.assertEquals(90, histogram.getPercentile(90), 90 * 0.125);
+		Assert.assertEquals(99, histogram.getPercentile(99), 99 * 0.125);
+		Assert.assertEquals(100, histogram.getPercentile(100), 0.01);
+		Assert.assertTrue(histogram.getPercentile(50) <= histogram.getPercentile(90));
+	}
+
+	@Test
+	public void testHistogramExtremeValues() {
+
+		LatencyHistogram histogram = new LatencyHistogram();
+		Assert.assertEquals(0, histogram.getPercentile(99), 0);
+
+		histogram.record(0);
+		histogram.record(TimeUnit.DAYS.toNanos(2));
+		Assert.assertEquals(2, histogram.getCount());
+		Assert.assertEquals(0, histogram.getPercentile(50), 0);
+		Assert.assertEquals(TimeUnit.DAYS.toMillis(2), histogram.getPercentile(100), 0.01);
+
+		histogram.reset();
+		Assert.assertEquals(0, histogram.getCount());
+		Assert.assertEquals(0, histogram.getMax(), 0);
+	}
+
+	@Test
+	public void testRequestsRecordedPerBundle() {
+
+		JawrMetrics metrics = new JawrMetrics();
+		metrics.setEnabled(true);
+		metrics.recordRequest("/bundles/app.js", TimeUnit.MILLISECONDS.toNanos(2));
+		metrics.recordRequest("/bundles/app.js", TimeUnit.MILLISECONDS.toNanos(4));
+		metrics.recordRequest(null, TimeUnit.MILLISECONDS.toNanos(1));
+		metrics.recordNotModified();
+		metrics.recordEncodedResponse(120);
+		metrics.recordTextResponse(300);
+		metrics.recordBundleNotFound();
+
+		Assert.assertEquals(3, metrics.getRequestCount());
+		Assert.assertEquals(3, metrics.getRequestLatency().getCount());
+		Assert.assertEquals(Collections.singleton("/bundles/app.js"), metrics.getRequestedBundleIds());
+		Assert.assertEquals(2, metrics.getBundleRequestLatency("/bundles/app.js").getCount());
+		Assert.assertEquals(1, metrics.getNotModifiedCount());
+		Assert.assertEquals(1, metrics.getEncodedResponseCount());
+		Assert.assertEquals(1, metrics.getPlainResponseCount());
+		Assert.assertEquals(120, metrics.getBytesServed());
+		Assert.assertEquals(300, metrics.getCharactersServed());
+		Assert.assertEquals(1, metrics.getBundleNotFoundCount());
+
+		metrics.reset();
+		Assert.assertEquals(0, metrics.getRequestCount());
+		Assert.assertTrue(metrics.getRequestedBundleIds().isEmpty());
+	}
+
+	@Test
+	public void testNothingRecordedWhenDisabled() {
+
+		JawrMetrics metrics = new JawrMetrics();
+		metrics.recordRequest("/bundles/app.js", TimeUnit.MILLISECONDS.toNanos(2));
+		metrics.recordTextResponse(300);
+		metrics.recordBundleJoin(TimeUnit.MILLISECONDS.toNanos(5));
+
+		Assert.assertEquals(0, metrics.getRequestCount());
+		Assert.assertEquals(0, metrics.getCharactersServed());
+		Assert.assertTrue(metrics.getRequestedBundleIds().isEmpty());
+		Assert.assertEquals(0, metrics.getBundleJoinLatency().getCount());
+	}
+}